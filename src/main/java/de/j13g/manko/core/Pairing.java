@@ -1,16 +1,33 @@
 package de.j13g.manko.core;
 
+import de.j13g.manko.core.managers.EntrantRegistry;
 import de.j13g.manko.util.UniformPair;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * A pairing between two entrants.
+ * Pairings are equal regardless of the order of their entrants. For comparing them,
+ * the entrants are put in a canonical order, ordered by their hash codes,
+ * and the hash code of the pairing is computed once.
+ * The order in which the entrants were passed is kept for everything else.
  * @param <E> The entrant type.
  */
 public class Pairing<E> extends UniformPair<E> implements Serializable {
 
+    /** The key of pairings with an entrant that has no id. */
+    public static final long NO_KEY = -1;
+
+    private transient int hash;
+
+    // If the canonical order is (second, first).
+    private transient boolean isSwapped;
+
+    // Entrants with equal hash codes have no canonical order.
+    private transient boolean isOrderAmbiguous;
+
     /**
      * Creates a pairing between two entrants.
      * @param first The first entrant.
@@ -18,6 +35,35 @@ public class Pairing<E> extends UniformPair<E> implements Serializable {
      */
     public Pairing(E first, E second) {
         super(first, second);
+        initTransient();
+    }
+
+    /**
+     * Computes a key that is equal for equal pairings,
+     * consisting of the ids of both entrants in ascending order.
+     * @param firstId The id of the first entrant.
+     * @param secondId The id of the second entrant.
+     * @return The key.
+     */
+    public static long key(int firstId, int secondId) {
+        int lowId = Math.min(firstId, secondId);
+        int highId = Math.max(firstId, secondId);
+        return (long) lowId << 32 | highId;
+    }
+
+    /**
+     * Computes the key of this pairing from the ids of its entrants.
+     * @see Pairing#key(int, int)
+     * @param registry The registry that assigned ids to the entrants.
+     * @return The key or {@link Pairing#NO_KEY} if an entrant has no id.
+     */
+    public long key(EntrantRegistry<E> registry) {
+        int firstId = registry.idOf(first);
+        int secondId = registry.idOf(second);
+        if (firstId == EntrantRegistry.NO_ID || secondId == EntrantRegistry.NO_ID)
+            return NO_KEY;
+
+        return key(firstId, secondId);
     }
 
     @Override
@@ -27,13 +73,42 @@ public class Pairing<E> extends UniformPair<E> implements Serializable {
             return false;
 
         Pairing<?> other = (Pairing<?>) o;
-        return first.equals(other.first) && second.equals(other.second)
-            || first.equals(other.second) && second.equals(other.first);
+        if (hash != other.hash)
+            return false;
+
+        Object low = getLow();
+        Object high = getHigh();
+        if (low.equals(other.getLow()) && high.equals(other.getHigh()))
+            return true;
+
+        return isOrderAmbiguous && low.equals(other.getHigh()) && high.equals(other.getLow());
     }
 
     @Override
     public int hashCode() {
-        // hash(a, b) + hash(b, a) == hash(b, a) + hash(a, b)
-        return Objects.hash(first, second) + Objects.hash(second, first);
+        return hash;
+    }
+
+    private E getLow() {
+        return isSwapped ? second : first;
+    }
+
+    private E getHigh() {
+        return isSwapped ? first : second;
+    }
+
+    private void initTransient() {
+        int firstHash = first.hashCode();
+        int secondHash = second.hashCode();
+
+        isSwapped = firstHash > secondHash;
+        isOrderAmbiguous = firstHash == secondHash;
+        hash = 31 * Math.min(firstHash, secondHash) + Math.max(firstHash, secondHash);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // Hash codes of the entrants may differ between runs.
+        initTransient();
     }
 }
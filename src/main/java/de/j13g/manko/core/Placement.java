@@ -1,40 +1,103 @@
 package de.j13g.manko.core;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
-public enum Placement implements Serializable {
+/**
+ * A placement, which is either a rank starting at 1, no placement or a placement that is yet to be determined.
+ * The first 64 ranks are cached, so that the common placements are the same instance,
+ * but placements should be compared with equals or by their value.
+ */
+public final class Placement implements Serializable {
 
-    FIRST("1st"), // 1st place
-    SECOND("2nd"), // 2nd place
-    THIRD("3rd"), // 3rd place
-    NONE, // No placement
-    TBD; // To be determined
+    private static final long serialVersionUID = 1L;
 
-    private final String title;
+    private static final int CACHED_RANKS = 64;
+    private static final Placement[] RANKS = new Placement[CACHED_RANKS + 1];
 
-    Placement(String title) {
-        this.title = title;
+    static {
+        for (int rank = 1; rank <= CACHED_RANKS; ++rank)
+            RANKS[rank] = new Placement(rank);
     }
 
-    Placement() {
-        this(null);
+    public static final Placement FIRST = RANKS[1]; // 1st place
+    public static final Placement SECOND = RANKS[2]; // 2nd place
+    public static final Placement THIRD = RANKS[3]; // 3rd place
+    public static final Placement NONE = new Placement(0); // No placement
+    public static final Placement TBD = new Placement(-1); // To be determined
+
+    private final int value;
+
+    private Placement(int value) {
+        this.value = value;
     }
 
+    /**
+     * @param rank The rank, starting at 1.
+     * @return The placement with this rank.
+     */
+    public static Placement of(int rank) {
+        if (rank < 1)
+            throw new IllegalArgumentException("Invalid rank " + rank);
+        return rank <= CACHED_RANKS ? RANKS[rank] : new Placement(rank);
+    }
+
+    /**
+     * @param value The value of a placement.
+     * @return The placement with this value.
+     * @see Placement#getValue()
+     */
+    public static Placement ofValue(int value) {
+        if (value == NONE.value)
+            return NONE;
+        if (value == TBD.value)
+            return TBD;
+        return of(value);
+    }
+
+    /**
+     * @return The rank, 0 for no placement or -1 if the placement is to be determined.
+     */
     public int getValue() {
-        switch (this) {
-            case FIRST: return 1;
-            case SECOND: return 2;
-            case THIRD: return 3;
-            case NONE: return 0;
-            case TBD: return -1;
-            default: return -2;
-        }
+        return value;
+    }
+
+    public boolean isRanked() {
+        return value >= 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Placement)) return false;
+        return value == ((Placement) o).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
     }
 
     @Override
     public String toString() {
-        return title == null
-                ? super.toString()
-                : title;
+        if (value == NONE.value)
+            return "NONE";
+        if (value == TBD.value)
+            return "TBD";
+
+        // 1st, 2nd, 3rd, 4th, ..., 11th, 12th, 13th, ..., 21st, ...
+        int lastTwoDigits = value % 100;
+        int lastDigit = value % 10;
+        String suffix = lastTwoDigits >= 11 && lastTwoDigits <= 13 ? "th"
+                : lastDigit == 1 ? "st"
+                : lastDigit == 2 ? "nd"
+                : lastDigit == 3 ? "rd"
+                : "th";
+
+        return value + suffix;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return ofValue(value);
     }
 }
@@ -0,0 +1,60 @@
+package de.j13g.manko.core;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The result of a pairing, either a win of one of its entrants or a tie.
+ * A win may omit the pairing, it then refers to the active pairing of the winner.
+ * @param <E> The entrant type.
+ */
+public class Result<E> {
+
+    private final E winningEntrant;
+    private final Pairing<E> pairing;
+
+    private Result(E winningEntrant, Pairing<E> pairing) {
+        this.winningEntrant = winningEntrant;
+        this.pairing = pairing;
+    }
+
+    /**
+     * Creates a win of an entrant in their active pairing.
+     * @param winningEntrant The winning entrant.
+     * @param <E> The entrant type.
+     * @return The result.
+     */
+    public static <E> Result<E> win(E winningEntrant) {
+        return new Result<>(winningEntrant, null);
+    }
+
+    public static <E> Result<E> win(E winningEntrant, Pairing<E> pairing) {
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        return new Result<>(winningEntrant, pairing);
+    }
+
+    public static <E> Result<E> tie(Pairing<E> pairing) {
+        return new Result<>(null, pairing);
+    }
+
+    /**
+     * @return The winning entrant or null if the result is a tie.
+     */
+    @Nullable
+    public E getWinningEntrant() {
+        return winningEntrant;
+    }
+
+    /**
+     * @return The pairing or null if it is the active pairing of the winning entrant.
+     */
+    @Nullable
+    public Pairing<E> getPairing() {
+        return pairing;
+    }
+
+    public boolean isTie() {
+        return winningEntrant == null;
+    }
+}
@@ -1,28 +1,57 @@
 package de.j13g.manko.core;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * The entrants of a tournament or round by their rank.
+ * Ranks without an entrant hold null.
+ * @param <E> The entrant type.
+ */
 public class Standings<E> implements Serializable {
 
-    private final E firstPlace;
-    private final E secondPlace;
-    private final E thirdPlace;
+    // The entrants, indexed by rank minus one.
+    private final Object[] entrants;
 
     public Standings(E firstPlace, E secondPlace, E thirdPlace) {
-        this.firstPlace = firstPlace;
-        this.secondPlace = secondPlace;
-        this.thirdPlace = thirdPlace;
+        this(Arrays.asList(firstPlace, secondPlace, thirdPlace));
+    }
+
+    /**
+     * @param entrants The entrants in the order of their rank, starting with first place.
+     */
+    public Standings(List<E> entrants) {
+        this.entrants = entrants.toArray();
+    }
+
+    /**
+     * @param rank The rank, starting at 1.
+     * @return The entrant with this rank or null.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int rank) {
+        if (rank < 1)
+            throw new IllegalArgumentException("Invalid rank " + rank);
+        return rank <= entrants.length ? (E) entrants[rank - 1] : null;
+    }
+
+    /**
+     * @return The number of ranks.
+     */
+    public int size() {
+        return entrants.length;
     }
 
     public E getFirstPlace() {
-        return firstPlace;
+        return get(1);
     }
 
     public E getSecondPlace() {
-        return secondPlace;
+        return get(2);
     }
 
     public E getThirdPlace() {
-        return thirdPlace;
+        return get(3);
     }
 }
@@ -4,100 +4,324 @@ import de.j13g.manko.core.base.Round;
 import de.j13g.manko.core.base.RoundManager;
 import de.j13g.manko.core.base.TournamentFormat;
 import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.persistence.FormatCodec;
+import de.j13g.manko.core.persistence.RoundCodec;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.*;
 
 public class Tournament<E> implements RoundManager<E>, Serializable {
 
+    // The version of rounds that were read from a snapshot, until they are materialized.
+    private static final long LOADED_VERSION = Long.MIN_VALUE;
+
     private final TournamentFormat<E> format;
 
-    // TODO One could also make a history (stack).
-    //  This would be useful for getting all stats about a tournament.
-    private Round<E> previousRound = null;
-    private Round<E> currentRound;
+    // The round history, the initial round first. It only references the rounds, which are shared
+    // by every visit of the tournament and never copied, and which share one entrant registry.
+    // Going back only moves the index of the current round, thus it takes constant time for any number
+    // of rounds. The rounds after the current round are kept, the tournament returns to them
+    // as long as the round that it left them from did not change.
+    private final ArrayList<Round<E>> rounds = new ArrayList<>();
+    private int currentIndex = 0;
+
+    // The version of each round when the tournament advanced from it, by round index.
+    private long[] leftVersions = new long[0];
+
+    // Rounds that were read from a snapshot, but are not materialized yet.
+    // A round is not materialized, if it has a snapshot at its index.
+    private transient ArrayList<SnapshotInput<E>> roundSnapshots = null;
+    private transient EntrantRegistry<E> snapshotRegistry = null;
+
+    private long version = 0;
+    private long currentRoundVersion;
 
     public Tournament(TournamentFormat<E> format) {
-        currentRound = format.createInitialRound();
+        Round<E> initialRound = format.createInitialRound();
+        rounds.add(initialRound);
+        currentRoundVersion = initialRound.getVersion();
         this.format = format;
     }
 
+    /**
+     * Reads a tournament and its format from a snapshot.
+     * The rounds are only read once they are accessed.
+     * @param in The snapshot input.
+     * @throws IOException The tournament could not be read.
+     */
+    public Tournament(SnapshotInput<E> in) throws IOException {
+        format = FormatCodec.read(in);
+
+        int roundCount = in.readCount();
+        currentIndex = in.readCount();
+        if (currentIndex >= roundCount)
+            throw new IOException("Invalid current round");
+
+        snapshotRegistry = new EntrantRegistry<>();
+        roundSnapshots = new ArrayList<>(roundCount);
+        for (int i = 0; i < roundCount; ++i) {
+            roundSnapshots.add(in.readSection());
+            rounds.add(null);
+        }
+
+        // The rounds after the current round are only written while they are valid.
+        leftVersions = new long[roundCount];
+        Arrays.fill(leftVersions, LOADED_VERSION);
+    }
+
+    /**
+     * Writes the format and the round history of this tournament to a snapshot.
+     * The rounds after the current round are left out, if the tournament can't return to them anymore.
+     * @param out The snapshot output.
+     * @throws IOException The tournament could not be written.
+     */
+    public void write(SnapshotOutput<E> out) throws IOException {
+        FormatCodec.write(out, format);
+
+        int roundCount = canReturnToNextRound() ? rounds.size() : currentIndex + 1;
+        out.writeInt(roundCount);
+        out.writeInt(currentIndex);
+        for (int i = 0; i < roundCount; ++i) {
+            out.beginSection();
+            RoundCodec.write(out, getHistoryRound(i));
+            out.endSection();
+        }
+    }
+
+    /**
+     * Gets the modification stamp of this tournament.
+     * The stamp changes whenever the rounds or the state of the current round change.
+     * @return The modification stamp.
+     */
+    public long getVersion() {
+        Round<E> currentRound = rounds.get(currentIndex);
+        if (currentRound == null)
+            return version; // Not materialized, thus not modified.
+
+        long roundVersion = currentRound.getVersion();
+        if (roundVersion != currentRoundVersion) {
+            currentRoundVersion = roundVersion;
+            version += 1;
+        }
+
+        return version;
+    }
+
+    private void setCurrentIndex(int index) {
+        currentIndex = index;
+        currentRoundVersion = getHistoryRound(index).getVersion();
+        version += 1;
+    }
+
     @Override
     public Round<E> getCurrentRound() {
-        return currentRound;
+        return getHistoryRound(currentIndex);
+    }
+
+    public TournamentFormat<E> getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the number of rounds that were played so far, including the current round.
+     * @return The number of rounds.
+     */
+    public int getRoundCount() {
+        return currentIndex + 1;
     }
 
+    /**
+     * Gets the number of rounds in the history, including the rounds after the current round,
+     * that the tournament left by going back.
+     * @return The number of rounds.
+     */
+    public int getHistorySize() {
+        return rounds.size();
+    }
+
+    /**
+     * Gets a round of the tournament in constant time.
+     * @param index The index of the round, the initial round has the index 0.
+     * @return The round, which is the current round for the last index.
+     * @see Tournament#getRoundCount()
+     */
+    public Round<E> getRound(int index) {
+        return getHistoryRound(Objects.checkIndex(index, getRoundCount()));
+    }
+
+    private Round<E> getHistoryRound(int index) {
+        Round<E> round = rounds.get(index);
+        if (round == null) {
+            round = readRound(roundSnapshots.set(index, null), snapshotRegistry);
+            rounds.set(index, round);
+
+            // Versions start over when a round is read, the tournament left it unchanged.
+            if (leftVersions[index] == LOADED_VERSION)
+                leftVersions[index] = round.getVersion();
+        }
+
+        return round;
+    }
+
+    private static <E> Round<E> readRound(SnapshotInput<E> in, EntrantRegistry<E> registry) {
+        try {
+            return RoundCodec.read(in, registry);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not read round", e);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        for (int i = 0; i < rounds.size(); ++i)
+            getHistoryRound(i);
+        out.defaultWriteObject();
+    }
+
+    /**
+     * @return If there is a round after the current round and the current round did not change
+     *         since the tournament advanced from it.
+     */
+    private boolean canReturnToNextRound() {
+        return currentIndex + 1 < rounds.size() && getCurrentRound().getVersion() == leftVersions[currentIndex];
+    }
+
+    /**
+     * Advances to the next round. If the tournament went back before and the current round
+     * did not change since, it returns to the round that followed, otherwise the format creates
+     * the next round and the rounds that followed before are dropped.
+     */
     @Override
     public void nextRound() throws RoundNotFinishedException, FinalRoundException {
+        if (canReturnToNextRound()) {
+            setCurrentIndex(currentIndex + 1);
+            return;
+        }
 
-        // We don't want to overwrite previousRound too early
+        // We don't want to change the history too early
         // because createNextRound might throw an exception.
 
-        Round<E> oldCurrentRound = currentRound;
-        currentRound = format.createNextRound(currentRound);
-        previousRound = oldCurrentRound;
+        Round<E> oldCurrentRound = getCurrentRound();
+        Round<E> nextRound = format.createNextRound(oldCurrentRound);
+
+        rounds.subList(currentIndex + 1, rounds.size()).clear();
+        rounds.add(nextRound);
+        if (roundSnapshots != null) {
+            roundSnapshots.subList(currentIndex + 1, roundSnapshots.size()).clear();
+            roundSnapshots.add(null);
+        }
+
+        if (leftVersions.length < rounds.size())
+            leftVersions = Arrays.copyOf(leftVersions, Math.max(rounds.size(), 2 * leftVersions.length));
+        leftVersions[currentIndex] = oldCurrentRound.getVersion();
+
+        setCurrentIndex(currentIndex + 1);
     }
 
     @Override
     public void previousRound() throws AlreadyStartedException, InitialRoundException {
-        if (previousRound == null)
+        previousRounds(1);
+    }
+
+    /**
+     * Goes back several rounds at once, in constant time. The rounds that are left are kept,
+     * thus a round can be left when it has not started yet or when it is finished,
+     * but not while it is played.
+     * @param count The number of rounds to go back.
+     * @throws AlreadyStartedException The current round has started, but is not finished.
+     * @throws InitialRoundException There are less than count rounds before the current round.
+     */
+    public void previousRounds(int count) throws AlreadyStartedException, InitialRoundException {
+        if (count < 1)
+            throw new IllegalArgumentException("Cannot go back less than one round");
+
+        if (count > currentIndex)
             throw new InitialRoundException();
-        if (currentRound.getActivePairings().size() > 0 || currentRound.getFinishedPairings().size() > 0)
-            throw new AlreadyStartedException();
 
-        // FIXME One can see here that "InitialRoundException" is not the right term.
-        //  It'll be thrown many rounds in just because going back once sets previousRound to null.
+        Round<E> currentRound = getCurrentRound();
+        boolean isStarted = currentRound.getActivePairings().size() > 0
+                || currentRound.getFinishedPairings().size() > 0;
+        if (isStarted && !currentRound.isFinished())
+            throw new AlreadyStartedException();
 
-        currentRound = previousRound;
-        previousRound = null;
+        setCurrentIndex(currentIndex - count);
     }
 
     @Override
     public boolean addEntrant(E entrant) {
-        return currentRound.addEntrant(entrant);
+        return getCurrentRound().addEntrant(entrant);
     }
 
     @Override
     public boolean removeEntrant(E entrant) {
-        return currentRound.removeEntrant(entrant);
+        return getCurrentRound().removeEntrant(entrant);
     }
 
     @Override
     public boolean resetEntrant(E entrant) {
-        return currentRound.resetEntrant(entrant);
+        return getCurrentRound().resetEntrant(entrant);
     }
 
     @Override
     public Pairing<E> nextPairing()
             throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
 
-        return currentRound.nextPairing();
+        return getCurrentRound().nextPairing();
+    }
+
+    @Override
+    public List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        return getCurrentRound().pairAll();
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException,
+            UnfinishedPairingsException {
+
+        return getCurrentRound().startPairing(pairing);
     }
 
     @Override
     public boolean replayPairing(Pairing<E> pairing)
             throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
 
-        return currentRound.replayPairing(pairing);
+        return getCurrentRound().replayPairing(pairing);
     }
 
     @Override
     public void declareWinner(E winningEntrant, Pairing<E> pairing)
             throws NoSuchEntrantException, NoSuchPairingException {
 
-        currentRound.declareWinner(winningEntrant, pairing);
+        getCurrentRound().declareWinner(winningEntrant, pairing);
     }
 
     @Override
     public Pairing<E> declareWinner(E winningEntrant)
             throws NoSuchEntrantException, MissingPairingException {
 
-        return currentRound.declareWinner(winningEntrant);
+        return getCurrentRound().declareWinner(winningEntrant);
     }
 
     @Override
     public void declareTie(Pairing<E> pairing)
             throws NoSuchPairingException {
 
-        currentRound.declareTie(pairing);
+        getCurrentRound().declareTie(pairing);
+    }
+
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        return getCurrentRound().declareResults(results);
     }
 }
@@ -1,10 +1,17 @@
 package de.j13g.manko.core.base;
 
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
 import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.exceptions.MissingPairingException;
+import de.j13g.manko.core.exceptions.NoSuchEntrantException;
+import de.j13g.manko.core.exceptions.NoSuchPairingException;
+import de.j13g.manko.core.managers.EntrantRegistry;
 import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 
-import java.util.Set;
+import java.io.IOException;
+import java.util.*;
 
 /**
  * Represents a round in a tournament.
@@ -14,6 +21,13 @@ public interface Round<E> extends RoundHandle<E>, RoundInformation<E> {
 
     Set<E> getEntrants();
 
+    /**
+     * Gets the registry that assigns the ids of the entrants of this round.
+     * Rounds that follow this round should use the same registry.
+     * @return The entrant registry.
+     */
+    EntrantRegistry<E> getRegistry();
+
     Pairings<E> getPairings();
 
     // TODO Can be removed.
@@ -57,8 +71,97 @@ public interface Round<E> extends RoundHandle<E>, RoundInformation<E> {
      */
     boolean hasStateAbout(E entrant);
 
+    /**
+     * Checks if an entrant could be added again after it is removed.
+     * This is not the case once removing the entrant forfeits its remaining pairings for good.
+     * @param entrant The entrant.
+     * @return If the entrant could be added again.
+     */
+    default boolean canAddEntrantAgain(E entrant) {
+        return true;
+    }
+
     // TODO Can be removed.
     boolean isEntrantPaired(E entrant);
 
     boolean isFinished();
+
+    /**
+     * Gets the modification stamp of this round.
+     * The stamp changes whenever the state of the round changes.
+     * @return The modification stamp.
+     */
+    long getVersion();
+
+    /**
+     * Declares the results one after another, once all of them are checked.
+     * @see Round#resolvePairings(Collection)
+     */
+    @Override
+    default List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        List<Pairing<E>> resultPairings = resolvePairings(results);
+
+        Iterator<Pairing<E>> pairingIterator = resultPairings.iterator();
+        for (Result<E> result : results) {
+            Pairing<E> pairing = pairingIterator.next();
+            if (result.isTie())
+                declareTie(pairing);
+            else
+                declareWinner(result.getWinningEntrant(), pairing);
+        }
+
+        return resultPairings;
+    }
+
+    /**
+     * Finds the pairing of every result and checks that all results can be declared together.
+     * Nothing is changed.
+     * @see RoundHandle#declareResults(Collection)
+     * @param results The results.
+     * @return The pairing of every result, in the same order.
+     * @throws NoSuchEntrantException A winning entrant is not part of the round.
+     * @throws MissingPairingException A winning entrant without a pairing is not part of any active pairing.
+     * @throws NoSuchPairingException A pairing is not active or has more than one result.
+     */
+    default List<Pairing<E>> resolvePairings(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        Pairings<E> pairings = getPairings();
+
+        ArrayList<Pairing<E>> resultPairings = new ArrayList<>(results.size());
+        HashSet<Pairing<E>> uniquePairings = new HashSet<>();
+
+        for (Result<E> result : results) {
+            Pairing<E> pairing = result.getPairing();
+
+            if (!result.isTie()) {
+                E winningEntrant = result.getWinningEntrant();
+                if (!hasEntrant(winningEntrant))
+                    throw new NoSuchEntrantException();
+
+                if (pairing == null) {
+                    pairing = pairings.findActiveByEntrant(winningEntrant);
+                    if (pairing == null)
+                        throw new MissingPairingException();
+                }
+            }
+
+            if (!pairings.isActive(pairing) || !uniquePairings.add(pairing))
+                throw new NoSuchPairingException();
+
+            resultPairings.add(pairing);
+        }
+
+        return resultPairings;
+    }
+
+    /**
+     * Writes the state of this round to a snapshot.
+     * @see de.j13g.manko.core.persistence.RoundCodec
+     * @param out The snapshot output.
+     * @throws IOException The round could not be written.
+     */
+    void write(SnapshotOutput<E> out) throws IOException;
 }
@@ -1,8 +1,12 @@
 package de.j13g.manko.core.base;
 
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
 import de.j13g.manko.core.exceptions.*;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * A handle for a tournament round. Used for managing the round of a tournament.
  * Implements methods for both a round and any class that handles a round.
@@ -44,6 +48,32 @@ public interface RoundHandle<E> {
     Pairing<E> nextPairing()
             throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException;
 
+    /**
+     * Generates as many pairings as possible at once.
+     * Rounds that carry out one pairing at a time generate only the next pairing.
+     * @see RoundHandle#nextPairing()
+     * @return The generated pairings.
+     * @throws NoEntrantsException There are no entrants in this round.
+     * @throws NoOpponentException The only remaining entrant does not have an opponent.
+     * @throws NoMorePairingsException The round is already finished.
+     */
+    List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException;
+
+    /**
+     * Starts a specific pairing, instead of generating the next one.
+     * Used to deterministically restore a pairing that was generated before.
+     * @param pairing The pairing.
+     * @return The pairing.
+     * @throws NoSuchEntrantException One of the entrants is not part of the round.
+     * @throws NoSuchPairingException The pairing cannot be carried out in this round.
+     * @throws EntrantNotPendingException One of the entrants is not waiting for a pairing.
+     * @throws UnfinishedPairingsException Running pairings need to be finished first.
+     */
+    Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException,
+            UnfinishedPairingsException;
+
     /**
      * Reverts the results of a pairing, so that it can be carried out again.
      * @param pairing The pairing to replay.
@@ -82,4 +112,17 @@ public interface RoundHandle<E> {
      */
     void declareTie(Pairing<E> pairing)
             throws NoSuchPairingException;
+
+    /**
+     * Declares the results of multiple active pairings at once.
+     * All results are checked before any of them is declared,
+     * thus either all or none of them are declared.
+     * @param results The results.
+     * @return The pairing of every result, in the same order.
+     * @throws NoSuchEntrantException A winning entrant is not part of the round.
+     * @throws MissingPairingException A winning entrant without a pairing is not part of any active pairing.
+     * @throws NoSuchPairingException A pairing is not active or has more than one result.
+     */
+    List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException;
 }
@@ -0,0 +1,6 @@
+package de.j13g.manko.core.exceptions;
+
+public class EntrantNotPendingException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+}
@@ -9,23 +9,57 @@ import de.j13g.manko.core.base.TournamentFormat;
 import de.j13g.manko.core.exceptions.FinalRoundException;
 import de.j13g.manko.core.exceptions.RoundNotFinishedException;
 import de.j13g.manko.core.exceptions.UnfinishedPairingsException;
+import de.j13g.manko.core.managers.EntrantRegistry;
 import de.j13g.manko.core.rounds.DynamicElimination;
 import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.RoundRobin;
 import de.j13g.manko.core.rounds.RoundRobinFinal;
 import de.j13g.manko.core.rounds.SemiFinal;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
 public class DefaultFormat<E> implements TournamentFormat<E>, Serializable {
 
+    private static final int ROUND_ROBIN_FINAL_SIZE = 3;
+    private static final int SEMI_FINAL_SIZE = 4;
+
+    // No round robins, groups of more than four keep playing eliminations.
+    private static final int DEFAULT_MAX_ROUND_ROBIN_SIZE = SEMI_FINAL_SIZE;
+
+    private final int maxRoundRobinSize;
+
+    /**
+     * Creates a format that plays eliminations until four or less entrants are left.
+     */
+    public DefaultFormat() {
+        this(DEFAULT_MAX_ROUND_ROBIN_SIZE);
+    }
+
+    /**
+     * Creates a format that finishes with a round robin,
+     * once more than four but no more than the given number of entrants are left.
+     * Groups of four always play a {@link SemiFinal}, groups of three a {@link RoundRobinFinal}.
+     * @param maxRoundRobinSize The largest number of entrants in a round robin, four or less for none.
+     */
+    public DefaultFormat(int maxRoundRobinSize) {
+        if (maxRoundRobinSize < ROUND_ROBIN_FINAL_SIZE)
+            throw new IllegalArgumentException("Round robins have at least " + ROUND_ROBIN_FINAL_SIZE + " entrants");
+        this.maxRoundRobinSize = maxRoundRobinSize;
+    }
+
     @Override
     public Round<E> createInitialRound() {
         return new DynamicElimination<>();
     }
 
+    public int getMaxRoundRobinSize() {
+        return maxRoundRobinSize;
+    }
+
     @Override
     public Round<E> createNextRound(Round<E> currentRound)
             throws RoundNotFinishedException, FinalRoundException {
@@ -38,7 +72,7 @@ public class DefaultFormat<E> implements TournamentFormat<E>, Serializable {
             if (roundRobinFinal.isTie()) {
                 assert roundRobinFinal.getEntrants().size() == 3;
                 Iterator<E> it = roundRobinFinal.getEntrants().iterator();
-                return new RoundRobinFinal<>(it.next(), it.next(), it.next());
+                return new RoundRobinFinal<>(roundRobinFinal.getRegistry(), it.next(), it.next(), it.next());
             }
         }
 
@@ -54,21 +88,34 @@ public class DefaultFormat<E> implements TournamentFormat<E>, Serializable {
     }
 
     public Round<E> createNextRound(DynamicElimination<E> round) throws FinalRoundException {
+        return createNextRound(round.getRegistry(), round.getAdvancedEntrants());
+    }
 
-        Set<E> advancedEntrants = round.getAdvancedEntrants();
-
-        if (advancedEntrants.size() > 4)
-            return new DynamicElimination<>(advancedEntrants);
-        if (advancedEntrants.size() == 4)
-            return new SemiFinal<>(advancedEntrants);
-        if (advancedEntrants.size() == 3) {
+    /**
+     * Creates the round that the given entrants play after they advanced from a previous round.
+     * @param registry The registry of the previous round.
+     * @param advancedEntrants The entrants that advanced.
+     * @return The next round.
+     * @throws FinalRoundException There are not enough entrants for another round.
+     */
+    public Round<E> createNextRound(EntrantRegistry<E> registry, Collection<E> advancedEntrants)
+            throws FinalRoundException {
+
+        if (advancedEntrants.size() > SEMI_FINAL_SIZE && advancedEntrants.size() <= maxRoundRobinSize)
+            return new RoundRobin<>(registry, advancedEntrants);
+
+        if (advancedEntrants.size() > SEMI_FINAL_SIZE)
+            return new DynamicElimination<>(registry, advancedEntrants);
+        if (advancedEntrants.size() == SEMI_FINAL_SIZE)
+            return new SemiFinal<>(registry, advancedEntrants);
+        if (advancedEntrants.size() == ROUND_ROBIN_FINAL_SIZE) {
             Iterator<E> it = advancedEntrants.iterator();
-            return new RoundRobinFinal<>(it.next(), it.next(), it.next());
+            return new RoundRobinFinal<>(registry, it.next(), it.next(), it.next());
         }
 
         if (advancedEntrants.size() == 2) {
             Iterator<E> it = advancedEntrants.iterator();
-            return new Final<>(new Pairing<>(it.next(), it.next()));
+            return new Final<>(registry, new Pairing<>(it.next(), it.next()), null);
         }
 
         throw new FinalRoundException();
@@ -90,7 +137,7 @@ public class DefaultFormat<E> implements TournamentFormat<E>, Serializable {
         if (advancedEntrants.size() == 2 && eliminatedEntrants.size() == 2) {
             firstPlacePairing = new Pairing<>(advancedIterator.next(), advancedIterator.next());
             thirdPlacePairing = new Pairing<>(eliminatedIterator.next(), eliminatedIterator.next());
-            return new Final<>(firstPlacePairing, thirdPlacePairing);
+            return new Final<>(round.getRegistry(), firstPlacePairing, thirdPlacePairing);
         }
 
         // There are no entrants on the same "level", i.e. that need to
@@ -129,7 +176,7 @@ public class DefaultFormat<E> implements TournamentFormat<E>, Serializable {
         firstPlacePairing = advancedEntrants.size() == 2 ? otherPairing : predeterminedPairing;
         thirdPlacePairing = advancedEntrants.size() == 1 ? otherPairing : predeterminedPairing;
 
-        Final<E> finalRound = new Final<>(firstPlacePairing, thirdPlacePairing);
+        Final<E> finalRound = new Final<>(round.getRegistry(), firstPlacePairing, thirdPlacePairing);
 
         if (winningEntrant != null) {
             if (thirdPlacePairing.contains(winningEntrant))
@@ -0,0 +1,54 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.DoubleElimination;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * A format in which entrants are only eliminated after their second loss.
+ * The whole tournament is a single {@link DoubleElimination} round,
+ * which includes both brackets, the grand final and its reset.
+ * @param <E> The entrant type.
+ */
+public class DoubleEliminationFormat<E> implements TournamentFormat<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long drawSeed;
+
+    public DoubleEliminationFormat() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * @param drawSeed The seed of the bracket's draw. It is chosen once for the format, so that every
+     *                 copy of a tournament draws the same bracket.
+     */
+    public DoubleEliminationFormat(long drawSeed) {
+        this.drawSeed = drawSeed;
+    }
+
+    @Override
+    public Round<E> createInitialRound() {
+        return new DoubleElimination<>(drawSeed);
+    }
+
+    @Override
+    public Round<E> createNextRound(Round<E> currentRound)
+            throws RoundNotFinishedException, FinalRoundException {
+
+        if (!currentRound.isFinished())
+            throw new RoundNotFinishedException();
+
+        throw new FinalRoundException();
+    }
+
+    public long getDrawSeed() {
+        return drawSeed;
+    }
+}
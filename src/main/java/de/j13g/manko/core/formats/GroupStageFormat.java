@@ -0,0 +1,91 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.GroupStage;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * A format that starts with a {@link GroupStage}. The best entrants of every group
+ * continue with the knockout rounds of a {@link DefaultFormat}.
+ * @param <E> The entrant type.
+ */
+public class GroupStageFormat<E> implements TournamentFormat<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int groupCount;
+    private final int advancingCount;
+    private final GroupStage.Seeding seeding;
+    private final long drawSeed;
+
+    private final DefaultFormat<E> knockoutFormat;
+
+    public GroupStageFormat(int groupCount, int advancingCount, GroupStage.Seeding seeding) {
+        this(groupCount, advancingCount, seeding, new Random().nextLong(), new DefaultFormat<>());
+    }
+
+    /**
+     * @param groupCount The number of groups.
+     * @param advancingCount The number of entrants that advance from every group.
+     * @param seeding How the entrants are split into groups.
+     * @param drawSeed The seed of the group stage's draw. It is chosen once for the format, so that every
+     *                 copy of a tournament draws the same groups.
+     * @param knockoutFormat The format of the rounds after the group stage.
+     */
+    public GroupStageFormat(int groupCount, int advancingCount, GroupStage.Seeding seeding, long drawSeed,
+                            DefaultFormat<E> knockoutFormat) {
+
+        if (groupCount < 1 || advancingCount < 1)
+            throw new IllegalArgumentException("There has to be at least one group and one advancing entrant");
+
+        this.groupCount = groupCount;
+        this.advancingCount = advancingCount;
+        this.seeding = seeding;
+        this.drawSeed = drawSeed;
+        this.knockoutFormat = knockoutFormat;
+    }
+
+    @Override
+    public Round<E> createInitialRound() {
+        return new GroupStage<>(groupCount, advancingCount, seeding, drawSeed);
+    }
+
+    @Override
+    public Round<E> createNextRound(Round<E> currentRound)
+            throws RoundNotFinishedException, FinalRoundException {
+
+        if (!(currentRound instanceof GroupStage))
+            return knockoutFormat.createNextRound(currentRound);
+
+        if (!currentRound.isFinished())
+            throw new RoundNotFinishedException();
+
+        GroupStage<E> groupStage = (GroupStage<E>) currentRound;
+        return knockoutFormat.createNextRound(groupStage.getRegistry(), groupStage.getAdvancedEntrants());
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public int getAdvancingCount() {
+        return advancingCount;
+    }
+
+    public GroupStage.Seeding getSeeding() {
+        return seeding;
+    }
+
+    public long getDrawSeed() {
+        return drawSeed;
+    }
+
+    public DefaultFormat<E> getKnockoutFormat() {
+        return knockoutFormat;
+    }
+}
@@ -0,0 +1,62 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.rounds.SeededBracket;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single elimination format, in which the entrants are placed by their seed.
+ * The whole tournament is a single {@link SeededBracket} round.
+ * @param <E> The entrant type.
+ */
+public class SeededBracketFormat<E> implements TournamentFormat<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<E> seeds;
+
+    /**
+     * Creates a format, in which entrants are seeded in the order in which they are added.
+     */
+    public SeededBracketFormat() {
+        this(List.of());
+    }
+
+    /**
+     * @param seeds The entrants by seed, starting with the first seed.
+     *              Entrants that are added later get the next lowest seeds.
+     */
+    public SeededBracketFormat(List<E> seeds) {
+        this.seeds = new ArrayList<>(seeds);
+    }
+
+    @Override
+    public Round<E> createInitialRound() {
+        return new SeededBracket<>(new EntrantRegistry<>(), seeds);
+    }
+
+    @Override
+    public Round<E> createNextRound(Round<E> currentRound)
+            throws RoundNotFinishedException, FinalRoundException {
+
+        if (!currentRound.isFinished())
+            throw new RoundNotFinishedException();
+
+        throw new FinalRoundException();
+    }
+
+    /**
+     * @return The entrants by seed, that were known when the format was created.
+     */
+    public List<E> getSeeds() {
+        return Collections.unmodifiableList(seeds);
+    }
+}
@@ -0,0 +1,62 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.SwissRound;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * A format in which all entrants play a fixed number of rounds of play and are ranked by their score.
+ * The whole tournament is a single {@link SwissRound}.
+ * @param <E> The entrant type.
+ */
+public class SwissFormat<E> implements TournamentFormat<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int roundCount;
+    private final long pairingSeed;
+
+    public SwissFormat(int roundCount) {
+        this(roundCount, new Random().nextLong());
+    }
+
+    /**
+     * @param roundCount The number of rounds of play.
+     * @param pairingSeed The seed with which the pairings are created. It is chosen once for the format,
+     *                    so that every copy of a tournament creates the same pairings.
+     */
+    public SwissFormat(int roundCount, long pairingSeed) {
+        if (roundCount < 1)
+            throw new IllegalArgumentException("At least one round of play is needed");
+        this.roundCount = roundCount;
+        this.pairingSeed = pairingSeed;
+    }
+
+    @Override
+    public Round<E> createInitialRound() {
+        return new SwissRound<>(roundCount, pairingSeed);
+    }
+
+    @Override
+    public Round<E> createNextRound(Round<E> currentRound)
+            throws RoundNotFinishedException, FinalRoundException {
+
+        if (!currentRound.isFinished())
+            throw new RoundNotFinishedException();
+
+        throw new FinalRoundException();
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    public long getPairingSeed() {
+        return pairingSeed;
+    }
+}
@@ -0,0 +1,59 @@
+package de.j13g.manko.core.managers;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Assigns each entrant of a tournament a dense integer id, starting at 0.
+ * Managers and rounds use these ids to keep their state in arrays and bitsets,
+ * instead of hashing entrants over and over again.
+ * Ids are never reassigned, thus all rounds of a tournament share one registry.
+ * @param <E> The entrant type.
+ */
+public class EntrantRegistry<E> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The id of entrants that are not registered. */
+    public static final int NO_ID = -1;
+
+    private final HashMap<E, Integer> ids = new HashMap<>();
+    private final ArrayList<E> entrants = new ArrayList<>();
+
+    /**
+     * Gets the id of an entrant and assigns one if it does not have an id yet.
+     * @param entrant The entrant.
+     * @return The id of the entrant.
+     */
+    public int register(E entrant) {
+        Integer id = ids.get(entrant);
+        if (id != null)
+            return id;
+
+        int newId = entrants.size();
+        ids.put(entrant, newId);
+        entrants.add(entrant);
+        return newId;
+    }
+
+    /**
+     * Gets the id of an entrant without assigning one.
+     * @param entrant The entrant.
+     * @return The id of the entrant or {@link EntrantRegistry#NO_ID} if it has none.
+     */
+    public int idOf(E entrant) {
+        return ids.getOrDefault(entrant, NO_ID);
+    }
+
+    public E get(int id) {
+        return entrants.get(id);
+    }
+
+    /**
+     * @return The number of assigned ids, which is one above the highest id.
+     */
+    public int size() {
+        return entrants.size();
+    }
+}
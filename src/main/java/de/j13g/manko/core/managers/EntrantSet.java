@@ -0,0 +1,108 @@
+package de.j13g.manko.core.managers;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of entrants that is stored as a bitset over their registry ids.
+ * Iterates the entrants in the order in which they were registered.
+ * @param <E> The entrant type.
+ */
+public class EntrantSet<E> extends AbstractSet<E> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final EntrantRegistry<E> registry;
+    private final BitSet ids = new BitSet();
+    private int size = 0;
+
+    public EntrantSet(EntrantRegistry<E> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean add(E entrant) {
+        return addId(registry.register(entrant));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object entrant) {
+        return removeId(registry.idOf((E) entrant));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object entrant) {
+        return containsId(registry.idOf((E) entrant));
+    }
+
+    public boolean addId(int id) {
+        if (ids.get(id))
+            return false;
+
+        ids.set(id);
+        size += 1;
+        return true;
+    }
+
+    public boolean removeId(int id) {
+        if (!containsId(id))
+            return false;
+
+        ids.clear(id);
+        size -= 1;
+        return true;
+    }
+
+    public boolean containsId(int id) {
+        return id >= 0 && ids.get(id);
+    }
+
+    @Override
+    public void clear() {
+        ids.clear();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+
+            private int next = ids.nextSetBit(0);
+            private int last = EntrantRegistry.NO_ID;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public E next() {
+                if (next < 0)
+                    throw new NoSuchElementException();
+
+                last = next;
+                next = ids.nextSetBit(next + 1);
+                return registry.get(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == EntrantRegistry.NO_ID)
+                    throw new IllegalStateException();
+
+                removeId(last);
+                last = EntrantRegistry.NO_ID;
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package de.j13g.manko.core.managers;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Stores a single state for each entrant in one byte per entrant id.
+ * Counts the entrants in each state, so that these counts can be queried in constant time.
+ * @param <E> The entrant type.
+ * @param <S> The state type.
+ */
+public class EntrantStateTable<E, S extends Enum<S>> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte NO_STATE = -1;
+
+    private final EntrantRegistry<E> registry;
+    private final S[] values;
+
+    // The state ordinals, indexed by entrant id.
+    private byte[] states = new byte[0];
+    private final int[] counts;
+
+    /**
+     * @param registry The registry of the entrants.
+     * @param values All constants of the state type, at most 127.
+     */
+    public EntrantStateTable(EntrantRegistry<E> registry, S[] values) {
+        if (values.length > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("Too many states");
+
+        this.registry = registry;
+        this.values = values;
+        this.counts = new int[values.length];
+    }
+
+    /**
+     * Gets the state of an entrant.
+     * @param entrant The entrant.
+     * @return The state or null if the entrant has no state.
+     */
+    public S get(E entrant) {
+        return get(registry.idOf(entrant));
+    }
+
+    /**
+     * Gets the state of the entrant with an id.
+     * @param id The id of the entrant.
+     * @return The state or null if the entrant has no state.
+     */
+    public S get(int id) {
+        if (id < 0 || id >= states.length || states[id] == NO_STATE)
+            return null;
+        return values[states[id]];
+    }
+
+    /**
+     * Sets the state of an entrant.
+     * @param entrant The entrant.
+     * @param state The new state.
+     * @return The old state or null if the entrant had no state.
+     */
+    public S set(E entrant, S state) {
+        int id = registry.register(entrant);
+        if (id >= states.length) {
+            int oldLength = states.length;
+            states = Arrays.copyOf(states, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(states, oldLength, states.length, NO_STATE);
+        }
+
+        S oldState = get(id);
+        if (oldState != null)
+            counts[oldState.ordinal()] -= 1;
+
+        states[id] = (byte) state.ordinal();
+        counts[state.ordinal()] += 1;
+        return oldState;
+    }
+
+    /**
+     * Removes the state of an entrant.
+     * @param entrant The entrant.
+     * @return The old state or null if the entrant had no state.
+     */
+    public S remove(E entrant) {
+        int id = registry.idOf(entrant);
+        S oldState = get(id);
+        if (oldState == null)
+            return null;
+
+        counts[oldState.ordinal()] -= 1;
+        states[id] = NO_STATE;
+        return oldState;
+    }
+
+    public int count(S state) {
+        return counts[state.ordinal()];
+    }
+
+    /**
+     * Returns an unmodifiable view of all entrants that are in one of the given states.
+     * Lookups and the size take constant time, iterating takes time
+     * proportional to the number of registered entrants.
+     * @param viewedStates The states.
+     * @return The entrants in these states.
+     */
+    public Set<E> view(Set<S> viewedStates) {
+        return new AbstractSet<>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object entrant) {
+                S state = get((E) entrant);
+                return state != null && viewedStates.contains(state);
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (S state : viewedStates)
+                    size += count(state);
+                return size;
+            }
+
+            @Override
+            public Iterator<E> iterator() {
+                return new Iterator<>() {
+
+                    private int next = find(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < states.length;
+                    }
+
+                    @Override
+                    public E next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+
+                        E entrant = registry.get(next);
+                        next = find(next + 1);
+                        return entrant;
+                    }
+                };
+            }
+
+            private int find(int start) {
+                int id = start;
+                while (id < states.length && !viewedStates.contains(get(id)))
+                    ++id;
+                return id;
+            }
+        };
+    }
+}
@@ -0,0 +1,378 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.core.Pairing;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Stores pairings in insertion order and indexes them by the registry ids of their entrants.
+ * Pairings are not kept as objects, but as the ids of their entrants. They are created again whenever they are accessed.
+ * The index keeps the pairings of each entrant in an int array, which grows when needed. Every pairing is stored
+ * in the arrays of both entrants as the id of the opponent, with a flag for the entrant that was passed first.
+ * The insertion order across all entrants only keeps the id of the first entrant of every pairing.
+ * The second one is found in the array of the first entrant, which is in insertion order as well.
+ * Thus a stored pairing takes three ints, 12 bytes, plus the spare capacity of the growing arrays.
+ * Measured with array headers, season-long histories of 1000 to 10000 entrants with 20 to 50 pairings each
+ * take 13 to 15 bytes per pairing. Short histories pay more for the array of every entrant,
+ * e.g. 19 bytes per pairing with 10 pairings each.
+ * Single pairings are looked up by searching the shorter history of their entrants for the other entrant,
+ * which is fast, since an entrant plays few pairings compared to the whole tournament.
+ * Removing a pairing takes time linear in the number of pairings.
+ * @param <E> The entrant type.
+ */
+public class PairingIndex<E> implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private static final int INITIAL_HISTORY_CAPACITY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Marks the slot of a removed pairing.
+    private static final int REMOVED = -1;
+
+    // Marks the history entries of the entrant that was passed first.
+    private static final int FIRST = 1;
+
+    private final EntrantRegistry<E> registry;
+
+    // The id of the first entrant of every pairing, in insertion order.
+    // Removed pairings leave an empty slot until the ids are compacted.
+    private int[] firstIds = new int[INITIAL_CAPACITY];
+    private int slotCount = 0;
+    private int size = 0;
+
+    // The history entries of every entrant by entrant id, in insertion order.
+    private int[][] histories = new int[0][];
+    private int[] historySizes = new int[0];
+
+    private final EntrantSet<E> entrants;
+
+    public PairingIndex(EntrantRegistry<E> registry) {
+        this.registry = registry;
+        entrants = new EntrantSet<>(registry);
+    }
+
+    public boolean add(Pairing<E> pairing) {
+        int firstId = registry.register(pairing.getFirst());
+        int secondId = registry.register(pairing.getSecond());
+        if (contains(firstId, secondId))
+            return false;
+
+        if (slotCount == firstIds.length)
+            firstIds = Arrays.copyOf(firstIds, grow(slotCount));
+        firstIds[slotCount++] = firstId;
+        size += 1;
+
+        append(firstId, entry(secondId, true));
+        if (secondId != firstId)
+            append(secondId, entry(firstId, false));
+
+        return true;
+    }
+
+    public boolean remove(Pairing<E> pairing) {
+        int firstId = registry.idOf(pairing.getFirst());
+        int secondId = registry.idOf(pairing.getSecond());
+        int index = indexOf(firstId, secondId);
+        if (index < 0)
+            return false;
+
+        // The entrants may have been passed in the other order when the pairing was added.
+        if (!isFirst(histories[firstId][index])) {
+            secondId = firstId;
+            firstId = opponentOf(histories[firstId][index]);
+            index = indexOf(firstId, secondId);
+        }
+
+        firstIds[slotOf(firstId, index)] = REMOVED;
+        size -= 1;
+
+        removeFromHistory(firstId, index);
+        if (secondId != firstId)
+            removeFromHistory(secondId, indexOf(secondId, firstId));
+
+        if (slotCount > 2 * size + 16)
+            compact();
+
+        return true;
+    }
+
+    /**
+     * Removes all pairings of an entrant.
+     * @param entrant The entrant.
+     * @return The removed pairings.
+     */
+    public Set<Pairing<E>> removeByElement(E entrant) {
+        Set<Pairing<E>> removed = new LinkedHashSet<>(findByElement(entrant));
+        for (Pairing<E> pairing : removed)
+            remove(pairing);
+
+        return removed;
+    }
+
+    public void clear() {
+        firstIds = new int[INITIAL_CAPACITY];
+        slotCount = 0;
+        size = 0;
+        histories = new int[0][];
+        historySizes = new int[0];
+        entrants.clear();
+    }
+
+    public boolean contains(Pairing<E> pairing) {
+        return contains(registry.idOf(pairing.getFirst()), registry.idOf(pairing.getSecond()));
+    }
+
+    /**
+     * Checks for a pairing by the ids of its entrants, without creating the pairing.
+     * @param firstId The id of the first entrant.
+     * @param secondId The id of the second entrant.
+     * @return If the pairing is contained.
+     */
+    public boolean contains(int firstId, int secondId) {
+        return historySize(firstId) <= historySize(secondId)
+                ? indexOf(firstId, secondId) >= 0
+                : indexOf(secondId, firstId) >= 0;
+    }
+
+    /**
+     * Returns a view of the pairings of an entrant, in the order in which they were added.
+     * @param entrant The entrant.
+     * @return The pairings of the entrant.
+     */
+    public Set<Pairing<E>> findByElement(E entrant) {
+        int entrantId = registry.idOf(entrant);
+        if (historySize(entrantId) == 0)
+            return Collections.emptySet();
+
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Pairing<E>> iterator() {
+                return new Iterator<>() {
+
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < historySize(entrantId);
+                    }
+
+                    @Override
+                    public Pairing<E> next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        return get(entrantId, histories[entrantId][next++]);
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                if (!(o instanceof Pairing<?>))
+                    return false;
+
+                Pairing<E> pairing = (Pairing<E>) o;
+                return pairing.contains(entrant) && PairingIndex.this.contains(pairing);
+            }
+
+            @Override
+            public int size() {
+                return historySize(entrantId);
+            }
+        };
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The last added pairing of the entrant or null.
+     */
+    public Pairing<E> findLastByElement(E entrant) {
+        int entrantId = registry.idOf(entrant);
+        int historySize = historySize(entrantId);
+        return historySize == 0 ? null : get(entrantId, histories[entrantId][historySize - 1]);
+    }
+
+    /**
+     * Returns a view of the pairings, in the order in which they were added.
+     * @return The pairings.
+     */
+    public Set<Pairing<E>> elements() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Pairing<E>> iterator() {
+                return new Iterator<>() {
+
+                    // The position in the history of every entrant after its last visited pairing as first entrant.
+                    private final int[] positions = new int[histories.length];
+                    private int next = skipRemoved(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < slotCount;
+                    }
+
+                    @Override
+                    public Pairing<E> next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+
+                        // The pairings of the first entrant in which it was passed first are in the same order.
+                        int firstId = firstIds[next];
+                        int[] history = histories[firstId];
+                        int position = positions[firstId];
+                        while (!isFirst(history[position]))
+                            position += 1;
+                        positions[firstId] = position + 1;
+
+                        next = skipRemoved(next + 1);
+                        return get(firstId, history[position]);
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o instanceof Pairing<?> && PairingIndex.this.contains((Pairing<E>) o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return A view of all entrants that are part of any pairing.
+     */
+    public Set<E> getPairElementSet() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static int entry(int opponentId, boolean isFirst) {
+        return opponentId << 1 | (isFirst ? FIRST : 0);
+    }
+
+    private static int opponentOf(int entry) {
+        return entry >>> 1;
+    }
+
+    private static boolean isFirst(int entry) {
+        return (entry & FIRST) != 0;
+    }
+
+    /**
+     * Grows arrays by an eighth, so that little capacity is spare.
+     * Every element is still copied only about eight times on average.
+     */
+    private static int grow(int capacity) {
+        return capacity + Math.max(capacity >> 3, INITIAL_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Creates a pairing again from an entry of the history of an entrant,
+     * with its entrants in their original order.
+     */
+    private Pairing<E> get(int entrantId, int entry) {
+        E entrant = registry.get(entrantId);
+        E opponent = registry.get(opponentOf(entry));
+        return isFirst(entry) ? new Pairing<>(entrant, opponent) : new Pairing<>(opponent, entrant);
+    }
+
+    /**
+     * @return The position of the pairing with the opponent in the history of the entrant or -1.
+     */
+    private int indexOf(int entrantId, int opponentId) {
+        int historySize = historySize(entrantId);
+        for (int i = 0; i < historySize; ++i)
+            if (opponentOf(histories[entrantId][i]) == opponentId)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Finds the slot of a pairing in insertion order, which holds the nth occurrence of its first entrant,
+     * n being the number of pairings in which the entrant was passed first up to the pairing.
+     */
+    private int slotOf(int firstId, int index) {
+        int occurrence = 0;
+        for (int i = 0; i < index; ++i)
+            if (isFirst(histories[firstId][i]))
+                occurrence += 1;
+
+        int slot = 0;
+        while (firstIds[slot] != firstId || occurrence-- > 0)
+            slot += 1;
+        return slot;
+    }
+
+    private int historySize(int entrantId) {
+        return entrantId >= 0 && entrantId < historySizes.length ? historySizes[entrantId] : 0;
+    }
+
+    private void append(int entrantId, int entry) {
+        if (entrantId >= histories.length) {
+            int capacity = Math.max(registry.size(), entrantId + 1);
+            histories = Arrays.copyOf(histories, capacity);
+            historySizes = Arrays.copyOf(historySizes, capacity);
+        }
+
+        int[] history = histories[entrantId];
+        int historySize = historySizes[entrantId];
+
+        if (history == null)
+            history = histories[entrantId] = new int[INITIAL_HISTORY_CAPACITY];
+        else if (historySize == history.length)
+            history = histories[entrantId] = Arrays.copyOf(history, grow(historySize));
+
+        history[historySize] = entry;
+        historySizes[entrantId] = historySize + 1;
+        entrants.addId(entrantId);
+    }
+
+    private void removeFromHistory(int entrantId, int index) {
+        int[] history = histories[entrantId];
+        int historySize = historySizes[entrantId];
+
+        // Shift the following entries, so that the history stays in insertion order.
+        System.arraycopy(history, index + 1, history, index, historySize - index - 1);
+        historySizes[entrantId] = historySize - 1;
+
+        if (historySize == 1) {
+            histories[entrantId] = null;
+            entrants.removeId(entrantId);
+        }
+    }
+
+    private int skipRemoved(int slot) {
+        while (slot < slotCount && firstIds[slot] == REMOVED)
+            slot += 1;
+        return slot;
+    }
+
+    /**
+     * Moves the remaining pairings together, so that removed pairings don't take up any space.
+     */
+    private void compact() {
+        int nextSlot = 0;
+        for (int i = 0; i < slotCount; ++i)
+            if (firstIds[i] != REMOVED)
+                firstIds[nextSlot++] = firstIds[i];
+
+        firstIds = Arrays.copyOf(firstIds, Math.max(INITIAL_CAPACITY, nextSlot));
+        slotCount = nextSlot;
+    }
+}
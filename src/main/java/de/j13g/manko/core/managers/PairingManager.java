@@ -3,17 +3,79 @@ package de.j13g.manko.core.managers;
 import de.j13g.manko.core.Pairing;
 import de.j13g.manko.core.exceptions.NoSuchPairingException;
 import de.j13g.manko.core.managers.base.Pairings;
-import de.j13g.manko.util.UniformPairLinkedBiSet;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 import de.j13g.manko.util.UniformPairUniqueLinkedBiSet;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.Set;
 
 public class PairingManager<E> implements Pairings<E>, Serializable {
 
+    // Every entrant is part of at most one active pairing, so there are never more than half as many
+    // active pairings as entrants. Only the finished pairings grow with the tournament and are stored as entrant ids.
     private final UniformPairUniqueLinkedBiSet<E, Pairing<E>> activePairings = new UniformPairUniqueLinkedBiSet<>();
-    private final UniformPairLinkedBiSet<E, Pairing<E>> finishedPairings = new UniformPairLinkedBiSet<>();
+    private final PairingIndex<E> finishedPairings;
+
+    // The finished pairings that were read from a snapshot, but are not added yet.
+    private transient SnapshotInput<E> finishedPairingsSnapshot = null;
+
+    public PairingManager(EntrantRegistry<E> registry) {
+        finishedPairings = new PairingIndex<>(registry);
+    }
+
+    /**
+     * Writes the finished and the active pairings, each in the order in which they were added.
+     * The finished pairings are written as a section.
+     * @param out The snapshot output.
+     * @throws IOException The pairings could not be written.
+     */
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.beginSection();
+        out.writePairings(finished().elements());
+        out.endSection();
+        out.writePairings(activePairings.elements());
+    }
+
+    /**
+     * Adds the pairings that were written to a snapshot.
+     * The finished pairings are only read once they are accessed.
+     * @param in The snapshot input.
+     * @throws IOException The pairings could not be read.
+     */
+    public void read(SnapshotInput<E> in) throws IOException {
+        SnapshotInput<E> finishedSnapshot = in.readSection();
+        for (Pairing<E> pairing : in.readPairings())
+            activePairings.add(pairing);
+
+        finishedPairingsSnapshot = finishedSnapshot;
+    }
+
+    private PairingIndex<E> finished() {
+        if (finishedPairingsSnapshot != null) {
+            SnapshotInput<E> in = finishedPairingsSnapshot;
+            finishedPairingsSnapshot = null;
+
+            try {
+                for (Pairing<E> pairing : in.readPairings())
+                    finishedPairings.add(pairing);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Could not read the finished pairings", e);
+            }
+        }
+
+        return finishedPairings;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        finished();
+        out.defaultWriteObject();
+    }
 
     public boolean add(Pairing<E> pairing) {
         if (isFinished(pairing))
@@ -27,7 +89,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
         if (!isActive(pairing))
             throw new NoSuchPairingException();
 
-        finishedPairings.add(pairing);
+        finished().add(pairing);
         activePairings.remove(pairing);
         return true;
     }
@@ -41,7 +103,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
     }
 
     public boolean removeFinished(Pairing<E> finishedPairing) {
-        return finishedPairings.remove(finishedPairing);
+        return finished().remove(finishedPairing);
     }
 
     public Pairing<E> removeActiveByEntrant(E entrant) {
@@ -49,7 +111,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
     }
 
     public Set<Pairing<E>> removeFinishedByEntrant(E entrant) {
-        return finishedPairings.removeByElement(entrant);
+        return finished().removeByElement(entrant);
     }
 
     @Override
@@ -60,7 +122,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
     @Override
     public Pairing<E> getLastPairingOfEntrant(E entrant) {
         Pairing<E> lastActive = activePairings.findLastByElement(entrant);
-        Pairing<E> lastFinished = finishedPairings.findLastByElement(entrant);
+        Pairing<E> lastFinished = finished().findLastByElement(entrant);
         return lastActive != null ? lastActive : lastFinished;
     }
 
@@ -71,7 +133,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public Set<Pairing<E>> findFinishedByEntrant(E entrant) {
-        return finishedPairings.findByElement(entrant);
+        return finished().findByElement(entrant);
     }
 
     @Override
@@ -81,7 +143,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public Set<Pairing<E>> getFinished() {
-        return finishedPairings.elements();
+        return finished().elements();
     }
 
     @Override
@@ -91,7 +153,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public Set<E> getFinishedEntrants() {
-        return finishedPairings.getPairElementSet();
+        return finished().getPairElementSet();
     }
 
     @Override
@@ -106,12 +168,12 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public boolean hasFinished() {
-        return !finishedPairings.isEmpty();
+        return !finished().isEmpty();
     }
 
     @Override
     public boolean contains(Pairing<E> pairing) {
-        return activePairings.contains(pairing) || finishedPairings.contains(pairing);
+        return activePairings.contains(pairing) || finished().contains(pairing);
     }
 
     @Override
@@ -121,7 +183,16 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public boolean isFinished(Pairing<E> pairing) {
-        return finishedPairings.contains(pairing);
+        return finished().contains(pairing);
+    }
+
+    /**
+     * @param firstId The registry id of the first entrant.
+     * @param secondId The registry id of the second entrant.
+     * @return If the pairing between both entrants is finished.
+     */
+    public boolean isFinished(int firstId, int secondId) {
+        return finished().contains(firstId, secondId);
     }
 
     @Override
@@ -136,6 +207,6 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public boolean hasFinishedEntrant(E entrant) {
-        return finishedPairings.findByElement(entrant) != null;
+        return !finished().findByElement(entrant).isEmpty();
     }
 }
@@ -1,17 +1,79 @@
 package de.j13g.manko.core.managers;
 
 import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 
+/**
+ * Stores the placements of entrants as int values, indexed by entrant id,
+ * and the entrant of every rank in an inverse array, indexed by rank.
+ * Thus both directions take a single array read.
+ * @param <E> The entrant type.
+ */
 // TODO Extract common methods compared to ScoreManager.
 public class PlacementManager<E> implements Serializable {
 
     private static final Placement DEFAULT_PLACEMENT = Placement.TBD;
 
-    private final HashMap<E, Placement> placements = new HashMap<>();
-    private final HashMap<Placement, E> winners = new HashMap<>();
+    private static final int NO_PLACEMENT = Integer.MIN_VALUE;
+
+    private final EntrantRegistry<E> registry;
+
+    // The placement values, indexed by entrant id.
+    private int[] placements = new int[0];
+    private int placementCount = 0;
+
+    // The entrant ids, indexed by rank. Index 0 is unused.
+    private int[] entrantsByRank = new int[1];
+    private int maxRank = 0;
+
+    public PlacementManager(EntrantRegistry<E> registry) {
+        this.registry = registry;
+        Arrays.fill(entrantsByRank, EntrantRegistry.NO_ID);
+    }
+
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeInt(placementCount);
+        for (int id = 0; id < placements.length; ++id) {
+            if (placements[id] != NO_PLACEMENT) {
+                out.writeEntrant(registry.get(id));
+                // Offset by TBD, which is the lowest value, so that the written values are small and non-negative.
+                out.writeInt(placements[id] - Placement.TBD.getValue());
+            }
+        }
+
+        int winnerCount = (int) Arrays.stream(entrantsByRank).filter(id -> id != EntrantRegistry.NO_ID).count();
+        out.writeInt(winnerCount);
+        for (int rank = 1; rank <= maxRank; ++rank) {
+            if (entrantsByRank[rank] != EntrantRegistry.NO_ID) {
+                out.writeInt(rank);
+                out.writeEntrant(registry.get(entrantsByRank[rank]));
+            }
+        }
+    }
+
+    public void read(SnapshotInput<E> in) throws IOException {
+        int placementCount = in.readCount();
+        for (int i = 0; i < placementCount; ++i) {
+            int id = registry.register(in.readEntrant());
+            placements = ensureCapacity(placements, id, NO_PLACEMENT);
+            setPlacementValue(id, readPlacementValue(in));
+        }
+
+        int winnerCount = in.readCount();
+        for (int i = 0; i < winnerCount; ++i) {
+            int rank = in.readInt();
+            if (rank < 1)
+                throw new IOException("Invalid rank " + rank);
+            setEntrantByRank(rank, registry.register(in.readEntrant()));
+        }
+    }
 
     public Placement setPlacement(E entrant, Placement placement) {
         Placement oldPlacement = getOrDefault(entrant);
@@ -32,28 +94,98 @@ public class PlacementManager<E> implements Serializable {
     }
 
     public E getEntrantByPlacement(Placement placement) {
-        if (!isValidWinnerPlacement(placement))
+        if (!placement.isRanked())
+            throw new IllegalArgumentException();
+
+        return getEntrantByRank(placement.getValue());
+    }
+
+    /**
+     * @param rank The rank, starting at 1.
+     * @return The entrant with this rank or null.
+     */
+    public E getEntrantByRank(int rank) {
+        if (rank < 1)
             throw new IllegalArgumentException();
-        return winners.getOrDefault(placement, null);
+
+        int id = rank <= maxRank ? entrantsByRank[rank] : EntrantRegistry.NO_ID;
+        return id != EntrantRegistry.NO_ID ? registry.get(id) : null;
+    }
+
+    /**
+     * @return The standings up to the highest rank that was given to an entrant.
+     */
+    public Standings<E> getStandings() {
+        ArrayList<E> entrants = new ArrayList<>(maxRank);
+        for (int rank = 1; rank <= maxRank; ++rank)
+            entrants.add(getEntrantByRank(rank));
+
+        return new Standings<>(entrants);
     }
 
     private Placement getOrDefault(E entrant) {
-        return placements.getOrDefault(entrant, DEFAULT_PLACEMENT);
+        int id = registry.idOf(entrant);
+        if (id == EntrantRegistry.NO_ID || id >= placements.length || placements[id] == NO_PLACEMENT)
+            return DEFAULT_PLACEMENT;
+        return Placement.ofValue(placements[id]);
     }
 
     private void set(E entrant, Placement placement) {
-        placements.put(entrant, placement);
-        if (isValidWinnerPlacement(placement))
-            winners.put(placement, entrant);
+        int id = registry.register(entrant);
+        placements = ensureCapacity(placements, id, NO_PLACEMENT);
+        clearRank(id);
+        setPlacementValue(id, placement.getValue());
+
+        if (placement.isRanked())
+            setEntrantByRank(placement.getValue(), id);
     }
 
     private void reset(E entrant) {
-        Placement placement = placements.get(entrant);
-        placements.remove(entrant);
-        winners.remove(placement);
+        int id = registry.idOf(entrant);
+        if (id == EntrantRegistry.NO_ID || id >= placements.length || placements[id] == NO_PLACEMENT)
+            return;
+
+        clearRank(id);
+        placements[id] = NO_PLACEMENT;
+        placementCount -= 1;
+    }
+
+    /**
+     * Frees the rank of an entrant, if the entrant still occupies it.
+     * @param id The id of the entrant.
+     */
+    private void clearRank(int id) {
+        int value = placements[id];
+        if (value >= 1 && value <= maxRank && entrantsByRank[value] == id)
+            entrantsByRank[value] = EntrantRegistry.NO_ID;
     }
 
-    private boolean isValidWinnerPlacement(Placement placement) {
-        return placement == Placement.FIRST || placement == Placement.SECOND || placement == Placement.THIRD;
+    private void setPlacementValue(int id, int value) {
+        if (placements[id] == NO_PLACEMENT)
+            placementCount += 1;
+        placements[id] = value;
+    }
+
+    private void setEntrantByRank(int rank, int id) {
+        entrantsByRank = ensureCapacity(entrantsByRank, rank, EntrantRegistry.NO_ID);
+        entrantsByRank[rank] = id;
+        maxRank = Math.max(maxRank, rank);
+    }
+
+    private static int readPlacementValue(SnapshotInput<?> in) throws IOException {
+        int offsetValue = in.readInt();
+        if (offsetValue < 0)
+            throw new IOException("Invalid placement " + offsetValue);
+        return offsetValue + Placement.TBD.getValue();
+    }
+
+    private static int[] ensureCapacity(int[] values, int index, int emptyValue) {
+        if (index < values.length)
+            return values;
+
+        int oldLength = values.length;
+        int[] grown = Arrays.copyOf(values, Math.max(index + 1, oldLength * 2));
+        Arrays.fill(grown, oldLength, grown.length, emptyValue);
+        return grown;
     }
 }
@@ -1,14 +1,67 @@
 package de.j13g.manko.core.managers;
 
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+import de.j13g.manko.util.IntCountTree;
+
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
+/**
+ * Keeps the scores of entrants and ranks them by score.
+ * Entrants with equal scores share a rank, the ranks after them are skipped (1, 2, 2, 4).
+ * Entrants can be excluded from the ranking, while their score is kept.
+ * @param <E> The entrant type.
+ */
 public class ScoreManager<E> implements Serializable {
 
-    private static final int MIN_SCORE = 0;
-    private static final int DEFAULT_SCORE = MIN_SCORE;
+    private static final int DEFAULT_SCORE = 0;
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private final EntrantRegistry<E> registry;
+
+    // Indexed by entrant id.
+    private int[] scores = new int[0];
+    private final BitSet hasScore = new BitSet();
+
+    // Entrants with a score that are not ranked.
+    private final BitSet isExcluded = new BitSet();
+
+    // The lowest score that the index below can hold. Scores are indexed relative to it,
+    // it is only lowered once an entrant is ranked with a negative score.
+    private int minScore = DEFAULT_SCORE;
+
+    // The ids of the entrants that have each score, by score index, in no particular order.
+    private int[][] entrantsByScore = new int[0][];
+    private int[] entrantCounts = new int[0];
 
-    private final HashMap<E, Integer> scores = new HashMap<>();
+    // The position of each entrant in the list of its score, by entrant id.
+    private int[] positions = new int[0];
+
+    // The score indices of all ranked entrants.
+    private final IntCountTree scoreCounts = new IntCountTree();
+
+    public ScoreManager(EntrantRegistry<E> registry) {
+        this.registry = registry;
+    }
+
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeInt(hasScore.cardinality());
+        for (int id = hasScore.nextSetBit(0); id >= 0; id = hasScore.nextSetBit(id + 1)) {
+            out.writeEntrant(registry.get(id));
+            out.writeInt(scores[id]);
+        }
+    }
+
+    public void read(SnapshotInput<E> in) throws IOException {
+        int count = in.readCount();
+        for (int i = 0; i < count; ++i)
+            setScore(in.readEntrant(), in.readInt());
+    }
 
     /**
      * Explicitly adds an entrant with default score.
@@ -36,6 +89,18 @@ public class ScoreManager<E> implements Serializable {
         return addScore(entrant, -1);
     }
 
+    /**
+     * Adds a value to the score of an entrant.
+     * @param entrant The entrant.
+     * @param value The value to add
+     * @return The entrant's new score.
+     */
+    public int addScore(E entrant, int value) {
+        int newScore = getOrDefault(entrant) + value;
+        setScore(entrant, newScore);
+        return newScore;
+    }
+
     /**
      * Resets the score of an entrant.
      * @param entrant The entrant.
@@ -43,7 +108,16 @@ public class ScoreManager<E> implements Serializable {
      */
     public int resetScore(E entrant) {
         int score = getOrDefault(entrant);
-        scores.remove(entrant);
+
+        int id = registry.idOf(entrant);
+        if (id != EntrantRegistry.NO_ID && hasScore.get(id)) {
+            if (!isExcluded.get(id))
+                unrank(id);
+            hasScore.clear(id);
+            isExcluded.clear(id);
+            scores[id] = DEFAULT_SCORE;
+        }
+
         return score;
     }
 
@@ -52,15 +126,110 @@ public class ScoreManager<E> implements Serializable {
     }
 
     /**
-     * Adds a value to the score of an entrant.
      * @param entrant The entrant.
-     * @param value The value to add
-     * @return The entrant's new score.
+     * @return If the entrant has a score, excluded or not.
      */
-    private int addScore(E entrant, int value) {
-        int newScore = getOrDefault(entrant) + value;
-        setScore(entrant, newScore);
-        return newScore;
+    public boolean hasScore(E entrant) {
+        int id = registry.idOf(entrant);
+        return id != EntrantRegistry.NO_ID && hasScore.get(id);
+    }
+
+    /**
+     * Excludes an entrant from the ranking. Its score is kept and still changes.
+     * @param entrant The entrant.
+     * @return If the entrant was ranked before.
+     */
+    public boolean exclude(E entrant) {
+        int id = registry.register(entrant);
+        if (!hasScore.get(id))
+            setScore(entrant, DEFAULT_SCORE);
+        if (isExcluded.get(id))
+            return false;
+
+        unrank(id);
+        isExcluded.set(id);
+        return true;
+    }
+
+    /**
+     * Ranks an entrant again, that was excluded before.
+     * @param entrant The entrant.
+     * @return If the entrant was excluded.
+     */
+    public boolean include(E entrant) {
+        int id = registry.idOf(entrant);
+        if (id == EntrantRegistry.NO_ID || !isExcluded.get(id))
+            return false;
+
+        isExcluded.clear(id);
+        rank(id);
+        return true;
+    }
+
+    /**
+     * Gets the rank of an entrant, which is one above the number of ranked entrants with a higher score.
+     * Entrants without a score are ranked with the default score,
+     * excluded entrants get the rank they would have with their score.
+     * @param entrant The entrant.
+     * @return The rank, starting at 1.
+     */
+    public int getRank(E entrant) {
+        return scoreCounts.countAbove(getOrDefault(entrant) - minScore) + 1;
+    }
+
+    /**
+     * Gets the entrants with a specific rank.
+     * There can be none, if the entrants before them share a rank.
+     * @param rank The rank, starting at 1.
+     * @return The entrants with that rank, in no particular order.
+     */
+    public List<E> getEntrantsByRank(int rank) {
+        int score = scoreAtRank(rank);
+        return score != NO_SCORE ? getEntrantsByScore(score) : List.of();
+    }
+
+    /**
+     * @param rank The rank, starting at 1.
+     * @return The number of ranked entrants with that rank.
+     */
+    public int countEntrantsByRank(int rank) {
+        int score = scoreAtRank(rank);
+        return score != NO_SCORE ? countEntrantsByScore(score) : 0;
+    }
+
+    /**
+     * @param score The score.
+     * @return The ranked entrants with that score, in no particular order.
+     */
+    public List<E> getEntrantsByScore(int score) {
+        int count = countEntrantsByScore(score);
+        int index = score - minScore;
+
+        ArrayList<E> entrants = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entrants.add(registry.get(entrantsByScore[index][i]));
+        return entrants;
+    }
+
+    /**
+     * @param score The score.
+     * @return The number of ranked entrants with that score.
+     */
+    public int countEntrantsByScore(int score) {
+        int index = score - minScore;
+        return index >= 0 && index < entrantCounts.length ? entrantCounts[index] : 0;
+    }
+
+    /**
+     * @param rank The rank, starting at 1.
+     * @return The score of the entrants with that rank or {@link ScoreManager#NO_SCORE} if no entrant has that rank.
+     */
+    private int scoreAtRank(int rank) {
+        if (rank < 1 || rank > scoreCounts.size())
+            return NO_SCORE;
+
+        int index = scoreCounts.valueAt(rank);
+        return scoreCounts.countAbove(index) + 1 == rank ? index + minScore : NO_SCORE;
     }
 
     /**
@@ -69,10 +238,91 @@ public class ScoreManager<E> implements Serializable {
      * @param score The new score.
      */
     private void setScore(E entrant, int score) {
-        scores.put(entrant, score);
+        int id = registry.register(entrant);
+        if (id >= scores.length) {
+            int length = Math.max(id + 1, scores.length * 2);
+            scores = Arrays.copyOf(scores, length);
+            positions = Arrays.copyOf(positions, length);
+        }
+
+        boolean isRanked = !isExcluded.get(id);
+        if (hasScore.get(id) && isRanked)
+            unrank(id);
+
+        scores[id] = score;
+        hasScore.set(id);
+        if (isRanked)
+            rank(id);
+    }
+
+    /**
+     * Adds an entrant to the list of its score and counts its score.
+     * @param id The id of the entrant.
+     */
+    private void rank(int id) {
+        if (scores[id] < minScore)
+            lowerMinScore(scores[id]);
+
+        int index = scores[id] - minScore;
+        if (index >= entrantsByScore.length) {
+            int length = Math.max(index + 1, entrantsByScore.length * 2);
+            entrantsByScore = Arrays.copyOf(entrantsByScore, length);
+            entrantCounts = Arrays.copyOf(entrantCounts, length);
+        }
+
+        int[] entrants = entrantsByScore[index];
+        int count = entrantCounts[index];
+        if (entrants == null)
+            entrants = entrantsByScore[index] = new int[4];
+        else if (count == entrants.length)
+            entrants = entrantsByScore[index] = Arrays.copyOf(entrants, 2 * count);
+
+        entrants[count] = id;
+        positions[id] = count;
+        entrantCounts[index] = count + 1;
+        scoreCounts.add(index);
+    }
+
+    /**
+     * Shifts the index, so that it can hold a lower score. The lowest score is at least doubled,
+     * so that repeatedly lowering it takes amortized constant time per score.
+     * @param score The score, which is below the lowest score.
+     */
+    private void lowerMinScore(int score) {
+        int newMinScore = Math.min(score, 2 * minScore - 1);
+        int shift = minScore - newMinScore;
+
+        int[][] shiftedEntrants = new int[entrantsByScore.length + shift][];
+        System.arraycopy(entrantsByScore, 0, shiftedEntrants, shift, entrantsByScore.length);
+        int[] shiftedCounts = new int[entrantCounts.length + shift];
+        System.arraycopy(entrantCounts, 0, shiftedCounts, shift, entrantCounts.length);
+
+        scoreCounts.clear();
+        for (int index = 0; index < shiftedCounts.length; ++index)
+            for (int i = 0; i < shiftedCounts[index]; ++i)
+                scoreCounts.add(index);
+
+        entrantsByScore = shiftedEntrants;
+        entrantCounts = shiftedCounts;
+        minScore = newMinScore;
+    }
+
+    /**
+     * Removes an entrant from the list of its score by moving the last entrant in its place.
+     * @param id The id of the entrant.
+     */
+    private void unrank(int id) {
+        int index = scores[id] - minScore;
+        int[] entrants = entrantsByScore[index];
+        int last = entrants[--entrantCounts[index]];
+
+        entrants[positions[id]] = last;
+        positions[last] = positions[id];
+        scoreCounts.remove(index);
     }
 
     private int getOrDefault(E entrant) {
-        return scores.getOrDefault(entrant, DEFAULT_SCORE);
+        int id = registry.idOf(entrant);
+        return id != EntrantRegistry.NO_ID && hasScore.get(id) ? scores[id] : DEFAULT_SCORE;
     }
 }
@@ -0,0 +1,13 @@
+package de.j13g.manko.core.persistence;
+
+/**
+ * Converts entrants to a string representation and back.
+ * Decoding an encoded entrant must yield an entrant equal to the original.
+ * @param <E> The entrant type.
+ */
+public interface EntrantCodec<E> {
+
+    String encode(E entrant);
+
+    E decode(String value);
+}
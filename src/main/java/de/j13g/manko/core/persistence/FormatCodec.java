@@ -0,0 +1,82 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.formats.DoubleEliminationFormat;
+import de.j13g.manko.core.formats.GroupStageFormat;
+import de.j13g.manko.core.formats.SeededBracketFormat;
+import de.j13g.manko.core.formats.SwissFormat;
+import de.j13g.manko.core.rounds.GroupStage;
+
+import java.io.IOException;
+
+/**
+ * Writes tournament formats to snapshots along with their type and parameters, so that they can be read again.
+ */
+public final class FormatCodec {
+
+    private static final int DEFAULT = 0;
+    private static final int DOUBLE_ELIMINATION = 1;
+    private static final int SEEDED_BRACKET = 2;
+    private static final int SWISS = 3;
+    private static final int GROUP_STAGE = 4;
+
+    private FormatCodec() {}
+
+    public static <E> void write(SnapshotOutput<E> out, TournamentFormat<E> format) throws IOException {
+        if (format instanceof DefaultFormat) {
+            out.writeByte(DEFAULT);
+            out.writeInt(((DefaultFormat<E>) format).getMaxRoundRobinSize());
+        }
+        else if (format instanceof DoubleEliminationFormat) {
+            out.writeByte(DOUBLE_ELIMINATION);
+            out.writeLong(((DoubleEliminationFormat<E>) format).getDrawSeed());
+        }
+        else if (format instanceof SeededBracketFormat) {
+            out.writeByte(SEEDED_BRACKET);
+            out.writeEntrants(((SeededBracketFormat<E>) format).getSeeds());
+        }
+        else if (format instanceof SwissFormat) {
+            SwissFormat<E> swissFormat = (SwissFormat<E>) format;
+            out.writeByte(SWISS);
+            out.writeInt(swissFormat.getRoundCount());
+            out.writeLong(swissFormat.getPairingSeed());
+        }
+        else if (format instanceof GroupStageFormat) {
+            GroupStageFormat<E> groupStageFormat = (GroupStageFormat<E>) format;
+            out.writeByte(GROUP_STAGE);
+            out.writeInt(groupStageFormat.getGroupCount());
+            out.writeInt(groupStageFormat.getAdvancingCount());
+            out.writeEnum(groupStageFormat.getSeeding());
+            out.writeLong(groupStageFormat.getDrawSeed());
+            out.writeInt(groupStageFormat.getKnockoutFormat().getMaxRoundRobinSize());
+        }
+        else
+            throw new IllegalArgumentException("Format type not supported");
+    }
+
+    /**
+     * Reads a format that was written with {@link FormatCodec#write(SnapshotOutput, TournamentFormat)}.
+     * @param in The snapshot input.
+     * @param <E> The entrant type.
+     * @return The format.
+     * @throws IOException The format could not be read or has invalid parameters.
+     */
+    public static <E> TournamentFormat<E> read(SnapshotInput<E> in) throws IOException {
+        int type = in.readByte();
+        try {
+            return switch (type) {
+                case DEFAULT -> new DefaultFormat<>(in.readCount());
+                case DOUBLE_ELIMINATION -> new DoubleEliminationFormat<>(in.readLong());
+                case SEEDED_BRACKET -> new SeededBracketFormat<>(in.readEntrants());
+                case SWISS -> new SwissFormat<>(in.readCount(), in.readLong());
+                case GROUP_STAGE -> new GroupStageFormat<>(in.readCount(), in.readCount(),
+                        in.readEnum(GroupStage.Seeding.values()), in.readLong(), new DefaultFormat<>(in.readCount()));
+                default -> throw new IOException("Unknown format type " + type);
+            };
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Invalid format", e);
+        }
+    }
+}
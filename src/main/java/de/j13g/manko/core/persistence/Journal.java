@@ -0,0 +1,244 @@
+package de.j13g.manko.core.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of records.
+ * Each record is written with its length and a checksum,
+ * so that a record which was only partially written (e.g. due to a crash)
+ * is detected and discarded when reading the journal.
+ * The journal belongs to a generation, which is used to match it
+ * with the checkpoint that its records have to be applied on top of.
+ * @param <R> The record type.
+ */
+public class Journal<R> implements Closeable {
+
+    private static final int MAGIC = 0x4D4B4A4C; // "MKJL"
+    private static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final RecordCodec<R> codec;
+    private final SyncPolicy syncPolicy;
+
+    private long generation;
+    private int size = 0;
+
+    private Journal(FileChannel channel, RecordCodec<R> codec, SyncPolicy syncPolicy) {
+        this.channel = channel;
+        this.codec = codec;
+        this.syncPolicy = syncPolicy;
+    }
+
+    /**
+     * Opens a journal file or creates it if it does not exist.
+     * @param path The path of the journal file.
+     * @param codec The codec for the records.
+     * @param syncPolicy When appended records should be forced to the storage device.
+     * @param <R> The record type.
+     * @return The opened journal.
+     * @throws IOException The file could not be opened or is not a journal.
+     */
+    public static <R> Journal<R> open(Path path, RecordCodec<R> codec, SyncPolicy syncPolicy) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        Journal<R> journal = new Journal<>(channel, codec, syncPolicy);
+        try {
+            if (channel.size() < HEADER_SIZE)
+                journal.reset(0);
+            else
+                journal.readHeader();
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return journal;
+    }
+
+    /**
+     * Reads all intact records of this journal.
+     * A torn record at the end of the journal and anything after it is discarded.
+     * New records are appended after the last intact record.
+     * @return The records in the order in which they were appended.
+     * @throws IOException The journal could not be read.
+     */
+    public List<R> read() throws IOException {
+        ArrayList<R> records = new ArrayList<>();
+
+        long position = HEADER_SIZE;
+        long end = channel.size();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+
+        while (end - position >= RECORD_HEADER_SIZE) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            recordHeader.flip();
+
+            int length = recordHeader.getInt();
+            int checksum = recordHeader.getInt();
+            if (length < 0 || end - position - RECORD_HEADER_SIZE < length)
+                break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + RECORD_HEADER_SIZE);
+            if (checksum(payload.array()) != checksum)
+                break;
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+            records.add(codec.read(in));
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        if (position < end)
+            channel.truncate(position);
+
+        channel.position(position);
+        size = records.size();
+        return records;
+    }
+
+    /**
+     * Appends a record to the end of the journal.
+     * @param record The record.
+     * @throws IOException The record could not be written.
+     */
+    public void append(R record) throws IOException {
+        append(List.of(record));
+    }
+
+    /**
+     * Appends records to the end of the journal with a single write.
+     * If records are synced, they are synced once after all of them were written.
+     * @param records The records in order.
+     * @throws IOException The records could not be written.
+     */
+    public void append(Collection<R> records) throws IOException {
+        if (records.isEmpty())
+            return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payloadOut = new DataOutputStream(payloadBytes);
+
+        for (R record : records) {
+            payloadBytes.reset();
+            codec.write(payloadOut, record);
+            payloadOut.flush();
+
+            byte[] payload = payloadBytes.toByteArray();
+            out.writeInt(payload.length);
+            out.writeInt(checksum(payload));
+            out.write(payload);
+        }
+
+        out.flush();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+        channel.position(channel.size());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+
+        if (syncPolicy == SyncPolicy.EVERY_RECORD)
+            channel.force(false);
+
+        size += records.size();
+    }
+
+    /**
+     * Discards all records and starts a new generation.
+     * This should be called once the state that the records
+     * describe has been written to a checkpoint of the same generation.
+     * @param generation The new generation.
+     * @throws IOException The journal could not be reset.
+     */
+    public void reset(long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putLong(generation);
+        header.flip();
+
+        channel.truncate(0);
+        channel.position(0);
+        while (header.hasRemaining())
+            channel.write(header);
+
+        if (syncPolicy != SyncPolicy.NEVER)
+            channel.force(true);
+
+        this.generation = generation;
+        size = 0;
+    }
+
+    /**
+     * Forces all appended records to the storage device.
+     * @throws IOException The records could not be forced.
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * @return The generation of the checkpoint that the records belong to.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The number of records in this journal.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncPolicy != SyncPolicy.NEVER && channel.isOpen())
+            channel.force(false);
+        channel.close();
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+
+        if (header.getInt() != MAGIC)
+            throw new IOException("Not a journal file");
+        if (header.getShort() != VERSION)
+            throw new IOException("Unsupported journal version");
+
+        generation = header.getLong();
+        channel.position(channel.size());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException();
+            position += read;
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
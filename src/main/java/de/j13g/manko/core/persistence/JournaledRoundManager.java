@@ -0,0 +1,177 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.RoundManager;
+import de.j13g.manko.core.exceptions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Passes every operation that changed the state of a round manager to a recorder.
+ * Operations that fail or do not change any state are not recorded.
+ * Operations that are carried out together, like all results of a batch, are recorded together.
+ * @param <E> The entrant type.
+ */
+public class JournaledRoundManager<E> implements RoundManager<E> {
+
+    private final RoundManager<E> manager;
+    private final Consumer<RoundOperation<E>> recorder;
+    private final Consumer<List<RoundOperation<E>>> batchRecorder;
+
+    public JournaledRoundManager(RoundManager<E> manager, Consumer<RoundOperation<E>> recorder) {
+        this(manager, recorder, operations -> operations.forEach(recorder));
+    }
+
+    /**
+     * @param manager The round manager whose operations are recorded.
+     * @param recorder Records a single operation.
+     * @param batchRecorder Records multiple operations, that were carried out together.
+     */
+    public JournaledRoundManager(RoundManager<E> manager, Consumer<RoundOperation<E>> recorder,
+                                 Consumer<List<RoundOperation<E>>> batchRecorder) {
+        this.manager = manager;
+        this.recorder = recorder;
+        this.batchRecorder = batchRecorder;
+    }
+
+    /**
+     * @return The round manager whose operations are recorded.
+     */
+    public RoundManager<E> getManager() {
+        return manager;
+    }
+
+    @Override
+    public Round<E> getCurrentRound() {
+        return manager.getCurrentRound();
+    }
+
+    @Override
+    public void nextRound() throws RoundNotFinishedException, FinalRoundException {
+        manager.nextRound();
+        recorder.accept(RoundOperation.nextRound());
+    }
+
+    @Override
+    public void previousRound() throws AlreadyStartedException, InitialRoundException {
+        manager.previousRound();
+        recorder.accept(RoundOperation.previousRound());
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
+        boolean isAdded = manager.addEntrant(entrant);
+        if (isAdded)
+            recorder.accept(RoundOperation.add(entrant));
+        return isAdded;
+    }
+
+    @Override
+    public boolean removeEntrant(E entrant) {
+        boolean isRemoved = manager.removeEntrant(entrant);
+        if (isRemoved)
+            recorder.accept(RoundOperation.remove(entrant));
+        return isRemoved;
+    }
+
+    @Override
+    public boolean resetEntrant(E entrant) {
+        boolean isReset = manager.resetEntrant(entrant);
+        if (isReset)
+            recorder.accept(RoundOperation.reset(entrant));
+        return isReset;
+    }
+
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        Pairing<E> pairing = manager.nextPairing();
+        recorder.accept(RoundOperation.pair(pairing));
+        return pairing;
+    }
+
+    @Override
+    public List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        List<Pairing<E>> pairings = manager.pairAll();
+
+        ArrayList<RoundOperation<E>> operations = new ArrayList<>(pairings.size());
+        for (Pairing<E> pairing : pairings)
+            operations.add(RoundOperation.pair(pairing));
+
+        batchRecorder.accept(operations);
+        return pairings;
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException,
+            UnfinishedPairingsException {
+
+        Pairing<E> startedPairing = manager.startPairing(pairing);
+        recorder.accept(RoundOperation.pair(startedPairing));
+        return startedPairing;
+    }
+
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        boolean isReplayed = manager.replayPairing(pairing);
+        if (isReplayed)
+            recorder.accept(RoundOperation.replay(pairing));
+        return isReplayed;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        manager.declareWinner(winningEntrant, pairing);
+        recorder.accept(RoundOperation.win(winningEntrant, pairing));
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        Pairing<E> pairing = manager.declareWinner(winningEntrant);
+        recorder.accept(RoundOperation.win(winningEntrant, pairing));
+        return pairing;
+    }
+
+    @Override
+    public void declareTie(Pairing<E> pairing)
+            throws NoSuchPairingException {
+
+        manager.declareTie(pairing);
+        recorder.accept(RoundOperation.tie(pairing));
+    }
+
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        List<Pairing<E>> pairings = manager.declareResults(results);
+
+        ArrayList<RoundOperation<E>> operations = new ArrayList<>(pairings.size());
+        Iterator<Pairing<E>> pairingIterator = pairings.iterator();
+        for (Result<E> result : results) {
+            Pairing<E> pairing = pairingIterator.next();
+            operations.add(result.isTie()
+                    ? RoundOperation.tie(pairing)
+                    : RoundOperation.win(result.getWinningEntrant(), pairing));
+        }
+
+        batchRecorder.accept(operations);
+        return pairings;
+    }
+}
@@ -0,0 +1,263 @@
+package de.j13g.manko.core.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Persists a state on a background thread.
+ * The service keeps its own copy of the state, which is only touched by the background thread.
+ * Callers submit the changes that they made to their state and return immediately.
+ * Changes that are submitted in quick succession are written together:
+ * journaled records with a single write and sync, other changes with a single checkpoint.
+ * Nothing is written if the modification stamp of the state did not change since the last write.
+ * If a change can't be applied, the service's state no longer matches the caller's state,
+ * thus the service fails and stops writing, so that the last intact state is kept.
+ * @param <S> The state type.
+ * @param <R> The type of the journaled records.
+ */
+public class PersistenceService<S, R> implements Closeable {
+
+    /**
+     * Writes the full state, so that it can be restored without any journal records.
+     * @param <S> The state type.
+     */
+    public interface CheckpointWriter<S> {
+
+        /**
+         * @param state The state to write.
+         * @param generation The generation of the journal that will continue on top of it.
+         * @throws IOException The checkpoint could not be written.
+         */
+        void write(S state, long generation) throws IOException;
+    }
+
+    private final S state;
+    private final Journal<R> journal;
+    private final BiConsumer<S, R> applier;
+    private final ToLongFunction<S> versionOf;
+    private final CheckpointWriter<S> checkpointWriter;
+    private final Consumer<IOException> failureHandler;
+    private final int checkpointInterval;
+
+    private final Thread thread;
+
+    // Guarded by this.
+    private ArrayList<Change> pendingChanges = new ArrayList<>();
+    private boolean isClosed = false;
+
+    // Only written by the background thread.
+    private volatile boolean hasFailed = false;
+
+    // Only accessed by the background thread.
+    private long generation;
+    private long writtenVersion;
+    private boolean isCheckpointRequired;
+
+    /**
+     * Creates the service and starts its background thread.
+     * @param state The service's own copy of the state. It must not be shared with the caller.
+     * @param journal The journal, which continues on top of the given state.
+     * @param applier Applies a journaled record to the state.
+     * @param versionOf Gets the modification stamp of the state.
+     * @param checkpointWriter Writes the full state.
+     * @param failureHandler Called on the background thread, if writing failed.
+     * @param checkpointInterval The number of journal records after which a checkpoint is written.
+     * @param isCheckpointRequired If the state has to be written before any further records.
+     */
+    public PersistenceService(S state, Journal<R> journal, BiConsumer<S, R> applier, ToLongFunction<S> versionOf,
+                              CheckpointWriter<S> checkpointWriter, Consumer<IOException> failureHandler,
+                              int checkpointInterval, boolean isCheckpointRequired) {
+
+        this.state = state;
+        this.journal = journal;
+        this.applier = applier;
+        this.versionOf = versionOf;
+        this.checkpointWriter = checkpointWriter;
+        this.failureHandler = failureHandler;
+        this.checkpointInterval = checkpointInterval;
+        this.generation = journal.getGeneration();
+        this.writtenVersion = versionOf.applyAsLong(state);
+        this.isCheckpointRequired = isCheckpointRequired;
+
+        thread = new Thread(this::run, "Manko Persistence");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Submits a record, that is appended to the journal and applied to the state.
+     * @param record The record. Must be immutable.
+     */
+    public void record(R record) {
+        submit(new Change(record, null, false));
+    }
+
+    /**
+     * Submits multiple records at once, which are appended to the journal with a single write.
+     * @param records The records. Must be immutable.
+     */
+    public synchronized void recordAll(Collection<R> records) {
+        for (R record : records)
+            submit(new Change(record, null, false));
+    }
+
+    /**
+     * Submits records that are already in the journal, but not applied to the service's state yet.
+     * They are applied on the background thread, so that the state can be handed over before
+     * the journal is replayed on it. Must be called before any other changes are submitted.
+     * @param records The records, in the order in which they were journaled. Must be immutable.
+     */
+    public void restore(Collection<R> records) {
+        for (R record : records)
+            submit(new Change(record, null, true));
+    }
+
+    /**
+     * Submits a change that is not journaled, thus the full state is written.
+     * @param update The change to apply to the state. Must not capture mutable objects.
+     */
+    public void update(Consumer<S> update) {
+        submit(new Change(null, update, false));
+    }
+
+    /**
+     * Writes all submitted changes and stops the background thread.
+     * @throws IOException The journal could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            isClosed = true;
+            notifyAll();
+        }
+
+        try {
+            thread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        journal.close();
+    }
+
+    /**
+     * @return If a change could not be applied, after which nothing is written anymore.
+     */
+    public boolean hasFailed() {
+        return hasFailed;
+    }
+
+    private synchronized void submit(Change change) {
+        if (isClosed)
+            throw new IllegalStateException("The service is closed");
+
+        pendingChanges.add(change);
+        notifyAll();
+    }
+
+    /**
+     * Waits for changes and takes all of them at once.
+     * @return The changes or null if the service was closed and all changes are taken.
+     */
+    private synchronized List<Change> takeChanges() {
+        while (pendingChanges.isEmpty() && !isClosed) {
+            try {
+                wait();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        if (pendingChanges.isEmpty())
+            return null;
+
+        List<Change> changes = pendingChanges;
+        pendingChanges = new ArrayList<>();
+        return changes;
+    }
+
+    private void run() {
+        List<Change> changes;
+        while ((changes = takeChanges()) != null)
+            write(changes);
+    }
+
+    private void write(List<Change> changes) {
+        if (hasFailed)
+            return;
+
+        ArrayList<R> records = new ArrayList<>();
+        boolean isUpdated = false;
+
+        try {
+            for (Change change : changes) {
+                if (change.isRestored) {
+                    applier.accept(state, change.record);
+                    writtenVersion = versionOf.applyAsLong(state);
+                }
+                else if (change.record != null) {
+                    applier.accept(state, change.record);
+                    records.add(change.record);
+                }
+                else {
+                    change.update.accept(state);
+                    isUpdated = true;
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            // The state diverged from the caller's state, nothing sensible can be written anymore.
+            hasFailed = true;
+            failureHandler.accept(new IOException("Could not apply change, the state is no longer saved", e));
+            return;
+        }
+
+        long version = versionOf.applyAsLong(state);
+        if (version == writtenVersion && !isCheckpointRequired)
+            return;
+
+        try {
+            if (isCheckpointRequired || isUpdated || journal.size() + records.size() > checkpointInterval)
+                checkpoint();
+            else
+                journal.append(records);
+
+            writtenVersion = version;
+        }
+        catch (IOException e) {
+            // The journal might miss records now.
+            isCheckpointRequired = true;
+            failureHandler.accept(e);
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        checkpointWriter.write(state, generation + 1);
+        journal.reset(generation + 1);
+
+        generation += 1;
+        isCheckpointRequired = false;
+    }
+
+    private class Change {
+
+        private final R record;
+        private final Consumer<S> update;
+        private final boolean isRestored;
+
+        private Change(R record, Consumer<S> update, boolean isRestored) {
+            this.record = record;
+            this.update = update;
+            this.isRestored = isRestored;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package de.j13g.manko.core.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes records of a journal in a binary format and reads them back.
+ * @param <R> The record type.
+ */
+public interface RecordCodec<R> {
+
+    void write(DataOutput out, R record) throws IOException;
+
+    R read(DataInput in) throws IOException;
+}
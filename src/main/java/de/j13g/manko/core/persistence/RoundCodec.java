@@ -0,0 +1,88 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.rounds.DoubleElimination;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.GroupStage;
+import de.j13g.manko.core.rounds.RoundRobin;
+import de.j13g.manko.core.rounds.RoundRobinFinal;
+import de.j13g.manko.core.rounds.SeededBracket;
+import de.j13g.manko.core.rounds.SemiFinal;
+import de.j13g.manko.core.rounds.SwissRound;
+
+import java.io.IOException;
+
+/**
+ * Writes rounds to snapshots along with their type, so that they can be read again.
+ */
+public final class RoundCodec {
+
+    private static final int DYNAMIC_ELIMINATION = 0;
+    private static final int SEMI_FINAL = 1;
+    private static final int FINAL = 2;
+    private static final int ROUND_ROBIN_FINAL = 3;
+    private static final int ROUND_ROBIN = 4;
+    private static final int SWISS = 5;
+    private static final int DOUBLE_ELIMINATION = 6;
+    private static final int SEEDED_BRACKET = 7;
+    private static final int GROUP_STAGE = 8;
+
+    private RoundCodec() {}
+
+    public static <E> void write(SnapshotOutput<E> out, Round<E> round) throws IOException {
+
+        // SemiFinal is a DynamicElimination, so it has to be checked first.
+        if (round instanceof SemiFinal)
+            out.writeByte(SEMI_FINAL);
+        else if (round instanceof DynamicElimination)
+            out.writeByte(DYNAMIC_ELIMINATION);
+        else if (round instanceof Final)
+            out.writeByte(FINAL);
+        else if (round instanceof RoundRobinFinal)
+            out.writeByte(ROUND_ROBIN_FINAL);
+        else if (round instanceof RoundRobin)
+            out.writeByte(ROUND_ROBIN);
+        else if (round instanceof SwissRound)
+            out.writeByte(SWISS);
+        else if (round instanceof DoubleElimination)
+            out.writeByte(DOUBLE_ELIMINATION);
+        else if (round instanceof SeededBracket)
+            out.writeByte(SEEDED_BRACKET);
+        else if (round instanceof GroupStage)
+            out.writeByte(GROUP_STAGE);
+        else
+            throw new IllegalArgumentException("Round type not supported");
+
+        round.write(out);
+    }
+
+    public static <E> Round<E> read(SnapshotInput<E> in) throws IOException {
+        return read(in, new EntrantRegistry<>());
+    }
+
+    /**
+     * Reads a round that was written with {@link RoundCodec#write(SnapshotOutput, Round)}.
+     * @param in The snapshot input.
+     * @param registry The registry that the round shares with the other rounds of its tournament.
+     * @param <E> The entrant type.
+     * @return The round.
+     * @throws IOException The round could not be read.
+     */
+    public static <E> Round<E> read(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        int type = in.readByte();
+        return switch (type) {
+            case DYNAMIC_ELIMINATION -> new DynamicElimination<>(in, registry);
+            case SEMI_FINAL -> new SemiFinal<>(in, registry);
+            case FINAL -> new Final<>(in, registry);
+            case ROUND_ROBIN_FINAL -> new RoundRobinFinal<>(in, registry);
+            case ROUND_ROBIN -> new RoundRobin<>(in, registry);
+            case SWISS -> new SwissRound<>(in, registry);
+            case DOUBLE_ELIMINATION -> new DoubleElimination<>(in, registry);
+            case SEEDED_BRACKET -> new SeededBracket<>(in, registry);
+            case GROUP_STAGE -> new GroupStage<>(in, registry);
+            default -> throw new IOException("Unknown round type " + type);
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.base.RoundManager;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mutating operation that was successfully carried out on a round manager.
+ * Operations carry their outcome, so applying them again is deterministic,
+ * e.g. a randomly generated pairing is recorded with both of its entrants.
+ * @param <E> The entrant type.
+ */
+public class RoundOperation<E> {
+
+    public enum Type {
+
+        ADD(1),
+        REMOVE(1),
+        RESET(1),
+        PAIR(2),
+        REPLAY(2),
+        WIN(2), // The winner comes first.
+        TIE(2),
+        NEXT_ROUND(0),
+        PREVIOUS_ROUND(0);
+
+        private final int arity;
+
+        Type(int arity) {
+            this.arity = arity;
+        }
+
+        public int getArity() {
+            return arity;
+        }
+    }
+
+    private final Type type;
+    private final List<E> entrants;
+
+    private RoundOperation(Type type, List<E> entrants) {
+        if (entrants.size() != type.getArity())
+            throw new IllegalArgumentException("Wrong number of entrants");
+
+        this.type = type;
+        this.entrants = List.copyOf(entrants);
+    }
+
+    public static <E> RoundOperation<E> add(E entrant) {
+        return new RoundOperation<>(Type.ADD, List.of(entrant));
+    }
+
+    public static <E> RoundOperation<E> remove(E entrant) {
+        return new RoundOperation<>(Type.REMOVE, List.of(entrant));
+    }
+
+    public static <E> RoundOperation<E> reset(E entrant) {
+        return new RoundOperation<>(Type.RESET, List.of(entrant));
+    }
+
+    public static <E> RoundOperation<E> pair(Pairing<E> pairing) {
+        return new RoundOperation<>(Type.PAIR, List.of(pairing.getFirst(), pairing.getSecond()));
+    }
+
+    public static <E> RoundOperation<E> replay(Pairing<E> pairing) {
+        return new RoundOperation<>(Type.REPLAY, List.of(pairing.getFirst(), pairing.getSecond()));
+    }
+
+    public static <E> RoundOperation<E> win(E winningEntrant, Pairing<E> pairing) {
+        return new RoundOperation<>(Type.WIN, List.of(winningEntrant, pairing.getOther(winningEntrant)));
+    }
+
+    public static <E> RoundOperation<E> tie(Pairing<E> pairing) {
+        return new RoundOperation<>(Type.TIE, List.of(pairing.getFirst(), pairing.getSecond()));
+    }
+
+    public static <E> RoundOperation<E> nextRound() {
+        return new RoundOperation<>(Type.NEXT_ROUND, List.of());
+    }
+
+    public static <E> RoundOperation<E> previousRound() {
+        return new RoundOperation<>(Type.PREVIOUS_ROUND, List.of());
+    }
+
+    /**
+     * Carries out this operation again.
+     * Since the operation succeeded when it was recorded,
+     * any failure means that the state diverged from the recorded one.
+     * @param manager The round manager to apply this operation to.
+     * @throws IllegalStateException The operation could not be carried out.
+     */
+    public void apply(RoundManager<E> manager) throws IllegalStateException {
+        try {
+            switch (type) {
+                case ADD -> manager.addEntrant(entrant(0));
+                case REMOVE -> manager.removeEntrant(entrant(0));
+                case RESET -> manager.resetEntrant(entrant(0));
+                case PAIR -> manager.startPairing(pairing());
+                case REPLAY -> manager.replayPairing(pairing());
+                case WIN -> manager.declareWinner(entrant(0), pairing());
+                case TIE -> manager.declareTie(pairing());
+                case NEXT_ROUND -> manager.nextRound();
+                case PREVIOUS_ROUND -> manager.previousRound();
+            }
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Could not apply operation " + type, e);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<E> getEntrants() {
+        return entrants;
+    }
+
+    private E entrant(int index) {
+        return entrants.get(index);
+    }
+
+    private Pairing<E> pairing() {
+        return new Pairing<>(entrant(0), entrant(1));
+    }
+
+    /**
+     * Writes round operations as a type byte followed by the encoded entrants.
+     * @param <E> The entrant type.
+     */
+    public static class Codec<E> implements RecordCodec<RoundOperation<E>> {
+
+        private static final Type[] TYPES = Type.values();
+
+        private final EntrantCodec<E> entrantCodec;
+
+        public Codec(EntrantCodec<E> entrantCodec) {
+            this.entrantCodec = entrantCodec;
+        }
+
+        @Override
+        public void write(DataOutput out, RoundOperation<E> operation) throws IOException {
+            out.writeByte(operation.type.ordinal());
+            for (E entrant : operation.entrants)
+                out.writeUTF(entrantCodec.encode(entrant));
+        }
+
+        @Override
+        public RoundOperation<E> read(DataInput in) throws IOException {
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= TYPES.length)
+                throw new IOException("Unknown operation type " + ordinal);
+
+            Type type = TYPES[ordinal];
+            ArrayList<E> entrants = new ArrayList<>(type.getArity());
+            for (int i = 0; i < type.getArity(); ++i)
+                entrants.add(entrantCodec.decode(in.readUTF()));
+
+            return new RoundOperation<>(type, entrants);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a snapshot that was written by a {@link SnapshotOutput}.
+ * Nothing is read in advance: entrants are decoded when they are first referenced
+ * and sections are only read once {@link SnapshotInput#readSection()} is used on them.
+ * The checksum of a section is verified when the section is first read from,
+ * thus sections that are never read cost neither decoding nor checksumming.
+ * @param <E> The entrant type.
+ */
+public class SnapshotInput<E> {
+
+    private final ByteBuffer buffer;
+    private final EntrantTable<E> entrantTable;
+
+    // The sections within this section, in the order in which they were written.
+    private final SnapshotInput<E> innerSections;
+
+    private final int checksum;
+    private boolean isVerified;
+
+    private SnapshotInput(ByteBuffer buffer, EntrantTable<E> entrantTable) {
+        this.buffer = buffer;
+        this.entrantTable = entrantTable;
+        innerSections = null;
+        checksum = 0;
+        isVerified = true;
+    }
+
+    private SnapshotInput(ByteBuffer buffer, ByteBuffer innerSections, EntrantTable<E> entrantTable, int checksum) {
+        this.buffer = buffer;
+        this.entrantTable = entrantTable;
+        this.innerSections = new SnapshotInput<>(innerSections, entrantTable);
+        this.checksum = checksum;
+        isVerified = false;
+    }
+
+    /**
+     * Reads the header of a snapshot and verifies the entrant table and the bytes outside of sections.
+     * @param buffer The buffer that contains the snapshot, starting at its position.
+     * @param entrantCodec The codec for the entrants.
+     * @param <E> The entrant type.
+     * @return The input for reading the snapshot.
+     * @throws IOException The buffer does not contain an intact snapshot of a supported version.
+     */
+    public static <E> SnapshotInput<E> open(ByteBuffer buffer, EntrantCodec<E> entrantCodec) throws IOException {
+        SnapshotInput<E> header = new SnapshotInput<>(buffer.slice(), null);
+
+        if (header.readFixedInt() != SnapshotOutput.MAGIC)
+            throw new IOException("Not a snapshot");
+        if (header.readFixedShort() != SnapshotOutput.SCHEMA_VERSION)
+            throw new IOException("Unsupported snapshot version");
+
+        int entrantCount = header.readFixedInt();
+        int entrantBytes = header.readFixedInt();
+        int entrantChecksum = header.readFixedInt();
+        if (entrantCount < 0 || entrantBytes < 0)
+            throw new IOException("Invalid entrant table");
+
+        ByteBuffer entrants = header.skip(entrantBytes);
+        if (checksum(entrants) != entrantChecksum)
+            throw new IOException("Corrupted entrant table");
+
+        SnapshotInput<E> snapshot = readSection(header, new EntrantTable<>(entrantCodec, entrantCount, entrants));
+        snapshot.verify();
+        return snapshot;
+    }
+
+    /**
+     * Reads a section, that was written with {@link SnapshotOutput#beginSection()},
+     * without reading its content. The content can be read later with the returned input,
+     * which verifies the checksum of the section on the first read.
+     * @return The input for reading the section.
+     * @throws IOException The section could not be read.
+     */
+    public SnapshotInput<E> readSection() throws IOException {
+        if (innerSections == null)
+            throw new IOException("No sections");
+
+        return readSection(innerSections, entrantTable);
+    }
+
+    private static <E> SnapshotInput<E> readSection(SnapshotInput<?> in, EntrantTable<E> entrantTable)
+            throws IOException {
+
+        int length = in.readFixedInt();
+        int innerLength = in.readFixedInt();
+        int checksum = in.readFixedInt();
+        if (length < 0 || innerLength < 0)
+            throw new IOException("Invalid section length");
+
+        return new SnapshotInput<>(in.skip(length), in.skip(innerLength), entrantTable, checksum);
+    }
+
+    private void verify() throws IOException {
+        if (checksum(buffer) != checksum)
+            throw new IOException("Corrupted section");
+        isVerified = true;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public int readByte() throws IOException {
+        require(Byte.BYTES);
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads an integer that was written with a variable length.
+     * @see SnapshotOutput#writeInt(int)
+     * @return The integer.
+     * @throws IOException The integer could not be read.
+     */
+    public int readInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Malformed integer");
+    }
+
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    public String readString() throws IOException {
+        int length = readCount();
+        require(length);
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public E readEntrant() throws IOException {
+        return entrantTable.get(readInt());
+    }
+
+    public List<E> readEntrants() throws IOException {
+        int count = readCount();
+        ArrayList<E> entrants = new ArrayList<>(Math.min(count, buffer.remaining()));
+        for (int i = 0; i < count; ++i)
+            entrants.add(readEntrant());
+        return entrants;
+    }
+
+    public Pairing<E> readPairing() throws IOException {
+        return new Pairing<>(readEntrant(), readEntrant());
+    }
+
+    public List<Pairing<E>> readPairings() throws IOException {
+        int count = readCount();
+        ArrayList<Pairing<E>> pairings = new ArrayList<>(Math.min(count, buffer.remaining()));
+        for (int i = 0; i < count; ++i)
+            pairings.add(readPairing());
+        return pairings;
+    }
+
+    /**
+     * Reads the number of elements of a collection.
+     * @return The number of elements.
+     * @throws IOException The count is invalid or could not be read.
+     */
+    public int readCount() throws IOException {
+        int count = readInt();
+        if (count < 0)
+            throw new IOException("Invalid count");
+        return count;
+    }
+
+    /**
+     * Reads an ordinal of an enum constant.
+     * @param values The enum constants.
+     * @param <T> The enum type.
+     * @return The enum constant.
+     * @throws IOException The ordinal is invalid or could not be read.
+     */
+    public <T extends Enum<T>> T readEnum(T[] values) throws IOException {
+        int ordinal = readInt();
+        if (ordinal < 0 || ordinal >= values.length)
+            throw new IOException("Invalid ordinal " + ordinal);
+        return values[ordinal];
+    }
+
+    private int readFixedInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    private short readFixedShort() throws IOException {
+        require(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    /**
+     * Skips bytes without reading them.
+     * @param length The number of bytes.
+     * @return A buffer with the skipped bytes.
+     * @throws IOException There are not enough bytes left.
+     */
+    private ByteBuffer skip(int length) throws IOException {
+        require(length);
+
+        ByteBuffer skipped = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return skipped;
+    }
+
+    private void require(int length) throws IOException {
+        if (!isVerified)
+            verify();
+        if (buffer.remaining() < length)
+            throw new EOFException();
+    }
+
+    /**
+     * @param buffer The buffer, whose bytes from its start to its limit are checksummed.
+     */
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().rewind());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Decodes entrants when they are first referenced.
+     * The offsets of the entrants are determined on the first reference.
+     * @param <E> The entrant type.
+     */
+    private static class EntrantTable<E> {
+
+        private final EntrantCodec<E> codec;
+        private final ByteBuffer entrants;
+        private final Object[] decoded;
+
+        private int[] offsets = null;
+
+        private EntrantTable(EntrantCodec<E> codec, int count, ByteBuffer entrants) {
+            this.codec = codec;
+            this.entrants = entrants;
+            this.decoded = new Object[count];
+        }
+
+        @SuppressWarnings("unchecked")
+        private E get(int index) throws IOException {
+            if (index < 0 || index >= decoded.length)
+                throw new IOException("Unknown entrant " + index);
+
+            if (decoded[index] == null) {
+                if (offsets == null)
+                    offsets = readOffsets();
+
+                ByteBuffer entrant = entrants.slice(offsets[index], entrants.limit() - offsets[index]);
+                decoded[index] = codec.decode(new SnapshotInput<E>(entrant, null).readString());
+            }
+
+            return (E) decoded[index];
+        }
+
+        private int[] readOffsets() throws IOException {
+            SnapshotInput<E> in = new SnapshotInput<>(entrants.duplicate(), null);
+
+            int[] offsets = new int[decoded.length];
+            for (int i = 0; i < offsets.length; ++i) {
+                offsets[i] = in.buffer.position();
+                in.skip(in.readCount());
+            }
+
+            return offsets;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a snapshot in a compact binary format.
+ * Every entrant is encoded only once into a table at the start of the snapshot,
+ * the snapshot itself refers to entrants by their index in that table.
+ * Integers are written with a variable length, so small indices and counts take a single byte.
+ * The entrant table and parts of the snapshot, that are written as sections, are prefixed
+ * with their length. This allows a reader to skip over data that is not needed yet
+ * and to read it on demand.
+ * <p>
+ * The bytes of a section are followed by the sections that were written within it, so that the
+ * checksum of a section only covers its own bytes. A reader verifies a section once it reads from it,
+ * sections that are never read are never checksummed.
+ * @see SnapshotInput
+ * @param <E> The entrant type.
+ */
+public class SnapshotOutput<E> {
+
+    static final int MAGIC = 0x4D4B534E; // "MKSN"
+    static final short SCHEMA_VERSION = 11;
+
+    private final EntrantCodec<E> entrantCodec;
+
+    private final HashMap<E, Integer> entrantIndices = new HashMap<>();
+    private final ArrayList<E> entrantTable = new ArrayList<>();
+
+    private Section section = new Section();
+    private DataOutputStream body = new DataOutputStream(section.bytes);
+
+    private final ArrayDeque<Section> enclosingSections = new ArrayDeque<>();
+
+    /**
+     * The bytes of a section and the sections that were written within it.
+     */
+    private static class Section {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream innerSections = new ByteArrayOutputStream();
+
+        /**
+         * Writes the lengths, the checksum of the bytes, the bytes and then the inner sections.
+         */
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(bytes.size());
+            out.writeInt(innerSections.size());
+            out.writeInt(checksum(bytes.toByteArray()));
+            bytes.writeTo(out);
+            innerSections.writeTo(out);
+        }
+    }
+
+    public SnapshotOutput(EntrantCodec<E> entrantCodec) {
+        this.entrantCodec = entrantCodec;
+    }
+
+    /**
+     * Writes the header, the entrant table and everything that was written to this snapshot.
+     * @param target The stream to write the snapshot to.
+     * @throws IOException The snapshot could not be written.
+     */
+    public void finish(OutputStream target) throws IOException {
+        if (!enclosingSections.isEmpty())
+            throw new IllegalStateException("A section was not ended");
+
+        ByteArrayOutputStream entrantBytes = new ByteArrayOutputStream();
+        DataOutputStream entrantOut = new DataOutputStream(entrantBytes);
+        for (E entrant : entrantTable)
+            writeString(entrantOut, entrantCodec.encode(entrant));
+
+        DataOutputStream out = new DataOutputStream(target);
+
+        out.writeInt(MAGIC);
+        out.writeShort(SCHEMA_VERSION);
+
+        out.writeInt(entrantTable.size());
+        out.writeInt(entrantBytes.size());
+        out.writeInt(checksum(entrantBytes.toByteArray()));
+        entrantBytes.writeTo(out);
+
+        section.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Starts a section. Everything that is written until the section is ended belongs to it.
+     * Sections can be nested.
+     * @see SnapshotInput#readSection()
+     */
+    public void beginSection() {
+        enclosingSections.push(section);
+        section = new Section();
+        body = new DataOutputStream(section.bytes);
+    }
+
+    /**
+     * Ends the most recently started section.
+     * @throws IOException The section could not be written.
+     */
+    public void endSection() throws IOException {
+        if (enclosingSections.isEmpty())
+            throw new IllegalStateException("No section was started");
+
+        Section innerSection = section;
+        section = enclosingSections.pop();
+        body = new DataOutputStream(section.bytes);
+
+        innerSection.writeTo(new DataOutputStream(section.innerSections));
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        body.writeBoolean(value);
+    }
+
+    public void writeByte(int value) throws IOException {
+        body.writeByte(value);
+    }
+
+    /**
+     * Writes an integer with 1 to 5 bytes, depending on its magnitude.
+     * @param value The integer.
+     * @throws IOException The integer could not be written.
+     */
+    public void writeInt(int value) throws IOException {
+        writeVarInt(body, value);
+    }
+
+    public void writeEnum(Enum<?> value) throws IOException {
+        writeInt(value.ordinal());
+    }
+
+    public void writeLong(long value) throws IOException {
+        body.writeLong(value);
+    }
+
+    public void writeString(String value) throws IOException {
+        writeString(body, value);
+    }
+
+    public void writeEntrant(E entrant) throws IOException {
+        Integer index = entrantIndices.get(entrant);
+        if (index == null) {
+            index = entrantTable.size();
+            entrantIndices.put(entrant, index);
+            entrantTable.add(entrant);
+        }
+
+        writeInt(index);
+    }
+
+    public void writeEntrants(Collection<E> entrants) throws IOException {
+        writeInt(entrants.size());
+        for (E entrant : entrants)
+            writeEntrant(entrant);
+    }
+
+    public void writePairing(Pairing<E> pairing) throws IOException {
+        writeEntrant(pairing.getFirst());
+        writeEntrant(pairing.getSecond());
+    }
+
+    public void writePairings(Collection<Pairing<E>> pairings) throws IOException {
+        writeInt(pairings.size());
+        for (Pairing<E> pairing : pairings)
+            writePairing(pairing);
+    }
+
+    static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+}
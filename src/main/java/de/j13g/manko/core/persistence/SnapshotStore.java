@@ -0,0 +1,168 @@
+package de.j13g.manko.core.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Stores snapshots in two files, which are written alternately.
+ * A snapshot is written to a temporary file first, which then atomically replaces
+ * the older of the two files. Thus the newer file is never touched while writing
+ * and there is always at least one intact snapshot, even if writing is interrupted.
+ * Each file starts with the generation of its snapshot and the length of it,
+ * so that the newest intact snapshot can be picked when loading.
+ * <p>
+ * Loading reads a file into memory, so the file can be replaced while the snapshot is in use,
+ * which a memory-mapped file would not allow on every platform. Only the header, the entrant table
+ * and the bytes outside of sections are verified when loading. Sections carry their own checksums,
+ * which are verified once they are read.
+ */
+public class SnapshotStore {
+
+    private static final int MAGIC = 0x4D4B5346; // "MKSF"
+    private static final short VERSION = 2;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final Path[] paths;
+
+    /**
+     * @param directory The directory of the snapshot files.
+     * @param fileName The name of the snapshot files, which is suffixed with ".0" and ".1".
+     */
+    public SnapshotStore(Path directory, String fileName) {
+        paths = new Path[] {
+                directory.resolve(fileName + ".0"),
+                directory.resolve(fileName + ".1")
+        };
+    }
+
+    /**
+     * A snapshot that was loaded from a file.
+     */
+    public static class StoredSnapshot {
+
+        private final long generation;
+        private final ByteBuffer content;
+
+        private StoredSnapshot(long generation, ByteBuffer content) {
+            this.generation = generation;
+            this.content = content;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * @return The content of the snapshot, which is held in memory.
+         */
+        public ByteBuffer getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Loads the snapshot with the highest generation whose checksum is valid.
+     * Files that are missing, incomplete or corrupted are skipped.
+     * @return The snapshot or null if there is no intact snapshot.
+     */
+    public StoredSnapshot load() {
+        StoredSnapshot newest = null;
+        for (Path path : paths) {
+            StoredSnapshot snapshot = load(path);
+            if (snapshot != null && (newest == null || snapshot.generation > newest.generation))
+                newest = snapshot;
+        }
+
+        return newest;
+    }
+
+    /**
+     * Writes a snapshot to a temporary file and moves it in place of the file
+     * that is not holding the previous generation.
+     * @param generation The generation of the snapshot. Has to be higher than the previous one.
+     * @param snapshot The finished snapshot content.
+     * @throws IOException The snapshot could not be written.
+     */
+    public void store(long generation, SnapshotOutput<?> snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.finish(bytes);
+        ByteBuffer content = ByteBuffer.wrap(bytes.toByteArray());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putLong(generation);
+        header.putInt(content.remaining());
+        header.putInt(checksum(header.duplicate().flip()));
+        header.flip();
+
+        Path path = paths[(int) (generation & 1)];
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            while (header.hasRemaining() || content.hasRemaining())
+                channel.write(new ByteBuffer[] { header, content });
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            // Still safe, a partially replaced file fails its checksum and the other file is used.
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static StoredSnapshot load(Path path) {
+        if (!Files.exists(path))
+            return null;
+
+        ByteBuffer file;
+        try {
+            file = ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+        catch (IOException e) {
+            return null;
+        }
+
+        if (file.remaining() < HEADER_SIZE)
+            return null;
+        if (file.getInt() != MAGIC || file.getShort() != VERSION)
+            return null;
+
+        long generation = file.getLong();
+        int length = file.getInt();
+        int checksum = checksum(file.duplicate().flip());
+        if (file.getInt() != checksum || length != file.remaining())
+            return null;
+
+        ByteBuffer content = file.slice();
+        try {
+            // Verifies the parts of the snapshot that are read in any case, the entrants are not decoded.
+            SnapshotInput.open(content.duplicate(), null);
+        }
+        catch (IOException e) {
+            return null;
+        }
+
+        return new StoredSnapshot(generation, content);
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,24 @@
+package de.j13g.manko.core.persistence;
+
+/**
+ * Determines when written data is forced to the storage device.
+ */
+public enum SyncPolicy {
+
+    /**
+     * Every record is forced to the storage device before the append returns.
+     * Nothing is lost on a crash, but each append costs an fsync.
+     */
+    EVERY_RECORD,
+
+    /**
+     * Records are only forced when the journal is reset or closed.
+     * A crash of the operating system might lose the most recent records.
+     */
+    ON_CHECKPOINT,
+
+    /**
+     * Forcing is left entirely to the operating system.
+     */
+    NEVER
+}
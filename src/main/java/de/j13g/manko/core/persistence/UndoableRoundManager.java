@@ -0,0 +1,294 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.RoundManager;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.util.RingBuffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Remembers the recent operations of a round manager along with their inverse operations,
+ * so that they can be undone and redone without snapshotting the round.
+ * <p>
+ * Results, adding and removing entrants as well as changing rounds can be undone.
+ * Pairings, replays, resets and removing a paired entrant have no inverse operation
+ * that works in every type of round. Neither has removing an entrant that the round can't take back,
+ * e.g. from a bracket that was drawn. They clear the history, since the operations before them
+ * could no longer be undone reliably. Thus nothing can be undone across the start of a pairing,
+ * e.g. a result can only be undone until the next pairing starts.
+ * The type of the operation that cleared the history is kept, so that it can be reported.
+ * @param <E> The entrant type.
+ */
+public class UndoableRoundManager<E> implements RoundManager<E> {
+
+    /**
+     * Operations that were carried out together and the operations that revert them.
+     */
+    private static class Step<E> {
+
+        private final List<RoundOperation<E>> operations;
+        private final List<RoundOperation<E>> inverseOperations;
+
+        private Step(List<RoundOperation<E>> operations, List<RoundOperation<E>> inverseOperations) {
+            this.operations = operations;
+            this.inverseOperations = inverseOperations;
+        }
+    }
+
+    private final RoundManager<E> manager;
+
+    private final RingBuffer<Step<E>> undoSteps;
+    private final RingBuffer<Step<E>> redoSteps;
+
+    private RoundOperation.Type clearingOperation = null;
+
+    /**
+     * @param manager The round manager. Undoing and redoing operations is carried out on it,
+     *                e.g. a {@link JournaledRoundManager} records them like any other operation.
+     * @param capacity The number of steps that can be undone.
+     */
+    public UndoableRoundManager(RoundManager<E> manager, int capacity) {
+        this.manager = manager;
+        undoSteps = new RingBuffer<>(capacity);
+        redoSteps = new RingBuffer<>(capacity);
+    }
+
+    /**
+     * @return The round manager whose operations can be undone.
+     */
+    public RoundManager<E> getManager() {
+        return manager;
+    }
+
+    public boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * @return The type of the operation that cleared the history most recently,
+     *         or null if it was never cleared or was cleared without an operation,
+     *         e.g. because a step could not be reverted.
+     */
+    public RoundOperation.Type getClearingOperation() {
+        return clearingOperation;
+    }
+
+    /**
+     * Reverts the most recent step, e.g. a single result or all results of a batch.
+     * @return The operations that were reverted.
+     * @throws IllegalStateException There is nothing to undo or the step could not be reverted,
+     *                               in which case the history is cleared.
+     */
+    public List<RoundOperation<E>> undo() throws IllegalStateException {
+        if (undoSteps.isEmpty())
+            throw new IllegalStateException("Nothing to undo");
+
+        Step<E> step = undoSteps.pop();
+        applyAll(step.inverseOperations);
+        redoSteps.push(step);
+        return step.operations;
+    }
+
+    /**
+     * Carries out the most recently undone step again.
+     * @return The operations that were carried out.
+     * @throws IllegalStateException There is nothing to redo or the step could not be carried out,
+     *                               in which case the history is cleared.
+     */
+    public List<RoundOperation<E>> redo() throws IllegalStateException {
+        if (redoSteps.isEmpty())
+            throw new IllegalStateException("Nothing to redo");
+
+        Step<E> step = redoSteps.pop();
+        applyAll(step.operations);
+        undoSteps.push(step);
+        return step.operations;
+    }
+
+    private void applyAll(List<RoundOperation<E>> operations) {
+        try {
+            for (RoundOperation<E> operation : operations)
+                operation.apply(manager);
+        }
+        catch (IllegalStateException e) {
+            clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Forgets all steps, e.g. after the state was changed in a way that can't be undone.
+     */
+    public void clear() {
+        clear(null);
+    }
+
+    private void clear(RoundOperation.Type operation) {
+        undoSteps.clear();
+        redoSteps.clear();
+        clearingOperation = operation;
+    }
+
+    private void remember(RoundOperation<E> operation, RoundOperation<E> inverseOperation) {
+        remember(List.of(operation), List.of(inverseOperation));
+    }
+
+    /**
+     * @param operations The operations of the step.
+     * @param inverseOperations The operations that revert the step, in the order in which they are carried out.
+     */
+    private void remember(List<RoundOperation<E>> operations, List<RoundOperation<E>> inverseOperations) {
+        undoSteps.push(new Step<>(operations, inverseOperations));
+        redoSteps.clear();
+    }
+
+    @Override
+    public Round<E> getCurrentRound() {
+        return manager.getCurrentRound();
+    }
+
+    @Override
+    public void nextRound() throws RoundNotFinishedException, FinalRoundException {
+        manager.nextRound();
+        remember(RoundOperation.nextRound(), RoundOperation.previousRound());
+    }
+
+    @Override
+    public void previousRound() throws AlreadyStartedException, InitialRoundException {
+        manager.previousRound();
+        remember(RoundOperation.previousRound(), RoundOperation.nextRound());
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
+        boolean isAdded = manager.addEntrant(entrant);
+        if (isAdded)
+            remember(RoundOperation.add(entrant), RoundOperation.remove(entrant));
+        return isAdded;
+    }
+
+    /**
+     * Removing a paired entrant can't be undone, since it may end the pairing.
+     * Neither can removing an entrant that the round won't add again, since its opponents may win by walkover.
+     */
+    @Override
+    public boolean removeEntrant(E entrant) {
+        Round<E> round = manager.getCurrentRound();
+        boolean isReversible = !round.isEntrantPaired(entrant) && round.canAddEntrantAgain(entrant);
+
+        boolean isRemoved = manager.removeEntrant(entrant);
+        if (isRemoved && !isReversible)
+            clear(RoundOperation.Type.REMOVE);
+        else if (isRemoved)
+            remember(RoundOperation.remove(entrant), RoundOperation.add(entrant));
+        return isRemoved;
+    }
+
+    @Override
+    public boolean resetEntrant(E entrant) {
+        boolean isReset = manager.resetEntrant(entrant);
+        if (isReset)
+            clear(RoundOperation.Type.RESET);
+        return isReset;
+    }
+
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        Pairing<E> pairing = manager.nextPairing();
+        clear(RoundOperation.Type.PAIR);
+        return pairing;
+    }
+
+    @Override
+    public List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        List<Pairing<E>> pairings = manager.pairAll();
+        clear(RoundOperation.Type.PAIR);
+        return pairings;
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException,
+            UnfinishedPairingsException {
+
+        Pairing<E> startedPairing = manager.startPairing(pairing);
+        clear(RoundOperation.Type.PAIR);
+        return startedPairing;
+    }
+
+    /**
+     * Replays can't be undone, since the result of the pairing is not known.
+     */
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        boolean isReplayed = manager.replayPairing(pairing);
+        if (isReplayed)
+            clear(RoundOperation.Type.REPLAY);
+        return isReplayed;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        manager.declareWinner(winningEntrant, pairing);
+        remember(RoundOperation.win(winningEntrant, pairing), RoundOperation.replay(pairing));
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        Pairing<E> pairing = manager.declareWinner(winningEntrant);
+        remember(RoundOperation.win(winningEntrant, pairing), RoundOperation.replay(pairing));
+        return pairing;
+    }
+
+    @Override
+    public void declareTie(Pairing<E> pairing)
+            throws NoSuchPairingException {
+
+        manager.declareTie(pairing);
+        remember(RoundOperation.tie(pairing), RoundOperation.replay(pairing));
+    }
+
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        List<Pairing<E>> pairings = manager.declareResults(results);
+
+        ArrayList<RoundOperation<E>> operations = new ArrayList<>(pairings.size());
+        ArrayList<RoundOperation<E>> inverseOperations = new ArrayList<>(pairings.size());
+        int index = 0;
+        for (Result<E> result : results) {
+            Pairing<E> pairing = pairings.get(index++);
+            operations.add(result.isTie()
+                    ? RoundOperation.tie(pairing)
+                    : RoundOperation.win(result.getWinningEntrant(), pairing));
+            inverseOperations.add(RoundOperation.replay(pairing));
+        }
+
+        // The results are reverted in reverse order.
+        Collections.reverse(inverseOperations);
+
+        remember(operations, inverseOperations);
+        return pairings;
+    }
+}
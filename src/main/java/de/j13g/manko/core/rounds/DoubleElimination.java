@@ -0,0 +1,1029 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.annotations.UnsupportedOperation;
+import de.j13g.manko.core.base.FinalRound;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
+import de.j13g.manko.core.managers.PlacementManager;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+import de.j13g.manko.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A double elimination bracket, in which entrants are eliminated after their second loss.
+ * Losers of the winners bracket drop into the losers bracket, the winners of both brackets
+ * meet in the grand final, which is played a second time if the entrant from the losers bracket wins it.
+ * Entrants can be added until the bracket is drawn with the first pairing.
+ * <p>
+ * The whole bracket is stored in flat arrays that are indexed by match: the two slots of every match
+ * and the slots that its winner and loser move to. Declaring a result moves both entrants
+ * to their next slot in constant time and the grand final and its reset are just the last two matches.
+ * Slots that will never get an entrant hold a bye, matches with a bye are won by walkover.
+ * @param <E> The entrant type.
+ */
+public class DoubleElimination<E> implements RankingRound<E>, FinalRound<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int EMPTY = EntrantRegistry.NO_ID;
+    private static final int BYE = -2;
+
+    private static final int NO_SLOT = -1;
+    private static final int NO_MATCH = -1;
+    private static final int UNDECIDED = -1;
+
+    // The kinds of slots in a snapshot.
+    private static final int EMPTY_SLOT = 0;
+    private static final int BYE_SLOT = 1;
+    private static final int ENTRANT_SLOT = 2;
+
+    private final EntrantRegistry<E> registry;
+
+    private final long drawSeed;
+
+    private final EntrantSet<E> participants;
+    private final EntrantSet<E> entrants;
+
+    // The entrants in the order in which they were added, until the bracket is drawn.
+    private final LinkedHashSet<E> drawOrder = new LinkedHashSet<>();
+
+    // The number of slots in the first round of the winners bracket, a power of two.
+    // It is 0 until the bracket is drawn.
+    private int bracketSize = 0;
+
+    // The entrant ids of both slots of every match, at 2 * match and 2 * match + 1.
+    private int[] slots;
+
+    // The slots that the winner and the loser of every match move to.
+    private int[] winnerSlots;
+    private int[] loserSlots;
+
+    // The side of the slot of the winner of every match.
+    private int[] winnerSides;
+
+    // If a match was carried out, instead of being won by walkover.
+    private boolean[] played;
+
+    // The match that every entrant waits for or plays in, indexed by entrant id.
+    private int[] entrantMatches;
+
+    private final LinkedHashSet<Integer> readyMatches = new LinkedHashSet<>();
+    private final LinkedHashSet<Integer> activeMatches = new LinkedHashSet<>();
+    private final LinkedHashSet<Integer> finishedMatches = new LinkedHashSet<>();
+
+    // The number of finished matches, by the key of their pairing.
+    // Entrants can meet more than once, e.g. in the grand final and its reset.
+    private final LongIntHashMap finishedCounts = new LongIntHashMap();
+
+    private final PlacementManager<E> placements;
+    private final MatchPairings pairings = new MatchPairings();
+
+    private long version = 0;
+
+    public DoubleElimination() {
+        this(new Random().nextLong());
+    }
+
+    public DoubleElimination(long drawSeed) {
+        this(new EntrantRegistry<>(), drawSeed);
+    }
+
+    /**
+     * @param registry The registry that the round shares with the other rounds of its tournament.
+     * @param drawSeed The seed with which the entrants are shuffled when the bracket is drawn.
+     */
+    public DoubleElimination(EntrantRegistry<E> registry, long drawSeed) {
+        this.registry = registry;
+        this.drawSeed = drawSeed;
+        participants = new EntrantSet<>(registry);
+        entrants = new EntrantSet<>(registry);
+        placements = new PlacementManager<>(registry);
+    }
+
+    public DoubleElimination(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this(registry, in.readLong());
+
+        drawOrder.addAll(in.readEntrants());
+        if (!in.readBoolean()) {
+            participants.addAll(drawOrder);
+            entrants.addAll(drawOrder);
+            return;
+        }
+
+        participants.addAll(in.readEntrants());
+        entrants.addAll(in.readEntrants());
+
+        int size = in.readInt();
+        if (size < 2 || Integer.bitCount(size) != 1)
+            throw new IOException("Invalid bracket size " + size);
+        buildBracket(size);
+
+        for (int slot = 0; slot < slots.length; ++slot)
+            slots[slot] = readSlot(in);
+
+        for (int match = 0; match < winnerSides.length; ++match) {
+            int winnerSide = in.readInt() - 1;
+            if (winnerSide < UNDECIDED || winnerSide > 1)
+                throw new IOException("Invalid winner side " + winnerSide);
+            winnerSides[match] = winnerSide;
+            played[match] = in.readBoolean();
+        }
+
+        readMatches(in, readyMatches);
+        readMatches(in, activeMatches);
+        readMatches(in, finishedMatches);
+
+        for (int match : finishedMatches) {
+            long key = pairingKey(match);
+            finishedCounts.put(key, finishedCounts.get(key, 0) + 1);
+        }
+
+        // Every entrant waits for or plays in at most one undecided match.
+        entrantMatches = new int[registry.size()];
+        Arrays.fill(entrantMatches, NO_MATCH);
+        for (int match = 0; match < winnerSides.length; ++match)
+            if (winnerSides[match] == UNDECIDED)
+                for (int side = 0; side < 2; ++side)
+                    if (slots[2 * match + side] >= 0)
+                        entrantMatches[slots[2 * match + side]] = match;
+
+        placements.read(in);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeLong(drawSeed);
+        out.writeEntrants(drawOrder);
+        out.writeBoolean(isDrawn());
+        if (!isDrawn())
+            return;
+
+        out.writeEntrants(participants);
+        out.writeEntrants(entrants);
+
+        out.writeInt(bracketSize);
+        for (int slot : slots)
+            writeSlot(out, slot);
+
+        for (int match = 0; match < winnerSides.length; ++match) {
+            out.writeInt(winnerSides[match] + 1);
+            out.writeBoolean(played[match]);
+        }
+
+        writeMatches(out, readyMatches);
+        writeMatches(out, activeMatches);
+        writeMatches(out, finishedMatches);
+
+        placements.write(out);
+    }
+
+    private int readSlot(SnapshotInput<E> in) throws IOException {
+        int kind = in.readInt();
+        return switch (kind) {
+            case EMPTY_SLOT -> EMPTY;
+            case BYE_SLOT -> BYE;
+            case ENTRANT_SLOT -> registry.register(in.readEntrant());
+            default -> throw new IOException("Invalid slot " + kind);
+        };
+    }
+
+    private void writeSlot(SnapshotOutput<E> out, int slot) throws IOException {
+        if (slot >= 0) {
+            out.writeInt(ENTRANT_SLOT);
+            out.writeEntrant(registry.get(slot));
+        }
+        else
+            out.writeInt(slot == BYE ? BYE_SLOT : EMPTY_SLOT);
+    }
+
+    private void readMatches(SnapshotInput<E> in, LinkedHashSet<Integer> matches) throws IOException {
+        int count = in.readCount();
+        for (int i = 0; i < count; ++i) {
+            int match = in.readInt();
+            if (match < 0 || match >= winnerSides.length)
+                throw new IOException("Invalid match " + match);
+            matches.add(match);
+        }
+    }
+
+    private static void writeMatches(SnapshotOutput<?> out, LinkedHashSet<Integer> matches) throws IOException {
+        out.writeInt(matches.size());
+        for (int match : matches)
+            out.writeInt(match);
+    }
+
+    /**
+     * Allocates the matches of a bracket and links every match to the slots of the matches that follow it.
+     * <p>
+     * The matches of the winners bracket come first, round by round, followed by the losers bracket,
+     * the grand final and its reset. Rounds of the losers bracket alternate between rounds in which its
+     * entrants play each other and rounds in which they play the losers of the next round of the winners bracket.
+     * @param size The number of slots in the first round, a power of two.
+     */
+    private void buildBracket(int size) {
+        int roundCount = Integer.numberOfTrailingZeros(size);
+        int losersMatchCount = size > 2 ? size - 2 : 0;
+        int matchCount = size - 1 + losersMatchCount + 2;
+
+        bracketSize = size;
+        slots = new int[2 * matchCount];
+        winnerSlots = new int[matchCount];
+        loserSlots = new int[matchCount];
+        winnerSides = new int[matchCount];
+        played = new boolean[matchCount];
+
+        Arrays.fill(slots, EMPTY);
+        Arrays.fill(winnerSlots, NO_SLOT);
+        Arrays.fill(loserSlots, NO_SLOT);
+        Arrays.fill(winnerSides, UNDECIDED);
+
+        int grandFinal = getGrandFinal();
+
+        // The first match of every round of the losers bracket.
+        int losersRoundCount = 2 * (roundCount - 1);
+        int[] losersOffsets = new int[Math.max(losersRoundCount, 1)];
+        for (int round = 0, offset = size - 1; round < losersRoundCount; ++round) {
+            losersOffsets[round] = offset;
+            offset += size >> (round / 2 + 2);
+        }
+
+        for (int round = 0, offset = 0; round < roundCount; ++round) {
+            int count = size >> (round + 1);
+            boolean isLast = round + 1 == roundCount;
+
+            for (int i = 0; i < count; ++i) {
+                int match = offset + i;
+                winnerSlots[match] = isLast ? slot(grandFinal, 0) : slot(offset + count + i / 2, i % 2);
+
+                if (roundCount == 1)
+                    loserSlots[match] = slot(grandFinal, 1);
+                else if (round == 0)
+                    loserSlots[match] = slot(losersOffsets[0] + i / 2, i % 2);
+                else {
+                    // Every other round drops in reverse order, so that entrants don't meet again right away.
+                    int losersMatch = round % 2 == 1 ? count - 1 - i : i;
+                    loserSlots[match] = slot(losersOffsets[2 * round - 1] + losersMatch, 1);
+                }
+            }
+
+            offset += count;
+        }
+
+        for (int round = 0; round < losersRoundCount; ++round) {
+            int count = size >> (round / 2 + 2);
+            boolean isLast = round + 1 == losersRoundCount;
+
+            for (int i = 0; i < count; ++i) {
+                int match = losersOffsets[round] + i;
+                if (isLast)
+                    winnerSlots[match] = slot(grandFinal, 1);
+                else if (round % 2 == 0)
+                    winnerSlots[match] = slot(losersOffsets[round + 1] + i, 0);
+                else
+                    winnerSlots[match] = slot(losersOffsets[round + 1] + i / 2, i % 2);
+            }
+        }
+
+        // Both entrants of the grand final play the reset, unless it is won from the winners bracket.
+        winnerSlots[grandFinal] = slot(getBracketReset(), 0);
+        loserSlots[grandFinal] = slot(getBracketReset(), 1);
+    }
+
+    private static int slot(int match, int side) {
+        return 2 * match + side;
+    }
+
+    /**
+     * Draws the bracket from the entrants that were added so far.
+     * The entrants are shuffled with the draw seed, which is saved with the round,
+     * so that the same bracket is drawn when the draw is replayed.
+     * Byes are spread over the first round, so that no match has two of them.
+     */
+    private void draw() {
+        ArrayList<E> drawnEntrants = new ArrayList<>(drawOrder);
+        Collections.shuffle(drawnEntrants, new Random(drawSeed));
+        drawOrder.clear();
+
+        int entrantCount = drawnEntrants.size();
+        buildBracket(Integer.highestOneBit(entrantCount - 1) << 1);
+
+        entrantMatches = new int[registry.size()];
+        Arrays.fill(entrantMatches, NO_MATCH);
+
+        // Matches are filled in bit-reversed order, which spreads the matches with a bye evenly.
+        int firstRoundCount = bracketSize / 2;
+        int bits = Integer.numberOfTrailingZeros(firstRoundCount);
+        int fullMatchCount = entrantCount - firstRoundCount;
+
+        Iterator<E> it = drawnEntrants.iterator();
+        for (int i = 0; i < firstRoundCount; ++i) {
+            int match = bits > 0 ? Integer.reverse(i) >>> (Integer.SIZE - bits) : 0;
+            put(slot(match, 0), registry.idOf(it.next()));
+            put(slot(match, 1), i < fullMatchCount ? registry.idOf(it.next()) : BYE);
+        }
+    }
+
+    private void drawIfNeeded() throws NoEntrantsException, NoOpponentException {
+        if (isDrawn())
+            return;
+
+        if (entrants.isEmpty())
+            throw new NoEntrantsException();
+        if (entrants.size() == 1)
+            throw new NoOpponentException();
+
+        draw();
+    }
+
+    /**
+     * Puts an entrant or a bye into a slot and checks if its match can be carried out.
+     * @param slot The slot.
+     * @param id The id of the entrant or {@link DoubleElimination#BYE}.
+     */
+    private void put(int slot, int id) {
+        slots[slot] = id;
+        if (id >= 0)
+            entrantMatches[id] = slot / 2;
+
+        update(slot / 2);
+    }
+
+    /**
+     * Decides a match by walkover or marks it as ready, once both of its slots are filled.
+     * The reset is won by walkover, if the grand final was won from the winners bracket.
+     * @param match The match.
+     */
+    private void update(int match) {
+        int first = slots[slot(match, 0)];
+        int second = slots[slot(match, 1)];
+        if (first == EMPTY || second == EMPTY)
+            return;
+
+        if (first == BYE)
+            finish(match, 1, false);
+        else if (second == BYE || match == getBracketReset() && winnerSides[getGrandFinal()] == 0)
+            finish(match, 0, false);
+        else
+            readyMatches.add(match);
+    }
+
+    /**
+     * Moves the winner and the loser of a match to their next slots.
+     * Entrants without a next slot are placed.
+     * @param match The match.
+     * @param winnerSide The side of the winner.
+     * @param isPlayed If the match was carried out.
+     */
+    private void finish(int match, int winnerSide, boolean isPlayed) {
+        winnerSides[match] = winnerSide;
+        played[match] = isPlayed;
+        readyMatches.remove(match);
+        activeMatches.remove(match);
+
+        if (isPlayed) {
+            long key = pairingKey(match);
+            finishedMatches.add(match);
+            finishedCounts.put(key, finishedCounts.get(key, 0) + 1);
+        }
+
+        int winner = slots[slot(match, winnerSide)];
+        int loser = slots[slot(match, 1 - winnerSide)];
+
+        if (winnerSlots[match] != NO_SLOT)
+            put(winnerSlots[match], winner);
+        else if (winner >= 0)
+            place(winner, Placement.FIRST);
+
+        if (loserSlots[match] != NO_SLOT)
+            put(loserSlots[match], loser);
+        else if (loser >= 0)
+            place(loser, getLoserPlacement(match));
+    }
+
+    private void place(int id, Placement placement) {
+        entrantMatches[id] = NO_MATCH;
+        placements.setPlacement(registry.get(id), placement);
+    }
+
+    /**
+     * The loser of the reset is second, the loser of the final of the losers bracket is third
+     * and the loser of the match before it is fourth. All other eliminated entrants share their placement.
+     * @param match The match in which the entrant was eliminated.
+     * @return The placement of the loser.
+     */
+    private Placement getLoserPlacement(int match) {
+        int reset = getBracketReset();
+        int losersStart = bracketSize - 1;
+
+        if (match == reset)
+            return Placement.SECOND;
+        if (match == reset - 2 && match >= losersStart)
+            return Placement.THIRD;
+        if (match == reset - 3 && match >= losersStart)
+            return Placement.of(4);
+
+        return Placement.NONE;
+    }
+
+    /**
+     * Checks if a match can be undone. That is the case if every match that its entrants moved to
+     * is neither active nor carried out, and can be undone itself if it was won by walkover.
+     * @param match The finished match.
+     * @return If the match can be undone.
+     */
+    private boolean canRevert(int match) {
+        for (int slot : new int[] { winnerSlots[match], loserSlots[match] }) {
+            if (slot == NO_SLOT)
+                continue;
+
+            int nextMatch = slot / 2;
+            if (activeMatches.contains(nextMatch))
+                return false;
+            if (winnerSides[nextMatch] != UNDECIDED && (played[nextMatch] || !canRevert(nextMatch)))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Takes the entrants of a finished match back out of their next slots.
+     * @see DoubleElimination#canRevert(int)
+     * @param match The finished match.
+     */
+    private void revert(int match) {
+        clearSlot(loserSlots[match]);
+        clearSlot(winnerSlots[match]);
+
+        for (int side = 0; side < 2; ++side) {
+            int id = slots[slot(match, side)];
+            if (id >= 0) {
+                entrantMatches[id] = match;
+                placements.resetPlacement(registry.get(id));
+            }
+        }
+
+        if (played[match]) {
+            long key = pairingKey(match);
+            finishedMatches.remove(match);
+            finishedCounts.put(key, finishedCounts.get(key, 0) - 1);
+            if (finishedCounts.get(key, 0) == 0)
+                finishedCounts.remove(key);
+        }
+
+        winnerSides[match] = UNDECIDED;
+        played[match] = false;
+    }
+
+    private void clearSlot(int slot) {
+        if (slot == NO_SLOT)
+            return;
+
+        int match = slot / 2;
+        if (winnerSides[match] != UNDECIDED)
+            revert(match);
+
+        readyMatches.remove(match);
+        slots[slot] = EMPTY;
+    }
+
+    private long pairingKey(int match) {
+        return Pairing.key(slots[slot(match, 0)], slots[slot(match, 1)]);
+    }
+
+    private Pairing<E> pairingOf(int match) {
+        return new Pairing<>(registry.get(slots[slot(match, 0)]), registry.get(slots[slot(match, 1)]));
+    }
+
+    private int matchOf(E entrant) {
+        int id = registry.idOf(entrant);
+        if (entrantMatches == null || id == EntrantRegistry.NO_ID || id >= entrantMatches.length)
+            return NO_MATCH;
+        return entrantMatches[id];
+    }
+
+    private int findActiveMatch(Pairing<E> pairing) {
+        int match = matchOf(pairing.getFirst());
+        if (match == NO_MATCH || !activeMatches.contains(match))
+            return NO_MATCH;
+
+        int secondId = registry.idOf(pairing.getSecond());
+        int firstId = registry.idOf(pairing.getFirst());
+        if (firstId == secondId || secondId != slots[slot(match, 0)] && secondId != slots[slot(match, 1)])
+            return NO_MATCH;
+
+        return match;
+    }
+
+    private int findLastFinishedMatch(Pairing<E> pairing) {
+        long key = pairing.key(registry);
+        int lastMatch = NO_MATCH;
+        for (int match : finishedMatches)
+            if (pairingKey(match) == key)
+                lastMatch = match;
+
+        return lastMatch;
+    }
+
+    private Pairing<E> start(int match) {
+        readyMatches.remove(match);
+        activeMatches.add(match);
+        return pairingOf(match);
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
+        if (hasEntrant(entrant))
+            return false;
+        if (isDrawn())
+            throw new NewEntrantsNotAllowedException();
+
+        entrants.add(entrant);
+        participants.add(entrant);
+        drawOrder.add(entrant);
+        version += 1;
+        return true;
+    }
+
+    /**
+     * Removes an entrant. Once the bracket is drawn, the entrant forfeits
+     * all remaining matches and can't be added again.
+     */
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (!hasEntrant(entrant))
+            return false;
+
+        entrants.remove(entrant);
+        version += 1;
+
+        if (!isDrawn()) {
+            participants.remove(entrant);
+            drawOrder.remove(entrant);
+            return true;
+        }
+
+        int match = matchOf(entrant);
+        if (match == NO_MATCH)
+            return true; // Already placed.
+
+        int id = registry.idOf(entrant);
+        place(id, Placement.NONE);
+
+        // The opponent wins by walkover, now or once they reach the match.
+        activeMatches.remove(match);
+        readyMatches.remove(match);
+        slots[slots[slot(match, 0)] == id ? slot(match, 0) : slot(match, 1)] = BYE;
+        update(match);
+
+        return true;
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean resetEntrant(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        drawIfNeeded();
+
+        if (readyMatches.isEmpty() && isFinished())
+            throw new NoMorePairingsException();
+        if (readyMatches.isEmpty())
+            throw new UnfinishedPairingsException();
+
+        Pairing<E> pairing = start(readyMatches.iterator().next());
+        version += 1;
+        return pairing;
+    }
+
+    /**
+     * Starts all matches whose entrants are known.
+     */
+    @Override
+    public List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        drawIfNeeded();
+
+        if (readyMatches.isEmpty() && isFinished())
+            throw new NoMorePairingsException();
+        if (readyMatches.isEmpty())
+            throw new UnfinishedPairingsException();
+
+        ArrayList<Pairing<E>> newPairings = new ArrayList<>(readyMatches.size());
+        for (int match : new ArrayList<>(readyMatches))
+            newPairings.add(start(match));
+
+        version += 1;
+        return newPairings;
+    }
+
+    /**
+     * Starts the match between the entrants of a pairing, which draws the bracket if necessary.
+     */
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException {
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new NoSuchEntrantException();
+        if (first.equals(second))
+            throw new NoSuchPairingException();
+
+        if (!isDrawn())
+            draw();
+
+        int match = matchOf(first);
+        if (activeMatches.contains(match) || activeMatches.contains(matchOf(second)))
+            throw new EntrantNotPendingException();
+        if (match == NO_MATCH || match != matchOf(second) || !readyMatches.contains(match))
+            throw new NoSuchPairingException();
+
+        start(match);
+        version += 1;
+        return pairing;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+
+        int match = findActiveMatch(pairing);
+        if (match == NO_MATCH)
+            throw new NoSuchPairingException();
+
+        int winnerId = registry.idOf(winningEntrant);
+        finish(match, slots[slot(match, 0)] == winnerId ? 0 : 1, true);
+        version += 1;
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+
+        Pairing<E> pairing = pairings.findActiveByEntrant(winningEntrant);
+        if (pairing == null)
+            throw new MissingPairingException();
+
+        try {
+            declareWinner(winningEntrant, pairing);
+        }
+        catch (NoSuchPairingException e) {
+            throw new RuntimeException(e); // The pairing was just found.
+        }
+
+        return pairing;
+    }
+
+    /**
+     * Replays the last match between the entrants of a pairing.
+     * The entrants must not have started or finished another match since.
+     */
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        if (findActiveMatch(pairing) != NO_MATCH)
+            return false;
+
+        int match = findLastFinishedMatch(pairing);
+        if (match == NO_MATCH)
+            throw new NoSuchPairingException();
+        if (!hasEntrant(pairing.getFirst()) || !hasEntrant(pairing.getSecond()))
+            throw new MissingEntrantException();
+        if (!canRevert(match))
+            throw new OrphanedPairingException();
+
+        revert(match);
+        activeMatches.add(match);
+        version += 1;
+        return true;
+    }
+
+    @Override
+    @UnsupportedOperation
+    public void declareTie(Pairing<E> pairing) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        // Checked up front, so that no results are declared.
+        for (Result<E> result : results)
+            if (result.isTie())
+                throw new UnsupportedOperationException();
+
+        return RankingRound.super.declareResults(results);
+    }
+
+    /**
+     * Gets the placement of an entrant, which is determined once the entrant is eliminated or wins the bracket.
+     */
+    @Override
+    public Placement getPlacement(E entrant) {
+        return placements.getPlacement(entrant);
+    }
+
+    @Override
+    public E getEntrantByPlacement(Placement placement) {
+        if (!placement.isRanked()) {
+            for (E entrant : entrants)
+                if (getPlacement(entrant).equals(placement))
+                    return entrant;
+            return null;
+        }
+
+        return placements.getEntrantByPlacement(placement);
+    }
+
+    public Standings<E> getStandings() {
+        return placements.getStandings();
+    }
+
+    /**
+     * @return The number of slots in the first round or 0 if the bracket is not drawn yet.
+     */
+    public int getBracketSize() {
+        return bracketSize;
+    }
+
+    public boolean isDrawn() {
+        return bracketSize > 0;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return If the entrant lost once and waits for or plays a match of the losers bracket.
+     */
+    public boolean isInLosersBracket(E entrant) {
+        int match = matchOf(entrant);
+        return isDrawn() && match >= bracketSize - 1 && match < getGrandFinal();
+    }
+
+    /**
+     * @return If the grand final was won from the losers bracket, so that it is played again.
+     */
+    public boolean isBracketReset() {
+        return isDrawn() && winnerSides[getGrandFinal()] == 1;
+    }
+
+    private int getGrandFinal() {
+        return winnerSides.length - 2;
+    }
+
+    private int getBracketReset() {
+        return winnerSides.length - 1;
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        return entrants.contains(entrant);
+    }
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return pairings.hasFinishedEntrant(entrant);
+    }
+
+    /**
+     * @return If the entrant won the bracket.
+     */
+    @Override
+    public boolean hasWon(E entrant) {
+        return getPlacement(entrant).equals(Placement.FIRST);
+    }
+
+    /**
+     * @return If the entrant was eliminated.
+     */
+    @Override
+    public boolean hasLost(E entrant) {
+        return isDrawn() && participants.contains(entrant) && matchOf(entrant) == NO_MATCH && !hasWon(entrant);
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        return participants.contains(entrant);
+    }
+
+    /**
+     * Once the bracket is drawn, a removed entrant forfeits its remaining matches and can't be added again.
+     */
+    @Override
+    public boolean canAddEntrantAgain(E entrant) {
+        return !isDrawn();
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    /**
+     * The round is finished once the grand final, and its reset if necessary, are decided.
+     */
+    @Override
+    public boolean isFinished() {
+        return isDrawn() && winnerSides[getBracketReset()] != UNDECIDED;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The pairings of the matches of the bracket. Unlike other rounds, the same pairing
+     * can be finished more than once, so it is finished as long as any of its matches is.
+     */
+    private class MatchPairings implements Pairings<E>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Iterator<Pairing<E>> getActivePairingIterator() {
+            return getActive().iterator();
+        }
+
+        @Override
+        public Pairing<E> getLastPairingOfEntrant(E entrant) {
+            Pairing<E> activePairing = findActiveByEntrant(entrant);
+            if (activePairing != null)
+                return activePairing;
+
+            int id = registry.idOf(entrant);
+            int lastMatch = NO_MATCH;
+            for (int match : finishedMatches)
+                if (id != EntrantRegistry.NO_ID && (slots[slot(match, 0)] == id || slots[slot(match, 1)] == id))
+                    lastMatch = match;
+
+            return lastMatch != NO_MATCH ? pairingOf(lastMatch) : null;
+        }
+
+        @Override
+        public Pairing<E> findActiveByEntrant(E entrant) {
+            int match = matchOf(entrant);
+            return activeMatches.contains(match) ? pairingOf(match) : null;
+        }
+
+        @Override
+        public Set<Pairing<E>> findFinishedByEntrant(E entrant) {
+            int id = registry.idOf(entrant);
+            LinkedHashSet<Pairing<E>> finishedPairings = new LinkedHashSet<>();
+            for (int match : finishedMatches)
+                if (id != EntrantRegistry.NO_ID && (slots[slot(match, 0)] == id || slots[slot(match, 1)] == id))
+                    finishedPairings.add(pairingOf(match));
+
+            return finishedPairings;
+        }
+
+        @Override
+        public Set<Pairing<E>> getActive() {
+            return toPairings(activeMatches);
+        }
+
+        @Override
+        public Set<Pairing<E>> getFinished() {
+            return toPairings(finishedMatches);
+        }
+
+        @Override
+        public Set<E> getActiveEntrants() {
+            return toEntrants(activeMatches);
+        }
+
+        @Override
+        public Set<E> getFinishedEntrants() {
+            return toEntrants(finishedMatches);
+        }
+
+        private Set<Pairing<E>> toPairings(LinkedHashSet<Integer> matches) {
+            LinkedHashSet<Pairing<E>> matchPairings = new LinkedHashSet<>();
+            for (int match : matches)
+                matchPairings.add(pairingOf(match));
+
+            return Collections.unmodifiableSet(matchPairings);
+        }
+
+        private Set<E> toEntrants(LinkedHashSet<Integer> matches) {
+            EntrantSet<E> matchEntrants = new EntrantSet<>(registry);
+            for (int match : matches) {
+                matchEntrants.addId(slots[slot(match, 0)]);
+                matchEntrants.addId(slots[slot(match, 1)]);
+            }
+
+            return Collections.unmodifiableSet(matchEntrants);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !hasActive() && !hasFinished();
+        }
+
+        @Override
+        public boolean hasActive() {
+            return !activeMatches.isEmpty();
+        }
+
+        @Override
+        public boolean hasFinished() {
+            return !finishedMatches.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Pairing<E> pairing) {
+            return isActive(pairing) || isFinished(pairing);
+        }
+
+        @Override
+        public boolean isActive(Pairing<E> pairing) {
+            return findActiveMatch(pairing) != NO_MATCH;
+        }
+
+        @Override
+        public boolean isFinished(Pairing<E> pairing) {
+            long key = pairing.key(registry);
+            return key != Pairing.NO_KEY && finishedCounts.containsKey(key);
+        }
+
+        @Override
+        public boolean hasEntrant(E entrant) {
+            return hasActiveEntrant(entrant) || hasFinishedEntrant(entrant);
+        }
+
+        @Override
+        public boolean hasActiveEntrant(E entrant) {
+            return activeMatches.contains(matchOf(entrant));
+        }
+
+        @Override
+        public boolean hasFinishedEntrant(E entrant) {
+            return !findFinishedByEntrant(entrant).isEmpty();
+        }
+    }
+}
@@ -1,48 +1,120 @@
 package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantStateTable;
 import de.j13g.manko.core.managers.PairingManager;
-import de.j13g.manko.core.managers.ResultManager;
 import de.j13g.manko.core.exceptions.*;
 import de.j13g.manko.core.base.EliminationRound;
 import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 import de.j13g.manko.util.ShuffledSet;
 import de.j13g.manko.util.exceptions.EmptySetException;
 import de.j13g.manko.util.exceptions.NoSuchElementException;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Stream;
 
 public class DynamicElimination<E> implements EliminationRound<E>, Serializable {
 
-    protected final HashSet<E> entrants = new HashSet<>();
+    /**
+     * The state of an entrant in this round.
+     * Floating results belong to entrants that were removed after their pairing was finished.
+     */
+    protected enum EntrantState {
+        PENDING,
+        PAIRED,
+        ADVANCED,
+        ELIMINATED,
+        FLOATING_ADVANCED,
+        FLOATING_ELIMINATED
+    }
+
+    private static final Set<EntrantState> ENTRANT_STATES = EnumSet.of(
+            EntrantState.PENDING, EntrantState.PAIRED, EntrantState.ADVANCED, EntrantState.ELIMINATED);
+
+    // The order in which results are written to snapshots.
+    private static final List<EntrantState> RESULT_STATES = List.of(
+            EntrantState.ADVANCED, EntrantState.ELIMINATED,
+            EntrantState.FLOATING_ADVANCED, EntrantState.FLOATING_ELIMINATED);
+
+    protected final EntrantRegistry<E> registry;
+
+    protected final EntrantStateTable<E, EntrantState> states;
     protected final ShuffledSet<E> pendingEntrants = new ShuffledSet<>();
 
-    protected final ResultManager<E> results = new ResultManager<>();
-    protected final ResultManager<E> floatingResults = new ResultManager<>();
+    protected final PairingManager<E> pairings;
+
+    private long version = 0;
 
-    protected final PairingManager<E> pairings = new PairingManager<>();
+    public DynamicElimination() {
+        this(new EntrantRegistry<>());
+    }
 
-    public DynamicElimination() {}
+    public DynamicElimination(EntrantRegistry<E> registry) {
+        this.registry = registry;
+        states = new EntrantStateTable<>(registry, EntrantState.values());
+        pairings = new PairingManager<>(registry);
+    }
 
     public DynamicElimination(Collection<E> entrants) {
+        this(new EntrantRegistry<>(), entrants);
+    }
+
+    public DynamicElimination(EntrantRegistry<E> registry, Collection<E> entrants) {
+        this(registry);
         entrants.forEach(this::addEntrant);
     }
 
+    public DynamicElimination(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this(registry);
+
+        // Entrants without any other state are paired.
+        List<E> entrants = in.readEntrants();
+        for (E entrant : in.readEntrants()) {
+            states.set(entrant, EntrantState.PENDING);
+            pendingEntrants.add(entrant);
+        }
+
+        for (EntrantState state : RESULT_STATES)
+            for (E entrant : in.readEntrants())
+                states.set(entrant, state);
+
+        for (E entrant : entrants)
+            if (states.get(entrant) == null)
+                states.set(entrant, EntrantState.PAIRED);
+
+        pairings.read(in);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeEntrants(getEntrants());
+        out.writeEntrants(pendingEntrants.elements());
+        for (EntrantState state : RESULT_STATES)
+            out.writeEntrants(states.view(EnumSet.of(state)));
+        pairings.write(out);
+    }
+
     @Override
     public boolean addEntrant(E entrant) {
-        if (hasEntrant(entrant))
+        EntrantState state = states.get(entrant);
+        if (state != null && ENTRANT_STATES.contains(state))
             return false;
 
-        entrants.add(entrant);
+        version += 1;
 
-        if (floatingResults.contains(entrant)) {
-            floatingResults.moveTo(results, entrant);
-            return true;
-        }
+        if (state == EntrantState.FLOATING_ADVANCED)
+            states.set(entrant, EntrantState.ADVANCED);
+        else if (state == EntrantState.FLOATING_ELIMINATED)
+            states.set(entrant, EntrantState.ELIMINATED);
+        else
+            setPending(entrant);
 
-        pendingEntrants.add(entrant);
         return true;
     }
 
@@ -61,6 +133,57 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
         }
     }
 
+    @Override
+    public List<Pairing<E>> pairAll() throws NoEntrantsException, NoOpponentException {
+        return nextPairings(pendingEntrants.size() / 2);
+    }
+
+    /**
+     * Generates multiple pairings at once, drawing all of their entrants in one go.
+     * @param count The number of pairings.
+     * @return The pairings.
+     * @throws NoEntrantsException There are no entrants in this round.
+     * @throws NoOpponentException The only remaining entrant does not have an opponent.
+     * @throws IllegalArgumentException There are not enough pending entrants for that many pairings.
+     */
+    public List<Pairing<E>> nextPairings(int count) throws NoEntrantsException, NoOpponentException {
+        if (pendingEntrants.size() == 0) throw new NoEntrantsException();
+        if (pendingEntrants.size() == 1) throw new NoOpponentException();
+
+        List<E> drawnEntrants = pendingEntrants.removeRandom(2 * count);
+
+        ArrayList<Pairing<E>> newPairings = new ArrayList<>(count);
+        for (int i = 0; i < drawnEntrants.size(); i += 2)
+            newPairings.add(addPairing(drawnEntrants.get(i), drawnEntrants.get(i + 1)));
+
+        version += 1;
+
+        assert states.count(EntrantState.PAIRED) == 2 * pairings.getActive().size();
+        assert states.count(EntrantState.PENDING) == pendingEntrants.size();
+
+        return newPairings;
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, EntrantNotPendingException {
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (first.equals(second))
+            throw new IllegalArgumentException("An entrant cannot be paired with themselves");
+
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new NoSuchEntrantException();
+        if (!isEntrantPending(first) || !isEntrantPending(second))
+            throw new EntrantNotPendingException();
+
+        pendingEntrants.remove(first);
+        pendingEntrants.remove(second);
+        return registerPairing(first, second);
+    }
+
     @Override
     public Pairing<E> declareWinner(E winningEntrant) throws NoSuchEntrantException, MissingPairingException {
         if (!hasEntrant(winningEntrant))
@@ -91,8 +214,8 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
         if (!pairings.isActive(pairing))
             throw new NoSuchPairingException();
 
-        results.advance(winningEntrant);
-        results.eliminate(getOtherUnsafe(pairing, winningEntrant));
+        states.set(winningEntrant, EntrantState.ADVANCED);
+        states.set(getOtherUnsafe(pairing, winningEntrant), EntrantState.ELIMINATED);
 
         finishPairing(pairing);
     }
@@ -104,12 +227,47 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
         if (!pairings.isActive(pairing))
             throw new NoSuchPairingException();
 
-        results.eliminate(pairing.getFirst());
-        results.eliminate(pairing.getSecond());
+        states.set(pairing.getFirst(), EntrantState.ELIMINATED);
+        states.set(pairing.getSecond(), EntrantState.ELIMINATED);
 
         finishPairing(pairing);
     }
 
+    /**
+     * Declares all results with a single version change.
+     */
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        List<Pairing<E>> resultPairings = resolvePairings(results);
+
+        Iterator<Pairing<E>> pairingIterator = resultPairings.iterator();
+        for (Result<E> result : results) {
+            Pairing<E> pairing = pairingIterator.next();
+
+            E winningEntrant = result.getWinningEntrant();
+            if (result.isTie()) {
+                states.set(pairing.getFirst(), EntrantState.ELIMINATED);
+                states.set(pairing.getSecond(), EntrantState.ELIMINATED);
+            }
+            else {
+                states.set(winningEntrant, EntrantState.ADVANCED);
+                states.set(getOtherUnsafe(pairing, winningEntrant), EntrantState.ELIMINATED);
+            }
+
+            pairings.finish(pairing);
+        }
+
+        if (!resultPairings.isEmpty())
+            version += 1;
+
+        assert states.count(EntrantState.PAIRED) == 2 * pairings.getActive().size();
+        assert states.count(EntrantState.PENDING) == pendingEntrants.size();
+
+        return resultPairings;
+    }
+
     @Override
     public boolean replayPairing(Pairing<E> pairing)
             throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
@@ -130,8 +288,6 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
         if (isPairingOrphaned(pairing))
             throw new OrphanedPairingException();
 
-        results.reset(first);
-        results.reset(second);
         pairings.remove(pairing);
 
         pendingEntrants.remove(first);
@@ -143,21 +299,24 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
 
     @Override
     public boolean resetEntrant(E entrant) {
-        if (!hasStateAbout(entrant) || isEntrantPending(entrant))
+        EntrantState state = states.get(entrant);
+        if (state == null || state == EntrantState.PENDING)
             return false;
 
-        if (isEntrantPaired(entrant)) {
-            Pairing<E> pairing = pairings.removeActiveByEntrant(entrant);
-            resetOtherUnsafe(pairing, entrant);
-            pendingEntrants.add(entrant);
-        }
-        else if (isEntrantAdvanced(entrant) || isEntrantEliminated(entrant)) {
-            results.reset(entrant);
-            pendingEntrants.add(entrant);
-        }
-        else if (floatingResults.isAdvanced(entrant) || floatingResults.isEliminated(entrant)) {
-            assert !hasEntrant(entrant);
-            floatingResults.reset(entrant);
+        switch (state) {
+            case PAIRED:
+                Pairing<E> pairing = pairings.removeActiveByEntrant(entrant);
+                resetOtherUnsafe(pairing, entrant);
+                setPending(entrant);
+                break;
+            case ADVANCED:
+            case ELIMINATED:
+                setPending(entrant);
+                break;
+            case FLOATING_ADVANCED:
+            case FLOATING_ELIMINATED:
+                states.remove(entrant);
+                break;
         }
 
         Set<Pairing<E>> entrantPairingSet = pairings.findFinishedByEntrant(entrant);
@@ -171,37 +330,51 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
         // i.e. the other entrant was reset before too.
         for (Pairing<E> pairing : entrantPairings) {
             E other = getOtherUnsafe(pairing, entrant);
-            if (!hasEntrantResult(other) && !floatingResults.contains(other))
+            if (!hasAnyResult(other))
                 pairings.removeFinished(pairing);
         }
 
+        version += 1;
         return true;
     }
 
     @Override
     public boolean removeEntrant(E entrant) {
-        if (isEntrantPending(entrant)) {
-            pendingEntrants.remove(entrant);
-        }
-        else if (isEntrantPaired(entrant)) {
-            Pairing<E> pairing = pairings.findActiveByEntrant(entrant);
-            resetOtherUnsafe(pairing, entrant);
-            pairings.removeActive(pairing);
-        }
-        else if (isEntrantAdvanced(entrant) || isEntrantEliminated(entrant)) {
-            boolean wasMoved = results.moveTo(floatingResults, entrant);
-            assert wasMoved; // No side effects in assert allowed.
-        }
-        else if (floatingResults.contains(entrant)) {
-            return false; // Already removed.
+        EntrantState state = states.get(entrant);
+        if (state == null || !ENTRANT_STATES.contains(state))
+            return false; // Not part of the round or already removed.
+
+        switch (state) {
+            case PENDING:
+                pendingEntrants.remove(entrant);
+                states.remove(entrant);
+                break;
+            case PAIRED:
+                Pairing<E> pairing = pairings.findActiveByEntrant(entrant);
+                resetOtherUnsafe(pairing, entrant);
+                pairings.removeActive(pairing);
+                states.remove(entrant);
+                break;
+            case ADVANCED:
+                states.set(entrant, EntrantState.FLOATING_ADVANCED);
+                break;
+            case ELIMINATED:
+                states.set(entrant, EntrantState.FLOATING_ELIMINATED);
+                break;
         }
 
-        return entrants.remove(entrant);
+        version += 1;
+        return true;
     }
 
     @Override
     public Set<E> getEntrants() {
-        return Collections.unmodifiableSet(entrants);
+        return states.view(ENTRANT_STATES);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
     }
 
     @Override
@@ -236,72 +409,73 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
 
     @Override
     public Set<E> getAdvancedEntrants() {
-        return results.getAdvanced();
+        return states.view(EnumSet.of(EntrantState.ADVANCED));
     }
 
     @Override
     public Stream<E> getEntrantsWithState() {
-        Stream<E> advanced = floatingResults.getAdvanced().stream();
-        Stream<E> eliminated = floatingResults.getEliminated().stream();
-        Stream<E> floating = Stream.concat(advanced, eliminated);
-        return Stream.concat(entrants.stream(), floating);
+        return states.view(EnumSet.allOf(EntrantState.class)).stream();
     }
 
     @Override
     public Set<E> getEliminatedEntrants() {
-        return results.getEliminated();
+        return states.view(EnumSet.of(EntrantState.ELIMINATED));
     }
 
     @Override
     public boolean hasEntrant(E entrant) {
-        return entrants.contains(entrant);
+        EntrantState state = states.get(entrant);
+        return state != null && ENTRANT_STATES.contains(state);
     }
 
-    // FIXME hasEntrantResult does not involve
-    //  floatingResults, but hasWon and hasLost do.
-
+    /**
+     * Removed entrants keep their result until they are reset, like for {@link #hasWon} and {@link #hasLost}.
+     */
     @Override
     public boolean hasEntrantResult(E entrant) {
-        return results.contains(entrant);
+        return hasWon(entrant) || hasLost(entrant);
     }
 
     @Override
     public boolean hasWon(E entrant) {
-        return results.isAdvanced(entrant) || floatingResults.isAdvanced(entrant);
+        EntrantState state = states.get(entrant);
+        return state == EntrantState.ADVANCED || state == EntrantState.FLOATING_ADVANCED;
     }
 
     @Override
     public boolean hasLost(E entrant) {
-        return results.isEliminated(entrant) || floatingResults.isEliminated(entrant);
+        EntrantState state = states.get(entrant);
+        return state == EntrantState.ELIMINATED || state == EntrantState.FLOATING_ELIMINATED;
     }
 
     @Override
     public boolean isEntrantPending(E entrant) {
-        return pendingEntrants.contains(entrant);
+        return states.get(entrant) == EntrantState.PENDING;
     }
 
     @Override
     public boolean isEntrantPaired(E entrant) {
-        return pairings.hasActiveEntrant(entrant);
+        return states.get(entrant) == EntrantState.PAIRED;
     }
 
     @Override
     public boolean isFinished() {
-        // Assert either not finished or proper entrant distribution.
-        assert !(pendingEntrants.isEmpty() && !pairings.hasActive())
-                || entrants.size() == results.getAdvanced().size() + results.getEliminated().size();
+        return states.count(EntrantState.PENDING) == 0 && states.count(EntrantState.PAIRED) == 0;
+    }
 
-        return pendingEntrants.isEmpty() && !pairings.hasActive();
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     @Override
     public boolean isEntrantAdvanced(E entrant) {
-        return results.isAdvanced(entrant);
+        return states.get(entrant) == EntrantState.ADVANCED;
     }
 
     @Override
     public boolean isEntrantEliminated(E entrant) {
-        return results.isEliminated(entrant);
+        return states.get(entrant) == EntrantState.ELIMINATED;
     }
 
     @Override
@@ -326,7 +500,7 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
 
     @Override
     public boolean hasStateAbout(E entrant) {
-        return hasEntrant(entrant) || floatingResults.contains(entrant);
+        return states.get(entrant) != null;
     }
 
     /**
@@ -337,13 +511,24 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
      * @return The created pairing containing both entrants.
      */
     private Pairing<E> registerPairing(E first, E second) {
+        Pairing<E> pairing = addPairing(first, second);
+        version += 1;
+        return pairing;
+    }
+
+    /**
+     * Adds a pairing without changing the version.
+     * @see DynamicElimination#registerPairing(Object, Object)
+     */
+    private Pairing<E> addPairing(E first, E second) {
 
         Pairing<E> pairing = new Pairing<>(first, second);
 
         assert !pairings.contains(pairing);
-        assert !isEntrantPending(first) && !isEntrantPending(second);
-        assert !hasEntrantResult(first) && !hasEntrantResult(second);
+        assert !pendingEntrants.contains(first) && !pendingEntrants.contains(second);
 
+        states.set(first, EntrantState.PAIRED);
+        states.set(second, EntrantState.PAIRED);
         pairings.add(pairing);
         return pairing;
     }
@@ -357,11 +542,11 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
             throw new RuntimeException(e);
         }
 
+        version += 1;
+
         // Check that entrants don't end up where they shouldn't.
-        assert entrants.size() == pairings.getActiveEntrants().size() +
-                pairings.getFinishedEntrants().size() + pendingEntrants.size();
-        assert entrants.size() == pairings.getActiveEntrants().size() +
-                results.getAdvanced().size() + results.getEliminated().size() + pendingEntrants.size();
+        assert states.count(EntrantState.PAIRED) == 2 * pairings.getActive().size();
+        assert states.count(EntrantState.PENDING) == pendingEntrants.size();
     }
 
     private E getOtherUnsafe(Pairing<E> pairing, E entrant) {
@@ -373,7 +558,16 @@ public class DynamicElimination<E> implements EliminationRound<E>, Serializable
     }
 
     private void resetOtherUnsafe(Pairing<E> pairing, E entrant) {
-        E other = getOtherUnsafe(pairing, entrant);
-        pendingEntrants.add(other);
+        setPending(getOtherUnsafe(pairing, entrant));
+    }
+
+    private void setPending(E entrant) {
+        states.set(entrant, EntrantState.PENDING);
+        pendingEntrants.add(entrant);
+    }
+
+    private boolean hasAnyResult(E entrant) {
+        EntrantState state = states.get(entrant);
+        return state != null && state != EntrantState.PENDING && state != EntrantState.PAIRED;
     }
 }
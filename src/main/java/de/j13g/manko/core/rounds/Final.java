@@ -2,15 +2,22 @@ package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.core.Pairing;
 import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.Standings;
 import de.j13g.manko.core.annotations.UnsupportedOperation;
 import de.j13g.manko.core.base.FinalRound;
 import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
 import de.j13g.manko.core.managers.PairingManager;
 import de.j13g.manko.core.exceptions.*;
 import de.j13g.manko.core.managers.PlacementManager;
 import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 
@@ -19,18 +26,30 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
     private final Pairing<E> firstPlacePairing;
     private final Pairing<E> thirdPlacePairing;
 
-    private final Set<E> entrants = new HashSet<>();
+    private final EntrantRegistry<E> registry;
+
+    private final EntrantSet<E> entrants;
 
     private final ArrayList<Pairing<E>> pairingOrder = new ArrayList<>();
 
-    private final PairingManager<E> pairings = new PairingManager<>();
-    private final PlacementManager<E> placements = new PlacementManager<>();
+    private final PairingManager<E> pairings;
+    private final PlacementManager<E> placements;
+
+    private long version = 0;
 
     public Final(Pairing<E> firstPlacePairing) {
         this(firstPlacePairing, null);
     }
 
     public Final(Pairing<E> firstPlacePairing, @Nullable Pairing<E> thirdPlacePairing) {
+        this(new EntrantRegistry<>(), firstPlacePairing, thirdPlacePairing);
+    }
+
+    public Final(EntrantRegistry<E> registry, Pairing<E> firstPlacePairing, @Nullable Pairing<E> thirdPlacePairing) {
+        this.registry = registry;
+        entrants = new EntrantSet<>(registry);
+        placements = new PlacementManager<>(registry);
+        pairings = new PairingManager<>(registry);
 
         if (thirdPlacePairing != null) {
             if (thirdPlacePairing.contains(firstPlacePairing.getFirst()))
@@ -51,6 +70,33 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         this.thirdPlacePairing = thirdPlacePairing;
     }
 
+    public Final(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this.registry = registry;
+        entrants = new EntrantSet<>(registry);
+        placements = new PlacementManager<>(registry);
+        pairings = new PairingManager<>(registry);
+
+        firstPlacePairing = in.readPairing();
+        thirdPlacePairing = in.readBoolean() ? in.readPairing() : null;
+        entrants.addAll(in.readEntrants());
+        pairingOrder.addAll(in.readPairings());
+        pairings.read(in);
+        placements.read(in);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writePairing(firstPlacePairing);
+        out.writeBoolean(thirdPlacePairing != null);
+        if (thirdPlacePairing != null)
+            out.writePairing(thirdPlacePairing);
+
+        out.writeEntrants(entrants);
+        out.writePairings(pairingOrder);
+        pairings.write(out);
+        placements.write(out);
+    }
+
     @Override
     public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
         if (hasEntrant(entrant))
@@ -75,6 +121,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         }
 
         entrants.add(entrant);
+        version += 1;
 
         return true;
     }
@@ -102,6 +149,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
             pairingOrder.remove(pairing);
 
         entrants.remove(entrant);
+        version += 1;
 
         return true;
     }
@@ -121,10 +169,33 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
 
         Pairing<E> pairing = pairingOrder.remove(0);
         pairings.add(pairing);
+        version += 1;
 
         return pairing;
     }
 
+    /**
+     * Pairings are carried out one after another, thus only the next pairing is generated.
+     */
+    @Override
+    public List<Pairing<E>> pairAll() throws UnfinishedPairingsException, NoMorePairingsException {
+        return List.of(nextPairing());
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, UnfinishedPairingsException {
+
+        if (pairings.hasActive())
+            throw new UnfinishedPairingsException();
+        if (!pairingOrder.remove(pairing))
+            throw new NoSuchPairingException();
+
+        pairings.add(pairing);
+        version += 1;
+        return pairing;
+    }
+
     @Override
     public boolean replayPairing(Pairing<E> pairing) throws NoSuchPairingException, MissingEntrantException {
         if (pairings.isActive(pairing))
@@ -139,6 +210,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
 
         pairings.removeFinished(pairing);
         pairings.add(pairing);
+        version += 1;
         return true;
     }
 
@@ -166,6 +238,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         }
 
         pairings.finish(pairing);
+        version += 1;
     }
 
     @Override
@@ -189,10 +262,23 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        // Checked up front, so that no results are declared.
+        for (Result<E> result : results)
+            if (result.isTie())
+                throw new UnsupportedOperationException();
+
+        return RankingRound.super.declareResults(results);
+    }
+
     public void setFirstPlacePairingFirst() {
         if (pairingOrder.size() == 2) {
             pairingOrder.set(0, firstPlacePairing);
             pairingOrder.set(1, thirdPlacePairing);
+            version += 1;
         }
     }
 
@@ -200,6 +286,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         if (pairingOrder.size() == 2) {
             pairingOrder.set(0, thirdPlacePairing);
             pairingOrder.set(1, firstPlacePairing);
+            version += 1;
         }
     }
 
@@ -208,6 +295,11 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         return Collections.unmodifiableSet(entrants);
     }
 
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
+    }
+
     @Override
     public Pairings<E> getPairings() {
         return pairings;
@@ -240,19 +332,19 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
 
     @Override
     public boolean hasEntrantResult(E entrant) {
-        return placements.getPlacement(entrant) != Placement.TBD;
+        return !placements.getPlacement(entrant).equals(Placement.TBD);
     }
 
     @Override
     public boolean hasWon(E entrant) {
         Placement placement = placements.getPlacement(entrant);
-        return placement == Placement.FIRST || placement == Placement.THIRD;
+        return placement.equals(Placement.FIRST) || placement.equals(Placement.THIRD);
     }
 
     @Override
     public boolean hasLost(E entrant) {
         Placement placement = placements.getPlacement(entrant);
-        return placement == Placement.SECOND || placement == Placement.NONE;
+        return placement.equals(Placement.SECOND) || placement.equals(Placement.NONE);
     }
 
     @Override
@@ -270,6 +362,11 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         return pairingOrder.isEmpty() && pairings.getActive().isEmpty();
     }
 
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
 //    @Override
     public List<Pairing<E>> getUpcomingPairings() {
         return Collections.unmodifiableList(pairingOrder);
@@ -290,6 +387,10 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         return placements.getEntrantByPlacement(placement);
     }
 
+    public Standings<E> getStandings() {
+        return placements.getStandings();
+    }
+
     private Pairing<E> getPairingForEntrant(E entrant) {
         assert firstPlacePairing.contains(entrant) || thirdPlacePairing.contains(entrant);
         return firstPlacePairing.contains(entrant) ? firstPlacePairing : thirdPlacePairing;
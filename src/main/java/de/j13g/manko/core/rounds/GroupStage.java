@@ -0,0 +1,895 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.annotations.UnsupportedOperation;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * A group stage, in which the entrants are split into groups that each play a {@link RoundRobin}.
+ * Entrants can be added until the groups are drawn with the first pairing. The best entrants of every group advance.
+ * <p>
+ * Every group is guarded by its own lock, so operations on entrants of different groups can be carried out
+ * concurrently, e.g. when the results of several groups are declared at once. That is safe, because all entrants
+ * are registered when the groups are drawn, after which the groups only read the shared registry.
+ * @param <E> The entrant type.
+ */
+public class GroupStage<E> implements Round<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Seeding {
+
+        /**
+         * Entrants are seeded in the order in which they were added. The seeds are dealt to the groups
+         * in rows that alternate their direction, so that every group gets an equal share of high and low seeds.
+         */
+        SNAKE,
+
+        /**
+         * Entrants are shuffled and dealt to the groups one after another.
+         */
+        RANDOM
+    }
+
+    private static final int NO_GROUP = -1;
+
+    private final EntrantRegistry<E> registry;
+
+    private final int maxGroupCount;
+    private final int advancingCount;
+    private final Seeding seeding;
+    private final long drawSeed;
+
+    // The entrants in the order in which they were added, until the groups are drawn.
+    private final LinkedHashSet<E> drawOrder = new LinkedHashSet<>();
+
+    private final ArrayList<RoundRobin<E>> groups = new ArrayList<>();
+
+    // The group and the seed of every entrant, indexed by entrant id.
+    private int[] entrantGroups = new int[0];
+    private int[] entrantSeeds = new int[0];
+
+    private final GroupPairings pairings = new GroupPairings();
+
+    // Guarded by this.
+    private int nextGroup = 0;
+    private long version = 0;
+
+    public GroupStage(int maxGroupCount, int advancingCount, Seeding seeding) {
+        this(maxGroupCount, advancingCount, seeding, new Random().nextLong());
+    }
+
+    public GroupStage(int maxGroupCount, int advancingCount, Seeding seeding, long drawSeed) {
+        this(new EntrantRegistry<>(), maxGroupCount, advancingCount, seeding, drawSeed);
+    }
+
+    /**
+     * @param registry The registry that the round shares with the other rounds of its tournament.
+     * @param maxGroupCount The number of groups. Fewer groups are drawn, so that every group has two entrants.
+     * @param advancingCount The number of entrants that advance from every group.
+     * @param seeding How the entrants are split into groups.
+     * @param drawSeed The seed with which randomly seeded entrants are shuffled.
+     */
+    public GroupStage(EntrantRegistry<E> registry, int maxGroupCount, int advancingCount, Seeding seeding,
+                      long drawSeed) {
+
+        if (maxGroupCount < 1 || advancingCount < 1)
+            throw new IllegalArgumentException("There has to be at least one group and one advancing entrant");
+
+        this.registry = registry;
+        this.maxGroupCount = maxGroupCount;
+        this.advancingCount = advancingCount;
+        this.seeding = seeding;
+        this.drawSeed = drawSeed;
+    }
+
+    public GroupStage(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this.registry = registry;
+        maxGroupCount = in.readInt();
+        advancingCount = in.readInt();
+        seeding = in.readEnum(Seeding.values());
+        drawSeed = in.readLong();
+        if (maxGroupCount < 1 || advancingCount < 1)
+            throw new IOException("Invalid group stage");
+
+        for (E entrant : in.readEntrants()) {
+            drawOrder.add(entrant);
+            registry.register(entrant);
+        }
+
+        int groupCount = in.readCount();
+        for (int group = 0; group < groupCount; ++group)
+            groups.add(new RoundRobin<>(in, registry));
+
+        if (isStarted()) {
+            List<E> seeds = in.readEntrants();
+            allocateEntrants();
+            for (int seed = 0; seed < seeds.size(); ++seed) {
+                int id = registry.register(seeds.get(seed));
+                int group = in.readInt();
+                if (group < 0 || group >= groupCount)
+                    throw new IOException("Invalid group " + group);
+                entrantGroups[id] = group;
+                entrantSeeds[id] = seed;
+            }
+        }
+
+        nextGroup = in.readInt();
+        if (isStarted() && nextGroup >= groups.size())
+            throw new IOException("Invalid group " + nextGroup);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeInt(maxGroupCount);
+        out.writeInt(advancingCount);
+        out.writeEnum(seeding);
+        out.writeLong(drawSeed);
+
+        out.writeEntrants(drawOrder);
+
+        out.writeInt(groups.size());
+        for (RoundRobin<E> group : groups)
+            synchronized (group) {
+                group.write(out);
+            }
+
+        if (isStarted()) {
+            E[] seeds = getSeeds();
+            out.writeEntrants(Arrays.asList(seeds));
+            for (E entrant : seeds)
+                out.writeInt(entrantGroups[registry.idOf(entrant)]);
+        }
+
+        synchronized (this) {
+            out.writeInt(nextGroup);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E[] getSeeds() {
+        Object[] seeds = new Object[registry.size()];
+        int seedCount = 0;
+        for (int id = 0; id < entrantGroups.length; ++id) {
+            if (entrantGroups[id] != NO_GROUP) {
+                seeds[entrantSeeds[id]] = registry.get(id);
+                seedCount += 1;
+            }
+        }
+
+        return (E[]) Arrays.copyOf(seeds, seedCount);
+    }
+
+    private void allocateEntrants() {
+        entrantGroups = new int[registry.size()];
+        entrantSeeds = new int[registry.size()];
+        Arrays.fill(entrantGroups, NO_GROUP);
+    }
+
+    /**
+     * Splits the entrants into groups. Randomly seeded entrants are shuffled with the draw seed,
+     * which is saved with the round, so that the same groups are drawn when the draw is replayed.
+     */
+    private synchronized void draw() {
+        if (isStarted())
+            return;
+
+        ArrayList<E> seeds = new ArrayList<>(drawOrder);
+        if (seeding == Seeding.RANDOM)
+            Collections.shuffle(seeds, new Random(drawSeed));
+        drawOrder.clear();
+
+        int groupCount = Math.min(maxGroupCount, seeds.size() / 2);
+        ArrayList<ArrayList<E>> groupEntrants = new ArrayList<>(groupCount);
+        for (int group = 0; group < groupCount; ++group)
+            groupEntrants.add(new ArrayList<>());
+
+        allocateEntrants();
+        for (int seed = 0; seed < seeds.size(); ++seed) {
+            int row = seed / groupCount;
+            int column = seed % groupCount;
+            int group = seeding == Seeding.SNAKE && row % 2 == 1 ? groupCount - 1 - column : column;
+
+            int id = registry.idOf(seeds.get(seed));
+            entrantGroups[id] = group;
+            entrantSeeds[id] = seed;
+            groupEntrants.get(group).add(seeds.get(seed));
+        }
+
+        for (ArrayList<E> entrants : groupEntrants)
+            groups.add(new RoundRobin<>(registry, entrants));
+    }
+
+    private void drawIfNeeded() throws NoEntrantsException, NoOpponentException {
+        if (isStarted())
+            return;
+
+        if (drawOrder.isEmpty())
+            throw new NoEntrantsException();
+        if (drawOrder.size() == 1)
+            throw new NoOpponentException();
+
+        draw();
+    }
+
+    private RoundRobin<E> groupOf(E entrant) {
+        int id = registry.idOf(entrant);
+        if (id == EntrantRegistry.NO_ID || id >= entrantGroups.length || entrantGroups[id] == NO_GROUP)
+            return null;
+        return groups.get(entrantGroups[id]);
+    }
+
+    private RoundRobin<E> groupOf(Pairing<E> pairing) {
+        RoundRobin<E> group = groupOf(pairing.getFirst());
+        return group == groupOf(pairing.getSecond()) ? group : null;
+    }
+
+    /**
+     * @return The groups, which are empty until the groups are drawn.
+     */
+    public List<RoundRobin<E>> getGroups() {
+        return Collections.unmodifiableList(groups);
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The index of the group of the entrant or -1 if it is not in any group.
+     */
+    public int getGroupIndex(E entrant) {
+        RoundRobin<E> group = groupOf(entrant);
+        return group != null ? entrantGroups[registry.idOf(entrant)] : NO_GROUP;
+    }
+
+    public int getAdvancingCount() {
+        return advancingCount;
+    }
+
+    public long getDrawSeed() {
+        return drawSeed;
+    }
+
+    public boolean isStarted() {
+        return !groups.isEmpty();
+    }
+
+    /**
+     * Ranks the entrants of every group by their score. Entrants with equal scores are ranked by their seed.
+     * The groups are ranked in parallel.
+     * @return The ranked entrants of every group.
+     */
+    public List<List<E>> getGroupStandings() {
+        return groups.parallelStream().map(this::rankGroup).collect(Collectors.toList());
+    }
+
+    private List<E> rankGroup(RoundRobin<E> group) {
+        synchronized (group) {
+            ArrayList<E> ranking = new ArrayList<>(group.getEntrants());
+            ranking.sort(Comparator.comparingInt((E entrant) -> -group.getScore(entrant))
+                    .thenComparingInt(entrant -> entrantSeeds[registry.idOf(entrant)]));
+            return ranking;
+        }
+    }
+
+    /**
+     * Gets the standings across all groups. Entrants with a better rank in their group come first,
+     * entrants with the same rank in their group are ranked by their score and then by their seed.
+     * @return The standings.
+     */
+    public Standings<E> getStandings() {
+        List<List<E>> groupStandings = getGroupStandings();
+
+        ArrayList<E> standings = new ArrayList<>();
+        for (int rank = 0; ; ++rank) {
+            ArrayList<E> rankedEntrants = new ArrayList<>(groupStandings.size());
+            for (List<E> groupStanding : groupStandings)
+                if (rank < groupStanding.size())
+                    rankedEntrants.add(groupStanding.get(rank));
+
+            if (rankedEntrants.isEmpty())
+                break;
+
+            rankedEntrants.sort(Comparator.comparingInt((E entrant) -> -getScore(entrant))
+                    .thenComparingInt(entrant -> entrantSeeds[registry.idOf(entrant)]));
+            standings.addAll(rankedEntrants);
+        }
+
+        return new Standings<>(standings);
+    }
+
+    /**
+     * @return The best entrants of every group, in the order of the standings.
+     */
+    public List<E> getAdvancedEntrants() {
+        // The ranks and scores are taken once, so that the groups are not ranked again while sorting.
+        int[] ranks = new int[registry.size()];
+        int[] scores = new int[registry.size()];
+
+        ArrayList<E> advancedEntrants = new ArrayList<>();
+        for (List<E> groupStanding : getGroupStandings()) {
+            for (int rank = 0; rank < Math.min(advancingCount, groupStanding.size()); ++rank) {
+                E entrant = groupStanding.get(rank);
+                int id = registry.idOf(entrant);
+                ranks[id] = rank;
+                scores[id] = getScore(entrant);
+                advancedEntrants.add(entrant);
+            }
+        }
+
+        advancedEntrants.sort(Comparator.comparingInt((E entrant) -> ranks[registry.idOf(entrant)])
+                .thenComparingInt(entrant -> -scores[registry.idOf(entrant)])
+                .thenComparingInt(entrant -> entrantSeeds[registry.idOf(entrant)]));
+        return advancedEntrants;
+    }
+
+    public int getScore(E entrant) {
+        RoundRobin<E> group = groupOf(entrant);
+        if (group == null)
+            return 0;
+
+        synchronized (group) {
+            return group.getScore(entrant);
+        }
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
+        if (!isStarted()) {
+            if (!drawOrder.add(entrant))
+                return false;
+
+            registry.register(entrant);
+            incrementVersion();
+            return true;
+        }
+
+        RoundRobin<E> group = groupOf(entrant);
+        if (group == null)
+            throw new NewEntrantsNotAllowedException();
+
+        synchronized (group) {
+            return group.addEntrant(entrant);
+        }
+    }
+
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (!isStarted()) {
+            boolean isRemoved = drawOrder.remove(entrant);
+            if (isRemoved)
+                incrementVersion();
+            return isRemoved;
+        }
+
+        RoundRobin<E> group = groupOf(entrant);
+        if (group == null)
+            return false;
+
+        synchronized (group) {
+            return group.removeEntrant(entrant);
+        }
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean resetEntrant(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the next pairing of the groups, one group after another.
+     */
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        drawIfNeeded();
+
+        for (int i = 0; i < groups.size(); ++i) {
+            RoundRobin<E> group = takeNextGroup();
+            synchronized (group) {
+                try {
+                    return group.nextPairing();
+                }
+                catch (UnfinishedPairingsException | NoMorePairingsException ignored) {}
+            }
+        }
+
+        if (isFinished())
+            throw new NoMorePairingsException();
+        throw new UnfinishedPairingsException();
+    }
+
+    private synchronized RoundRobin<E> takeNextGroup() {
+        RoundRobin<E> group = groups.get(nextGroup);
+        nextGroup = (nextGroup + 1) % groups.size();
+        return group;
+    }
+
+    @Override
+    public List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        drawIfNeeded();
+
+        ArrayList<Pairing<E>> newPairings = new ArrayList<>();
+        for (RoundRobin<E> group : groups) {
+            synchronized (group) {
+                try {
+                    newPairings.addAll(group.pairAll());
+                }
+                catch (UnfinishedPairingsException | NoMorePairingsException ignored) {}
+            }
+        }
+
+        if (newPairings.isEmpty() && isFinished())
+            throw new NoMorePairingsException();
+        if (newPairings.isEmpty())
+            throw new UnfinishedPairingsException();
+
+        return newPairings;
+    }
+
+    /**
+     * Starts a pairing of two entrants of the same group, which draws the groups if necessary.
+     */
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException {
+
+        if (!hasEntrant(pairing.getFirst()) || !hasEntrant(pairing.getSecond()))
+            throw new NoSuchEntrantException();
+        if (pairing.getFirst().equals(pairing.getSecond()))
+            throw new NoSuchPairingException();
+
+        draw();
+
+        RoundRobin<E> group = groupOf(pairing);
+        if (group == null)
+            throw new NoSuchPairingException();
+
+        synchronized (group) {
+            return group.startPairing(pairing);
+        }
+    }
+
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        RoundRobin<E> group = groupOf(pairing);
+        if (group == null)
+            throw new NoSuchPairingException();
+
+        synchronized (group) {
+            return group.replayPairing(pairing);
+        }
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        RoundRobin<E> group = groupOf(winningEntrant);
+        if (group == null)
+            throw new NoSuchEntrantException();
+
+        synchronized (group) {
+            group.declareWinner(winningEntrant, pairing);
+        }
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        RoundRobin<E> group = groupOf(winningEntrant);
+        if (group == null)
+            throw new NoSuchEntrantException();
+
+        synchronized (group) {
+            return group.declareWinner(winningEntrant);
+        }
+    }
+
+    @Override
+    @UnsupportedOperation
+    public void declareTie(Pairing<E> pairing) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Locks the groups of all results and checks the results of every group,
+     * then declares the results of every group in parallel.
+     * Either all results are declared or none, if any of them is invalid.
+     */
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        // Checked up front, so that no results are declared.
+        for (Result<E> result : results)
+            if (result.isTie())
+                throw new UnsupportedOperationException();
+
+        // No pairing is active before the groups are drawn, thus this throws for any result.
+        if (!isStarted())
+            return resolvePairings(results);
+
+        ArrayList<Result<E>> resultList = new ArrayList<>(results);
+        int[] resultGroups = new int[resultList.size()];
+        TreeMap<Integer, ArrayList<Result<E>>> groupResults = new TreeMap<>();
+        for (int i = 0; i < resultList.size(); ++i) {
+            Result<E> result = resultList.get(i);
+            int group = getGroupIndex(result.getWinningEntrant());
+            if (group == NO_GROUP)
+                throw new NoSuchEntrantException();
+
+            resultGroups[i] = group;
+            groupResults.computeIfAbsent(group, key -> new ArrayList<>()).add(result);
+        }
+
+        // The groups are locked in the order of their index, so that concurrent calls can't deadlock.
+        return declareLocked(new ArrayList<>(groupResults.entrySet()), 0, resultGroups);
+    }
+
+    private List<Pairing<E>> declareLocked(List<Map.Entry<Integer, ArrayList<Result<E>>>> groupResults,
+                                           int lockedCount, int[] resultGroups)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        if (lockedCount < groupResults.size()) {
+            synchronized (groups.get(groupResults.get(lockedCount).getKey())) {
+                return declareLocked(groupResults, lockedCount + 1, resultGroups);
+            }
+        }
+
+        // All groups are checked before any result is declared.
+        HashMap<Integer, List<Pairing<E>>> groupPairings = new HashMap<>();
+        for (Map.Entry<Integer, ArrayList<Result<E>>> entry : groupResults)
+            groupPairings.put(entry.getKey(), groups.get(entry.getKey()).resolvePairings(entry.getValue()));
+
+        // The tasks don't lock their group, because this thread holds the locks until all tasks are done.
+        ArrayList<Callable<List<Pairing<E>>>> tasks = new ArrayList<>(groupResults.size());
+        for (Map.Entry<Integer, ArrayList<Result<E>>> entry : groupResults) {
+            RoundRobin<E> group = groups.get(entry.getKey());
+            ArrayList<Result<E>> resolvedResults = new ArrayList<>(entry.getValue().size());
+            Iterator<Pairing<E>> pairingIterator = groupPairings.get(entry.getKey()).iterator();
+            for (Result<E> result : entry.getValue())
+                resolvedResults.add(Result.win(result.getWinningEntrant(), pairingIterator.next()));
+
+            tasks.add(() -> group.declareResults(resolvedResults));
+        }
+
+        for (Future<List<Pairing<E>>> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while declaring results", e);
+            }
+            catch (ExecutionException e) {
+                // The results were checked, so only a bug can get here.
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException)
+                    throw runtimeException;
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        HashMap<Integer, Iterator<Pairing<E>>> pairingIterators = new HashMap<>();
+        groupPairings.forEach((group, pairings) -> pairingIterators.put(group, pairings.iterator()));
+
+        ArrayList<Pairing<E>> resultPairings = new ArrayList<>(resultGroups.length);
+        for (int group : resultGroups)
+            resultPairings.add(pairingIterators.get(group).next());
+        return resultPairings;
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        if (!isStarted())
+            return Collections.unmodifiableSet(drawOrder);
+
+        EntrantSet<E> entrants = new EntrantSet<>(registry);
+        for (RoundRobin<E> group : groups)
+            synchronized (group) {
+                entrants.addAll(group.getEntrants());
+            }
+
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        if (!isStarted())
+            return drawOrder.contains(entrant);
+
+        RoundRobin<E> group = groupOf(entrant);
+        if (group == null)
+            return false;
+
+        synchronized (group) {
+            return group.hasEntrant(entrant);
+        }
+    }
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return pairings.hasFinishedEntrant(entrant);
+    }
+
+    /**
+     * @return If the group stage is finished and the entrant advanced.
+     */
+    @Override
+    public boolean hasWon(E entrant) {
+        return isFinished() && hasEntrant(entrant) && getAdvancedEntrants().contains(entrant);
+    }
+
+    /**
+     * @return If the group stage is finished and the entrant did not advance.
+     */
+    @Override
+    public boolean hasLost(E entrant) {
+        return isFinished() && hasEntrant(entrant) && !getAdvancedEntrants().contains(entrant);
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        return drawOrder.contains(entrant) || groupOf(entrant) != null;
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    /**
+     * The round is finished once all groups are finished.
+     */
+    @Override
+    public boolean isFinished() {
+        if (!isStarted())
+            return false;
+
+        for (RoundRobin<E> group : groups)
+            synchronized (group) {
+                if (!group.isFinished())
+                    return false;
+            }
+
+        return true;
+    }
+
+    /**
+     * The stamp combines the stamps of all groups.
+     */
+    @Override
+    public long getVersion() {
+        long groupVersions = 0;
+        for (RoundRobin<E> group : groups)
+            synchronized (group) {
+                groupVersions += group.getVersion();
+            }
+
+        synchronized (this) {
+            return version + groupVersions;
+        }
+    }
+
+    private synchronized void incrementVersion() {
+        version += 1;
+    }
+
+    /**
+     * The pairings of all groups. Queries about an entrant or a pairing only lock the group of the entrant.
+     */
+    private class GroupPairings implements Pairings<E>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Iterator<Pairing<E>> getActivePairingIterator() {
+            return getActive().iterator();
+        }
+
+        @Override
+        public Pairing<E> getLastPairingOfEntrant(E entrant) {
+            RoundRobin<E> group = groupOf(entrant);
+            if (group == null)
+                return null;
+
+            synchronized (group) {
+                return group.getPairings().getLastPairingOfEntrant(entrant);
+            }
+        }
+
+        @Override
+        public Pairing<E> findActiveByEntrant(E entrant) {
+            RoundRobin<E> group = groupOf(entrant);
+            if (group == null)
+                return null;
+
+            synchronized (group) {
+                return group.getPairings().findActiveByEntrant(entrant);
+            }
+        }
+
+        @Override
+        public Set<Pairing<E>> findFinishedByEntrant(E entrant) {
+            RoundRobin<E> group = groupOf(entrant);
+            if (group == null)
+                return Collections.emptySet();
+
+            synchronized (group) {
+                return new LinkedHashSet<>(group.getPairings().findFinishedByEntrant(entrant));
+            }
+        }
+
+        @Override
+        public Set<Pairing<E>> getActive() {
+            LinkedHashSet<Pairing<E>> active = new LinkedHashSet<>();
+            for (RoundRobin<E> group : groups)
+                synchronized (group) {
+                    active.addAll(group.getPairings().getActive());
+                }
+
+            return Collections.unmodifiableSet(active);
+        }
+
+        @Override
+        public Set<Pairing<E>> getFinished() {
+            LinkedHashSet<Pairing<E>> finished = new LinkedHashSet<>();
+            for (RoundRobin<E> group : groups)
+                synchronized (group) {
+                    finished.addAll(group.getPairings().getFinished());
+                }
+
+            return Collections.unmodifiableSet(finished);
+        }
+
+        @Override
+        public Set<E> getActiveEntrants() {
+            EntrantSet<E> entrants = new EntrantSet<>(registry);
+            for (RoundRobin<E> group : groups)
+                synchronized (group) {
+                    entrants.addAll(group.getPairings().getActiveEntrants());
+                }
+
+            return Collections.unmodifiableSet(entrants);
+        }
+
+        @Override
+        public Set<E> getFinishedEntrants() {
+            EntrantSet<E> entrants = new EntrantSet<>(registry);
+            for (RoundRobin<E> group : groups)
+                synchronized (group) {
+                    entrants.addAll(group.getPairings().getFinishedEntrants());
+                }
+
+            return Collections.unmodifiableSet(entrants);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !hasActive() && !hasFinished();
+        }
+
+        @Override
+        public boolean hasActive() {
+            for (RoundRobin<E> group : groups)
+                synchronized (group) {
+                    if (group.getPairings().hasActive())
+                        return true;
+                }
+
+            return false;
+        }
+
+        @Override
+        public boolean hasFinished() {
+            for (RoundRobin<E> group : groups)
+                synchronized (group) {
+                    if (group.getPairings().hasFinished())
+                        return true;
+                }
+
+            return false;
+        }
+
+        @Override
+        public boolean contains(Pairing<E> pairing) {
+            return isActive(pairing) || isFinished(pairing);
+        }
+
+        @Override
+        public boolean isActive(Pairing<E> pairing) {
+            RoundRobin<E> group = groupOf(pairing);
+            if (group == null)
+                return false;
+
+            synchronized (group) {
+                return group.getPairings().isActive(pairing);
+            }
+        }
+
+        @Override
+        public boolean isFinished(Pairing<E> pairing) {
+            RoundRobin<E> group = groupOf(pairing);
+            if (group == null)
+                return false;
+
+            synchronized (group) {
+                return group.getPairings().isFinished(pairing);
+            }
+        }
+
+        @Override
+        public boolean hasEntrant(E entrant) {
+            return hasActiveEntrant(entrant) || hasFinishedEntrant(entrant);
+        }
+
+        @Override
+        public boolean hasActiveEntrant(E entrant) {
+            return findActiveByEntrant(entrant) != null;
+        }
+
+        @Override
+        public boolean hasFinishedEntrant(E entrant) {
+            RoundRobin<E> group = groupOf(entrant);
+            if (group == null)
+                return false;
+
+            synchronized (group) {
+                return group.getPairings().hasFinishedEntrant(entrant);
+            }
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.annotations.UnsupportedOperation;
+import de.j13g.manko.core.base.FinalRound;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
+import de.j13g.manko.core.managers.PairingManager;
+import de.j13g.manko.core.managers.ScoreManager;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+import de.j13g.manko.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A round in which every entrant is paired with every other entrant once.
+ * The pairings are scheduled with the circle method and grouped into days,
+ * on which every entrant is part of at most one pairing. The pairings of a day
+ * are computed when they are reached, so the schedule is never stored as a whole.
+ * Pairings that can't be carried out on their day, because an entrant was removed or is still paired,
+ * are postponed until after the last day. Entrants are placed by their score, which is their number of wins.
+ * @param <E> The entrant type.
+ */
+public class RoundRobin<E> implements RankingRound<E>, FinalRound<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MIN_ENTRANT_COUNT = 2;
+
+    private final EntrantRegistry<E> registry;
+
+    // The entrants of the schedule, by their position in the circle.
+    private final ArrayList<E> seeds;
+    private final EntrantSet<E> participants;
+
+    private final EntrantSet<E> entrants;
+
+    // The number of positions in the circle, including one without an entrant for an odd number of seeds.
+    private final int circleSize;
+
+    // The slot of the schedule to continue at. There are circleSize / 2 slots per day.
+    private int day = 0;
+    private int slot = 0;
+
+    private final LinkedHashSet<Pairing<E>> postponedPairings = new LinkedHashSet<>();
+
+    // The ids of the winning entrants, by the key of their pairing.
+    private final LongIntHashMap winnerIds = new LongIntHashMap();
+
+    // The number of finished pairings between entrants that were not removed.
+    private int playedPairingCount = 0;
+
+    private final PairingManager<E> pairings;
+    private final ScoreManager<E> scores;
+
+    private long version = 0;
+
+    public RoundRobin(Collection<E> entrants) {
+        this(new EntrantRegistry<>(), entrants);
+    }
+
+    /**
+     * Creates a round robin, in which the entrants are scheduled in the given order.
+     * @param registry The registry that the round shares with the other rounds of its tournament.
+     * @param entrants The entrants.
+     */
+    public RoundRobin(EntrantRegistry<E> registry, Collection<E> entrants) {
+        if (entrants.size() < MIN_ENTRANT_COUNT)
+            throw new IllegalArgumentException("A round robin needs at least " + MIN_ENTRANT_COUNT + " entrants");
+
+        this.registry = registry;
+        seeds = new ArrayList<>(entrants);
+        participants = new EntrantSet<>(registry);
+        this.entrants = new EntrantSet<>(registry);
+        pairings = new PairingManager<>(registry);
+        scores = new ScoreManager<>(registry);
+
+        for (E entrant : seeds) {
+            if (!participants.add(entrant))
+                throw new IllegalArgumentException("Duplicate entrant");
+            this.entrants.add(entrant);
+            scores.add(entrant);
+        }
+
+        circleSize = seeds.size() + seeds.size() % 2;
+    }
+
+    public RoundRobin(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this.registry = registry;
+        participants = new EntrantSet<>(registry);
+        entrants = new EntrantSet<>(registry);
+        pairings = new PairingManager<>(registry);
+        scores = new ScoreManager<>(registry);
+
+        seeds = new ArrayList<>(in.readEntrants());
+        participants.addAll(seeds);
+        entrants.addAll(in.readEntrants());
+        circleSize = seeds.size() + seeds.size() % 2;
+
+        day = in.readCount();
+        slot = in.readCount();
+        postponedPairings.addAll(in.readPairings());
+
+        int winnerCount = in.readCount();
+        for (int i = 0; i < winnerCount; ++i) {
+            Pairing<E> pairing = in.readPairing();
+            int winnerId = registry.register(in.readEntrant());
+            winnerIds.put(pairing.key(registry), winnerId);
+        }
+
+        playedPairingCount = in.readCount();
+        pairings.read(in);
+        scores.read(in);
+
+        // Removed entrants keep their score, but are not ranked.
+        for (E entrant : seeds)
+            if (!entrants.contains(entrant))
+                scores.exclude(entrant);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeEntrants(seeds);
+        out.writeEntrants(entrants);
+
+        out.writeInt(day);
+        out.writeInt(slot);
+        out.writePairings(postponedPairings);
+
+        out.writeInt(winnerIds.size());
+        for (PrimitiveIterator.OfLong it = winnerIds.keyIterator(); it.hasNext(); ) {
+            long key = it.nextLong();
+            E first = registry.get((int) (key >>> 32));
+            E second = registry.get((int) key);
+            out.writePairing(new Pairing<>(first, second));
+            out.writeEntrant(registry.get(winnerIds.get(key, EntrantRegistry.NO_ID)));
+        }
+
+        out.writeInt(playedPairingCount);
+        pairings.write(out);
+        scores.write(out);
+    }
+
+    /**
+     * @return The number of days of the schedule.
+     */
+    public int getDayCount() {
+        return circleSize - 1;
+    }
+
+    /**
+     * Computes the pairings of a day of the schedule.
+     * @param day The day, starting at 0.
+     * @return The pairings of that day, regardless of whether they are finished.
+     */
+    public List<Pairing<E>> getScheduledPairings(int day) {
+        if (day < 0 || day >= getDayCount())
+            throw new IndexOutOfBoundsException(day);
+
+        ArrayList<Pairing<E>> dayPairings = new ArrayList<>(circleSize / 2);
+        for (int slot = 0; slot < circleSize / 2; ++slot) {
+            Pairing<E> pairing = getScheduledPairing(day, slot);
+            if (pairing != null)
+                dayPairings.add(pairing);
+        }
+
+        return dayPairings;
+    }
+
+    /**
+     * Computes a pairing of the schedule with the circle method. The last position is fixed,
+     * the others are rotated by one position per day. On every day, the entrant at the last position
+     * is paired with the entrant at the position of the day, and the positions at an equal distance
+     * before and after that position are paired with each other.
+     * @param day The day.
+     * @param slot The slot of the pairing on that day.
+     * @return The pairing or null, if one of its positions has no entrant.
+     */
+    private Pairing<E> getScheduledPairing(int day, int slot) {
+        int rotatingSize = circleSize - 1;
+
+        int first, second;
+        if (slot == 0) {
+            first = day;
+            second = rotatingSize;
+        }
+        else {
+            first = (day + slot) % rotatingSize;
+            second = (day - slot + rotatingSize) % rotatingSize;
+        }
+
+        if (first >= seeds.size() || second >= seeds.size())
+            return null;
+
+        return new Pairing<>(seeds.get(first), seeds.get(second));
+    }
+
+    /**
+     * Finds the next pairing that can be carried out. Pairings of the current day are postponed,
+     * if they can't be carried out. The next day is only reached once all active pairings are finished.
+     * The schedule only moves on, if a pairing is found. A journal only records the pairings that were
+     * started, so failed attempts must not change the schedule, or a replayed round would pair differently.
+     * @return The pairing or null, if no pairing can be carried out at the moment.
+     */
+    private Pairing<E> findNextPairing() {
+        int day = this.day;
+        int slot = this.slot;
+        ArrayList<Pairing<E>> postponed = new ArrayList<>();
+
+        while (day < getDayCount()) {
+            for (; slot < circleSize / 2; ++slot) {
+                Pairing<E> pairing = getScheduledPairing(day, slot);
+
+                // Started before their day or after a replay.
+                if (pairing == null || pairings.contains(pairing))
+                    continue;
+
+                // The slot is kept, since the pairing is skipped once it is started.
+                if (isPlayable(pairing)) {
+                    moveSchedule(day, slot, postponed);
+                    return pairing;
+                }
+
+                postponed.add(pairing);
+            }
+
+            if (pairings.hasActive())
+                return null;
+
+            day += 1;
+            slot = 0;
+        }
+
+        for (Pairing<E> pairing : postponedPairings)
+            if (isPlayable(pairing)) {
+                moveSchedule(day, slot, postponed);
+                return pairing;
+            }
+
+        return null;
+    }
+
+    private void moveSchedule(int day, int slot, List<Pairing<E>> postponed) {
+        this.day = day;
+        this.slot = slot;
+        postponedPairings.addAll(postponed);
+    }
+
+    private boolean isPlayable(Pairing<E> pairing) {
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+        return hasEntrant(first) && hasEntrant(second)
+                && !pairings.hasActiveEntrant(first) && !pairings.hasActiveEntrant(second);
+    }
+
+    private void addPairing(Pairing<E> pairing) {
+        postponedPairings.remove(pairing);
+        pairings.add(pairing);
+    }
+
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (!hasEntrant(entrant))
+            return false;
+
+        // The pairing has to be carried out, if the entrant is added again.
+        Pairing<E> activePairing = pairings.removeActiveByEntrant(entrant);
+        if (activePairing != null)
+            postponedPairings.add(activePairing);
+        entrants.remove(entrant);
+
+        for (E opponent : seeds) {
+            if (opponent.equals(entrant))
+                continue;
+
+            // Unfinished pairings have to be finished.
+            // So give the opponent the win when we remove this entrant.
+            Pairing<E> pairing = new Pairing<>(entrant, opponent);
+            if (!pairings.isFinished(pairing))
+                scores.incrementScore(opponent);
+            else if (hasEntrant(opponent))
+                playedPairingCount -= 1;
+        }
+
+        scores.exclude(entrant);
+        version += 1;
+        return true;
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
+        if (hasEntrant(entrant))
+            return false;
+        if (!participants.contains(entrant))
+            throw new NewEntrantsNotAllowedException();
+
+        for (E opponent : seeds) {
+            if (opponent.equals(entrant))
+                continue;
+
+            Pairing<E> pairing = new Pairing<>(entrant, opponent);
+            if (!pairings.isFinished(pairing))
+                scores.decrementScore(opponent);
+            else if (hasEntrant(opponent))
+                playedPairingCount += 1;
+        }
+
+        entrants.add(entrant);
+        scores.include(entrant);
+        version += 1;
+        return true;
+    }
+
+    @Override
+    public Pairing<E> nextPairing() throws UnfinishedPairingsException, NoMorePairingsException {
+        Pairing<E> pairing = findNextPairing();
+        if (pairing == null && isFinished())
+            throw new NoMorePairingsException();
+        if (pairing == null)
+            throw new UnfinishedPairingsException();
+
+        addPairing(pairing);
+        version += 1;
+        return pairing;
+    }
+
+    /**
+     * Pairs all entrants of the current day, that are not paired yet.
+     */
+    @Override
+    public List<Pairing<E>> pairAll() throws UnfinishedPairingsException, NoMorePairingsException {
+        ArrayList<Pairing<E>> newPairings = new ArrayList<>();
+        for (Pairing<E> pairing = findNextPairing(); pairing != null; pairing = findNextPairing()) {
+            addPairing(pairing);
+            newPairings.add(pairing);
+        }
+
+        if (newPairings.isEmpty() && isFinished())
+            throw new NoMorePairingsException();
+        if (newPairings.isEmpty())
+            throw new UnfinishedPairingsException();
+
+        version += 1;
+        return newPairings;
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException {
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new NoSuchEntrantException();
+        if (first.equals(second) || pairings.contains(pairing))
+            throw new NoSuchPairingException();
+        if (pairings.hasActiveEntrant(first) || pairings.hasActiveEntrant(second))
+            throw new EntrantNotPendingException();
+
+        // Moves the schedule like nextPairing does, so that replaying the pairing keeps the same schedule.
+        findNextPairing();
+        addPairing(pairing);
+        version += 1;
+        return pairing;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        pairings.finish(pairing);
+        winnerIds.put(pairing.key(registry), registry.idOf(winningEntrant));
+        scores.incrementScore(winningEntrant);
+        playedPairingCount += 1;
+
+        version += 1;
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.hasActiveEntrant(winningEntrant))
+            throw new MissingPairingException();
+
+        Pairing<E> pairing = pairings.findActiveByEntrant(winningEntrant);
+        declareWinner(winningEntrant, pairing);
+        return pairing;
+    }
+
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        if (pairings.isActive(pairing))
+            return false;
+
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+        if (!hasEntrant(pairing.getFirst()) || !hasEntrant(pairing.getSecond()))
+            throw new MissingEntrantException();
+
+        if (pairings.hasActiveEntrant(pairing.getFirst()) || pairings.hasActiveEntrant(pairing.getSecond()))
+            throw new OrphanedPairingException();
+
+        long key = pairing.key(registry);
+        int winnerId = winnerIds.get(key, EntrantRegistry.NO_ID);
+        assert winnerId != EntrantRegistry.NO_ID;
+
+        scores.decrementScore(registry.get(winnerId));
+        winnerIds.remove(key);
+        playedPairingCount -= 1;
+
+        boolean removedFinished = pairings.removeFinished(pairing);
+        pairings.add(pairing);
+
+        assert removedFinished;
+        version += 1;
+        return true;
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean resetEntrant(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @UnsupportedOperation
+    public void declareTie(Pairing<E> pairing) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        // Checked up front, so that no results are declared.
+        for (Result<E> result : results)
+            if (result.isTie())
+                throw new UnsupportedOperationException();
+
+        return RankingRound.super.declareResults(results);
+    }
+
+    /**
+     * Gets the placement of an entrant from its rank among the remaining entrants.
+     * Placements are determined once all pairings are finished.
+     * Entrants that share their rank get no placement.
+     */
+    @Override
+    public Placement getPlacement(E entrant) {
+        if (!isFinished())
+            return Placement.TBD;
+
+        int rank = scores.getRank(entrant);
+        if (scores.countEntrantsByRank(rank) > 1)
+            return Placement.NONE;
+
+        return Placement.of(rank);
+    }
+
+    @Override
+    public E getEntrantByPlacement(Placement placement) {
+        if (!placement.isRanked()) {
+            for (E entrant : entrants)
+                if (getPlacement(entrant).equals(placement))
+                    return entrant;
+            return null;
+        }
+
+        if (!isFinished())
+            return null;
+
+        List<E> rankedEntrants = scores.getEntrantsByRank(placement.getValue());
+        return rankedEntrants.size() == 1 ? rankedEntrants.get(0) : null;
+    }
+
+    public Standings<E> getStandings() {
+        ArrayList<E> standings = new ArrayList<>(entrants.size());
+        for (int rank = 1; rank <= entrants.size(); ++rank)
+            standings.add(getEntrantByPlacement(Placement.of(rank)));
+
+        return new Standings<>(standings);
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    public int getScore(E entrant) {
+        return scores.getScore(entrant);
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        return entrants.contains(entrant);
+    }
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return pairings.hasFinishedEntrant(entrant);
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean hasWon(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean hasLost(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        return participants.contains(entrant);
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    /**
+     * The round is finished once every remaining entrant was paired with every other remaining entrant.
+     */
+    @Override
+    public boolean isFinished() {
+        long entrantCount = entrants.size();
+        return !pairings.hasActive() && playedPairingCount == entrantCount * (entrantCount - 1) / 2;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+}
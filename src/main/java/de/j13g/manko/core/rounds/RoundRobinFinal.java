@@ -2,17 +2,23 @@ package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.core.Pairing;
 import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
 import de.j13g.manko.core.Standings;
 import de.j13g.manko.core.annotations.UnsupportedOperation;
 import de.j13g.manko.core.base.FinalRound;
 import de.j13g.manko.core.base.RankingRound;
 import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
 import de.j13g.manko.core.managers.PairingManager;
 import de.j13g.manko.core.managers.ScoreManager;
 import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 import de.j13g.manko.util.ShuffledSet;
 import de.j13g.manko.util.UniformPairBiSet;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 
@@ -22,7 +28,9 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
     private static final int MIN_SCORE = 0;
     private static final int MAX_SCORE = 2;
 
-    private final Set<E> entrants = new HashSet<>();
+    private final EntrantRegistry<E> registry;
+
+    private final EntrantSet<E> entrants;
 
     private final UniformPairBiSet<E, Pairing<E>> originalPairings = new UniformPairBiSet<>();
 
@@ -30,19 +38,72 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
 
     private final HashMap<Pairing<E>, E> pairingWinners = new HashMap<>();
 
-    private final PairingManager<E> pairings = new PairingManager<>();
-    private final ScoreManager<E> scores = new ScoreManager<>();
+    private final PairingManager<E> pairings;
+    private final ScoreManager<E> scores;
+
+    private long version = 0;
 
     public RoundRobinFinal(E first, E second, E third) {
+        this(new EntrantRegistry<>(), first, second, third);
+    }
+
+    public RoundRobinFinal(EntrantRegistry<E> registry, E first, E second, E third) {
+        this.registry = registry;
+        entrants = new EntrantSet<>(registry);
+        scores = new ScoreManager<>(registry);
+        pairings = new PairingManager<>(registry);
+
         entrants.add(first);
         entrants.add(second);
         entrants.add(third);
+        scores.add(first);
+        scores.add(second);
+        scores.add(third);
         originalPairings.add(new Pairing<>(first, second));
         originalPairings.add(new Pairing<>(first, third));
         originalPairings.add(new Pairing<>(second, third));
         originalPairings.elements().forEach(outstandingPairings::add);
     }
 
+    public RoundRobinFinal(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this.registry = registry;
+        entrants = new EntrantSet<>(registry);
+        scores = new ScoreManager<>(registry);
+        pairings = new PairingManager<>(registry);
+
+        entrants.addAll(in.readEntrants());
+        in.readPairings().forEach(originalPairings::add);
+        in.readPairings().forEach(outstandingPairings::add);
+
+        int winnerCount = in.readCount();
+        for (int i = 0; i < winnerCount; ++i)
+            pairingWinners.put(in.readPairing(), in.readEntrant());
+
+        pairings.read(in);
+        scores.read(in);
+
+        // Removed entrants keep their score, but are not ranked.
+        for (E entrant : originalPairings.getPairElementSet())
+            if (!entrants.contains(entrant))
+                scores.exclude(entrant);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeEntrants(entrants);
+        out.writePairings(originalPairings.elements());
+        out.writePairings(outstandingPairings.elements());
+
+        out.writeInt(pairingWinners.size());
+        for (Map.Entry<Pairing<E>, E> entry : pairingWinners.entrySet()) {
+            out.writePairing(entry.getKey());
+            out.writeEntrant(entry.getValue());
+        }
+
+        pairings.write(out);
+        scores.write(out);
+    }
+
     /**
      * Returns the pairings of a player, that have not been finished yet.
      * @param entrant The entrant.
@@ -77,6 +138,8 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         }
 
         entrants.remove(entrant);
+        scores.exclude(entrant);
+        version += 1;
         return true;
     }
 
@@ -97,6 +160,8 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         }
 
         entrants.add(entrant);
+        scores.include(entrant);
+        version += 1;
         return true;
     }
 
@@ -109,6 +174,29 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
 
         Pairing<E> pairing = outstandingPairings.removeRandom();
         pairings.add(pairing);
+        version += 1;
+        return pairing;
+    }
+
+    /**
+     * Pairings are carried out one after another, thus only the next pairing is generated.
+     */
+    @Override
+    public List<Pairing<E>> pairAll() throws UnfinishedPairingsException, NoMorePairingsException {
+        return List.of(nextPairing());
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, UnfinishedPairingsException {
+
+        if (pairings.hasActive())
+            throw new UnfinishedPairingsException();
+        if (!outstandingPairings.remove(pairing))
+            throw new NoSuchPairingException();
+
+        pairings.add(pairing);
+        version += 1;
         return pairing;
     }
 
@@ -128,6 +216,8 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         pairingWinners.put(pairing, winningEntrant);
         int score = scores.incrementScore(winningEntrant);
 
+        version += 1;
+
         assert score <= MAX_SCORE;
     }
 
@@ -171,6 +261,7 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         pairings.add(pairing);
 
         assert removedFinished;
+        version += 1;
         return true;
     }
 
@@ -187,98 +278,93 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
     }
 
     @Override
-    public Placement getPlacement(E entrant) {
-        // There will always be a distribution of (0, 1, 2) or (1, 1, 1)
-        // in case all entrants have finished their two pairings (or were removed).
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
 
-        int entrantScore = scores.getScore(entrant);
+        // Checked up front, so that no results are declared.
+        for (Result<E> result : results)
+            if (result.isTie())
+                throw new UnsupportedOperationException();
+
+        return RankingRound.super.declareResults(results);
+    }
 
-        // 1: Won 2 pairings, definitely first place.
-        if (entrantScore == 2)
+    /**
+     * Gets the placement of an entrant from its score.
+     * Entrants that share their score once all pairings are finished get no placement.
+     */
+    @Override
+    public Placement getPlacement(E entrant) {
+        // Won 2 pairings, definitely first place.
+        if (scores.getScore(entrant) == MAX_SCORE)
             return Placement.FIRST;
 
-        // 2: Won 0 or 1 pairings, but someone else could still win (or lose).
+        // Won 0 or 1 pairings, but someone else could still win (or lose).
         // Thus it's not possible to say which placement will be definite.
         if (!isFinished())
             return Placement.TBD;
 
-        // Now: Won 0 or 1 pairings, without outstanding pairings.
-
-        int totalScore = 0;
-
-        int withOne = 0;
-        boolean hasZero = false;
-        boolean hasTwo = false;
-
-        for (E other : entrants) {
-            int score = scores.getScore(other);
-            if (!other.equals(entrant))
-                switch (score) {
-                    case 0: hasZero = true; break;
-                    case 1: withOne += 1; break;
-                    case 2: hasTwo = true; break;
-                }
-
-            totalScore += score;
-        }
-
-        // Since no outstanding pairings are left, the total score must be 3,
-        // or more generally, equal to the number of original pairings.
-        assert totalScore == originalPairings.size();
+        // No outstanding pairings are left. There will always be a distribution
+        // of (0, 1, 2) or (1, 1, 1), or a part of it if someone has been removed.
+        // The placements are taken by score, as if all three entrants remained.
 
-        // Note that the number of finished pairings might be less than 3,
-        // in case someone has been removed (their pairings are not considered finished then).
+        // Two opponents won their pairing against this entrant (or would have, if they remained),
+        // so we definitely have less points than anyone else.
+        if (scores.getScore(entrant) == MIN_SCORE)
+            return Placement.THIRD;
 
-        // 3: Won 1 pairing, like everyone else. It's a tie.
+        // Won 1 pairing, like everyone else. It's a tie.
         // Return NONE because nothing can change these placements (except replays).
-        if (entrantScore == 1 && withOne == 2)
+        if (scores.countEntrantsByScore(MAX_SCORE - 1) > 1)
             return Placement.NONE;
 
-        // 4: Won 1 pairing, 1st and 3rd place are given.
-        if (entrantScore == 1 && hasZero && hasTwo)
-            return Placement.SECOND;
-
-        // 5: Two opponents won their pairing against this entrant,
-        // so we definitely have less points than anyone else.
-        if (entrantScore == 0)
-            return Placement.THIRD;
-
-        // There should be no way to reach this.
-        assert false;
-        return Placement.TBD;
+        return Placement.SECOND;
     }
 
     public Standings<E> getStandings() {
-        HashMap<Placement, E> placements = new HashMap<>(Placement.values().length);
-
-        for (E entrant : entrants) {
-            Placement placement = getPlacement(entrant);
-            assert !placements.containsKey(placement);
-            placements.put(placement, entrant);
-        }
+        ArrayList<E> standings = new ArrayList<>(ENTRANT_COUNT);
+        for (int rank = 1; rank <= ENTRANT_COUNT; ++rank)
+            standings.add(getEntrantByPlacement(Placement.of(rank)));
 
-        for (Placement placement : Placement.values())
-            if (!placements.containsKey(placement))
-                placements.put(placement, null);
-
-        return new Standings<>(
-                placements.get(Placement.FIRST),
-                placements.get(Placement.SECOND),
-                placements.get(Placement.THIRD)
-        );
+        return new Standings<>(standings);
     }
 
+    /**
+     * Looks up the entrant by the score that the placement stands for,
+     * in the index of the remaining entrants by score.
+     * @see RoundRobinFinal#getPlacement(Object)
+     */
     @Override
     public E getEntrantByPlacement(Placement placement) {
-        for (E entrant : entrants)
-            if (getPlacement(entrant) == placement)
-                return entrant;
+        if (placement.equals(Placement.FIRST))
+            return getOnlyEntrantByScore(MAX_SCORE);
+        if (!isFinished())
+            return null;
+
+        if (placement.equals(Placement.SECOND))
+            return getOnlyEntrantByScore(MAX_SCORE - 1);
+        if (placement.equals(Placement.THIRD))
+            return getOnlyEntrantByScore(MIN_SCORE);
+
         return null;
     }
 
+    /**
+     * @param score The score.
+     * @return The remaining entrant with that score or null if none or several have it.
+     */
+    private E getOnlyEntrantByScore(int score) {
+        return scores.countEntrantsByScore(score) == 1 ? scores.getEntrantsByScore(score).get(0) : null;
+    }
+
     @Override
     public Set<E> getEntrants() {
-        return entrants;
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
     }
 
     @Override
@@ -317,11 +403,8 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
 
     @Override
     public boolean hasEntrantResult(E entrant) {
-        for (Pairing<E> pairing : originalPairings.elements())
-            if (pairing.contains(entrant))
-                if (pairingWinners.containsKey(pairing))
-                    return true;
-        return false;
+        // Every finished pairing has a winner.
+        return pairings.hasFinishedEntrant(entrant);
     }
 
     @Override
@@ -355,18 +438,18 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         if (!isFinished())
             return false;
 
-        boolean isTie = true;
-        for (E entrant : entrants)
-            if (getPlacement(entrant) != Placement.NONE) {
-                isTie = false;
-                break;
-            }
-
-        return isTie;
+        // All remaining entrants share the first rank, without having won every pairing.
+        int firstRankCount = scores.countEntrantsByRank(1);
+        return entrants.isEmpty() || firstRankCount > 1 && firstRankCount == entrants.size();
     }
 
     @Override
     public boolean isFinished() {
         return outstandingPairings.isEmpty() && !pairings.hasActive();
     }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
 }
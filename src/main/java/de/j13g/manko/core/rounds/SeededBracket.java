@@ -0,0 +1,737 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.annotations.UnsupportedOperation;
+import de.j13g.manko.core.base.FinalRound;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
+import de.j13g.manko.core.managers.PairingManager;
+import de.j13g.manko.core.managers.PlacementManager;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A single elimination bracket, in which entrants are placed by their seed.
+ * The first seed meets the last one, the first two seeds can only meet in the final, and so on.
+ * Entrants can be added as the next lowest seed until the bracket is started with the first pairing.
+ * <p>
+ * The bracket is an implicit binary tree in an array. Node 1 is the final, the children of node i are
+ * 2i and 2i + 1 and the leaves hold the seeded entrants. Every inner node is a match, which holds its winner
+ * once it is decided. Thus the next match of an entrant is the parent of its node and its next opponent
+ * the sibling of its node. The highest seeds get the byes, which are won by walkover.
+ * @param <E> The entrant type.
+ */
+public class SeededBracket<E> implements RankingRound<E>, FinalRound<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int EMPTY = EntrantRegistry.NO_ID;
+    private static final int BYE = -2;
+
+    private static final int FINAL = 1;
+
+    // The kinds of nodes in a snapshot.
+    private static final int EMPTY_NODE = 0;
+    private static final int BYE_NODE = 1;
+    private static final int ENTRANT_NODE = 2;
+
+    private final EntrantRegistry<E> registry;
+
+    // The entrants by seed, starting with the first seed.
+    private final ArrayList<E> seeds;
+
+    private final EntrantSet<E> participants;
+    private final EntrantSet<E> entrants;
+
+    // The number of leaves, a power of two. It is 0 until the bracket is started.
+    private int bracketSize = 0;
+
+    // The entrant ids of the nodes. Index 0 is unused.
+    private int[] tree;
+
+    // If the match of an inner node was carried out, instead of being won by walkover.
+    private boolean[] played;
+
+    // The highest node that every entrant reached, indexed by entrant id.
+    private int[] entrantNodes;
+
+    private final LinkedHashSet<Integer> readyMatches = new LinkedHashSet<>();
+    private final LinkedHashSet<Integer> activeMatches = new LinkedHashSet<>();
+
+    private final PairingManager<E> pairings;
+    private final PlacementManager<E> placements;
+
+    private long version = 0;
+
+    public SeededBracket() {
+        this(new EntrantRegistry<>(), List.of());
+    }
+
+    /**
+     * Creates a bracket, which can still be extended by lower seeds until it is started.
+     * @param registry The registry that the round shares with the other rounds of its tournament.
+     * @param seeds The entrants by seed, starting with the first seed.
+     */
+    public SeededBracket(EntrantRegistry<E> registry, List<E> seeds) {
+        this.registry = registry;
+        this.seeds = new ArrayList<>(seeds.size());
+        participants = new EntrantSet<>(registry);
+        entrants = new EntrantSet<>(registry);
+        pairings = new PairingManager<>(registry);
+        placements = new PlacementManager<>(registry);
+
+        for (E entrant : seeds)
+            if (!addSeed(entrant))
+                throw new IllegalArgumentException("Duplicate entrant");
+    }
+
+    public SeededBracket(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this.registry = registry;
+        participants = new EntrantSet<>(registry);
+        entrants = new EntrantSet<>(registry);
+        pairings = new PairingManager<>(registry);
+        placements = new PlacementManager<>(registry);
+
+        seeds = new ArrayList<>(in.readEntrants());
+        participants.addAll(seeds);
+        entrants.addAll(in.readEntrants());
+
+        if (in.readBoolean()) {
+            int size = in.readInt();
+            if (size < 2 || Integer.bitCount(size) != 1)
+                throw new IOException("Invalid bracket size " + size);
+            allocate(size);
+
+            for (int node = FINAL; node < tree.length; ++node)
+                tree[node] = readNode(in);
+            for (int node = FINAL; node < bracketSize; ++node)
+                played[node] = in.readBoolean();
+
+            readMatches(in, readyMatches);
+            readMatches(in, activeMatches);
+
+            // The highest node of an entrant has the lowest index.
+            for (int node = tree.length - 1; node >= FINAL; --node)
+                if (tree[node] >= 0)
+                    entrantNodes[tree[node]] = node;
+        }
+
+        pairings.read(in);
+        placements.read(in);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeEntrants(seeds);
+        out.writeEntrants(entrants);
+
+        out.writeBoolean(isStarted());
+        if (isStarted()) {
+            out.writeInt(bracketSize);
+            for (int node = FINAL; node < tree.length; ++node)
+                writeNode(out, tree[node]);
+            for (int node = FINAL; node < bracketSize; ++node)
+                out.writeBoolean(played[node]);
+
+            writeMatches(out, readyMatches);
+            writeMatches(out, activeMatches);
+        }
+
+        pairings.write(out);
+        placements.write(out);
+    }
+
+    private int readNode(SnapshotInput<E> in) throws IOException {
+        int kind = in.readInt();
+        return switch (kind) {
+            case EMPTY_NODE -> EMPTY;
+            case BYE_NODE -> BYE;
+            case ENTRANT_NODE -> registry.register(in.readEntrant());
+            default -> throw new IOException("Invalid node " + kind);
+        };
+    }
+
+    private void writeNode(SnapshotOutput<E> out, int node) throws IOException {
+        if (node >= 0) {
+            out.writeInt(ENTRANT_NODE);
+            out.writeEntrant(registry.get(node));
+        }
+        else
+            out.writeInt(node == BYE ? BYE_NODE : EMPTY_NODE);
+    }
+
+    private void readMatches(SnapshotInput<E> in, LinkedHashSet<Integer> matches) throws IOException {
+        int count = in.readCount();
+        for (int i = 0; i < count; ++i) {
+            int node = in.readInt();
+            if (node < FINAL || node >= bracketSize)
+                throw new IOException("Invalid match " + node);
+            matches.add(node);
+        }
+    }
+
+    private static void writeMatches(SnapshotOutput<?> out, LinkedHashSet<Integer> matches) throws IOException {
+        out.writeInt(matches.size());
+        for (int node : matches)
+            out.writeInt(node);
+    }
+
+    private boolean addSeed(E entrant) {
+        if (!participants.add(entrant))
+            return false;
+
+        seeds.add(entrant);
+        entrants.add(entrant);
+        return true;
+    }
+
+    private void allocate(int size) {
+        bracketSize = size;
+        tree = new int[2 * size];
+        played = new boolean[size];
+        entrantNodes = new int[registry.size()];
+        Arrays.fill(tree, EMPTY);
+    }
+
+    /**
+     * Computes the standard order of seeds in the first round, in which the seeds
+     * of every match add up to the number of leaves plus one.
+     * Starting with the final between seeds 1 and 2, every seed is replaced by a match against
+     * the seed that it meets one round earlier, until the number of leaves is reached.
+     * @param size The number of leaves, a power of two.
+     * @return The seeds, starting at 1, by their position in the first round.
+     */
+    private static int[] getSeedOrder(int size) {
+        int[] order = { 1 };
+        for (int length = 2; length <= size; length *= 2) {
+            int[] next = new int[length];
+            for (int i = 0; i < order.length; ++i) {
+                next[2 * i] = order[i];
+                next[2 * i + 1] = length + 1 - order[i];
+            }
+            order = next;
+        }
+
+        return order;
+    }
+
+    /**
+     * Places the seeds in the leaves and gives the byes to the highest seeds.
+     */
+    private void start() {
+        allocate(Integer.highestOneBit(seeds.size() - 1) << 1);
+
+        int[] seedOrder = getSeedOrder(bracketSize);
+        for (int position = 0; position < bracketSize; ++position) {
+            int seed = seedOrder[position];
+            int node = bracketSize + position;
+            if (seed <= seeds.size()) {
+                int id = registry.idOf(seeds.get(seed - 1));
+                tree[node] = id;
+                entrantNodes[id] = node;
+            }
+            else
+                tree[node] = BYE;
+        }
+
+        for (int node = bracketSize / 2; node < bracketSize; ++node)
+            update(node);
+    }
+
+    private void startIfNeeded() throws NoEntrantsException, NoOpponentException {
+        if (isStarted())
+            return;
+
+        if (seeds.isEmpty())
+            throw new NoEntrantsException();
+        if (seeds.size() == 1)
+            throw new NoOpponentException();
+
+        start();
+    }
+
+    /**
+     * Decides a match by walkover or marks it as ready, once both of its children are decided.
+     * @param node The node of the match.
+     */
+    private void update(int node) {
+        int left = tree[2 * node];
+        int right = tree[2 * node + 1];
+        if (left == EMPTY || right == EMPTY || tree[node] != EMPTY)
+            return;
+
+        if (left == BYE)
+            advance(node, right, false);
+        else if (right == BYE)
+            advance(node, left, false);
+        else
+            readyMatches.add(node);
+    }
+
+    /**
+     * Writes the winner of a match into its node, which moves it on to the match of the parent node.
+     * @param node The node of the match.
+     * @param winner The id of the winner or {@link SeededBracket#BYE}.
+     * @param isPlayed If the match was carried out.
+     */
+    private void advance(int node, int winner, boolean isPlayed) {
+        int left = tree[2 * node];
+        int loser = left == winner ? tree[2 * node + 1] : left;
+
+        tree[node] = winner;
+        played[node] = isPlayed;
+        readyMatches.remove(node);
+        activeMatches.remove(node);
+
+        if (loser >= 0)
+            placements.setPlacement(registry.get(loser), node == FINAL ? Placement.SECOND : Placement.NONE);
+
+        if (winner >= 0)
+            entrantNodes[winner] = node;
+
+        if (node == FINAL) {
+            if (winner >= 0)
+                placements.setPlacement(registry.get(winner), Placement.FIRST);
+        }
+        else
+            update(node / 2);
+    }
+
+    /**
+     * Checks if a decided match can be undone. That is the case if the match of the parent node
+     * is neither active nor carried out, and can be undone itself if it was won by walkover.
+     * @param node The node of the decided match.
+     * @return If the match can be undone.
+     */
+    private boolean canRevert(int node) {
+        if (node == FINAL)
+            return true;
+
+        int parent = node / 2;
+        if (activeMatches.contains(parent))
+            return false;
+
+        return tree[parent] == EMPTY || !played[parent] && canRevert(parent);
+    }
+
+    /**
+     * Takes the winner of a decided match back out of its node.
+     * @see SeededBracket#canRevert(int)
+     * @param node The node of the decided match.
+     */
+    private void revert(int node) {
+        if (node != FINAL) {
+            int parent = node / 2;
+            if (tree[parent] != EMPTY)
+                revert(parent);
+            readyMatches.remove(parent);
+        }
+
+        for (int child = 2 * node; child <= 2 * node + 1; ++child) {
+            int id = tree[child];
+            if (id >= 0) {
+                entrantNodes[id] = child;
+                placements.resetPlacement(registry.get(id));
+            }
+        }
+
+        tree[node] = EMPTY;
+        played[node] = false;
+    }
+
+    private Pairing<E> pairingOf(int node) {
+        return new Pairing<>(registry.get(tree[2 * node]), registry.get(tree[2 * node + 1]));
+    }
+
+    private int nodeOf(E entrant) {
+        int id = registry.idOf(entrant);
+        if (!isStarted() || id == EntrantRegistry.NO_ID || id >= entrantNodes.length)
+            return 0;
+        return entrantNodes[id];
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The node of the next match of the entrant or 0 if it has none.
+     */
+    private int nextMatchOf(E entrant) {
+        int node = nodeOf(entrant);
+        return node > FINAL ? node / 2 : 0;
+    }
+
+    private Pairing<E> start(int node) {
+        Pairing<E> pairing = pairingOf(node);
+        readyMatches.remove(node);
+        activeMatches.add(node);
+        pairings.add(pairing);
+        return pairing;
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
+        if (hasEntrant(entrant))
+            return false;
+        if (isStarted())
+            throw new NewEntrantsNotAllowedException();
+
+        addSeed(entrant);
+        version += 1;
+        return true;
+    }
+
+    /**
+     * Removes an entrant. Before the bracket is started, the lower seeds move up.
+     * Afterwards the entrant forfeits all remaining matches and can't be added again.
+     */
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (!hasEntrant(entrant))
+            return false;
+
+        entrants.remove(entrant);
+        version += 1;
+
+        if (!isStarted()) {
+            seeds.remove(entrant);
+            participants.remove(entrant);
+            return true;
+        }
+
+        int node = nodeOf(entrant);
+        int nextMatch = nextMatchOf(entrant);
+        if (nextMatch == 0 || tree[nextMatch] != EMPTY)
+            return true; // Already placed.
+
+        placements.setPlacement(entrant, Placement.NONE);
+        pairings.removeActiveByEntrant(entrant);
+        activeMatches.remove(nextMatch);
+        readyMatches.remove(nextMatch);
+
+        // The opponent wins by walkover, now or once they reach the match.
+        tree[node] = BYE;
+        update(nextMatch);
+
+        return true;
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean resetEntrant(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        startIfNeeded();
+
+        if (readyMatches.isEmpty() && isFinished())
+            throw new NoMorePairingsException();
+        if (readyMatches.isEmpty())
+            throw new UnfinishedPairingsException();
+
+        Pairing<E> pairing = start(readyMatches.iterator().next());
+        version += 1;
+        return pairing;
+    }
+
+    /**
+     * Starts all matches whose entrants are known.
+     */
+    @Override
+    public List<Pairing<E>> pairAll()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        startIfNeeded();
+
+        if (readyMatches.isEmpty() && isFinished())
+            throw new NoMorePairingsException();
+        if (readyMatches.isEmpty())
+            throw new UnfinishedPairingsException();
+
+        ArrayList<Pairing<E>> newPairings = new ArrayList<>(readyMatches.size());
+        for (int node : new ArrayList<>(readyMatches))
+            newPairings.add(start(node));
+
+        version += 1;
+        return newPairings;
+    }
+
+    /**
+     * Starts the match between the entrants of a pairing, which starts the bracket if necessary.
+     */
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException {
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new NoSuchEntrantException();
+        if (first.equals(second))
+            throw new NoSuchPairingException();
+
+        if (!isStarted())
+            start();
+
+        if (pairings.hasActiveEntrant(first) || pairings.hasActiveEntrant(second))
+            throw new EntrantNotPendingException();
+
+        int node = nextMatchOf(first);
+        if (node == 0 || node != nextMatchOf(second) || !readyMatches.contains(node))
+            throw new NoSuchPairingException();
+
+        start(node);
+        version += 1;
+        return pairing;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        pairings.finish(pairing);
+        advance(nextMatchOf(winningEntrant), registry.idOf(winningEntrant), true);
+        version += 1;
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.hasActiveEntrant(winningEntrant))
+            throw new MissingPairingException();
+
+        Pairing<E> pairing = pairings.findActiveByEntrant(winningEntrant);
+        try {
+            declareWinner(winningEntrant, pairing);
+        }
+        catch (NoSuchPairingException e) {
+            throw new RuntimeException(e); // The pairing was just found.
+        }
+
+        return pairing;
+    }
+
+    /**
+     * Replays a match, as long as its winner has not started or finished the next match.
+     */
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        if (pairings.isActive(pairing))
+            return false;
+
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+        if (!hasEntrant(pairing.getFirst()) || !hasEntrant(pairing.getSecond()))
+            throw new MissingEntrantException();
+
+        // The loser stays in the lower node, the match is its parent.
+        int node = Math.max(nodeOf(pairing.getFirst()), nodeOf(pairing.getSecond())) / 2;
+        if (!canRevert(node))
+            throw new OrphanedPairingException();
+
+        revert(node);
+        activeMatches.add(node);
+
+        boolean removedFinished = pairings.removeFinished(pairing);
+        pairings.add(pairing);
+
+        assert removedFinished;
+        version += 1;
+        return true;
+    }
+
+    @Override
+    @UnsupportedOperation
+    public void declareTie(Pairing<E> pairing) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Pairing<E>> declareResults(Collection<Result<E>> results)
+            throws NoSuchEntrantException, MissingPairingException, NoSuchPairingException {
+
+        // Checked up front, so that no results are declared.
+        for (Result<E> result : results)
+            if (result.isTie())
+                throw new UnsupportedOperationException();
+
+        return RankingRound.super.declareResults(results);
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The seed of the entrant, starting at 1, or 0 if it is not seeded.
+     */
+    public int getSeed(E entrant) {
+        return seeds.indexOf(entrant) + 1;
+    }
+
+    /**
+     * Gets the opponent of the next match of an entrant, which is the entrant in the sibling node.
+     * @param entrant The entrant.
+     * @return The opponent or null, if the opponent is not decided yet or the entrant has no next match.
+     */
+    public E getNextOpponent(E entrant) {
+        int node = nodeOf(entrant);
+        if (!hasEntrant(entrant) || node <= FINAL || tree[node / 2] != EMPTY)
+            return null;
+
+        int opponent = tree[node ^ 1];
+        return opponent >= 0 ? registry.get(opponent) : null;
+    }
+
+    /**
+     * @return The number of first round positions or 0 if the bracket is not started yet.
+     */
+    public int getBracketSize() {
+        return bracketSize;
+    }
+
+    public boolean isStarted() {
+        return bracketSize > 0;
+    }
+
+    /**
+     * Gets the placement of an entrant. The finalists are placed once the final is decided,
+     * all other entrants get no placement once they are eliminated.
+     */
+    @Override
+    public Placement getPlacement(E entrant) {
+        return placements.getPlacement(entrant);
+    }
+
+    @Override
+    public E getEntrantByPlacement(Placement placement) {
+        if (!placement.isRanked()) {
+            for (E entrant : entrants)
+                if (getPlacement(entrant).equals(placement))
+                    return entrant;
+            return null;
+        }
+
+        return placements.getEntrantByPlacement(placement);
+    }
+
+    public Standings<E> getStandings() {
+        return placements.getStandings();
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        return entrants.contains(entrant);
+    }
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return pairings.hasFinishedEntrant(entrant);
+    }
+
+    /**
+     * @return If the entrant won the bracket.
+     */
+    @Override
+    public boolean hasWon(E entrant) {
+        return getPlacement(entrant).equals(Placement.FIRST);
+    }
+
+    /**
+     * @return If the entrant was eliminated.
+     */
+    @Override
+    public boolean hasLost(E entrant) {
+        Placement placement = getPlacement(entrant);
+        return !placement.equals(Placement.TBD) && !placement.equals(Placement.FIRST);
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        return participants.contains(entrant);
+    }
+
+    /**
+     * Once the bracket is started, a removed entrant forfeits its remaining matches and can't be added again.
+     */
+    @Override
+    public boolean canAddEntrantAgain(E entrant) {
+        return !isStarted();
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    /**
+     * The round is finished once the final is decided.
+     */
+    @Override
+    public boolean isFinished() {
+        return isStarted() && tree[FINAL] != EMPTY;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+}
@@ -2,7 +2,12 @@ package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.core.annotations.UnsupportedOperation;
 import de.j13g.manko.core.exceptions.NewEntrantsNotAllowedException;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 
@@ -21,6 +26,12 @@ public class SemiFinal<E> extends DynamicElimination<E> implements Serializable
     }
 
     public SemiFinal(Collection<E> entrants) {
+        this(new EntrantRegistry<>(), entrants);
+    }
+
+    public SemiFinal(EntrantRegistry<E> registry, Collection<E> entrants) {
+        super(registry);
+
         if (entrants.size() != ENTRANT_COUNT)
             throw new IllegalArgumentException();
 
@@ -28,8 +39,25 @@ public class SemiFinal<E> extends DynamicElimination<E> implements Serializable
         originalEntrants = getFrozenEntrantsSet();
     }
 
+    public SemiFinal(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        super(in, registry);
+        originalEntrants = freeze(in.readEntrants());
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        super.write(out);
+        out.writeEntrants(originalEntrants);
+    }
+
     private Set<E> getFrozenEntrantsSet() {
-        return Collections.unmodifiableSet(new HashSet<>(entrants));
+        return freeze(getEntrants());
+    }
+
+    private Set<E> freeze(Collection<E> entrants) {
+        EntrantSet<E> frozen = new EntrantSet<>(registry);
+        frozen.addAll(entrants);
+        return Collections.unmodifiableSet(frozen);
     }
 
     @Override
@@ -0,0 +1,1027 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.annotations.UnsupportedOperation;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.managers.EntrantSet;
+import de.j13g.manko.core.managers.PairingManager;
+import de.j13g.manko.core.managers.ScoreManager;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+import de.j13g.manko.util.LongIntHashMap;
+import de.j13g.manko.util.UniformPairUniqueLinkedBiSet;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A Swiss-system round, which consists of a fixed number of rounds of play.
+ * In every round of play, each entrant is paired once with an entrant of the same or a similar score,
+ * which they have not been paired with before. A win scores {@link SwissRound#WIN_POINTS} points, a tie
+ * {@link SwissRound#TIE_POINTS} points. With an odd number of entrants, the entrant with the lowest score,
+ * that did not have a bye yet, gets a bye, which scores like a win.
+ * <p>
+ * The pairings of a round of play are created at once. Entrants are sorted by score and grouped,
+ * within a group they are paired in order with the first entrant they have not been paired with.
+ * Unpaired entrants float down into the next group, where they are paired first.
+ * Entrants that are left at the end are paired along augmenting paths (Edmonds' blossom algorithm),
+ * which only changes the pairs along the path. If the entrant with the lowest score can't get the bye
+ * without leaving others unpaired, the next candidate gets it. There is at most one bye per round of play.
+ * The pairings also have to leave a complete pairing for the next round of play, otherwise
+ * another bye or leaving out a single pair is tried. Entrants are never paired twice, thus entrants
+ * that can't be paired at all sit out the round of play without scoring, which can only happen
+ * when the number of rounds of play comes close to the number of entrants.
+ * <p>
+ * Checking for earlier pairings takes constant time, thus creating the pairings of a round of play
+ * takes almost linear time in the number of entrants, as long as the score groups can be paired.
+ * <p>
+ * Entrants with equal scores are shuffled with a seed that is saved with the round, in the order in which
+ * they were added. Creating the pairings only depends on the state of the round, so a round that replays
+ * its started pairings from a journal moves through the same rounds of play and gives the same byes.
+ * @param <E> The entrant type.
+ */
+public class SwissRound<E> implements RankingRound<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int WIN_POINTS = 2;
+    public static final int TIE_POINTS = 1;
+    public static final int BYE_POINTS = WIN_POINTS;
+
+    // The value of results that are a tie, instead of a winner id.
+    private static final int TIE = -2;
+
+    // The position of the mate of an unpaired entrant, while creating pairings.
+    private static final int NO_MATE = -1;
+
+    private final EntrantRegistry<E> registry;
+
+    private final int roundCount;
+    private int currentRound = 0;
+
+    private final EntrantSet<E> entrants;
+
+    // Every entrant that was added, in the order in which they were first added.
+    // Entrants are drawn in this order, since their ids differ between copies of the round.
+    private final ArrayList<E> drawOrder = new ArrayList<>();
+
+    // Entrants that have not been paired in the current round of play.
+    private final EntrantSet<E> pendingEntrants;
+
+    // Entrants that have their result for the current round of play.
+    private final EntrantSet<E> doneEntrants;
+
+    private final EntrantSet<E> byeEntrants;
+
+    // If the bye of the current round of play was given.
+    private boolean hasRoundBye = false;
+
+    // Pairings of the current round of play that were created, but have not been started yet.
+    private final UniformPairUniqueLinkedBiSet<E, Pairing<E>> plannedPairings = new UniformPairUniqueLinkedBiSet<>();
+
+    // The winner ids of finished pairings or TIE, by the key of their pairing.
+    private final LongIntHashMap results = new LongIntHashMap();
+
+    private final PairingManager<E> pairings;
+    private final ScoreManager<E> scores;
+
+    private final long pairingSeed;
+
+    private long version = 0;
+
+    public SwissRound(int roundCount) {
+        this(roundCount, new Random().nextLong());
+    }
+
+    public SwissRound(int roundCount, long pairingSeed) {
+        this(new EntrantRegistry<>(), Collections.emptySet(), roundCount, pairingSeed);
+    }
+
+    public SwissRound(EntrantRegistry<E> registry, Collection<E> entrants, int roundCount) {
+        this(registry, entrants, roundCount, new Random().nextLong());
+    }
+
+    /**
+     * @param registry The registry that the round shares with the other rounds of its tournament.
+     * @param entrants The entrants.
+     * @param roundCount The number of rounds of play.
+     * @param pairingSeed The seed with which entrants of equal scores are shuffled when they are paired.
+     */
+    public SwissRound(EntrantRegistry<E> registry, Collection<E> entrants, int roundCount, long pairingSeed) {
+        if (roundCount < 1)
+            throw new IllegalArgumentException("At least one round of play is needed");
+
+        this.registry = registry;
+        this.roundCount = roundCount;
+        this.pairingSeed = pairingSeed;
+        this.entrants = new EntrantSet<>(registry);
+        pendingEntrants = new EntrantSet<>(registry);
+        doneEntrants = new EntrantSet<>(registry);
+        byeEntrants = new EntrantSet<>(registry);
+        pairings = new PairingManager<>(registry);
+        scores = new ScoreManager<>(registry);
+
+        for (E entrant : entrants)
+            addEntrant(entrant);
+    }
+
+    public SwissRound(SnapshotInput<E> in, EntrantRegistry<E> registry) throws IOException {
+        this.registry = registry;
+        entrants = new EntrantSet<>(registry);
+        pendingEntrants = new EntrantSet<>(registry);
+        doneEntrants = new EntrantSet<>(registry);
+        byeEntrants = new EntrantSet<>(registry);
+        pairings = new PairingManager<>(registry);
+        scores = new ScoreManager<>(registry);
+
+        roundCount = in.readCount();
+        pairingSeed = in.readLong();
+        currentRound = in.readCount();
+        hasRoundBye = in.readBoolean();
+
+        drawOrder.addAll(in.readEntrants());
+        entrants.addAll(in.readEntrants());
+        pendingEntrants.addAll(in.readEntrants());
+        doneEntrants.addAll(in.readEntrants());
+        byeEntrants.addAll(in.readEntrants());
+        in.readPairings().forEach(plannedPairings::add);
+
+        int resultCount = in.readCount();
+        for (int i = 0; i < resultCount; ++i) {
+            Pairing<E> pairing = in.readPairing();
+            int winnerId = in.readBoolean() ? TIE : registry.register(in.readEntrant());
+            results.put(pairing.key(registry), winnerId);
+        }
+
+        pairings.read(in);
+        scores.read(in);
+
+        // Removed entrants keep their score, but are not ranked.
+        for (Set<E> entrantsWithScore : List.of(pairings.getFinishedEntrants(), byeEntrants))
+            for (E entrant : entrantsWithScore)
+                if (!entrants.contains(entrant))
+                    scores.exclude(entrant);
+    }
+
+    @Override
+    public void write(SnapshotOutput<E> out) throws IOException {
+        out.writeInt(roundCount);
+        out.writeLong(pairingSeed);
+        out.writeInt(currentRound);
+        out.writeBoolean(hasRoundBye);
+
+        out.writeEntrants(drawOrder);
+        out.writeEntrants(entrants);
+        out.writeEntrants(pendingEntrants);
+        out.writeEntrants(doneEntrants);
+        out.writeEntrants(byeEntrants);
+        out.writePairings(plannedPairings.elements());
+
+        out.writeInt(results.size());
+        for (PrimitiveIterator.OfLong it = results.keyIterator(); it.hasNext(); ) {
+            long key = it.nextLong();
+            out.writePairing(new Pairing<>(registry.get((int) (key >>> 32)), registry.get((int) key)));
+
+            int winnerId = results.get(key, TIE);
+            out.writeBoolean(winnerId == TIE);
+            if (winnerId != TIE)
+                out.writeEntrant(registry.get(winnerId));
+        }
+
+        pairings.write(out);
+        scores.write(out);
+    }
+
+    /**
+     * Adds an entrant, which is paired from the current round of play on.
+     * Entrants that were removed keep their score and the rounds of play they missed are lost.
+     * @param entrant The entrant.
+     * @return If the entrant was added.
+     */
+    @Override
+    public boolean addEntrant(E entrant) {
+        if (!entrants.add(entrant))
+            return false;
+
+        if (!scores.include(entrant)) {
+            scores.add(entrant);
+            drawOrder.add(entrant);
+        }
+        if (!doneEntrants.contains(entrant))
+            pendingEntrants.add(entrant);
+
+        version += 1;
+        return true;
+    }
+
+    /**
+     * Removes an entrant. The opponent of an active pairing wins by default,
+     * the opponent of a planned pairing is paired again.
+     * @param entrant The entrant.
+     * @return If the entrant was removed.
+     */
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (!entrants.remove(entrant))
+            return false;
+
+        Pairing<E> activePairing = pairings.removeActiveByEntrant(entrant);
+        if (activePairing != null) {
+            E opponent = activePairing.getOther(entrant);
+            scores.addScore(opponent, WIN_POINTS);
+            doneEntrants.add(opponent);
+        }
+
+        Pairing<E> plannedPairing = plannedPairings.removeByElement(entrant);
+        if (plannedPairing != null)
+            pendingEntrants.add(plannedPairing.getOther(entrant));
+
+        pendingEntrants.remove(entrant);
+        scores.exclude(entrant);
+        version += 1;
+        return true;
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean resetEntrant(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Pairing<E> nextPairing() throws UnfinishedPairingsException, NoMorePairingsException {
+        preparePairings();
+
+        Pairing<E> pairing = plannedPairings.elements().iterator().next();
+        plannedPairings.remove(pairing);
+        pairings.add(pairing);
+
+        version += 1;
+        return pairing;
+    }
+
+    /**
+     * Starts all pairings of the current round of play, that were not started yet.
+     */
+    @Override
+    public List<Pairing<E>> pairAll() throws UnfinishedPairingsException, NoMorePairingsException {
+        preparePairings();
+
+        ArrayList<Pairing<E>> newPairings = new ArrayList<>(plannedPairings.elements());
+        plannedPairings.clear();
+        newPairings.forEach(pairings::add);
+
+        version += 1;
+        return newPairings;
+    }
+
+    private void preparePairings() throws UnfinishedPairingsException, NoMorePairingsException {
+        preparePairings(null);
+    }
+
+    /**
+     * Makes sure that there are planned pairings, by creating the pairings of the pending entrants
+     * or by continuing with the next round of play.
+     * @param startedPairing The pairing that is started by hand or null.
+     */
+    private void preparePairings(Pairing<E> startedPairing)
+            throws UnfinishedPairingsException, NoMorePairingsException {
+
+        while (plannedPairings.isEmpty()) {
+            if (!pendingEntrants.isEmpty()) {
+                createPairings(startedPairing);
+                continue;
+            }
+
+            if (pairings.hasActive())
+                throw new UnfinishedPairingsException();
+            if (currentRound + 1 >= roundCount)
+                throw new NoMorePairingsException();
+
+            currentRound += 1;
+            hasRoundBye = false;
+            doneEntrants.clear();
+            pendingEntrants.addAll(entrants);
+            version += 1;
+        }
+    }
+
+    @Override
+    public Pairing<E> startPairing(Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException, EntrantNotPendingException {
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (first.equals(second))
+            throw new IllegalArgumentException("An entrant cannot be paired with themselves");
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new NoSuchEntrantException();
+        if (pairings.contains(pairing))
+            throw new NoSuchPairingException();
+
+        // Entrants that are done only become available again with the next round of play.
+        boolean canContinue = plannedPairings.isEmpty() && !pairings.hasActive() && currentRound + 1 < roundCount;
+        if (!canContinue && (!isEntrantAvailable(first) || !isEntrantAvailable(second)))
+            throw new EntrantNotPendingException();
+
+        // The pairings are prepared like for the next pairing, since a journal only records the started pairing.
+        // Replaying it has to continue with the same round of play and give the same bye.
+        try {
+            preparePairings(pairing);
+        }
+        catch (UnfinishedPairingsException | NoMorePairingsException e) {
+            // Pairings can be started by hand without any planned pairings.
+        }
+
+        if (!isEntrantAvailable(first) || !isEntrantAvailable(second))
+            throw new EntrantNotPendingException();
+
+        // The planned opponents have to be paired again.
+        for (E entrant : List.of(first, second)) {
+            Pairing<E> plannedPairing = plannedPairings.removeByElement(entrant);
+            if (plannedPairing != null)
+                pendingEntrants.add(plannedPairing.getOther(entrant));
+        }
+
+        pendingEntrants.remove(first);
+        pendingEntrants.remove(second);
+        pairings.add(pairing);
+
+        version += 1;
+        return pairing;
+    }
+
+    private boolean isEntrantAvailable(E entrant) {
+        return pendingEntrants.contains(entrant) || plannedPairings.getPairElementSet().contains(entrant);
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        finish(pairing, registry.idOf(winningEntrant));
+        scores.addScore(winningEntrant, WIN_POINTS);
+        version += 1;
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+
+        Pairing<E> pairing = pairings.findActiveByEntrant(winningEntrant);
+        if (pairing == null)
+            throw new MissingPairingException();
+
+        declareWinner(winningEntrant, pairing);
+        return pairing;
+    }
+
+    @Override
+    public void declareTie(Pairing<E> pairing) throws NoSuchPairingException {
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        finish(pairing, TIE);
+        scores.addScore(pairing.getFirst(), TIE_POINTS);
+        scores.addScore(pairing.getSecond(), TIE_POINTS);
+        version += 1;
+    }
+
+    private void finish(Pairing<E> pairing, int winnerId) {
+        pairings.finish(pairing);
+        results.put(pairing.key(registry), winnerId);
+        doneEntrants.add(pairing.getFirst());
+        doneEntrants.add(pairing.getSecond());
+    }
+
+    /**
+     * Replays a pairing of the current round of play, by taking back its result.
+     */
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        if (pairings.isActive(pairing))
+            return false;
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new MissingEntrantException();
+
+        // Results of earlier rounds of play have already decided later pairings.
+        if (!doneEntrants.contains(first) || !doneEntrants.contains(second)
+                || !pairing.equals(pairings.getLastPairingOfEntrant(first))
+                || !pairing.equals(pairings.getLastPairingOfEntrant(second)))
+            throw new OrphanedPairingException();
+
+        long key = pairing.key(registry);
+        int winnerId = results.get(key, TIE);
+        if (winnerId == TIE) {
+            scores.addScore(first, -TIE_POINTS);
+            scores.addScore(second, -TIE_POINTS);
+        }
+        else
+            scores.addScore(registry.get(winnerId), -WIN_POINTS);
+
+        results.remove(key);
+        pairings.removeFinished(pairing);
+        pairings.add(pairing);
+        doneEntrants.remove(first);
+        doneEntrants.remove(second);
+
+        version += 1;
+        return true;
+    }
+
+    /**
+     * Creates the pairings of the pending entrants and gives a bye, if their number is odd.
+     * Entrants that can't be paired without a rematch sit out the round of play without scoring.
+     * @param startedPairing The pairing that is started by hand or null. If its entrants are pending,
+     *                       but would be left out, they are paired with each other and the others without them.
+     */
+    private void createPairings(Pairing<E> startedPairing) {
+        int[] order = sortByScore();
+        Draw draw = drawPairings(order);
+
+        if (startedPairing != null && isLeftOut(order, draw, startedPairing)) {
+            int firstId = registry.idOf(startedPairing.getFirst());
+            int secondId = registry.idOf(startedPairing.getSecond());
+            order = Arrays.stream(order).filter(id -> id != firstId && id != secondId).toArray();
+            draw = drawPairings(order);
+            plannedPairings.add(startedPairing);
+        }
+
+        pendingEntrants.clear();
+
+        if (draw.byePosition != NO_MATE) {
+            hasRoundBye = true;
+            giveBye(registry.get(order[draw.byePosition]));
+        }
+
+        for (int i = 0; i < order.length; ++i) {
+            if (draw.mates[i] > i)
+                plannedPairings.add(new Pairing<>(registry.get(order[i]), registry.get(order[draw.mates[i]])));
+            else if (draw.mates[i] == NO_MATE && i != draw.byePosition)
+                doneEntrants.addId(order[i]);
+        }
+
+        version += 1;
+    }
+
+    /**
+     * @return If both entrants of the pairing are pending and one of them is left without a mate.
+     */
+    private boolean isLeftOut(int[] order, Draw draw, Pairing<E> pairing) {
+        int firstId = registry.idOf(pairing.getFirst());
+        int secondId = registry.idOf(pairing.getSecond());
+        if (!pendingEntrants.containsId(firstId) || !pendingEntrants.containsId(secondId))
+            return false;
+
+        for (int i = 0; i < order.length; ++i)
+            if ((order[i] == firstId || order[i] == secondId) && draw.mates[i] == NO_MATE)
+                return true;
+        return false;
+    }
+
+    /**
+     * Finds the pairings and the bye of a round of play, without changing any state.
+     * @param order The entrant ids, sorted by descending score.
+     */
+    private Draw drawPairings(int[] order) {
+        int[] byeCandidates = order.length % 2 == 1 && !hasRoundBye
+                ? findByeCandidates(order, NO_MATE)
+                : new int[] { NO_MATE };
+        boolean hasNextRound = currentRound + 1 < roundCount;
+
+        // The largest matching is kept, unless a complete one also leaves the next round of play complete.
+        int[] mates = null;
+        int byePosition = NO_MATE;
+
+        search:
+        for (int candidate : byeCandidates) {
+            Compatibility canPair = (first, second) -> first != candidate && second != candidate
+                    && !pairings.isFinished(order[first], order[second]);
+
+            int[] candidateMates = matchEntrants(order, canPair);
+            if (mates == null || countPaired(candidateMates) > countPaired(mates)) {
+                mates = candidateMates;
+                byePosition = candidate;
+            }
+
+            if (!isComplete(candidateMates, candidate))
+                continue;
+            if (!hasNextRound || canPairNextRound(order, candidateMates, candidate)) {
+                mates = candidateMates;
+                byePosition = candidate;
+                break;
+            }
+
+            // Leaving out one of the pairs, starting with the lowest score, may free the opponents needed later.
+            for (int i = order.length - 1; i >= 0; --i) {
+                int first = i;
+                int second = candidateMates[i];
+                if (second == NO_MATE || second > first)
+                    continue;
+
+                Compatibility canPairOthers = (a, b) -> canPair.test(a, b)
+                        && !(a == first && b == second || a == second && b == first);
+
+                int[] otherMates = matchEntrants(order, canPairOthers);
+                if (isComplete(otherMates, candidate) && canPairNextRound(order, otherMates, candidate)) {
+                    mates = otherMates;
+                    byePosition = candidate;
+                    break search;
+                }
+            }
+        }
+
+        return new Draw(mates, byePosition);
+    }
+
+    /**
+     * The mate of each entrant and the entrant with the bye, by their position.
+     */
+    private static class Draw {
+
+        private final int[] mates;
+        private final int byePosition;
+
+        private Draw(int[] mates, int byePosition) {
+            this.mates = mates;
+            this.byePosition = byePosition;
+        }
+    }
+
+    /**
+     * Checks if the entrants can be paired once more without a rematch and without a second bye,
+     * after being paired with their mates. Looking one round of play ahead avoids most of the rounds
+     * that can't be completed, once most opponents have been played.
+     */
+    private boolean canPairNextRound(int[] order, int[] mates, int byePosition) {
+        Compatibility canPair = (first, second) -> mates[first] != second
+                && !pairings.isFinished(order[first], order[second]);
+
+        if (order.length % 2 == 0)
+            return isComplete(matchEntrants(order, canPair), NO_MATE);
+
+        int[] candidates = findByeCandidates(order, byePosition);
+        boolean hasFirstBye = !hadBye(order, candidates[0], byePosition);
+
+        for (int candidate : candidates) {
+            if (hasFirstBye && hadBye(order, candidate, byePosition))
+                break;
+
+            Compatibility canPairOthers = (first, second) -> first != candidate && second != candidate
+                    && canPair.test(first, second);
+            if (isComplete(matchEntrants(order, canPairOthers), candidate))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @param byePosition The position of the entrant that gets the bye of the current round of play
+     *                    or {@link #NO_MATE}.
+     * @return The positions of the candidates for a bye, starting with the lowest score.
+     *         Entrants that had a bye come last.
+     */
+    private int[] findByeCandidates(int[] order, int byePosition) {
+        int[] candidates = new int[order.length];
+        int count = 0;
+        for (boolean hadBye : new boolean[] { false, true })
+            for (int i = order.length - 1; i >= 0; --i)
+                if (hadBye(order, i, byePosition) == hadBye)
+                    candidates[count++] = i;
+        return candidates;
+    }
+
+    private boolean hadBye(int[] order, int position, int byePosition) {
+        return position == byePosition || byeEntrants.containsId(order[position]);
+    }
+
+    /**
+     * Finds a maximum matching of entrants that can be paired. Entrants are paired with the first
+     * entrant of their score group they can be paired with, unpaired entrants float down into the next group.
+     * The entrants that are left are paired along augmenting paths.
+     * @param order The entrant ids, sorted by descending score.
+     * @param canPair Which positions can be paired.
+     * @return The position of the mate of each entrant or {@link #NO_MATE}.
+     */
+    private int[] matchEntrants(int[] order, Compatibility canPair) {
+        int count = order.length;
+        int[] mates = new int[count];
+        Arrays.fill(mates, NO_MATE);
+
+        int[] group = new int[count];
+        int floaterCount = 0;
+
+        for (int start = 0; start < count; ) {
+            int score = scoreOf(order[start]);
+            int end = start;
+            while (end < count && scoreOf(order[end]) == score)
+                end += 1;
+
+            // The floaters from the group above come first.
+            int groupSize = floaterCount;
+            for (int i = start; i < end; ++i)
+                group[groupSize++] = i;
+
+            floaterCount = pairGroup(group, groupSize, mates, canPair);
+            start = end;
+        }
+
+        if (floaterCount > 0) {
+            Matching matching = new Matching(mates, canPair);
+            for (int i = 0; i < floaterCount; ++i)
+                if (mates[group[i]] == NO_MATE)
+                    matching.augment(group[i]);
+        }
+
+        return mates;
+    }
+
+    /**
+     * Pairs entrants of a group in order with the first entrant they can be paired with.
+     * @param group The positions of the entrants of the group.
+     * @param groupSize The number of entrants in the group.
+     * @param mates The position of the mate of each entrant, to which the new pairs are added.
+     * @return The number of unpaired entrants, which are moved to the start of the group.
+     */
+    private static int pairGroup(int[] group, int groupSize, int[] mates, Compatibility canPair) {
+        int floaterCount = 0;
+
+        for (int i = 0; i < groupSize; ++i) {
+            int first = group[i];
+            if (mates[first] != NO_MATE)
+                continue;
+
+            for (int j = i + 1; j < groupSize; ++j) {
+                int second = group[j];
+                if (mates[second] == NO_MATE && canPair.test(first, second)) {
+                    mates[first] = second;
+                    mates[second] = first;
+                    break;
+                }
+            }
+
+            // The floaters stay in order, before the entrants that are yet to be paired.
+            if (mates[first] == NO_MATE)
+                group[floaterCount++] = first;
+        }
+
+        return floaterCount;
+    }
+
+    /**
+     * @return If every entrant, except the one with the bye, has a mate.
+     */
+    private static boolean isComplete(int[] mates, int byePosition) {
+        return countPaired(mates) == mates.length - (byePosition == NO_MATE ? 0 : 1);
+    }
+
+    private static int countPaired(int[] mates) {
+        int count = 0;
+        for (int mate : mates)
+            if (mate != NO_MATE)
+                count += 1;
+        return count;
+    }
+
+    /**
+     * Which entrants can be paired, by their position.
+     */
+    @FunctionalInterface
+    private interface Compatibility {
+        boolean test(int first, int second);
+    }
+
+    /**
+     * Edmonds' blossom algorithm, which extends a matching along augmenting paths.
+     * Odd cycles (blossoms) are contracted into their base. An augmentation takes
+     * quadratic time in the number of entrants.
+     */
+    private static class Matching {
+
+        private final int[] mates;
+        private final Compatibility canPair;
+
+        private final int[] parents;
+        private final int[] bases;
+        private final boolean[] isReached;
+        private final boolean[] isInBlossom;
+        private final int[] queue;
+
+        private Matching(int[] mates, Compatibility canPair) {
+            this.mates = mates;
+            this.canPair = canPair;
+
+            int count = mates.length;
+            parents = new int[count];
+            bases = new int[count];
+            isReached = new boolean[count];
+            isInBlossom = new boolean[count];
+            queue = new int[count];
+        }
+
+        /**
+         * Searches an augmenting path from an unpaired entrant and flips the pairs along it.
+         * @return If the entrant was paired.
+         */
+        private boolean augment(int root) {
+            int end = findPath(root);
+            if (end == NO_MATE)
+                return false;
+
+            while (end != NO_MATE) {
+                int parent = parents[end];
+                int next = mates[parent];
+                mates[end] = parent;
+                mates[parent] = end;
+                end = next;
+            }
+
+            return true;
+        }
+
+        private int findPath(int root) {
+            Arrays.fill(parents, NO_MATE);
+            Arrays.fill(isReached, false);
+            for (int i = 0; i < bases.length; ++i)
+                bases[i] = i;
+
+            int head = 0;
+            int tail = 0;
+            isReached[root] = true;
+            queue[tail++] = root;
+
+            while (head < tail) {
+                int current = queue[head++];
+
+                for (int next = 0; next < mates.length; ++next) {
+                    if (current == next || bases[current] == bases[next] || mates[current] == next
+                            || !canPair.test(current, next))
+                        continue;
+
+                    if (next == root || mates[next] != NO_MATE && parents[mates[next]] != NO_MATE) {
+                        int base = findCommonBase(current, next);
+                        Arrays.fill(isInBlossom, false);
+                        markPath(current, base, next);
+                        markPath(next, base, current);
+
+                        for (int i = 0; i < mates.length; ++i) {
+                            if (isInBlossom[bases[i]]) {
+                                bases[i] = base;
+                                if (!isReached[i]) {
+                                    isReached[i] = true;
+                                    queue[tail++] = i;
+                                }
+                            }
+                        }
+                    }
+                    else if (parents[next] == NO_MATE) {
+                        parents[next] = current;
+                        if (mates[next] == NO_MATE)
+                            return next;
+
+                        isReached[mates[next]] = true;
+                        queue[tail++] = mates[next];
+                    }
+                }
+            }
+
+            return NO_MATE;
+        }
+
+        private int findCommonBase(int first, int second) {
+            boolean[] isOnPath = new boolean[mates.length];
+            while (true) {
+                first = bases[first];
+                isOnPath[first] = true;
+                if (mates[first] == NO_MATE)
+                    break;
+                first = parents[mates[first]];
+            }
+
+            while (true) {
+                second = bases[second];
+                if (isOnPath[second])
+                    return second;
+                second = parents[mates[second]];
+            }
+        }
+
+        private void markPath(int position, int base, int child) {
+            while (bases[position] != base) {
+                isInBlossom[bases[position]] = true;
+                isInBlossom[bases[mates[position]]] = true;
+                parents[position] = child;
+                child = mates[position];
+                position = parents[mates[position]];
+            }
+        }
+    }
+
+    private void giveBye(E entrant) {
+        byeEntrants.add(entrant);
+        doneEntrants.add(entrant);
+        scores.addScore(entrant, BYE_POINTS);
+    }
+
+    /**
+     * Sorts the pending entrants by descending score. Entrants with equal scores are shuffled
+     * with the pairing seed and the current round of play.
+     * @return The ids of the entrants.
+     */
+    private int[] sortByScore() {
+        int[] ids = new int[pendingEntrants.size()];
+        int count = 0;
+        for (E entrant : drawOrder)
+            if (pendingEntrants.contains(entrant))
+                ids[count++] = registry.idOf(entrant);
+
+        Random random = new Random(pairingSeed + currentRound);
+        for (int i = count - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+
+        // The score is negated, so that the ascending order of the keys has the highest score first.
+        long[] keys = new long[count];
+        for (int i = 0; i < count; ++i)
+            keys[i] = (long) -scoreOf(ids[i]) << 32 | i;
+        Arrays.sort(keys);
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; ++i)
+            order[i] = ids[(int) keys[i]];
+        return order;
+    }
+
+    private int scoreOf(int id) {
+        return scores.getScore(registry.get(id));
+    }
+
+    /**
+     * Gets the placement of an entrant from its rank among the remaining entrants.
+     * Placements are determined once all rounds of play are finished.
+     * Entrants that share their rank get no placement.
+     */
+    @Override
+    public Placement getPlacement(E entrant) {
+        if (!isFinished())
+            return Placement.TBD;
+
+        int rank = scores.getRank(entrant);
+        if (scores.countEntrantsByRank(rank) > 1)
+            return Placement.NONE;
+
+        return Placement.of(rank);
+    }
+
+    @Override
+    public E getEntrantByPlacement(Placement placement) {
+        if (!placement.isRanked()) {
+            for (E entrant : entrants)
+                if (getPlacement(entrant).equals(placement))
+                    return entrant;
+            return null;
+        }
+
+        if (!isFinished())
+            return null;
+
+        List<E> rankedEntrants = scores.getEntrantsByRank(placement.getValue());
+        return rankedEntrants.size() == 1 ? rankedEntrants.get(0) : null;
+    }
+
+    public Standings<E> getStandings() {
+        ArrayList<E> standings = new ArrayList<>(entrants.size());
+        for (int rank = 1; rank <= entrants.size(); ++rank)
+            standings.add(getEntrantByPlacement(Placement.of(rank)));
+
+        return new Standings<>(standings);
+    }
+
+    /**
+     * @return The current round of play, starting at 0.
+     */
+    public int getCurrentRound() {
+        return currentRound;
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    public int getScore(E entrant) {
+        return scores.getScore(entrant);
+    }
+
+    public boolean hadBye(E entrant) {
+        return byeEntrants.contains(entrant);
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public EntrantRegistry<E> getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        return entrants.contains(entrant);
+    }
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return pairings.hasFinishedEntrant(entrant) || byeEntrants.contains(entrant);
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean hasWon(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @UnsupportedOperation
+    public boolean hasLost(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        // Every entrant that was added has a score, which is kept when they are removed.
+        return hasEntrant(entrant) || scores.hasScore(entrant);
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return currentRound + 1 >= roundCount && pendingEntrants.isEmpty()
+                && plannedPairings.isEmpty() && !pairings.hasActive();
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+}
@@ -1,23 +1,45 @@
 package de.j13g.manko.fabric;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import de.j13g.manko.core.Pairing;
 import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
 import de.j13g.manko.core.Tournament;
 import de.j13g.manko.core.annotations.UnsupportedOperation;
 import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.RankingRound;
 import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.RoundManager;
 import de.j13g.manko.core.base.TournamentFormat;
 import de.j13g.manko.core.exceptions.*;
 import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.formats.DoubleEliminationFormat;
+import de.j13g.manko.core.formats.GroupStageFormat;
+import de.j13g.manko.core.formats.SeededBracketFormat;
+import de.j13g.manko.core.formats.SwissFormat;
 import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.persistence.Journal;
+import de.j13g.manko.core.persistence.JournaledRoundManager;
+import de.j13g.manko.core.persistence.RoundOperation;
+import de.j13g.manko.core.persistence.SnapshotInput;
+import de.j13g.manko.core.persistence.SnapshotOutput;
+import de.j13g.manko.core.persistence.SnapshotStore;
+import de.j13g.manko.core.persistence.PersistenceService;
+import de.j13g.manko.core.persistence.SyncPolicy;
+import de.j13g.manko.core.persistence.UndoableRoundManager;
+import de.j13g.manko.core.rounds.DoubleElimination;
 import de.j13g.manko.core.rounds.DynamicElimination;
 import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.GroupStage;
+import de.j13g.manko.core.rounds.RoundRobin;
 import de.j13g.manko.core.rounds.RoundRobinFinal;
+import de.j13g.manko.core.rounds.SeededBracket;
 import de.j13g.manko.core.rounds.SemiFinal;
+import de.j13g.manko.core.rounds.SwissRound;
 import de.j13g.manko.fabric.arguments.CollectionValuesArgumentType;
 import de.j13g.manko.fabric.arguments.EntrantArgumentType;
 import de.j13g.manko.fabric.arguments.EntrantArgumentTypeFactory;
@@ -31,9 +53,13 @@ import net.minecraft.text.LiteralText;
 
 import java.io.*;
 import java.lang.reflect.Method;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,6 +82,58 @@ public final class Commands {
         public Tournament<Player> tournament = null;
         public final HashMap<Event, String> onEventTemplates = new HashMap<>();
         public final HashMap<String, String> customCommands = new HashMap<>();
+
+        /** The generation of the journal whose records apply to this state. */
+        public long generation = 0;
+
+        private long version = 0;
+
+        /**
+         * Gets the modification stamp of the state.
+         * It changes whenever the settings, the tournament or its rounds change.
+         * @return The modification stamp.
+         */
+        public long getVersion() {
+            // Any change of the tournament object itself increments version,
+            // so a tournament would need 2^32 modifications to cause a collision.
+            long tournamentVersion = tournament != null ? tournament.getVersion() : 0;
+            return (version << 32) + tournamentVersion;
+        }
+
+        public void write(SnapshotOutput<Player> out) throws IOException {
+            out.writeBoolean(tournament != null);
+            if (tournament != null)
+                tournament.write(out);
+
+            out.writeInt(onEventTemplates.size());
+            for (Map.Entry<Event, String> entry : onEventTemplates.entrySet()) {
+                out.writeEnum(entry.getKey());
+                out.writeString(entry.getValue());
+            }
+
+            out.writeInt(customCommands.size());
+            for (Map.Entry<String, String> entry : customCommands.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeString(entry.getValue());
+            }
+        }
+
+        public static State read(SnapshotInput<Player> in) throws IOException {
+            State state = new State();
+
+            if (in.readBoolean())
+                state.tournament = new Tournament<>(in);
+
+            int templateCount = in.readCount();
+            for (int i = 0; i < templateCount; ++i)
+                state.onEventTemplates.put(in.readEnum(Event.values()), in.readString());
+
+            int commandCount = in.readCount();
+            for (int i = 0; i < commandCount; ++i)
+                state.customCommands.put(in.readString(), in.readString());
+
+            return state;
+        }
     }
 
     public static final String PREFIX = "tournament:";
@@ -63,89 +141,215 @@ public final class Commands {
 
     private static final String RESET_TERMINAL = "-";
 
-    private static final String SERIALIZE_FILE = "manko.ser";
-    private static final String SERIALIZE_FILE_BAK = SERIALIZE_FILE + ".bak";
-
-    private static final TournamentFormat<Player> format = new DefaultFormat<>();
+    private static final String STATE_FILE = "manko.state";
+    private static final String JOURNAL_FILE = "manko.journal";
+
+    /**
+     * The state file of earlier versions, which was written with Java serialization.
+     * It cannot be read anymore, since its classes changed without a pinned serialVersionUID.
+     */
+    private static final String LEGACY_STATE_FILE = "manko.ser";
+
+    /**
+     * The number of journal records after which the full state is written again.
+     * This bounds both the size of the journal and the time it takes to replay it.
+     */
+    private static final int CHECKPOINT_INTERVAL = 256;
+
+    /**
+     * Can be configured with the system property "manko.journal.sync",
+     * e.g. -Dmanko.journal.sync=ON_CHECKPOINT to trade durability for speed.
+     */
+    private static final SyncPolicy JOURNAL_SYNC_POLICY =
+            SyncPolicy.valueOf(System.getProperty("manko.journal.sync", SyncPolicy.EVERY_RECORD.name()));
+
+    /**
+     * The number of recent operations that can be undone.
+     */
+    private static final int UNDO_CAPACITY = 64;
+
+    private static final int DEFAULT_SWISS_ROUND_COUNT = 5;
+    private static final int DEFAULT_GROUP_COUNT = 4;
+    private static final int DEFAULT_ADVANCING_COUNT = 2;
 
     private final State state;
 
+    private final MinecraftClient client;
+    private final SnapshotStore stateStore;
+    private final PersistenceService<State, RoundOperation<Player>> persistence;
+
+    /** If the state of an earlier version was found but not loaded, until the user was told. */
+    private boolean isLegacyStateIgnored;
+
+    private JournaledRoundManager<Player> journaledTournament = null;
+    private UndoableRoundManager<Player> undoableTournament = null;
+
     public Commands(MinecraftClient client) {
-        State loadedState = loadState(client);
+        this.client = client;
+        this.stateStore = new SnapshotStore(client.runDirectory.toPath(), STATE_FILE);
+
+        SnapshotStore.StoredSnapshot snapshot = stateStore.load();
+        State loadedState = snapshot != null ? readState(snapshot) : null;
+        isLegacyStateIgnored = snapshot == null && new File(client.runDirectory, LEGACY_STATE_FILE).exists();
+
         state = loadedState != null ? loadedState : new State();
+        persistence = createPersistence();
+
+        if (persistence != null)
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closePersistence));
     }
 
-    private State loadState(MinecraftClient client) {
-        File serializeFile = new File(client.runDirectory, SERIALIZE_FILE);
-        if (!serializeFile.exists())
-            return null;
+    /**
+     * Opens the journal, applies its records on top of the loaded state
+     * and hands a second copy of the state to the persistence service.
+     * @return The persistence service or null if the journal could not be opened.
+     */
+    private PersistenceService<State, RoundOperation<Player>> createPersistence() {
+        Path journalPath = new File(client.runDirectory, JOURNAL_FILE).toPath();
 
-        FileInputStream inputStream;
+        Journal<RoundOperation<Player>> journal;
+        List<RoundOperation<Player>> operations;
         try {
-            inputStream = new FileInputStream(serializeFile);
-        }
-        catch (FileNotFoundException e) {
-            System.err.printf("Could not open state file: %s.", e.getMessage());
-            return null;
-        }
-
-        Object deserializedState;
-        try {
-            ObjectInputStream in = new ObjectInputStream(inputStream);
-            deserializedState = in.readObject();
-            in.close();
+            journal = Journal.open(journalPath, new RoundOperation.Codec<>(new PlayerCodec()), JOURNAL_SYNC_POLICY);
+            operations = journal.read();
         }
         catch (IOException e) {
-            System.err.printf("Could not deserialize saved state: %s.", e.getMessage());
+            System.err.printf("Could not open journal: %s.", e.getMessage());
             return null;
         }
-        catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        }
 
-        if (!(deserializedState instanceof State))
-            throw new RuntimeException("Deserialized object has wrong class type.");
+        // The service's copy is taken before the journal is applied, since the service applies it itself.
+        State serviceState = copyState(state);
 
-        return (State) deserializedState;
-    }
+        boolean isCheckpointRequired = false;
+        ArrayList<RoundOperation<Player>> appliedOperations = new ArrayList<>();
 
-    private void saveState(CommandContext<FabricClientCommandSource> ctx) {
-        MinecraftClient client = ctx.getSource().getClient();
-        File serializeFile = new File(client.runDirectory, SERIALIZE_FILE);
-
-        if (serializeFile.exists()) {
+        // A journal of another generation belongs to an older or lost state.
+        if (journal.getGeneration() != state.generation || state.tournament == null) {
+            isCheckpointRequired = !operations.isEmpty();
+        }
+        else {
             try {
-                File serializeFileBak = new File(client.runDirectory, SERIALIZE_FILE_BAK);
-                Files.copy(serializeFile.toPath(), serializeFileBak.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            } catch (IOException e) {
-                error(ctx, format("Could not create backup of old state: %s", e.getMessage()));
+                for (RoundOperation<Player> operation : operations) {
+                    operation.apply(state.tournament);
+                    appliedOperations.add(operation);
+                }
             }
-
-            if (!serializeFile.delete()) {
-                error(ctx, "Could not delete old state before saving new state.");
-                return;
+            catch (IllegalStateException e) {
+                System.err.printf("Could not replay journal: %s.", e.getMessage());
+                isCheckpointRequired = true;
             }
         }
 
-        FileOutputStream outputStream;
+        PersistenceService<State, RoundOperation<Player>> service = new PersistenceService<>(serviceState, journal,
+                (state, operation) -> operation.apply(state.tournament), State::getVersion,
+                this::writeState, this::reportPersistenceFailure,
+                CHECKPOINT_INTERVAL, isCheckpointRequired);
+
+        service.restore(appliedOperations);
+        return service;
+    }
+
+    private void closePersistence() {
         try {
-            outputStream = new FileOutputStream(serializeFile);
+            persistence.close();
         }
-        catch (FileNotFoundException e) {
-            error(ctx, format("Failed to write state: %s", e.getMessage()));
-            return;
+        catch (IOException e) {
+            System.err.printf("Could not close journal: %s.", e.getMessage());
+        }
+    }
+
+    /**
+     * Reports a failure of the persistence service on the client thread.
+     * @param e The failure.
+     */
+    private void reportPersistenceFailure(IOException e) {
+        String message = E(format("Failed to write state: %s", e.getMessage()));
+        client.execute(() -> {
+            if (client.player != null)
+                client.player.sendMessage(new LiteralText(message), false);
+        });
+    }
+
+    private State readState(SnapshotStore.StoredSnapshot snapshot) {
+        try {
+            State state = State.read(SnapshotInput.open(snapshot.getContent(), new PlayerCodec()));
+            state.generation = snapshot.getGeneration();
+            return state;
+        }
+        catch (IOException e) {
+            System.err.printf("Could not read saved state: %s.", e.getMessage());
+            return null;
         }
+    }
 
+    private State copyState(State state) {
         try {
-            ObjectOutputStream out = new ObjectOutputStream(outputStream);
-            out.writeObject(state);
-            out.close();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SnapshotOutput<Player> out = new SnapshotOutput<>(new PlayerCodec());
+            state.write(out);
+            out.finish(bytes);
+
+            State copy = State.read(SnapshotInput.open(ByteBuffer.wrap(bytes.toByteArray()), new PlayerCodec()));
+            copy.generation = state.generation;
+            return copy;
         }
         catch (IOException e) {
-            error(ctx, format("Failed to write state: %s", e.getMessage()));
+            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Changes the state and hands the change to the persistence service.
+     * The change is carried out again on the service's copy of the state,
+     * thus it must not capture any mutable objects.
+     * @param change The change, which returns if it modified the state.
+     */
+    private void update(Predicate<State> change) {
+        Consumer<State> versionedChange = state -> {
+            if (change.test(state))
+                state.version += 1;
+        };
+
+        versionedChange.accept(state);
+        if (persistence != null)
+            persistence.update(versionedChange);
+    }
+
+    /**
+     * Returns the current tournament for modifying it.
+     * All modifications are handed to the persistence service and can be undone.
+     * A new tournament starts with an empty undo history.
+     * @return The current tournament.
+     */
+    private UndoableRoundManager<Player> tournament() {
+        if (journaledTournament == null || journaledTournament.getManager() != state.tournament) {
+            journaledTournament = new JournaledRoundManager<>(state.tournament, operation -> {
+                if (persistence != null)
+                    persistence.record(operation);
+            }, operations -> {
+                if (persistence != null)
+                    persistence.recordAll(operations);
+            });
+            undoableTournament = new UndoableRoundManager<>(journaledTournament, UNDO_CAPACITY);
+        }
+        return undoableTournament;
+    }
+
+    /**
+     * Writes a checkpoint of the state. Called by the persistence service.
+     * @param state The persistence service's copy of the state.
+     * @param generation The generation of the journal that continues on top of it.
+     * @throws IOException The state could not be written.
+     */
+    private void writeState(State state, long generation) throws IOException {
+        state.generation = generation;
+
+        SnapshotOutput<Player> out = new SnapshotOutput<>(new PlayerCodec());
+        state.write(out);
+        stateStore.store(generation, out);
+    }
+
     private enum Event {
 
         PAIR,
@@ -157,6 +361,20 @@ public final class Commands {
         }
     }
 
+    private enum FormatType {
+
+        DEFAULT,
+        DOUBLE,
+        SEEDED,
+        SWISS,
+        GROUPS;
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
     private enum InfoType {
 
         PARTICIPANTS;
@@ -179,6 +397,12 @@ public final class Commands {
 
         dispatcher.register(
                 literal(prefix, "new")
+                        .then(argument("format", EnumValuesArgumentType.enumValues(FormatType.class))
+                                .then(argument("size", IntegerArgumentType.integer(1))
+                                        .then(argument("advancing", IntegerArgumentType.integer(1))
+                                                .executes(this::cNew))
+                                        .executes(this::cNew))
+                                .executes(this::cNew))
                         .executes(this::cNew)
         );
 
@@ -200,12 +424,17 @@ public final class Commands {
         );
 
         dispatcher.register(
-                literal(prefix, "pair").executes(this::cPair)
+                literal(prefix, "pair")
+                        .then(ClientCommandManager.literal("all")
+                                .executes(this::cPairAll))
+                        .executes(this::cPair)
         );
 
         dispatcher.register(
                 literal(prefix, "win").then(
                         argument("participant", entrantArgument.paired())
+                                .then(argument("participants", StringArgumentType.greedyString())
+                                        .executes(this::cWinMany))
                                 .executes(this::cWin))
         );
 
@@ -229,6 +458,16 @@ public final class Commands {
                         .executes(this::cNext)
         );
 
+        dispatcher.register(
+                literal(prefix, "undo")
+                        .executes(this::cUndo)
+        );
+
+        dispatcher.register(
+                literal(prefix, "redo")
+                        .executes(this::cRedo)
+        );
+
         dispatcher.register(
                 literal(prefix, "info")
                         .then(argument("topic", EnumValuesArgumentType.enumValues(InfoType.class))
@@ -270,8 +509,30 @@ public final class Commands {
 //        dispatcher.register(literal(prefix, "a").redirect(add));
     }
 
-    private Tournament<Player> createTournament() {
-        return new Tournament<>(format);
+    /**
+     * Creates the format of a new tournament.
+     * The size is the largest round robin of the default format, the number of rounds of play
+     * of a Swiss tournament or the number of groups of a group stage.
+     * @throws IllegalArgumentException The size is not valid for the format.
+     */
+    private static TournamentFormat<Player> createFormat(FormatType type, Integer size, Integer advancingCount) {
+        return switch (type) {
+            case DEFAULT -> size != null ? new DefaultFormat<>(size) : new DefaultFormat<>();
+            case DOUBLE -> new DoubleEliminationFormat<>();
+            case SEEDED -> new SeededBracketFormat<>();
+            case SWISS -> new SwissFormat<>(size != null ? size : DEFAULT_SWISS_ROUND_COUNT);
+            case GROUPS -> new GroupStageFormat<>(size != null ? size : DEFAULT_GROUP_COUNT,
+                    advancingCount != null ? advancingCount : DEFAULT_ADVANCING_COUNT, GroupStage.Seeding.SNAKE);
+        };
+    }
+
+    private static <T> T getOptionalArgument(CommandContext<FabricClientCommandSource> ctx, String name, Class<T> type) {
+        try {
+            return ctx.getArgument(name, type);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     private int cNew(CommandContext<FabricClientCommandSource> ctx) {
@@ -282,8 +543,23 @@ public final class Commands {
             return -1;
         }
 
-        state.tournament = createTournament();
-        info(ctx, "Created a new tournament.");
+        FormatType type = getOptionalArgument(ctx, "format", FormatType.class);
+        TournamentFormat<Player> tournamentFormat;
+        try {
+            tournamentFormat = createFormat(type != null ? type : FormatType.DEFAULT,
+                    getOptionalArgument(ctx, "size", Integer.class),
+                    getOptionalArgument(ctx, "advancing", Integer.class));
+        }
+        catch (IllegalArgumentException e) {
+            error(ctx, format("Invalid format: %s.", e.getMessage()));
+            return -2;
+        }
+
+        update(state -> {
+            state.tournament = new Tournament<>(tournamentFormat);
+            return true;
+        });
+        info(ctx, format("Created a new tournament: %s", describeRound(state.tournament.getCurrentRound())));
 
         return 0;
     }
@@ -293,7 +569,10 @@ public final class Commands {
             return -1;
 
         if (isConfirmed(Confirmation.STOP, ctx)) {
-            state.tournament = null;
+            update(state -> {
+                state.tournament = null;
+                return true;
+            });
             info(ctx, "The tournament has been stopped and deleted.");
             return 0;
         }
@@ -317,7 +596,7 @@ public final class Commands {
 
         boolean isAdded;
         try {
-            isAdded = state.tournament.addEntrant(player);
+            isAdded = tournament().addEntrant(player);
         }
         catch (NewEntrantsNotAllowedException e) {
             error(ctx, "Cannot add new players to this round.");
@@ -368,7 +647,7 @@ public final class Commands {
             return -2;
         }
 
-        if (state.tournament.removeEntrant(player))
+        if (tournament().removeEntrant(player))
             info(ctx, format("Removed %s from the tournament.", h(player.getName())));
         else
             warn(ctx, format("%s does not participate in the tournament.", h(player.getName())));
@@ -377,14 +656,22 @@ public final class Commands {
     }
 
     private int cPair(CommandContext<FabricClientCommandSource> ctx) {
+        return pair(ctx, false);
+    }
+
+    private int cPairAll(CommandContext<FabricClientCommandSource> ctx) {
+        return pair(ctx, true);
+    }
+
+    private int pair(CommandContext<FabricClientCommandSource> ctx, boolean isPairingAll) {
         withoutConfirmation();
 
         if (!checkRunningTournament(ctx))
             return -1;
 
-        Pairing<Player> pairing;
+        List<Pairing<Player>> pairings;
         try {
-            pairing = state.tournament.nextPairing();
+            pairings = isPairingAll ? tournament().pairAll() : List.of(tournament().nextPairing());
         }
         catch (NoEntrantsException e) {
             error(ctx, "There are no participants left for another pairing.");
@@ -425,6 +712,15 @@ public final class Commands {
             return -7;
         }
 
+        if (pairings.size() > 1) {
+            // No chat message for each pairing, that many messages would be rejected as spam.
+            attention(ctx, format("%s new pairings:", h(Integer.toString(pairings.size()))));
+            for (Pairing<Player> pairing : pairings)
+                info(ctx, format("%s vs. %s", hu(pairing.getFirst().getName()), hu(pairing.getSecond().getName())));
+            return 0;
+        }
+
+        Pairing<Player> pairing = pairings.get(0);
         String firstName = pairing.getFirst().getName();
         String secondName = pairing.getSecond().getName();
 
@@ -439,6 +735,74 @@ public final class Commands {
         return 0;
     }
 
+    /**
+     * Declares the winners of multiple pairings, either all of them or none.
+     */
+    private int cWinMany(CommandContext<FabricClientCommandSource> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        List<Player> players = new ArrayList<>();
+        players.add(EntrantArgumentType.getPlayer("participant", ctx));
+        for (String name : StringArgumentType.getString(ctx, "participants").trim().split("\\s+"))
+            players.add(new Player(name));
+
+        List<Result<Player>> results = players.stream().map(Result::win).collect(Collectors.toList());
+
+        List<Pairing<Player>> pairings;
+        try {
+            pairings = tournament().declareResults(results);
+        }
+        catch (NoSuchEntrantException | MissingPairingException | NoSuchPairingException e) {
+            return invalidResultError(ctx, players, results);
+        }
+
+        for (int i = 0; i < players.size(); ++i) {
+            Player player = players.get(i);
+            Player opponent = pairings.get(i).getOther(player);
+            info(ctx, format("%s has won their pairing against %s", hu(player.getName()), hu(opponent.getName())));
+
+            if (state.onEventTemplates.containsKey(Event.WIN)) {
+                String chatMessage = state.onEventTemplates.get(Event.WIN);
+                ctx.getSource().getPlayer().sendChatMessage(chatMessage);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Reports the first result that could not be declared, since a failed batch does not tell which one it was.
+     * The results are resolved again, one more at a time, until they fail.
+     */
+    private int invalidResultError(CommandContext<FabricClientCommandSource> ctx,
+                                   List<Player> players, List<Result<Player>> results) {
+
+        Round<Player> round = state.tournament.getCurrentRound();
+        for (int i = 0; i < results.size(); ++i) {
+            String name = h(players.get(i).getName());
+            try {
+                round.resolvePairings(results.subList(0, i + 1));
+            }
+            catch (NoSuchEntrantException e) {
+                error(ctx, format("%s does not participate in the tournament.", name));
+                return -2;
+            }
+            catch (MissingPairingException e) {
+                error(ctx, format("%s is not in a pairing.", name));
+                return -3;
+            }
+            catch (NoSuchPairingException e) {
+                error(ctx, format("The pairing of %s already has a winner.", name));
+                return -4;
+            }
+        }
+
+        return uncheckedError(ctx, -5);
+    }
+
     private int cWin(CommandContext<FabricClientCommandSource> ctx) {
         withoutConfirmation();
 
@@ -449,7 +813,7 @@ public final class Commands {
 
         Pairing<Player> pairing;
         try {
-            pairing = state.tournament.declareWinner(player);
+            pairing = tournament().declareWinner(player);
         }
         catch (NoSuchEntrantException e) {
             error(ctx, format("%s does not participate in the tournament.", h(player.getName())));
@@ -485,7 +849,7 @@ public final class Commands {
 
         boolean wasRunning;
         try {
-            wasRunning = !state.tournament.replayPairing(pairing);
+            wasRunning = !tournament().replayPairing(pairing);
         }
         catch (MissingEntrantException e) {
             boolean hasPlayer = currentRound.hasEntrant(player);
@@ -630,7 +994,7 @@ public final class Commands {
 
         boolean wasReset;
         try {
-            wasReset = state.tournament.resetEntrant(player);
+            wasReset = tournament().resetEntrant(player);
         }
         catch (UnsupportedOperationException e) {
             error(ctx, "Cannot reset a participant in the current type of round.");
@@ -650,6 +1014,89 @@ public final class Commands {
         return 0;
     }
 
+    private int cUndo(CommandContext<FabricClientCommandSource> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        if (!tournament().canUndo()) {
+            error(ctx, "There is nothing to undo." + describeClearedHistory(tournament().getClearingOperation()));
+            return -2;
+        }
+
+        List<RoundOperation<Player>> operations;
+        try {
+            operations = tournament().undo();
+        }
+        catch (IllegalStateException e) {
+            error(ctx, "The operation could not be undone. The undo history was cleared.");
+            return -3;
+        }
+
+        info(ctx, format("Undone: %s.", describe(operations)));
+        return 0;
+    }
+
+    private int cRedo(CommandContext<FabricClientCommandSource> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        if (!tournament().canRedo()) {
+            error(ctx, "There is nothing to redo.");
+            return -2;
+        }
+
+        List<RoundOperation<Player>> operations;
+        try {
+            operations = tournament().redo();
+        }
+        catch (IllegalStateException e) {
+            error(ctx, "The operation could not be redone. The undo history was cleared.");
+            return -3;
+        }
+
+        info(ctx, format("Redone: %s.", describe(operations)));
+        return 0;
+    }
+
+    /**
+     * @param clearingOperation The type of the operation that cleared the undo history.
+     * @return Why nothing before the operation can be undone or an empty string if the reason is unknown.
+     */
+    private static String describeClearedHistory(RoundOperation.Type clearingOperation) {
+        if (clearingOperation == null)
+            return "";
+
+        String operation = switch (clearingOperation) {
+            case PAIR -> "Starting a pairing";
+            case REPLAY -> "Replaying a pairing";
+            case RESET -> "Resetting a player";
+            case REMOVE -> "Removing a paired player or a player from a drawn bracket";
+            default -> "The last operation";
+        };
+        return format(" %s can't be undone and cleared the undo history.", operation);
+    }
+
+    private String describe(List<RoundOperation<Player>> operations) {
+        return operations.stream().map(this::describe).collect(Collectors.joining(", "));
+    }
+
+    private String describe(RoundOperation<Player> operation) {
+        List<Player> players = operation.getEntrants();
+        return switch (operation.getType()) {
+            case ADD -> format("adding %s", h(players.get(0).getName()));
+            case REMOVE -> format("removing %s", h(players.get(0).getName()));
+            case WIN -> format("%s winning against %s", h(players.get(0).getName()), h(players.get(1).getName()));
+            case TIE -> format("the tie of %s and %s", h(players.get(0).getName()), h(players.get(1).getName()));
+            case NEXT_ROUND -> "continuing to the next round";
+            case PREVIOUS_ROUND -> "going back to the previous round";
+            default -> operation.getType().toString().toLowerCase();
+        };
+    }
+
     private int cNext(CommandContext<FabricClientCommandSource> ctx) {
         withoutConfirmation();
 
@@ -657,7 +1104,7 @@ public final class Commands {
             return -1;
 
         try {
-            state.tournament.nextRound();
+            tournament().nextRound();
         }
         catch (RoundNotFinishedException e) {
             error(ctx, "The current round is not finished.");
@@ -669,19 +1116,7 @@ public final class Commands {
         }
 
         Round<Player> currentRound = state.tournament.getCurrentRound();
-        Class<?> klass = currentRound.getClass();
-        String type = "";
-
-        if (klass == DynamicElimination.class)
-            type = "Elimination";
-        else if (klass == SemiFinal.class)
-            type = "Semi-Finals";
-        else if (klass == Final.class)
-            type = "Finals";
-        else if (klass == RoundRobinFinal.class)
-            type = "Finals (Round Robin)";
-
-        attention(ctx, format("Continued to the next round: %s", type));
+        attention(ctx, format("Continued to the next round: %s", describeRound(currentRound)));
 
         Stream<String> playerNameStream = currentRound.getEntrants().stream().map(p -> h(p.getName()));
         String playerNames = playerNameStream.collect(Collectors.joining(", "));
@@ -690,6 +1125,30 @@ public final class Commands {
         return 0;
     }
 
+    private static String describeRound(Round<Player> round) {
+        Class<?> klass = round.getClass();
+
+        if (klass == DynamicElimination.class)
+            return "Elimination";
+        if (klass == SemiFinal.class)
+            return "Semi-Finals";
+        if (klass == Final.class)
+            return "Finals";
+        if (klass == RoundRobinFinal.class)
+            return "Finals (Round Robin)";
+        if (klass == RoundRobin.class)
+            return "Round Robin";
+        if (klass == SwissRound.class)
+            return format("Swiss (%d rounds)", ((SwissRound<Player>) round).getRoundCount());
+        if (klass == DoubleElimination.class)
+            return "Double Elimination";
+        if (klass == SeededBracket.class)
+            return "Seeded Bracket";
+        if (klass == GroupStage.class)
+            return "Group Stage";
+        return "";
+    }
+
     private int cInfo(CommandContext<FabricClientCommandSource> ctx) {
         return cInfoWithTopic(ctx, EnumValuesArgumentType.getEnum("topic", InfoType.class, ctx));
     }
@@ -699,10 +1158,10 @@ public final class Commands {
     }
 
     private String colorForPlacement(Placement placement) {
-        return switch (placement) {
-            case FIRST -> "§a";
-            case SECOND -> "§e";
-            case THIRD -> "§c";
+        return switch (placement.getValue()) {
+            case 1 -> "§a";
+            case 2 -> "§e";
+            case 3 -> "§c";
             default -> "";
         };
     }
@@ -746,6 +1205,26 @@ public final class Commands {
                 String participants = String.join(", ", playerInfos);
                 info(ctx, format("Participants: %s", color(participants, "§7")));
             }
+            else if (currentRound instanceof RoundRobin<Player> round) {
+                infoScores(ctx, round, round::getScore);
+            }
+            else if (currentRound instanceof SwissRound<Player> round) {
+                int roundOfPlay = Math.min(round.getCurrentRound() + 1, round.getRoundCount());
+                info(ctx, format("Round %s of %s", color(String.valueOf(roundOfPlay), "§f"),
+                        color(String.valueOf(round.getRoundCount()), "§f")));
+                infoScores(ctx, round, round::getScore);
+            }
+            else if (currentRound instanceof DoubleElimination<Player> round) {
+                if (round.isBracketReset())
+                    info(ctx, "The grand final is played again.");
+                infoBracket(ctx, round, player -> round.isInLosersBracket(player) ? "(L)" : "");
+            }
+            else if (currentRound instanceof SeededBracket<Player> round) {
+                infoBracket(ctx, round, player -> round.getSeed(player) > 0 ? "#" + round.getSeed(player) : "");
+            }
+            else if (currentRound instanceof GroupStage<Player> round) {
+                infoGroups(ctx, round);
+            }
             else if (currentRound instanceof EliminationRound) {
 
                 Stream.Builder<String> pendingEntrants = Stream.builder();
@@ -787,6 +1266,117 @@ public final class Commands {
         return 0;
     }
 
+    /**
+     * Lists the entrants of a bracket. Entrants that are still in the bracket come first,
+     * followed by the placed entrants from the best placement down and the eliminated entrants.
+     * The note of an entrant is shown behind its name, unless it is empty.
+     */
+    private void infoBracket(CommandContext<FabricClientCommandSource> ctx, RankingRound<Player> round,
+                             Function<Player, String> noteOf) {
+
+        Stream.Builder<String> pendingEntrants = Stream.builder();
+        Stream.Builder<String> pairedEntrants = Stream.builder();
+        Stream.Builder<String> lostEntrants = Stream.builder();
+        ArrayList<Player> placedPlayers = new ArrayList<>();
+
+        int nPending = 0;
+
+        for (Player player : round.getEntrants()) {
+            String note = noteOf.apply(player);
+            String playerName = note.isEmpty() ? player.getName() : format("%s %s", player.getName(), note);
+            if (round.getPlacement(player).isRanked())
+                placedPlayers.add(player);
+            else if (round.hasLost(player))
+                lostEntrants.add(color(playerName, "§c", "§m"));
+            else if (round.isEntrantPaired(player))
+                pairedEntrants.add(color(playerName, "§e"));
+            else {
+                pendingEntrants.add(color(playerName, "§f"));
+                nPending += 1;
+            }
+        }
+
+        placedPlayers.sort(Comparator.comparingInt(player -> round.getPlacement(player).getValue()));
+        Stream<String> placedEntrants = placedPlayers.stream().map(player -> {
+            Placement placement = round.getPlacement(player);
+            String placementInfo = color(placement.toString(), colorForPlacement(placement));
+            return format("%s (%s)", color(player.getName(), "§f"), placementInfo);
+        });
+
+        Stream<String> active = Stream.concat(pendingEntrants.build(), pairedEntrants.build());
+        Stream<String> inactive = Stream.concat(placedEntrants, lostEntrants.build());
+        Stream<String> entrants = Stream.concat(active, inactive);
+
+        String amountPending = color(String.valueOf(nPending), "§f");
+        String amountPlaced = color(String.valueOf(placedPlayers.size()), "§a");
+        String countInfo = color(format("(%s, %s):", amountPending, amountPlaced), "§7");
+
+        String participants = String.join(", ", entrants.collect(Collectors.toList()));
+        info(ctx, format("Participants %s %s", countInfo, participants));
+    }
+
+    /**
+     * Lists the standings of every group, one line per group.
+     * Entrants that would advance with their current rank are highlighted.
+     * Before the groups are drawn, only the entrants are listed.
+     */
+    private void infoGroups(CommandContext<FabricClientCommandSource> ctx, GroupStage<Player> round) {
+        if (!round.isStarted()) {
+            String participants = round.getEntrants().stream().map(Player::getName).collect(Collectors.joining(", "));
+            info(ctx, format("Participants: %s", color(participants, "§7")));
+            return;
+        }
+
+        List<List<Player>> groupStandings = round.getGroupStandings();
+        for (int group = 0; group < groupStandings.size(); ++group) {
+            List<Player> standings = groupStandings.get(group);
+            ArrayList<String> playerInfos = new ArrayList<>(standings.size());
+
+            for (int rank = 0; rank < standings.size(); ++rank) {
+                Player player = standings.get(rank);
+                String playerName;
+                if (round.isEntrantPaired(player))
+                    playerName = color(player.getName(), "§e");
+                else if (rank < round.getAdvancingCount())
+                    playerName = color(player.getName(), "§a");
+                else
+                    playerName = color(player.getName(), "§f");
+
+                String score = color(String.valueOf(round.getScore(player)), "§f");
+                playerInfos.add(format("%s (%s)", playerName, score));
+            }
+
+            String participants = String.join(", ", playerInfos);
+            info(ctx, format("Group %d: %s", group + 1, color(participants, "§7")));
+        }
+    }
+
+    /**
+     * Lists the entrants of a round in which they score, by descending score.
+     * Entrants are shown with their placement once they have one, otherwise with their score.
+     */
+    private void infoScores(CommandContext<FabricClientCommandSource> ctx, RankingRound<Player> round,
+                            ToIntFunction<Player> scoreOf) {
+
+        ArrayList<Player> players = new ArrayList<>(round.getEntrants());
+        players.sort(Comparator.comparingInt((Player player) -> -scoreOf.applyAsInt(player)));
+
+        ArrayList<String> playerInfos = new ArrayList<>(players.size());
+        for (Player player : players) {
+            String playerName = round.isEntrantPaired(player)
+                    ? color(player.getName(), "§e") : color(player.getName(), "§f");
+
+            Placement placement = round.getPlacement(player);
+            String playerInfo = placement.isRanked()
+                    ? color(placement.toString(), colorForPlacement(placement))
+                    : color(String.valueOf(scoreOf.applyAsInt(player)), "§f");
+            playerInfos.add(format("%s (%s)", playerName, playerInfo));
+        }
+
+        String participants = String.join(", ", playerInfos);
+        info(ctx, format("Participants: %s", color(participants, "§7")));
+    }
+
     private int cCommand(CommandContext<FabricClientCommandSource> ctx) {
         withoutConfirmation();
 
@@ -799,13 +1389,13 @@ public final class Commands {
                 return 0;
             }
 
-            state.customCommands.remove(name);
+            update(state -> state.customCommands.remove(name) != null);
             info(ctx, format("Removed command \"%s\".", name));
             return 0;
         }
 
         boolean hadKey = state.customCommands.containsKey(name);
-        state.customCommands.put(name, template);
+        update(state -> !template.equals(state.customCommands.put(name, template)));
 
         String operation = hadKey ? "Overwritten" : "Created";
         info(ctx, format("%s \"%s\" = %s", operation, name, template));
@@ -863,7 +1453,7 @@ public final class Commands {
         String template = StringArgumentType.getString(ctx, "template");
 
         if (template.equals(RESET_TERMINAL)) {
-            state.onEventTemplates.remove(event);
+            update(state -> state.onEventTemplates.remove(event) != null);
             info(ctx, format("Removed @%s.", event.toString()));
             return 0;
         }
@@ -877,10 +1467,10 @@ public final class Commands {
                 return -1;
             }
 
-            state.onEventTemplates.put(event, template);
+            update(state -> !template.equals(state.onEventTemplates.put(event, template)));
         }
         else if (event == Event.WIN) {
-            state.onEventTemplates.put(event, template);
+            update(state -> !template.equals(state.onEventTemplates.put(event, template)));
         }
 
         info(ctx, format("@%s: %s", event.toString(), h(template)));
@@ -970,6 +1560,8 @@ public final class Commands {
 
     private boolean checkRunningTournament(CommandContext<FabricClientCommandSource> context, boolean printError) {
         if (state.tournament == null) {
+            reportIgnoredLegacyState(context);
+
             // TODO: Use TranslatableText here and in other places.
             //  See https://fabricmc.net/wiki/tutorial:lang
             if (printError)
@@ -977,8 +1569,6 @@ public final class Commands {
             return false;
         }
 
-        // Save the state before modifying the tournament.
-        saveState(context);
         return true;
     }
 
@@ -986,6 +1576,18 @@ public final class Commands {
         return checkRunningTournament(context, true);
     }
 
+    /**
+     * Tells the user once that the state of an earlier version was not loaded.
+     */
+    private void reportIgnoredLegacyState(CommandContext<FabricClientCommandSource> context) {
+        if (!isLegacyStateIgnored)
+            return;
+
+        isLegacyStateIgnored = false;
+        attention(context, format("The tournament saved by an earlier version in %s could not be loaded. "
+                + "The file was left untouched.", LEGACY_STATE_FILE));
+    }
+
     private void attention(CommandContext<FabricClientCommandSource> context, String message) {
         context.getSource().sendFeedback(new LiteralText(A(message)));
     }
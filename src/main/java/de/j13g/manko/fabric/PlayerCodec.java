@@ -0,0 +1,19 @@
+package de.j13g.manko.fabric;
+
+import de.j13g.manko.core.persistence.EntrantCodec;
+
+/**
+ * Encodes players by their name.
+ */
+public class PlayerCodec implements EntrantCodec<Player> {
+
+    @Override
+    public String encode(Player player) {
+        return player.getName();
+    }
+
+    @Override
+    public Player decode(String name) {
+        return new Player(name);
+    }
+}
@@ -0,0 +1,121 @@
+package de.j13g.manko.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Counts occurrences of non-negative int values in a Fenwick tree.
+ * Adding and removing a value, counting the values above a value
+ * and finding the value at a position in descending order take logarithmic time
+ * in the magnitude of the largest value. The tree grows with the largest value.
+ */
+public class IntCountTree implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // tree[i] holds the counts of the values in (i - lowestOneBit(i), i], offset by one.
+    private int[] tree = new int[2];
+    private int size = 0;
+
+    public void add(int value) {
+        update(value, 1);
+        size += 1;
+    }
+
+    /**
+     * Removes one occurrence of a value, which must have been added before.
+     * @param value The value.
+     */
+    public void remove(int value) {
+        update(value, -1);
+        size -= 1;
+    }
+
+    public void clear() {
+        tree = new int[2];
+        size = 0;
+    }
+
+    /**
+     * @param value The value.
+     * @return The number of values that are greater than the value.
+     */
+    public int countAbove(int value) {
+        return size - countAtMost(value);
+    }
+
+    /**
+     * Finds the value at a position, when all values are sorted in descending order.
+     * @param position The position, starting at 1.
+     * @return The value at that position.
+     * @throws IndexOutOfBoundsException There is no value at that position.
+     */
+    public int valueAt(int position) {
+        if (position < 1 || position > size)
+            throw new IndexOutOfBoundsException(position);
+
+        // Find the largest index whose prefix holds at most the values below the position.
+        int remaining = size - position;
+        int index = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+
+        // The index is one below the index of the value, which is offset by one.
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int countAtMost(int value) {
+        int count = 0;
+        for (int i = Math.min(value + 1, tree.length - 1); i > 0; i -= i & -i)
+            count += tree[i];
+        return count;
+    }
+
+    private void update(int value, int delta) {
+        if (value < 0)
+            throw new IllegalArgumentException("Negative value " + value);
+
+        if (value + 1 >= tree.length)
+            grow(value + 1);
+
+        for (int i = value + 1; i < tree.length; i += i & -i)
+            tree[i] += delta;
+    }
+
+    /**
+     * Grows the tree, so that it can hold an index, by rebuilding it from the counts of all values.
+     * @param index The index.
+     */
+    private void grow(int index) {
+        int length = tree.length;
+        while (length <= index)
+            length *= 2;
+
+        // Recover the count of every value, then build the larger tree in linear time.
+        int[] counts = new int[length];
+        for (int i = 1; i < tree.length; ++i)
+            counts[i] = countAtMost(i - 1) - countAtMost(i - 2);
+
+        int[] newTree = Arrays.copyOf(counts, length);
+        for (int i = 1; i < length; ++i) {
+            int parent = i + (i & -i);
+            if (parent < length)
+                newTree[parent] += newTree[i];
+        }
+
+        tree = newTree;
+    }
+}
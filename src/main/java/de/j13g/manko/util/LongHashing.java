@@ -0,0 +1,44 @@
+package de.j13g.manko.util;
+
+/**
+ * Probing arithmetic shared by the long keyed hash tables.
+ * Tables have a power of two capacity and use linear probing.
+ */
+final class LongHashing {
+
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private LongHashing() {}
+
+    /**
+     * Spreads a key over the table, so that keys that only differ in their high bits,
+     * like packed pairs of ids, don't end up in the same slot.
+     * @param key The key.
+     * @param mask The capacity of the table minus one.
+     * @return The slot where probing for the key starts.
+     */
+    static int slot(long key, int mask) {
+        long hash = key * PHI;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+
+    /**
+     * Tables are kept at most two thirds full, so that probe sequences stay short.
+     */
+    static boolean isOverloaded(int size, int capacity) {
+        return 3 * size > 2 * capacity;
+    }
+
+    /**
+     * Checks if a key can be moved back into a gap that removing another key left behind.
+     * It can be moved, unless its home slot lies cyclically after the gap.
+     * @param home The slot where probing for the key starts.
+     * @param gap The empty slot.
+     * @param slot The slot of the key.
+     * @param mask The capacity of the table minus one.
+     * @return If the key can be moved into the gap.
+     */
+    static boolean canShift(int home, int gap, int slot, int mask) {
+        return ((slot - home) & mask) >= ((slot - gap) & mask);
+    }
+}
@@ -0,0 +1,187 @@
+package de.j13g.manko.util;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A map from primitive longs to primitive ints, stored in two parallel arrays
+ * with open addressing and linear probing.
+ */
+public class LongIntHashMap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The key 0 marks empty slots, thus its value is stored separately.
+    private long[] keys;
+    private int[] values;
+    private boolean hasZeroKey = false;
+    private int zeroKeyValue = 0;
+    private int size = 0;
+
+    public LongIntHashMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Associates a value with a key, replacing its previous value.
+     * @param key The key.
+     * @param value The value.
+     * @return If the key was not in the map before.
+     */
+    public boolean put(long key, int value) {
+        if (key == 0) {
+            zeroKeyValue = value;
+            if (hasZeroKey)
+                return false;
+            hasZeroKey = true;
+            size += 1;
+            return true;
+        }
+
+        int mask = keys.length - 1;
+        int slot = LongHashing.slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+
+        if (LongHashing.isOverloaded(size, keys.length))
+            rehash(2 * keys.length);
+
+        return true;
+    }
+
+    /**
+     * @param key The key.
+     * @param defaultValue The value to return if the key is not in the map.
+     * @return The value of the key or the default value.
+     */
+    public int get(long key, int defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroKeyValue : defaultValue;
+
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return false;
+            hasZeroKey = false;
+            size -= 1;
+            return true;
+        }
+
+        int slot = find(key);
+        if (slot < 0)
+            return false;
+
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (LongHashing.canShift(LongHashing.slot(keys[i], mask), gap, i, mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+
+        keys[gap] = 0;
+        size -= 1;
+        return true;
+    }
+
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return An iterator over the keys, in no particular order.
+     */
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new PrimitiveIterator.OfLong() {
+
+            private boolean isZeroKeyNext = hasZeroKey;
+            private int next = skipEmpty(0);
+
+            @Override
+            public boolean hasNext() {
+                return isZeroKeyNext || next < keys.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (isZeroKeyNext) {
+                    isZeroKeyNext = false;
+                    return 0;
+                }
+                if (next >= keys.length)
+                    throw new NoSuchElementException();
+
+                long key = keys[next];
+                next = skipEmpty(next + 1);
+                return key;
+            }
+        };
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = LongHashing.slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask)
+            if (keys[slot] == key)
+                return slot;
+        return -1;
+    }
+
+    private int skipEmpty(int slot) {
+        while (slot < keys.length && keys[slot] == 0)
+            slot += 1;
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] == 0)
+                continue;
+
+            int slot = LongHashing.slot(oldKeys[i], mask);
+            while (keys[slot] != 0)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
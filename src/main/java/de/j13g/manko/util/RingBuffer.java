@@ -0,0 +1,89 @@
+package de.j13g.manko.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A stack with a fixed capacity. Once it is full, pushing an element drops the oldest element.
+ * All operations take constant time.
+ * @param <E> The element type.
+ */
+public class RingBuffer<E> {
+
+    private final Object[] elements;
+
+    // The index of the oldest element.
+    private int start = 0;
+    private int size = 0;
+
+    public RingBuffer(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity has to be positive");
+        elements = new Object[capacity];
+    }
+
+    /**
+     * Pushes an element on top of the stack.
+     * @param element The element.
+     * @return If the oldest element was dropped to make room.
+     */
+    public boolean push(E element) {
+        int end = (start + size) % elements.length;
+        elements[end] = element;
+
+        if (size < elements.length) {
+            size += 1;
+            return false;
+        }
+
+        start = (start + 1) % elements.length;
+        return true;
+    }
+
+    /**
+     * Removes the element on top of the stack.
+     * @return The newest element.
+     * @throws NoSuchElementException The stack is empty.
+     */
+    public E pop() {
+        E element = peek();
+
+        elements[(start + size - 1) % elements.length] = null;
+        size -= 1;
+        return element;
+    }
+
+    /**
+     * @return The newest element.
+     * @throws NoSuchElementException The stack is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+
+        return (E) elements[(start + size - 1) % elements.length];
+    }
+
+    /**
+     * Removes all elements. Takes time proportional to the number of elements.
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i)
+            elements[(start + i) % elements.length] = null;
+
+        start = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return elements.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -7,85 +7,151 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
-public class ShuffledSet<E> extends BaseSet<E> implements Serializable {
+/**
+ * A set that supports removing a random element.
+ * Adding, removing and removing a random element take constant time
+ * and no space is kept for elements that were removed.
+ * @param <E> The element type.
+ */
+public class ShuffledSet<E> implements Serializable {
 
     /**
-     * Keeps track if an element that was previously added
-     * to the elementList is not part of the set anymore.
+     * Holds every element exactly once, in no particular order.
+     * Removed elements are replaced by the last element of the list.
      */
-    private final HashSet<E> removedElements = new HashSet<>();
+    private final ArrayList<E> elementList = new ArrayList<>();
 
     /**
-     * Elements are added to this set for the sake of random access.
-     * When an element is removed it is not removed immediately for performance reasons.
-     * Before using an element from this list, check if it's not in removedElements.
+     * The index of every element in the elementList.
      */
-    private final ArrayList<E> elementList = new ArrayList<>();
+    private final HashMap<E, Integer> indices = new HashMap<>();
 
     private transient Random random;
 
     public ShuffledSet() {
-        super(new HashSet<>());
         initTransient();
     }
 
     public ShuffledSet(Set<E> elements) {
         this();
-        this.elements.addAll(elements);
-        elementList.addAll(elements);
+        elements.forEach(this::add);
     }
 
-    @Override
     public boolean add(E element) {
         if (contains(element))
             return false;
 
-        if (!removedElements.contains(element))
-            elementList.add(element);
-
-        removedElements.remove(element);
-        return super.add(element);
+        indices.put(element, elementList.size());
+        elementList.add(element);
+        return true;
     }
 
-    @Override
     public boolean remove(E element) {
-        if (!contains(element))
+        Integer index = indices.remove(element);
+        if (index == null)
             return false;
 
-        super.remove(element);
-        removedElements.add(element);
+        removeAt(index);
         return true;
     }
 
     public E removeRandom() throws EmptySetException {
+        if (elementList.isEmpty())
+            throw new EmptySetException();
 
-        while (!elementList.isEmpty()) {
-            E popped = popRandomListElement();
-            if (!removedElements.contains(popped)) {
-                super.remove(popped);
-                return popped;
-            }
-        }
+        E element = elementList.get(random.nextInt(elementList.size()));
+        remove(element);
+        return element;
+    }
 
-        throw new EmptySetException();
+    /**
+     * Removes multiple random elements at once.
+     * Draws them with a partial Fisher-Yates shuffle in a single pass over the drawn elements.
+     * @param count The number of elements to remove.
+     * @return The removed elements in random order.
+     * @throws IllegalArgumentException The set has less elements than requested.
+     */
+    public List<E> removeRandom(int count) {
+        int size = elementList.size();
+        if (count < 0 || count > size)
+            throw new IllegalArgumentException("Cannot remove " + count + " of " + size + " elements");
+
+        // Move the drawn elements to the end of the list.
+        for (int i = size - 1; i >= size - count; --i)
+            swap(random.nextInt(i + 1), i);
+
+        List<E> tail = elementList.subList(size - count, size);
+        ArrayList<E> drawn = new ArrayList<>(tail);
+        tail.clear();
+
+        for (E element : drawn)
+            indices.remove(element);
+
+        return drawn;
     }
 
-    @Override
     public void clear() {
-        super.clear();
         elementList.clear();
-        removedElements.clear();
+        indices.clear();
+    }
+
+    /**
+     * Returns a view of the elements.
+     * @see Collections#unmodifiableSet(Set)
+     * @return The elements.
+     */
+    public Set<E> elements() {
+        return Collections.unmodifiableSet(indices.keySet());
     }
 
-    private E popRandomListElement() {
-        int index = random.nextInt(elementList.size());
+    public int size() {
+        return elementList.size();
+    }
+
+    public boolean contains(E element) {
+        return indices.containsKey(element);
+    }
+
+    public boolean isEmpty() {
+        return elementList.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ShuffledSet<?>))
+            return false;
+
+        ShuffledSet<?> other = (ShuffledSet<?>)o;
+        return indices.keySet().equals(other.indices.keySet());
+    }
+
+    @Override
+    public int hashCode() {
+        return indices.keySet().hashCode();
+    }
+
+    /**
+     * Removes an element from the list by moving the last element in its place.
+     * @param index The index of the element.
+     */
+    private void removeAt(int index) {
         int lastIndex = elementList.size() - 1;
+        E last = elementList.remove(lastIndex);
 
-        E declared = elementList.get(index);
-        elementList.set(index, elementList.get(lastIndex));
-        elementList.remove(lastIndex);
+        if (index != lastIndex) {
+            elementList.set(index, last);
+            indices.put(last, index);
+        }
+    }
 
-        return declared;
+    private void swap(int i, int j) {
+        E element = elementList.get(i);
+        E other = elementList.get(j);
+        elementList.set(i, other);
+        elementList.set(j, element);
+        indices.put(other, i);
+        indices.put(element, j);
     }
 
     private void initTransient() {
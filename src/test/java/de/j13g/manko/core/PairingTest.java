@@ -0,0 +1,54 @@
+package de.j13g.manko.core;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import org.junit.jupiter.api.Test;
+
+import static de.j13g.manko.Helper.serializeDeserialize;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairingTest extends RoundTest {
+
+    @Test
+    void reversedPairing_equals_isEqualWithSameHash() {
+        Pairing<TestEntrant> pairing = new Pairing<>(first, second);
+        Pairing<TestEntrant> reversed = new Pairing<>(second, first);
+
+        assertEquals(pairing, reversed);
+        assertEquals(pairing.hashCode(), reversed.hashCode());
+        assertEquals(second, reversed.getFirst());
+        assertNotEquals(pairing, new Pairing<>(first, third));
+    }
+
+    @Test
+    void entrantsWithEqualHashCodes_equals_isEqualInEitherOrder() {
+        // "Aa" and "BB" have the same hash code.
+        assertEquals(new Pairing<>("Aa", "BB"), new Pairing<>("BB", "Aa"));
+        assertNotEquals(new Pairing<>("Aa", "BB"), new Pairing<>("BB", "BB"));
+    }
+
+    @Test
+    void reversedPairing_key_isEqual() {
+        EntrantRegistry<TestEntrant> registry = new EntrantRegistry<>();
+        registry.register(first);
+        registry.register(second);
+        registry.register(third);
+
+        long key = new Pairing<>(first, second).key(registry);
+
+        assertEquals(key, new Pairing<>(second, first).key(registry));
+        assertEquals(Pairing.key(0, 1), key);
+        assertNotEquals(key, new Pairing<>(first, third).key(registry));
+        assertEquals(Pairing.NO_KEY, new Pairing<>(first, fourth).key(registry));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pairing_serializeDeserialize_isEqual() throws Exception {
+        Pairing<TestEntrant> pairing = new Pairing<>(first, second);
+        Pairing<TestEntrant> copy = serializeDeserialize(pairing, Pairing.class);
+
+        assertEquals(new Pairing<>(second, first), copy);
+        assertEquals(pairing.hashCode(), copy.hashCode());
+    }
+}
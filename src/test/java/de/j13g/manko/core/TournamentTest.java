@@ -0,0 +1,123 @@
+package de.j13g.manko.core;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.AlreadyStartedException;
+import de.j13g.manko.core.exceptions.InitialRoundException;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.SemiFinal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest extends RoundTest {
+
+    /**
+     * Creates a tournament with eight entrants, that is in its final round.
+     */
+    private Tournament<TestEntrant> createFinalTournament() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+        for (int i = 0; i < 8; ++i)
+            tournament.addEntrant(createEntrant());
+
+        for (int round = 0; round < 2; ++round) {
+            while (!tournament.getCurrentRound().isFinished())
+                tournament.declareWinner(tournament.nextPairing().getFirst());
+            tournament.nextRound();
+        }
+
+        return tournament;
+    }
+
+    @Test
+    void initialRound_previousRound_throwsInitialRoundException() {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+
+        assertEquals(1, tournament.getRoundCount());
+        assertThrows(InitialRoundException.class, tournament::previousRound);
+    }
+
+    @Test
+    void finalRound_getRound_allRoundsKept() throws Exception {
+        Tournament<TestEntrant> tournament = createFinalTournament();
+
+        assertEquals(3, tournament.getRoundCount());
+        assertTrue(tournament.getRound(0) instanceof DynamicElimination);
+        assertTrue(tournament.getRound(1) instanceof SemiFinal);
+        assertTrue(tournament.getRound(2) instanceof Final);
+        assertSame(tournament.getCurrentRound(), tournament.getRound(2));
+        assertEquals(8, tournament.getRound(0).getEntrants().size());
+    }
+
+    @Test
+    void finalRound_previousRound_finishedRoundRestored() throws Exception {
+        Tournament<TestEntrant> tournament = createFinalTournament();
+        Round<TestEntrant> semiFinal = tournament.getRound(1);
+
+        tournament.previousRound();
+
+        assertSame(semiFinal, tournament.getCurrentRound());
+        assertEquals(2, tournament.getRoundCount());
+        assertEquals(3, tournament.getHistorySize());
+        assertDoesNotThrow(tournament::previousRound);
+        assertThrows(InitialRoundException.class, tournament::previousRound);
+    }
+
+    @Test
+    void startedRound_previousRound_throwsAlreadyStartedException() throws Exception {
+        Tournament<TestEntrant> tournament = createFinalTournament();
+        tournament.nextPairing();
+
+        assertThrows(AlreadyStartedException.class, tournament::previousRound);
+    }
+
+    @Test
+    void finalRound_previousRounds_initialRoundInOneStep() throws Exception {
+        Tournament<TestEntrant> tournament = createFinalTournament();
+        Round<TestEntrant> initialRound = tournament.getRound(0);
+        Round<TestEntrant> finalRound = tournament.getCurrentRound();
+
+        tournament.previousRounds(2);
+
+        assertSame(initialRound, tournament.getCurrentRound());
+        assertEquals(1, tournament.getRoundCount());
+        assertThrows(InitialRoundException.class, () -> tournament.previousRounds(1));
+
+        tournament.nextRound();
+        tournament.nextRound();
+        assertSame(finalRound, tournament.getCurrentRound());
+    }
+
+    @Test
+    void previousRound_nextRound_laterRoundsShared() throws Exception {
+        Tournament<TestEntrant> tournament = createFinalTournament();
+        Round<TestEntrant> initialRound = tournament.getRound(0);
+        Round<TestEntrant> finalRound = tournament.getCurrentRound();
+
+        tournament.previousRound();
+        tournament.nextRound();
+
+        assertEquals(3, tournament.getRoundCount());
+        assertSame(initialRound, tournament.getRound(0));
+        assertSame(finalRound, tournament.getCurrentRound());
+        assertSame(initialRound.getRegistry(), tournament.getCurrentRound().getRegistry());
+    }
+
+    @Test
+    void changedRound_nextRound_laterRoundsDropped() throws Exception {
+        Tournament<TestEntrant> tournament = createFinalTournament();
+        Round<TestEntrant> finalRound = tournament.getCurrentRound();
+
+        tournament.previousRound();
+        Pairing<TestEntrant> pairing = tournament.getCurrentRound().getFinishedPairings().iterator().next();
+        tournament.replayPairing(pairing);
+        tournament.declareWinner(pairing.getSecond(), pairing);
+        tournament.nextRound();
+
+        assertNotSame(finalRound, tournament.getCurrentRound());
+        assertEquals(3, tournament.getHistorySize());
+        assertTrue(tournament.getCurrentRound().getEntrants().contains(pairing.getSecond()));
+    }
+}
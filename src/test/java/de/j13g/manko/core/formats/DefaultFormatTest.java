@@ -8,7 +8,9 @@ import de.j13g.manko.core.base.Round;
 import de.j13g.manko.core.base.TournamentFormat;
 import de.j13g.manko.core.exceptions.FinalRoundException;
 import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.DynamicElimination;
 import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.RoundRobin;
 import de.j13g.manko.core.rounds.SemiFinal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -139,4 +141,66 @@ class DefaultFormatTest extends RoundTest {
         assertEquals(1, upcomingPairings.size());
         assertEquals(new Pairing<>(firstWinner, secondWinner), upcomingPairings.get(0));
     }
+
+    @Test
+    void finishedSemiFinal_createNextRound_sharesRegistry() throws Exception {
+        pairedSemiFinal.declareWinner(firstWinner);
+        pairedSemiFinal.declareWinner(secondWinner);
+
+        Final<TestEntrant> finalRound = createNextRound(pairedSemiFinal);
+
+        assertSame(pairedSemiFinal.getRegistry(), finalRound.getRegistry());
+    }
+
+    private DynamicElimination<TestEntrant> createFinishedElimination(int entrantCount) throws Exception {
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        for (int i = 0; i < entrantCount; ++i)
+            round.addEntrant(createEntrant());
+
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            round.declareWinner(pairing.getFirst());
+        return round;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 14 })
+    void groupWithinRoundRobinSize_createNextRound_roundRobin(int entrantCount) throws Exception {
+        DynamicElimination<TestEntrant> round = createFinishedElimination(entrantCount);
+
+        Round<TestEntrant> nextRound = new DefaultFormat<TestEntrant>(7).createNextRound(round);
+
+        assertTrue(nextRound instanceof RoundRobin);
+        assertEquals(round.getAdvancedEntrants(), nextRound.getEntrants());
+    }
+
+    @Test
+    void groupAboveRoundRobinSize_createNextRound_elimination() throws Exception {
+        DynamicElimination<TestEntrant> round = createFinishedElimination(16);
+
+        Round<TestEntrant> nextRound = new DefaultFormat<TestEntrant>(7).createNextRound(round);
+
+        assertEquals(DynamicElimination.class, nextRound.getClass());
+    }
+
+    @Test
+    void defaultRoundRobinSize_createNextRound_semiFinal() throws Exception {
+        DynamicElimination<TestEntrant> round = createFinishedElimination(8);
+
+        assertTrue(format.createNextRound(round) instanceof SemiFinal);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 12, 14 })
+    void defaultFormat_createNextRound_elimination(int entrantCount) throws Exception {
+        DynamicElimination<TestEntrant> round = createFinishedElimination(entrantCount);
+
+        assertEquals(DynamicElimination.class, format.createNextRound(round).getClass());
+    }
+
+    @Test
+    void fourEntrantsWithinRoundRobinSize_createNextRound_semiFinal() throws Exception {
+        DynamicElimination<TestEntrant> round = createFinishedElimination(8);
+
+        assertTrue(new DefaultFormat<TestEntrant>(7).createNextRound(round) instanceof SemiFinal);
+    }
 }
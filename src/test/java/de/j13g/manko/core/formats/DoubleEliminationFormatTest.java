@@ -0,0 +1,44 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.DoubleElimination;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleEliminationFormatTest extends RoundTest {
+
+    private final DoubleEliminationFormat<TestEntrant> format = new DoubleEliminationFormat<>();
+
+    @Test
+    void format_createInitialRound_isDoubleElimination() {
+        assertTrue(format.createInitialRound() instanceof DoubleElimination);
+    }
+
+    @Test
+    void unfinishedBracket_createNextRound_throwsRoundNotFinishedException() throws Exception {
+        Round<TestEntrant> round = format.createInitialRound();
+        round.addEntrant(first);
+        round.addEntrant(second);
+        round.nextPairing();
+
+        assertThrows(RoundNotFinishedException.class, () -> format.createNextRound(round));
+    }
+
+    @Test
+    void finishedBracket_createNextRound_throwsFinalRoundException() throws Exception {
+        Round<TestEntrant> round = format.createInitialRound();
+        round.addEntrant(first);
+        round.addEntrant(second);
+        while (!round.isFinished()) {
+            round.nextPairing();
+            round.declareWinner(first);
+        }
+
+        assertThrows(FinalRoundException.class, () -> format.createNextRound(round));
+    }
+}
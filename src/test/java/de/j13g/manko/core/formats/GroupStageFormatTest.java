@@ -0,0 +1,61 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.GroupStage;
+import de.j13g.manko.core.rounds.SemiFinal;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupStageFormatTest extends RoundTest {
+
+    private final GroupStageFormat<TestEntrant> format = new GroupStageFormat<>(2, 2, GroupStage.Seeding.SNAKE);
+
+    @Test
+    void format_createInitialRound_groupStage() {
+        assertTrue(format.createInitialRound() instanceof GroupStage);
+    }
+
+    @Test
+    void unfinishedGroupStage_createNextRound_throwsRoundNotFinishedException() throws Exception {
+        Round<TestEntrant> round = format.createInitialRound();
+        round.addEntrant(first);
+        round.addEntrant(second);
+        round.nextPairing();
+
+        assertThrows(RoundNotFinishedException.class, () -> format.createNextRound(round));
+    }
+
+    @Test
+    void finishedGroupStage_createNextRound_semiFinalOfGroupWinners() throws Exception {
+        Round<TestEntrant> round = format.createInitialRound();
+        ArrayList<TestEntrant> entrants = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            entrants.add(createEntrant());
+            round.addEntrant(entrants.get(i));
+        }
+
+        while (!round.isFinished()) {
+            ArrayList<Result<TestEntrant>> results = new ArrayList<>();
+            for (Pairing<TestEntrant> pairing : round.pairAll()) {
+                boolean firstWins = entrants.indexOf(pairing.getFirst()) < entrants.indexOf(pairing.getSecond());
+                results.add(Result.win(firstWins ? pairing.getFirst() : pairing.getSecond(), pairing));
+            }
+            round.declareResults(results);
+        }
+
+        Round<TestEntrant> nextRound = format.createNextRound(round);
+
+        assertTrue(nextRound instanceof SemiFinal);
+        assertEquals(new HashSet<>(entrants.subList(0, 4)), nextRound.getEntrants());
+        assertSame(round.getRegistry(), nextRound.getRegistry());
+    }
+}
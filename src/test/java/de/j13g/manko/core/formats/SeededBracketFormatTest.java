@@ -0,0 +1,38 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.rounds.SeededBracket;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeededBracketFormatTest extends RoundTest {
+
+    @Test
+    void seeds_createInitialRound_seededBracket() throws Exception {
+        SeededBracketFormat<TestEntrant> format = new SeededBracketFormat<>(List.of(first, second, third));
+
+        Round<TestEntrant> round = format.createInitialRound();
+        round.addEntrant(fourth);
+
+        assertTrue(round instanceof SeededBracket);
+        assertEquals(4, ((SeededBracket<TestEntrant>) round).getSeed(fourth));
+        assertEquals(new Pairing<>(first, fourth), round.nextPairing());
+    }
+
+    @Test
+    void finishedBracket_createNextRound_throwsFinalRoundException() throws Exception {
+        SeededBracketFormat<TestEntrant> format = new SeededBracketFormat<>(List.of(first, second));
+        Round<TestEntrant> round = format.createInitialRound();
+        round.nextPairing();
+        round.declareWinner(first);
+
+        assertThrows(FinalRoundException.class, () -> format.createNextRound(round));
+    }
+}
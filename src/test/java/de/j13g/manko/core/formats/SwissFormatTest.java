@@ -0,0 +1,52 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.SwissRound;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwissFormatTest extends RoundTest {
+
+    private final SwissFormat<TestEntrant> format = new SwissFormat<>(2);
+
+    @Test
+    void format_createInitialRound_isSwissRound() {
+        Round<TestEntrant> round = format.createInitialRound();
+
+        assertTrue(round instanceof SwissRound);
+        assertEquals(2, ((SwissRound<TestEntrant>) round).getRoundCount());
+    }
+
+    @Test
+    void noRoundsOfPlay_create_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new SwissFormat<TestEntrant>(0));
+    }
+
+    @Test
+    void unfinishedRound_createNextRound_throwsRoundNotFinishedException() throws Exception {
+        Round<TestEntrant> round = format.createInitialRound();
+        round.addEntrant(first);
+        round.addEntrant(second);
+        round.nextPairing();
+
+        assertThrows(RoundNotFinishedException.class, () -> format.createNextRound(round));
+    }
+
+    @Test
+    void finishedRound_createNextRound_throwsFinalRoundException() throws Exception {
+        Round<TestEntrant> round = format.createInitialRound();
+        for (TestEntrant entrant : new TestEntrant[] { first, second, third, fourth })
+            round.addEntrant(entrant);
+        while (!round.isFinished())
+            for (Pairing<TestEntrant> pairing : round.pairAll())
+                round.declareWinner(pairing.getFirst(), pairing);
+
+        assertThrows(FinalRoundException.class, () -> format.createNextRound(round));
+    }
+}
@@ -0,0 +1,68 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.TestEntrant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntrantSetTest extends RoundTest {
+
+    private EntrantRegistry<TestEntrant> registry;
+    private EntrantSet<TestEntrant> set;
+
+    @BeforeEach
+    void init() {
+        registry = new EntrantRegistry<>();
+        set = new EntrantSet<>(registry);
+    }
+
+    @Test
+    void addEntrants_iterate_registrationOrder() {
+        registry.register(third);
+        set.add(first);
+        set.add(third);
+        set.add(second);
+
+        assertEquals(List.of(third, first, second), List.copyOf(set));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    void addEntrant_registry_entrantHasId() {
+        set.add(first);
+        assertEquals(first, registry.get(registry.idOf(first)));
+    }
+
+    @Test
+    void unregisteredEntrant_contains_falseWithoutRegistering() {
+        assertFalse(set.contains(first));
+        assertEquals(EntrantRegistry.NO_ID, registry.idOf(first));
+    }
+
+    @Test
+    void removeEntrant_containsAndSize_updated() {
+        set.add(first);
+        set.add(second);
+
+        assertTrue(set.remove(first));
+        assertFalse(set.remove(first));
+        assertFalse(set.contains(first));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void sharedRegistry_addToBothSets_entrantRegisteredOnce() {
+        EntrantSet<TestEntrant> other = new EntrantSet<>(registry);
+        other.add(second);
+        set.add(first);
+        set.add(second);
+
+        assertEquals(2, registry.size());
+        assertTrue(other.containsId(registry.idOf(second)));
+        assertTrue(set.containsId(registry.idOf(second)));
+    }
+}
@@ -0,0 +1,94 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairingIndexTest extends RoundTest {
+
+    private final Pairing<TestEntrant> firstPairing = new Pairing<>(first, second);
+    private final Pairing<TestEntrant> secondPairing = new Pairing<>(third, first);
+    private final Pairing<TestEntrant> thirdPairing = new Pairing<>(second, third);
+
+    private PairingIndex<TestEntrant> index;
+
+    @BeforeEach
+    void init() {
+        index = new PairingIndex<>(new EntrantRegistry<>());
+        index.add(firstPairing);
+        index.add(secondPairing);
+        index.add(thirdPairing);
+    }
+
+    @Test
+    void multiplePairings_addReversedPairing_returnsFalse() {
+        assertFalse(index.add(new Pairing<>(second, first)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void multiplePairings_findByElement_insertionOrder() {
+        assertEquals(List.of(firstPairing, secondPairing), List.copyOf(index.findByElement(first)));
+        assertEquals(List.of(secondPairing, thirdPairing), List.copyOf(index.findByElement(third)));
+        assertTrue(index.findByElement(fourth).isEmpty());
+    }
+
+    @Test
+    void multiplePairings_removeLastPairingOfEntrant_previousPairingIsLast() {
+        assertTrue(index.remove(secondPairing));
+        assertEquals(firstPairing, index.findLastByElement(first));
+        assertEquals(thirdPairing, index.findLastByElement(third));
+        assertFalse(index.contains(secondPairing));
+        assertEquals(List.of(firstPairing, thirdPairing), List.copyOf(index.elements()));
+    }
+
+    @Test
+    void multiplePairings_removeReversedPairing_orderOfEntrantsKept() {
+        assertTrue(index.remove(new Pairing<>(first, third)));
+
+        List<Pairing<TestEntrant>> pairings = List.copyOf(index.elements());
+        assertEquals(List.of(firstPairing, thirdPairing), pairings);
+        assertEquals(first, pairings.get(0).getFirst());
+        assertEquals(second, pairings.get(1).getFirst());
+        assertFalse(index.contains(new Pairing<>(first, third)));
+    }
+
+    @Test
+    void multiplePairings_removeByElement_entrantNotPaired() {
+        Set<Pairing<TestEntrant>> removed = index.removeByElement(first);
+
+        assertEquals(Set.of(firstPairing, secondPairing), removed);
+        assertEquals(Set.of(second, third), index.getPairElementSet());
+        assertNull(index.findLastByElement(first));
+    }
+
+    @Test
+    void manyRemovedPairings_compacted_orderAndLookupsKept() {
+        List<Pairing<TestEntrant>> pairings = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            Pairing<TestEntrant> pairing = new Pairing<>(fourth, createEntrant());
+            pairings.add(pairing);
+            index.add(pairing);
+        }
+
+        for (Pairing<TestEntrant> pairing : pairings.subList(0, 90))
+            index.remove(pairing);
+
+        List<Pairing<TestEntrant>> expected = new ArrayList<>(List.of(firstPairing, secondPairing, thirdPairing));
+        expected.addAll(pairings.subList(90, 100));
+
+        assertEquals(expected, List.copyOf(index.elements()));
+        assertEquals(pairings.subList(90, 100), List.copyOf(index.findByElement(fourth)));
+        assertEquals(pairings.get(99), index.findLastByElement(fourth));
+        assertEquals(secondPairing, index.findLastByElement(first));
+        assertTrue(index.contains(pairings.get(95)));
+    }
+}
@@ -0,0 +1,87 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.TestEntrant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementManagerTest extends RoundTest {
+
+    private PlacementManager<TestEntrant> placements;
+
+    @BeforeEach
+    void init() {
+        placements = new PlacementManager<>(new EntrantRegistry<>());
+    }
+
+    @Test
+    void noPlacement_getPlacement_isTbd() {
+        assertEquals(Placement.TBD, placements.getPlacement(first));
+        assertNull(placements.getEntrantByRank(1));
+    }
+
+    @Test
+    void rankBeyondThird_getEntrantByRank_isEntrant() {
+        placements.setPlacement(first, Placement.of(16));
+
+        assertEquals(Placement.of(16), placements.getPlacement(first));
+        assertEquals(first, placements.getEntrantByRank(16));
+        assertEquals(first, placements.getEntrantByPlacement(Placement.of(16)));
+        assertNull(placements.getEntrantByRank(15));
+    }
+
+    @Test
+    void changedPlacement_getEntrantByRank_oldRankIsFree() {
+        placements.setPlacement(first, Placement.FIRST);
+        placements.setPlacement(first, Placement.NONE);
+
+        assertEquals(Placement.NONE, placements.getPlacement(first));
+        assertNull(placements.getEntrantByPlacement(Placement.FIRST));
+    }
+
+    @Test
+    void resetPlacement_getEntrantByRank_isNull() {
+        placements.setPlacement(first, Placement.SECOND);
+        placements.resetPlacement(first);
+
+        assertEquals(Placement.TBD, placements.getPlacement(first));
+        assertNull(placements.getEntrantByRank(2));
+    }
+
+    @Test
+    void placements_getStandings_entrantsByRank() {
+        placements.setPlacement(first, Placement.FIRST);
+        placements.setPlacement(second, Placement.of(4));
+        placements.setPlacement(third, Placement.NONE);
+
+        Standings<TestEntrant> standings = placements.getStandings();
+
+        assertEquals(4, standings.size());
+        assertEquals(first, standings.get(1));
+        assertNull(standings.get(2));
+        assertNull(standings.get(3));
+        assertEquals(second, standings.get(4));
+        assertNull(standings.get(5));
+    }
+
+    @Test
+    void unrankedPlacement_getEntrantByPlacement_throws() {
+        assertThrows(IllegalArgumentException.class, () -> placements.getEntrantByPlacement(Placement.NONE));
+        assertThrows(IllegalArgumentException.class, () -> placements.getEntrantByPlacement(Placement.TBD));
+    }
+
+    @Test
+    void ranks_toString_ordinalSuffix() {
+        assertEquals("1st", Placement.FIRST.toString());
+        assertEquals("2nd", Placement.SECOND.toString());
+        assertEquals("3rd", Placement.THIRD.toString());
+        assertEquals("4th", Placement.of(4).toString());
+        assertEquals("11th", Placement.of(11).toString());
+        assertEquals("22nd", Placement.of(22).toString());
+        assertEquals("113th", Placement.of(113).toString());
+    }
+}
@@ -0,0 +1,107 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.TestEntrant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreManagerTest extends RoundTest {
+
+    private ScoreManager<TestEntrant> scores;
+
+    @BeforeEach
+    void init() {
+        scores = new ScoreManager<>(new EntrantRegistry<>());
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            scores.add(entrant);
+    }
+
+    @Test
+    void tiedScores_getRank_sharedRankAndSkipped() {
+        scores.incrementScore(first);
+        scores.incrementScore(first);
+        scores.incrementScore(second);
+        scores.incrementScore(third);
+
+        assertEquals(1, scores.getRank(first));
+        assertEquals(2, scores.getRank(second));
+        assertEquals(2, scores.getRank(third));
+        assertEquals(4, scores.getRank(fourth));
+
+        assertEquals(Set.of(second, third), new HashSet<>(scores.getEntrantsByRank(2)));
+        assertTrue(scores.getEntrantsByRank(3).isEmpty());
+        assertEquals(List.of(fourth), scores.getEntrantsByRank(4));
+        assertTrue(scores.getEntrantsByRank(5).isEmpty());
+    }
+
+    @Test
+    void scoredEntrant_resetScore_notRanked() {
+        scores.incrementScore(first);
+        scores.resetScore(first);
+
+        assertEquals(List.of(), scores.getEntrantsByRank(4));
+        assertEquals(1, scores.getRank(second));
+    }
+
+    @Test
+    void zeroScore_decrementScore_negativeScoreRankedLast() {
+        scores.incrementScore(second);
+        assertEquals(-1, scores.decrementScore(first));
+        assertEquals(-3, scores.addScore(third, -3));
+
+        assertEquals(-1, scores.getScore(first));
+        assertEquals(1, scores.getRank(second));
+        assertEquals(2, scores.getRank(fourth));
+        assertEquals(3, scores.getRank(first));
+        assertEquals(List.of(first), scores.getEntrantsByRank(3));
+        assertEquals(List.of(third), scores.getEntrantsByRank(4));
+        assertEquals(1, scores.countEntrantsByRank(4));
+    }
+
+    @Test
+    void manyEntrants_randomScores_ranksMatchSorting() {
+        Random random = new Random(42);
+        List<TestEntrant> entrants = new ArrayList<>();
+        for (int i = 0; i < 200; ++i)
+            entrants.add(createEntrant());
+
+        for (int i = 0; i < 5000; ++i) {
+            TestEntrant entrant = entrants.get(random.nextInt(entrants.size()));
+            if (random.nextInt(3) == 0)
+                scores.decrementScore(entrant);
+            else
+                scores.incrementScore(entrant);
+        }
+
+        List<TestEntrant> all = new ArrayList<>(entrants);
+        all.addAll(List.of(first, second, third, fourth));
+
+        for (TestEntrant entrant : all) {
+            int higher = (int) all.stream().filter(e -> scores.getScore(e) > scores.getScore(entrant)).count();
+            assertEquals(higher + 1, scores.getRank(entrant));
+            assertTrue(scores.getEntrantsByRank(higher + 1).contains(entrant));
+        }
+    }
+
+    @Test
+    void excludedEntrant_getRank_notCounted() {
+        scores.incrementScore(first);
+        scores.incrementScore(second);
+        scores.exclude(first);
+
+        assertEquals(1, scores.getRank(second));
+        assertEquals(1, scores.countEntrantsByRank(1));
+        assertEquals(List.of(second), scores.getEntrantsByRank(1));
+
+        scores.incrementScore(first);
+        scores.include(first);
+
+        assertEquals(2, scores.getScore(first));
+        assertEquals(1, scores.getRank(first));
+        assertEquals(2, scores.getRank(second));
+    }
+}
@@ -0,0 +1,124 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.formats.DefaultFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest extends RoundTest {
+
+    private static final RoundOperation.Codec<TestEntrant> codec = new RoundOperation.Codec<>(new TestEntrantCodec());
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+    private Journal<RoundOperation<TestEntrant>> journal;
+
+    @BeforeEach
+    void init() throws IOException {
+        path = directory.resolve("test.journal");
+        journal = Journal.open(path, codec, SyncPolicy.NEVER);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        journal.close();
+    }
+
+    private Journal<RoundOperation<TestEntrant>> reopen() throws IOException {
+        journal.close();
+        journal = Journal.open(path, codec, SyncPolicy.NEVER);
+        return journal;
+    }
+
+    @Test
+    void appendRecords_reopen_readsRecordsInOrder() throws IOException {
+        journal.append(RoundOperation.add(first));
+        journal.append(RoundOperation.pair(new Pairing<>(first, second)));
+
+        List<RoundOperation<TestEntrant>> records = reopen().read();
+
+        assertEquals(2, records.size());
+        assertEquals(RoundOperation.Type.ADD, records.get(0).getType());
+        assertEquals(List.of(first), records.get(0).getEntrants());
+        assertEquals(RoundOperation.Type.PAIR, records.get(1).getType());
+        assertEquals(List.of(first, second), records.get(1).getEntrants());
+    }
+
+    @Test
+    void tornRecordAtEnd_read_discardsTornRecord() throws IOException {
+        journal.append(RoundOperation.add(first));
+        journal.append(RoundOperation.add(second));
+        journal.close();
+
+        long size = Files.size(path);
+        try (var channel = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 1);
+        }
+
+        journal = Journal.open(path, codec, SyncPolicy.NEVER);
+        assertEquals(1, journal.read().size());
+
+        journal.append(RoundOperation.add(third));
+        assertEquals(2, reopen().read().size());
+    }
+
+    @Test
+    void reset_reopen_hasNewGenerationAndNoRecords() throws IOException {
+        journal.append(RoundOperation.add(first));
+        journal.reset(7);
+
+        Journal<RoundOperation<TestEntrant>> reopened = reopen();
+        assertEquals(7, reopened.getGeneration());
+        assertTrue(reopened.read().isEmpty());
+    }
+
+    @Test
+    void journaledTournament_replayRecords_identicalRound() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+        JournaledRoundManager<TestEntrant> journaled = new JournaledRoundManager<>(tournament, operation -> {
+            try {
+                journal.append(operation);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            journaled.addEntrant(entrant);
+
+        Pairing<TestEntrant> pairing = journaled.nextPairing();
+        journaled.nextPairing();
+        journaled.declareWinner(pairing.getFirst());
+        journaled.removeEntrant(pairing.getSecond());
+        journaled.addEntrant(invalidEntrant); // No change, since it's not recorded.
+        journaled.removeEntrant(invalidEntrant);
+
+        Tournament<TestEntrant> restored = new Tournament<>(new DefaultFormat<>());
+        for (RoundOperation<TestEntrant> operation : reopen().read())
+            operation.apply(restored);
+
+        var expected = (EliminationRound<TestEntrant>) tournament.getCurrentRound();
+        var actual = (EliminationRound<TestEntrant>) restored.getCurrentRound();
+        assertEquals(expected.getEntrants(), actual.getEntrants());
+        assertEquals(expected.getPendingEntrants(), actual.getPendingEntrants());
+        assertEquals(expected.getAdvancedEntrants(), actual.getAdvancedEntrants());
+        assertEquals(expected.getActivePairings(), actual.getActivePairings());
+        assertEquals(expected.getFinishedPairings(), actual.getFinishedPairings());
+    }
+}
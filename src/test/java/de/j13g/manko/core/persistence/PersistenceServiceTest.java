@@ -0,0 +1,166 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.formats.DefaultFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceServiceTest extends RoundTest {
+
+    private static final RoundOperation.Codec<TestEntrant> codec = new RoundOperation.Codec<>(new TestEntrantCodec());
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+
+    private final List<Long> checkpoints = new ArrayList<>();
+    private final List<IOException> failures = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        path = directory.resolve("test.journal");
+    }
+
+    private PersistenceService<Tournament<TestEntrant>, RoundOperation<TestEntrant>> createService(
+            int checkpointInterval, PersistenceService.CheckpointWriter<Tournament<TestEntrant>> writer)
+            throws IOException {
+
+        Journal<RoundOperation<TestEntrant>> journal = Journal.open(path, codec, SyncPolicy.NEVER);
+        return new PersistenceService<>(new Tournament<>(new DefaultFormat<>()), journal,
+                (tournament, operation) -> operation.apply(tournament), Tournament::getVersion,
+                writer, failures::add, checkpointInterval, false);
+    }
+
+    private PersistenceService<Tournament<TestEntrant>, RoundOperation<TestEntrant>> createService(
+            int checkpointInterval) throws IOException {
+
+        return createService(checkpointInterval, (tournament, generation) -> checkpoints.add(generation));
+    }
+
+    private List<RoundOperation<TestEntrant>> readJournal() throws IOException {
+        try (Journal<RoundOperation<TestEntrant>> journal = Journal.open(path, codec, SyncPolicy.NEVER)) {
+            return journal.read();
+        }
+    }
+
+    @Test
+    void recordOperations_close_operationsAreJournaled() throws IOException {
+        var service = createService(16);
+        service.record(RoundOperation.add(first));
+        service.record(RoundOperation.add(second));
+        service.record(RoundOperation.pair(new Pairing<>(first, second)));
+        service.close();
+
+        assertEquals(3, readJournal().size());
+        assertTrue(checkpoints.isEmpty());
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    void update_close_checkpointWrittenAndJournalReset() throws IOException {
+        var service = createService(16);
+        service.record(RoundOperation.add(first));
+        service.update(tournament -> tournament.addEntrant(second));
+        service.close();
+
+        assertFalse(checkpoints.isEmpty());
+        assertTrue(readJournal().isEmpty());
+    }
+
+    @Test
+    void updateWithoutChanges_close_nothingWritten() throws IOException {
+        var service = createService(16);
+        service.update(tournament -> tournament.removeEntrant(invalidEntrant));
+        service.close();
+
+        assertTrue(checkpoints.isEmpty());
+        assertTrue(readJournal().isEmpty());
+    }
+
+    @Test
+    void moreRecordsThanInterval_close_checkpointWrittenAndJournalBounded() throws IOException {
+        List<Tournament<TestEntrant>> written = new ArrayList<>();
+        var service = createService(2, (tournament, generation) -> written.add(tournament));
+
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            service.record(RoundOperation.add(entrant));
+        service.close();
+
+        assertFalse(written.isEmpty());
+        assertTrue(readJournal().size() <= 2);
+        assertEquals(4, written.get(0).getCurrentRound().getEntrants().size());
+    }
+
+    @Test
+    void failingCheckpoint_recordAfterFailure_checkpointRetried() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        List<Long> attempts = Collections.synchronizedList(new ArrayList<>());
+
+        Journal<RoundOperation<TestEntrant>> journal = Journal.open(path, codec, SyncPolicy.NEVER);
+        var service = new PersistenceService<Tournament<TestEntrant>, RoundOperation<TestEntrant>>(
+                new Tournament<>(new DefaultFormat<>()), journal,
+                (tournament, operation) -> operation.apply(tournament), Tournament::getVersion,
+                (tournament, generation) -> {
+                    attempts.add(generation);
+                    if (attempts.size() == 1)
+                        throw new IOException("Disk full");
+                },
+                e -> failed.countDown(), 16, false);
+
+        service.update(tournament -> tournament.addEntrant(first));
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+        service.record(RoundOperation.add(second));
+        service.close();
+
+        assertEquals(List.of(1L, 1L), attempts);
+        assertTrue(readJournal().isEmpty());
+    }
+
+    @Test
+    void failingChange_recordAfterFailure_nothingWritten() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+
+        Journal<RoundOperation<TestEntrant>> journal = Journal.open(path, codec, SyncPolicy.NEVER);
+        var service = new PersistenceService<Tournament<TestEntrant>, RoundOperation<TestEntrant>>(
+                new Tournament<>(new DefaultFormat<>()), journal,
+                (tournament, operation) -> operation.apply(tournament), Tournament::getVersion,
+                (tournament, generation) -> checkpoints.add(generation), e -> failed.countDown(), 16, false);
+
+        service.update(tournament -> {
+            throw new IllegalStateException("Diverged");
+        });
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+        service.record(RoundOperation.add(first));
+        service.update(tournament -> tournament.addEntrant(second));
+        service.close();
+
+        assertTrue(service.hasFailed());
+        assertTrue(checkpoints.isEmpty());
+        assertTrue(readJournal().isEmpty());
+    }
+
+    @Test
+    void closedService_record_throws() throws IOException {
+        var service = createService(16);
+        service.close();
+
+        assertThrows(IllegalStateException.class, () -> service.record(RoundOperation.add(first)));
+    }
+}
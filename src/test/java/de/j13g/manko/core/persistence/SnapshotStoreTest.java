@@ -0,0 +1,105 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.TestEntrant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest extends RoundTest {
+
+    private final TestEntrantCodec entrantCodec = new TestEntrantCodec();
+
+    @TempDir
+    Path directory;
+
+    private void store(SnapshotStore store, long generation, TestEntrant entrant) throws IOException {
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        out.writeEntrant(entrant);
+        store.store(generation, out);
+    }
+
+    private TestEntrant read(SnapshotStore.StoredSnapshot snapshot) throws IOException {
+        return SnapshotInput.open(snapshot.getContent(), entrantCodec).readEntrant();
+    }
+
+    @Test
+    void emptyDirectory_load_returnsNull() {
+        assertNull(new SnapshotStore(directory, "test.state").load());
+    }
+
+    @Test
+    void multipleGenerations_load_newestGeneration() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory, "test.state");
+        store(store, 1, first);
+        store(store, 2, second);
+        store(store, 3, third);
+
+        SnapshotStore.StoredSnapshot snapshot = store.load();
+
+        assertEquals(3, snapshot.getGeneration());
+        assertEquals(third, read(snapshot));
+        assertFalse(Files.exists(directory.resolve("test.state.1.tmp")));
+    }
+
+    @Test
+    void corruptedNewestSnapshot_load_previousGeneration() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory, "test.state");
+        store(store, 1, first);
+        store(store, 2, second);
+
+        Path newest = directory.resolve("test.state.0");
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7F }), channel.size() - 1);
+        }
+
+        SnapshotStore.StoredSnapshot snapshot = store.load();
+
+        assertEquals(1, snapshot.getGeneration());
+        assertEquals(first, read(snapshot));
+    }
+
+    @Test
+    void corruptedSection_load_verifiedWhenRead() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory, "test.state");
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        out.writeEntrant(first);
+        out.beginSection();
+        out.writeString("section");
+        out.endSection();
+        store.store(1, out);
+
+        // The section is written last.
+        try (FileChannel channel = FileChannel.open(directory.resolve("test.state.1"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7F }), channel.size() - 1);
+        }
+
+        SnapshotStore.StoredSnapshot snapshot = store.load();
+        SnapshotInput<TestEntrant> in = SnapshotInput.open(snapshot.getContent(), entrantCodec);
+
+        assertEquals(first, in.readEntrant());
+        SnapshotInput<TestEntrant> section = in.readSection();
+        assertThrows(IOException.class, section::readString);
+    }
+
+    @Test
+    void truncatedNewestSnapshot_load_previousGeneration() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory, "test.state");
+        store(store, 1, first);
+        store(store, 2, second);
+
+        try (FileChannel channel = FileChannel.open(directory.resolve("test.state.0"), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        assertEquals(1, store.load().getGeneration());
+    }
+}
@@ -0,0 +1,406 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.NewEntrantsNotAllowedException;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.formats.GroupStageFormat;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.rounds.DoubleElimination;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.GroupStage;
+import de.j13g.manko.core.rounds.RoundRobin;
+import de.j13g.manko.core.rounds.RoundRobinFinal;
+import de.j13g.manko.core.rounds.SeededBracket;
+import de.j13g.manko.core.rounds.SemiFinal;
+import de.j13g.manko.core.rounds.SwissRound;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest extends RoundTest {
+
+    private final TestEntrantCodec entrantCodec = new TestEntrantCodec();
+
+    private byte[] write(Round<TestEntrant> round) throws IOException {
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        RoundCodec.write(out, round);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.finish(bytes);
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R extends Round<TestEntrant>> R copy(R round) throws IOException {
+        byte[] bytes = write(round);
+        return (R) RoundCodec.read(SnapshotInput.open(ByteBuffer.wrap(bytes), entrantCodec));
+    }
+
+    private static void assertSameRound(Round<TestEntrant> expected, Round<TestEntrant> actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getEntrants(), actual.getEntrants());
+        assertEquals(List.copyOf(expected.getActivePairings()), List.copyOf(actual.getActivePairings()));
+        assertEquals(List.copyOf(expected.getFinishedPairings()), List.copyOf(actual.getFinishedPairings()));
+        assertEquals(expected.isFinished(), actual.isFinished());
+        for (TestEntrant entrant : expected.getEntrants())
+            assertEquals(expected.getLastPairing(entrant), actual.getLastPairing(entrant));
+    }
+
+    @Test
+    void dynamicElimination_copy_sameState() throws Exception {
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        for (int i = 0; i < 10; ++i)
+            round.addEntrant(createEntrant());
+
+        Pairing<TestEntrant> finished = round.nextPairing();
+        round.declareWinner(finished.getFirst());
+        round.nextPairing();
+        round.removeEntrant(finished.getSecond()); // Floating result.
+
+        DynamicElimination<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        assertEquals(round.getPendingEntrants(), copy.getPendingEntrants());
+        assertEquals(round.getAdvancedEntrants(), copy.getAdvancedEntrants());
+        assertEquals(round.getEliminatedEntrants(), copy.getEliminatedEntrants());
+        assertTrue(copy.hasLost(finished.getSecond()));
+        assertFalse(copy.hasEntrant(finished.getSecond()));
+    }
+
+    @Test
+    void roundRobin_copy_sameSchedule() throws Exception {
+        RoundRobin<TestEntrant> round = new RoundRobin<>(List.of(first, second, third, fourth, createEntrant()));
+        Pairing<TestEntrant> finished = round.nextPairing();
+        round.declareWinner(finished.getFirst());
+        round.nextPairing();
+        round.removeEntrant(fourth);
+
+        RoundRobin<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        for (TestEntrant entrant : round.getEntrants())
+            assertEquals(round.getScore(entrant), copy.getScore(entrant));
+
+        for (RoundRobin<TestEntrant> r : List.of(round, copy))
+            for (Pairing<TestEntrant> pairing : List.copyOf(r.getActivePairings()))
+                r.declareWinner(pairing.getFirst(), pairing);
+        assertEquals(round.nextPairing(), copy.nextPairing());
+    }
+
+    @Test
+    void swissRound_copy_sameScoresAndByes() throws Exception {
+        SwissRound<TestEntrant> round = new SwissRound<>(
+                new EntrantRegistry<>(), List.of(first, second, third, fourth, createEntrant()), 3);
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            round.declareWinner(pairing.getFirst(), pairing);
+        round.nextPairing();
+
+        SwissRound<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        assertEquals(round.getCurrentRound(), copy.getCurrentRound());
+        for (TestEntrant entrant : round.getEntrants()) {
+            assertEquals(round.getScore(entrant), copy.getScore(entrant));
+            assertEquals(round.hadBye(entrant), copy.hadBye(entrant));
+        }
+    }
+
+    @Test
+    void doubleElimination_copy_sameBracket() throws Exception {
+        DoubleElimination<TestEntrant> round = new DoubleElimination<>();
+        for (int i = 0; i < 6; ++i)
+            round.addEntrant(createEntrant());
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            round.declareWinner(pairing.getFirst(), pairing);
+        round.removeEntrant(round.pairAll().get(0).getSecond());
+
+        DoubleElimination<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        for (TestEntrant entrant : testEntrants) {
+            assertEquals(round.getPlacement(entrant), copy.getPlacement(entrant));
+            assertEquals(round.isInLosersBracket(entrant), copy.isInLosersBracket(entrant));
+        }
+
+        while (!round.isFinished()) {
+            for (Pairing<TestEntrant> pairing : List.copyOf(round.getActivePairings())) {
+                round.declareWinner(pairing.getFirst(), pairing);
+                copy.declareWinner(pairing.getFirst(), pairing);
+            }
+            if (!round.isFinished())
+                assertEquals(round.nextPairing(), copy.nextPairing());
+        }
+        assertTrue(copy.isFinished());
+        assertEquals(round.getStandings().getFirstPlace(), copy.getStandings().getFirstPlace());
+    }
+
+    @Test
+    void seededBracket_copy_sameTree() throws Exception {
+        SeededBracket<TestEntrant> round = new SeededBracket<>(
+                new EntrantRegistry<>(), List.of(first, second, third, fourth, createEntrant()));
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            round.declareWinner(pairing.getFirst(), pairing);
+        round.nextPairing();
+
+        SeededBracket<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        for (TestEntrant entrant : round.getEntrants()) {
+            assertEquals(round.getSeed(entrant), copy.getSeed(entrant));
+            assertEquals(round.getNextOpponent(entrant), copy.getNextOpponent(entrant));
+        }
+    }
+
+    @Test
+    void groupStage_copy_sameGroups() throws Exception {
+        GroupStage<TestEntrant> round = new GroupStage<>(2, 1, GroupStage.Seeding.RANDOM);
+        for (int i = 0; i < 7; ++i)
+            round.addEntrant(createEntrant());
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            round.declareWinner(pairing.getFirst(), pairing);
+        round.nextPairing();
+
+        GroupStage<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        for (TestEntrant entrant : round.getEntrants()) {
+            assertEquals(round.getGroupIndex(entrant), copy.getGroupIndex(entrant));
+            assertEquals(round.getScore(entrant), copy.getScore(entrant));
+        }
+        assertEquals(round.getGroupStandings(), copy.getGroupStandings());
+        assertEquals(round.nextPairing(), copy.nextPairing());
+    }
+
+    @Test
+    void undrawnDoubleElimination_copy_sameBracketDrawn() throws Exception {
+        DoubleElimination<TestEntrant> round = new DoubleElimination<>();
+        for (int i = 0; i < 9; ++i)
+            round.addEntrant(createEntrant());
+
+        DoubleElimination<TestEntrant> copy = copy(round);
+
+        assertEquals(round.pairAll(), copy.pairAll());
+    }
+
+    @Test
+    void undrawnGroupStage_copy_sameGroupsDrawn() throws Exception {
+        GroupStage<TestEntrant> round = new GroupStage<>(3, 1, GroupStage.Seeding.RANDOM);
+        for (int i = 0; i < 9; ++i)
+            round.addEntrant(createEntrant());
+
+        GroupStage<TestEntrant> copy = copy(round);
+        round.nextPairing();
+        copy.nextPairing();
+
+        assertEquals(round.getDrawSeed(), copy.getDrawSeed());
+        for (TestEntrant entrant : round.getEntrants())
+            assertEquals(round.getGroupIndex(entrant), copy.getGroupIndex(entrant));
+    }
+
+    @Test
+    void semiFinal_copy_newEntrantsNotAllowed() throws Exception {
+        SemiFinal<TestEntrant> round = new SemiFinal<>(first, second, third, fourth);
+        round.nextPairing();
+
+        SemiFinal<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        assertThrows(NewEntrantsNotAllowedException.class, () -> copy.addEntrant(invalidEntrant));
+    }
+
+    @Test
+    void final_copy_samePlacements() throws Exception {
+        Final<TestEntrant> round = new Final<>(new Pairing<>(first, second), new Pairing<>(third, fourth));
+        round.nextPairing();
+        round.declareWinner(third);
+        round.nextPairing();
+
+        Final<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        assertEquals(round.getUpcomingPairings(), copy.getUpcomingPairings());
+        assertEquals(Placement.THIRD, copy.getPlacement(third));
+        assertEquals(third, copy.getEntrantByPlacement(Placement.THIRD));
+
+        copy.declareWinner(second);
+        assertEquals(Placement.FIRST, copy.getPlacement(second));
+    }
+
+    @Test
+    void roundRobinFinal_copy_sameScores() throws Exception {
+        RoundRobinFinal<TestEntrant> round = new RoundRobinFinal<>(first, second, third);
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        round.declareWinner(pairing.getFirst());
+
+        RoundRobinFinal<TestEntrant> copy = copy(round);
+
+        assertSameRound(round, copy);
+        for (TestEntrant entrant : List.of(first, second, third))
+            assertEquals(round.getScore(entrant), copy.getScore(entrant));
+        assertTrue(copy.hasEntrantResult(pairing.getFirst()));
+    }
+
+    @Test
+    void tournament_copy_previousRoundRestored() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            tournament.addEntrant(entrant);
+        tournament.declareWinner(tournament.nextPairing().getFirst());
+        tournament.declareWinner(tournament.nextPairing().getFirst());
+        tournament.nextRound();
+
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        tournament.write(out);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.finish(bytes);
+
+        SnapshotInput<TestEntrant> in = SnapshotInput.open(ByteBuffer.wrap(bytes.toByteArray()), entrantCodec);
+        Tournament<TestEntrant> copy = new Tournament<>(in);
+
+        assertSameRound(tournament.getCurrentRound(), copy.getCurrentRound());
+        assertDoesNotThrow(copy::previousRound);
+        assertEquals(4, copy.getCurrentRound().getFinishedPairings().size() * 2);
+    }
+
+    @Test
+    void tournament_read_roundsMaterializedOnAccess() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            tournament.addEntrant(entrant);
+        tournament.declareWinner(tournament.nextPairing().getFirst());
+        tournament.declareWinner(tournament.nextPairing().getFirst());
+        tournament.nextRound();
+
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        tournament.write(out);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.finish(bytes);
+
+        SnapshotInput<TestEntrant> in = SnapshotInput.open(ByteBuffer.wrap(bytes.toByteArray()), entrantCodec);
+        Tournament<TestEntrant> copy = new Tournament<>(in);
+        assertEquals(0, entrantCodec.getDecodeCount());
+
+        Round<TestEntrant> currentRound = copy.getCurrentRound();
+        assertEquals(2, entrantCodec.getDecodeCount());
+
+        assertEquals(tournament.getCurrentRound().getEntrants(), currentRound.getEntrants());
+        copy.previousRound();
+        assertEquals(4, entrantCodec.getDecodeCount());
+    }
+
+    @Test
+    void tournament_read_allRoundsRestored() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+        for (int i = 0; i < 8; ++i)
+            tournament.addEntrant(createEntrant());
+        for (int round = 0; round < 2; ++round) {
+            while (!tournament.getCurrentRound().isFinished())
+                tournament.declareWinner(tournament.nextPairing().getFirst());
+            tournament.nextRound();
+        }
+
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        tournament.write(out);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.finish(bytes);
+
+        SnapshotInput<TestEntrant> in = SnapshotInput.open(ByteBuffer.wrap(bytes.toByteArray()), entrantCodec);
+        Tournament<TestEntrant> copy = new Tournament<>(in);
+
+        assertEquals(3, copy.getRoundCount());
+        assertEquals(0, entrantCodec.getDecodeCount());
+        for (int round = 0; round < 3; ++round)
+            assertSameRound(tournament.getRound(round), copy.getRound(round));
+
+        copy.previousRound();
+        assertEquals(tournament.getRound(1).getEntrants(), copy.getCurrentRound().getEntrants());
+    }
+
+    @Test
+    void tournamentWentBack_read_laterRoundsKept() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+        for (int i = 0; i < 8; ++i)
+            tournament.addEntrant(createEntrant());
+        for (int round = 0; round < 2; ++round) {
+            while (!tournament.getCurrentRound().isFinished())
+                tournament.declareWinner(tournament.nextPairing().getFirst());
+            tournament.nextRound();
+        }
+        tournament.previousRounds(2);
+
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        tournament.write(out);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.finish(bytes);
+
+        SnapshotInput<TestEntrant> in = SnapshotInput.open(ByteBuffer.wrap(bytes.toByteArray()), entrantCodec);
+        Tournament<TestEntrant> copy = new Tournament<>(in);
+
+        assertEquals(1, copy.getRoundCount());
+        assertEquals(3, copy.getHistorySize());
+        copy.nextRound();
+        copy.nextRound();
+        tournament.nextRound();
+        tournament.nextRound();
+        assertSameRound(tournament.getCurrentRound(), copy.getCurrentRound());
+    }
+
+    @Test
+    void tournament_copy_formatRestored() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new GroupStageFormat<>(2, 2, GroupStage.Seeding.SNAKE));
+        for (int i = 0; i < 8; ++i)
+            tournament.addEntrant(createEntrant());
+        while (!tournament.getCurrentRound().isFinished())
+            for (Pairing<TestEntrant> pairing : tournament.pairAll())
+                tournament.declareWinner(pairing.getFirst(), pairing);
+
+        SnapshotOutput<TestEntrant> out = new SnapshotOutput<>(entrantCodec);
+        tournament.write(out);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.finish(bytes);
+
+        SnapshotInput<TestEntrant> in = SnapshotInput.open(ByteBuffer.wrap(bytes.toByteArray()), entrantCodec);
+        Tournament<TestEntrant> copy = new Tournament<>(in);
+        copy.nextRound();
+        tournament.nextRound();
+
+        assertTrue(copy.getFormat() instanceof GroupStageFormat);
+        assertEquals(((GroupStageFormat<TestEntrant>) tournament.getFormat()).getDrawSeed(),
+                ((GroupStageFormat<TestEntrant>) copy.getFormat()).getDrawSeed());
+        assertSameRound(tournament.getCurrentRound(), copy.getCurrentRound());
+    }
+
+    @Test
+    void notASnapshot_open_throwsIOException() {
+        byte[] bytes = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+        assertThrows(IOException.class, () -> SnapshotInput.open(ByteBuffer.wrap(bytes), entrantCodec));
+    }
+
+    @Test
+    void largeRound_write_smallerThanJavaSerialization() throws Exception {
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        for (int i = 0; i < 1000; ++i)
+            round.addEntrant(new TestEntrant(i));
+        for (int i = 0; i < 250; ++i)
+            round.declareWinner(round.nextPairing().getFirst());
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(round);
+        }
+
+        assertTrue(write(round).length * 5 < serialized.size());
+    }
+}
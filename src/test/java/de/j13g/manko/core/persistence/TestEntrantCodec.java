@@ -0,0 +1,23 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.TestEntrant;
+
+class TestEntrantCodec implements EntrantCodec<TestEntrant> {
+
+    private int decodeCount = 0;
+
+    public int getDecodeCount() {
+        return decodeCount;
+    }
+
+    @Override
+    public String encode(TestEntrant entrant) {
+        return String.valueOf(entrant.id());
+    }
+
+    @Override
+    public TestEntrant decode(String value) {
+        decodeCount += 1;
+        return new TestEntrant(Integer.parseInt(value));
+    }
+}
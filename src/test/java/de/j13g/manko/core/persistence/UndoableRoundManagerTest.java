@@ -0,0 +1,187 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.formats.DoubleEliminationFormat;
+import de.j13g.manko.core.formats.SeededBracketFormat;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.SemiFinal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UndoableRoundManagerTest extends RoundTest {
+
+    private Tournament<TestEntrant> tournament;
+    private UndoableRoundManager<TestEntrant> manager;
+
+    @BeforeEach
+    void init() throws Exception {
+        tournament = new Tournament<>(new DefaultFormat<>());
+        manager = new UndoableRoundManager<>(tournament, 4);
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            manager.addEntrant(entrant);
+    }
+
+    @Test
+    void declaredWinner_undo_pairingRunningAgain() throws Exception {
+        Pairing<TestEntrant> pairing = manager.nextPairing();
+        manager.declareWinner(pairing.getFirst());
+
+        List<RoundOperation<TestEntrant>> undoneOperations = manager.undo();
+
+        assertEquals(RoundOperation.Type.WIN, undoneOperations.get(0).getType());
+        assertTrue(tournament.getCurrentRound().getActivePairings().contains(pairing));
+        assertFalse(manager.canUndo());
+
+        manager.declareWinner(pairing.getSecond());
+        assertTrue(tournament.getCurrentRound().hasWon(pairing.getSecond()));
+    }
+
+    @Test
+    void undoneWinner_redo_sameWinner() throws Exception {
+        Pairing<TestEntrant> pairing = manager.nextPairing();
+        manager.declareWinner(pairing.getFirst());
+        manager.undo();
+
+        manager.redo();
+
+        assertTrue(tournament.getCurrentRound().hasWon(pairing.getFirst()));
+        assertTrue(manager.canUndo());
+        assertFalse(manager.canRedo());
+    }
+
+    @Test
+    void declaredResults_undo_allResultsReverted() throws Exception {
+        List<Pairing<TestEntrant>> pairings = manager.pairAll();
+        ArrayList<Result<TestEntrant>> results = new ArrayList<>();
+        for (Pairing<TestEntrant> pairing : pairings)
+            results.add(Result.win(pairing.getFirst(), pairing));
+        manager.declareResults(results);
+
+        assertEquals(2, manager.undo().size());
+
+        assertEquals(2, tournament.getCurrentRound().getActivePairings().size());
+        assertTrue(tournament.getCurrentRound().getFinishedPairings().isEmpty());
+    }
+
+    @Test
+    void addedEntrants_undo_entrantsRemovedInReverseOrder() {
+        manager.undo();
+        manager.undo();
+
+        assertEquals(2, tournament.getCurrentRound().getEntrants().size());
+        assertTrue(tournament.getCurrentRound().hasEntrant(second));
+        assertFalse(tournament.getCurrentRound().hasEntrant(third));
+    }
+
+    @Test
+    void nextRound_undo_previousRound() throws Exception {
+        for (Pairing<TestEntrant> pairing : manager.pairAll())
+            manager.declareWinner(pairing.getFirst(), pairing);
+        manager.nextRound();
+
+        manager.undo();
+
+        assertTrue(tournament.getCurrentRound() instanceof DynamicElimination);
+        assertFalse(tournament.getCurrentRound() instanceof SemiFinal);
+        assertEquals(1, tournament.getRoundCount());
+    }
+
+    @Test
+    void pairing_undo_throwsIllegalStateException() throws Exception {
+        manager.nextPairing();
+
+        assertFalse(manager.canUndo());
+        assertEquals(RoundOperation.Type.PAIR, manager.getClearingOperation());
+        assertThrows(IllegalStateException.class, manager::undo);
+    }
+
+    @Test
+    void removedPairedEntrant_undo_throwsIllegalStateException() throws Exception {
+        Pairing<TestEntrant> pairing = manager.nextPairing();
+        manager.addEntrant(createEntrant());
+
+        manager.removeEntrant(pairing.getFirst());
+
+        assertFalse(manager.canUndo());
+        assertEquals(RoundOperation.Type.REMOVE, manager.getClearingOperation());
+        assertThrows(IllegalStateException.class, manager::undo);
+    }
+
+    @Test
+    void drawnDoubleElimination_removeUnpairedEntrant_historyCleared() throws Exception {
+        assertRemovalFromBracketClearsHistory(new DoubleEliminationFormat<>());
+    }
+
+    @Test
+    void startedSeededBracket_removeUnpairedEntrant_historyCleared() throws Exception {
+        assertRemovalFromBracketClearsHistory(new SeededBracketFormat<>());
+    }
+
+    private void assertRemovalFromBracketClearsHistory(TournamentFormat<TestEntrant> format) throws Exception {
+        Tournament<TestEntrant> bracket = new Tournament<>(format);
+        UndoableRoundManager<TestEntrant> bracketManager = new UndoableRoundManager<>(bracket, 4);
+        for (TestEntrant entrant : List.of(first, second, third, fourth))
+            bracketManager.addEntrant(entrant);
+
+        Pairing<TestEntrant> pairing = bracketManager.nextPairing();
+        bracketManager.declareWinner(pairing.getFirst(), pairing);
+        assertTrue(bracketManager.canUndo());
+
+        TestEntrant unpairedEntrant = List.of(first, second, third, fourth).stream()
+                .filter(entrant -> !pairing.contains(entrant))
+                .findFirst().orElseThrow();
+        assertFalse(bracket.getCurrentRound().canAddEntrantAgain(unpairedEntrant));
+        bracketManager.removeEntrant(unpairedEntrant);
+
+        assertFalse(bracketManager.canUndo());
+        assertEquals(RoundOperation.Type.REMOVE, bracketManager.getClearingOperation());
+        assertThrows(IllegalStateException.class, bracketManager::undo);
+    }
+
+    @Test
+    void newOperation_redo_throwsIllegalStateException() throws Exception {
+        manager.undo();
+        manager.addEntrant(createEntrant());
+
+        assertFalse(manager.canRedo());
+        assertThrows(IllegalStateException.class, manager::redo);
+    }
+
+    @Test
+    void fullHistory_undo_oldestStepsForgotten() throws Exception {
+        TestEntrant fifth = createEntrant();
+        manager.addEntrant(fifth);
+
+        for (int i = 0; i < 4; ++i)
+            manager.undo();
+
+        assertFalse(manager.canUndo());
+        assertEquals(List.of(first), new ArrayList<>(tournament.getCurrentRound().getEntrants()));
+    }
+
+    @Test
+    void journaledManager_undo_inverseOperationsRecorded() throws Exception {
+        ArrayList<RoundOperation<TestEntrant>> operations = new ArrayList<>();
+        UndoableRoundManager<TestEntrant> journaledManager = new UndoableRoundManager<>(
+                new JournaledRoundManager<>(tournament, operations::add), 4);
+        Pairing<TestEntrant> pairing = journaledManager.nextPairing();
+        journaledManager.declareWinner(pairing.getFirst());
+
+        journaledManager.undo();
+
+        assertEquals(3, operations.size());
+        assertEquals(RoundOperation.Type.REPLAY, operations.get(2).getType());
+        assertEquals(List.of(pairing.getFirst(), pairing.getSecond()), operations.get(2).getEntrants());
+    }
+}
@@ -0,0 +1,208 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Standings;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.exceptions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleEliminationTest extends RoundTest {
+
+    private DoubleElimination<TestEntrant> createRound(List<TestEntrant> entrants) throws Exception {
+        return createRound(entrants, random.nextLong());
+    }
+
+    private DoubleElimination<TestEntrant> createRound(List<TestEntrant> entrants, long drawSeed) throws Exception {
+        DoubleElimination<TestEntrant> round = new DoubleElimination<>(drawSeed);
+        for (TestEntrant entrant : entrants)
+            round.addEntrant(entrant);
+        return round;
+    }
+
+    private List<TestEntrant> createEntrants(int count) {
+        ArrayList<TestEntrant> entrants = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entrants.add(createEntrant());
+        return entrants;
+    }
+
+    /**
+     * Plays all pairings, the entrant that comes first in the list always wins.
+     * @return The number of losses of every entrant.
+     */
+    private HashMap<TestEntrant, Integer> playAll(DoubleElimination<TestEntrant> round, List<TestEntrant> entrants)
+            throws Exception {
+
+        HashMap<TestEntrant, Integer> losses = new HashMap<>();
+        while (!round.isFinished())
+            for (Pairing<TestEntrant> pairing : round.pairAll()) {
+                int firstIndex = entrants.indexOf(pairing.getFirst());
+                int secondIndex = entrants.indexOf(pairing.getSecond());
+                TestEntrant winner = firstIndex < secondIndex ? pairing.getFirst() : pairing.getSecond();
+                round.declareWinner(winner);
+                losses.merge(pairing.getOther(winner), 1, Integer::sum);
+            }
+
+        return losses;
+    }
+
+    @Test
+    void emptyRound_nextPairing_throwsNoEntrantsException() {
+        DoubleElimination<TestEntrant> round = new DoubleElimination<>();
+
+        assertThrows(NoEntrantsException.class, round::nextPairing);
+    }
+
+    @Test
+    void singleEntrant_nextPairing_throwsNoOpponentException() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first));
+
+        assertThrows(NoOpponentException.class, round::nextPairing);
+        assertFalse(round.isDrawn());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 3, 4, 5, 7, 8, 13, 64 })
+    void entrants_playAll_eliminatedAfterTwoLosses(int count) throws Exception {
+        List<TestEntrant> entrants = createEntrants(count);
+        DoubleElimination<TestEntrant> round = createRound(entrants);
+
+        HashMap<TestEntrant, Integer> losses = playAll(round, entrants);
+
+        assertTrue(round.hasWon(entrants.get(0)));
+        assertFalse(round.isBracketReset());
+        assertFalse(losses.containsKey(entrants.get(0)));
+        for (TestEntrant entrant : entrants.subList(1, count)) {
+            assertEquals(2, losses.get(entrant));
+            assertTrue(round.hasLost(entrant));
+        }
+
+        assertEquals(2 * (count - 1), losses.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(Placement.FIRST, round.getPlacement(entrants.get(0)));
+        assertEquals(Placement.SECOND, round.getPlacement(entrants.get(1)));
+
+        // Lower placements depend on the draw, but every one of them is given once.
+        Standings<TestEntrant> standings = round.getStandings();
+        assertEquals(Math.min(count, 4), standings.size());
+        for (int rank = 3; rank <= standings.size(); ++rank)
+            assertNotNull(standings.get(rank));
+    }
+
+    @Test
+    void grandFinalWonFromLosersBracket_nextPairing_resetIsPlayed() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first, second));
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        round.declareWinner(first);
+        assertEquals(pairing, round.nextPairing());
+        round.declareWinner(second);
+
+        assertTrue(round.isBracketReset());
+        assertFalse(round.isFinished());
+        assertEquals(pairing, round.nextPairing());
+        round.declareWinner(second);
+
+        assertTrue(round.isFinished());
+        assertEquals(Placement.FIRST, round.getPlacement(second));
+        assertEquals(Placement.SECOND, round.getPlacement(first));
+        assertThrows(NoMorePairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void finishedReset_replayPairing_resetIsActiveAgain() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first, second));
+        for (int i = 0; i < 3; ++i) {
+            round.nextPairing();
+            round.declareWinner(i == 0 ? first : second);
+        }
+
+        assertTrue(round.replayPairing(new Pairing<>(first, second)));
+
+        assertFalse(round.isFinished());
+        assertTrue(round.isBracketReset());
+        assertTrue(round.isEntrantPaired(first));
+        assertEquals(Placement.TBD, round.getPlacement(first));
+        assertEquals(Placement.TBD, round.getPlacement(second));
+    }
+
+    @Test
+    void firstRoundLoser_replayPairing_leavesLosersBracket() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first, second, third, fourth));
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        TestEntrant loser = pairing.getSecond();
+        round.declareWinner(winner);
+        assertTrue(round.isInLosersBracket(loser));
+
+        assertTrue(round.replayPairing(pairing));
+
+        assertFalse(round.isInLosersBracket(loser));
+        assertTrue(round.getActivePairings().contains(pairing));
+        assertFalse(round.getFinishedPairings().contains(pairing));
+    }
+
+    @Test
+    void nextMatchStarted_replayPairing_throwsOrphanedPairingException() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first, second, third, fourth));
+
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+        for (Pairing<TestEntrant> pairing : pairings)
+            round.declareWinner(pairing.getFirst());
+        round.pairAll();
+
+        assertThrows(OrphanedPairingException.class, () -> round.replayPairing(pairings.get(0)));
+    }
+
+    @Test
+    void drawnRound_addEntrant_throwsNewEntrantsNotAllowedException() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first, second, third));
+        round.nextPairing();
+
+        assertThrows(NewEntrantsNotAllowedException.class, () -> round.addEntrant(fourth));
+    }
+
+    @Test
+    void pairedEntrant_removeEntrant_opponentWinsByWalkover() throws Exception {
+        DoubleElimination<TestEntrant> round = createRound(List.of(first, second, third, fourth));
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        round.removeEntrant(pairing.getFirst());
+
+        assertFalse(round.getActivePairings().contains(pairing));
+        assertFalse(round.getFinishedPairings().contains(pairing));
+        assertTrue(round.hasLost(pairing.getFirst()));
+        assertFalse(round.hasLost(pairing.getSecond()));
+        assertFalse(round.isInLosersBracket(pairing.getSecond()));
+    }
+
+    @Test
+    void sameDrawSeed_startPairing_drawsSameBracket() throws Exception {
+        List<TestEntrant> entrants = createEntrants(11);
+        long drawSeed = random.nextLong();
+        DoubleElimination<TestEntrant> round = createRound(entrants, drawSeed);
+        DoubleElimination<TestEntrant> replayedRound = createRound(entrants, drawSeed);
+
+        while (!round.isFinished()) {
+            Pairing<TestEntrant> pairing = round.nextPairing();
+            assertEquals(pairing, replayedRound.startPairing(pairing));
+
+            TestEntrant winner = random.nextBoolean() ? pairing.getFirst() : pairing.getSecond();
+            round.declareWinner(winner);
+            replayedRound.declareWinner(winner);
+        }
+
+        assertTrue(replayedRound.isFinished());
+        assertEquals(round.getStandings().getFirstPlace(), replayedRound.getStandings().getFirstPlace());
+    }
+}
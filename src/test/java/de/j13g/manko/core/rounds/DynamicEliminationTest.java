@@ -2,6 +2,7 @@ package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.RoundTest;
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
 import de.j13g.manko.core.TestEntrant;
 import de.j13g.manko.core.exceptions.*;
 import org.junit.jupiter.api.Assertions;
@@ -157,6 +158,29 @@ public class DynamicEliminationTest extends RoundTest {
         assertTrue(multiEntrantRound.isEntrantEliminated(p2.getSecond()));
     }
 
+    @Test
+    void multiEntrantRound_pairAll_everyEntrantPairedOnce() throws Exception {
+        List<Pairing<TestEntrant>> pairings = multiEntrantRound.pairAll();
+
+        assertEquals(entrants.size() / 2, pairings.size());
+        assertEquals(new HashSet<>(pairings), multiEntrantRound.getActivePairings());
+        assertTrue(multiEntrantRound.getPendingEntrants().isEmpty());
+        for (TestEntrant entrant : entrants)
+            assertTrue(multiEntrantRound.isEntrantPaired(entrant));
+    }
+
+    @Test
+    void oddEntrantRound_pairAll_oneEntrantPending() throws Exception {
+        multiEntrantRound.addEntrant(createEntrant());
+        multiEntrantRound.pairAll();
+        assertEquals(1, multiEntrantRound.getPendingEntrants().size());
+    }
+
+    @Test
+    void oneEntrantRound_pairAll_throwsNoOpponentException() {
+        assertThrows(NoOpponentException.class, () -> oneEntrantRound.pairAll());
+    }
+
     // declareWinner()
 
     @Test
@@ -337,6 +361,36 @@ public class DynamicEliminationTest extends RoundTest {
         assertFalse(singlePairFinishedRound.isEntrantAdvanced(winner));
     }
 
+    @Test
+    void singlePairFinishedRound_removeWinnerAndLoser_resultsKept() {
+        singlePairFinishedRound.removeEntrant(winner);
+        singlePairFinishedRound.removeEntrant(loser);
+
+        assertTrue(singlePairFinishedRound.hasEntrantResult(winner));
+        assertTrue(singlePairFinishedRound.hasEntrantResult(loser));
+
+        singlePairFinishedRound.resetEntrant(winner);
+        assertFalse(singlePairFinishedRound.hasEntrantResult(winner));
+    }
+
+    @Test
+    void singlePairFinishedRound_removeAndAddWinner_advancedAgain() {
+        singlePairFinishedRound.removeEntrant(winner);
+        assertTrue(singlePairFinishedRound.hasWon(winner));
+
+        singlePairFinishedRound.addEntrant(winner);
+        assertTrue(singlePairFinishedRound.isEntrantAdvanced(winner));
+        assertTrue(singlePairFinishedRound.isFinished());
+    }
+
+    @Test
+    void singlePairFinishedRound_removeWinner_entrantSetsExcludeWinner() {
+        singlePairFinishedRound.removeEntrant(winner);
+        assertEquals(Set.of(loser), singlePairFinishedRound.getEntrants());
+        assertTrue(singlePairFinishedRound.getAdvancedEntrants().isEmpty());
+        assertEquals(Set.of(winner, loser), Set.copyOf(singlePairFinishedRound.getEntrantsWithState().toList()));
+    }
+
     @Test
     void singlePairFinishedRound_resetAdvanced_keepsFinishedPairing() {
         singlePairFinishedRound.resetEntrant(winner);
@@ -460,6 +514,49 @@ public class DynamicEliminationTest extends RoundTest {
         assertTrue(singlePairFinishedRound.isFinished());
     }
 
+    // declareResults()
+
+    @Test
+    void pairedMultiEntrantRound_declareResults_allPairingsFinished() throws Exception {
+        List<Pairing<TestEntrant>> pairings = multiEntrantRound.pairAll();
+        Pairing<TestEntrant> tiePairing = pairings.get(0);
+
+        List<Result<TestEntrant>> results = new ArrayList<>();
+        results.add(Result.tie(tiePairing));
+        for (Pairing<TestEntrant> pairing : pairings.subList(1, pairings.size()))
+            results.add(Result.win(pairing.getFirst()));
+
+        assertEquals(pairings, multiEntrantRound.declareResults(results));
+        assertTrue(multiEntrantRound.isFinished());
+        assertTrue(multiEntrantRound.isEntrantEliminated(tiePairing.getFirst()));
+        assertTrue(multiEntrantRound.isEntrantEliminated(tiePairing.getSecond()));
+        for (Pairing<TestEntrant> pairing : pairings.subList(1, pairings.size())) {
+            assertTrue(multiEntrantRound.isEntrantAdvanced(pairing.getFirst()));
+            assertTrue(multiEntrantRound.isEntrantEliminated(pairing.getSecond()));
+        }
+    }
+
+    @Test
+    void pairedMultiEntrantRound_declareResultsWithUnpairedEntrant_nothingDeclared() throws Exception {
+        List<Pairing<TestEntrant>> pairings = multiEntrantRound.nextPairings(2);
+        TestEntrant unpaired = multiEntrantRound.getPendingEntrants().iterator().next();
+        long version = multiEntrantRound.getVersion();
+
+        List<Result<TestEntrant>> results = List.of(Result.win(pairings.get(0).getFirst()), Result.win(unpaired));
+
+        assertThrows(MissingPairingException.class, () -> multiEntrantRound.declareResults(results));
+        assertEquals(new HashSet<>(pairings), multiEntrantRound.getActivePairings());
+        assertEquals(version, multiEntrantRound.getVersion());
+    }
+
+    @Test
+    void singlePairRound_declareResultsTwiceForPairing_throwsNoSuchPairingException() {
+        List<Result<TestEntrant>> results = List.of(Result.win(first), Result.win(second));
+        assertThrows(NoSuchPairingException.class, () -> singlePairRound.declareResults(results));
+        assertTrue(singlePairRound.isEntrantPaired(first));
+        assertTrue(singlePairRound.isEntrantPaired(second));
+    }
+
     // Identities
 
     @Test
@@ -475,6 +572,29 @@ public class DynamicEliminationTest extends RoundTest {
         assertEquals(singlePairFinishedRound.hasStateAbout(winner), otherRound.hasStateAbout(winner));
     }
 
+    // getVersion()
+
+    @Test
+    void singlePairRound_declareWinner_versionChanges() {
+        long version = singlePairRound.getVersion();
+        assertDoesNotThrow(() -> singlePairRound.declareWinner(first));
+        assertNotEquals(version, singlePairRound.getVersion());
+    }
+
+    @Test
+    void twoEntrantRound_addContainedEntrant_versionUnchanged() {
+        long version = twoEntrantRound.getVersion();
+        twoEntrantRound.addEntrant(first);
+        assertEquals(version, twoEntrantRound.getVersion());
+    }
+
+    @Test
+    void twoEntrantRound_removeNonContainedEntrant_versionUnchanged() {
+        long version = twoEntrantRound.getVersion();
+        twoEntrantRound.removeEntrant(invalidEntrant);
+        assertEquals(version, twoEntrantRound.getVersion());
+    }
+
     // Miscellaneous
 
     @Test
@@ -3,6 +3,7 @@ package de.j13g.manko.core.rounds;
 import de.j13g.manko.RoundTest;
 import de.j13g.manko.core.Pairing;
 import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Result;
 import de.j13g.manko.core.TestEntrant;
 import de.j13g.manko.core.exceptions.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -218,6 +219,13 @@ class FinalTest extends RoundTest {
         assertEquals(Placement.SECOND, finalAtFirstPlace.getPlacement(second));
     }
 
+    @Test
+    void finalAtThirdPlace_declareResultsWithTie_throwsUnsupportedOperationException() {
+        List<Result<TestEntrant>> results = List.of(Result.tie(thirdPlacePairing));
+        assertThrows(UnsupportedOperationException.class, () -> finalAtThirdPlace.declareResults(results));
+        assertTrue(finalAtThirdPlace.getPairings().isActive(thirdPlacePairing));
+    }
+
     // Identities
 
     @ParameterizedTest
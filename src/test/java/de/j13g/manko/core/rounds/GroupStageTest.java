@@ -0,0 +1,243 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Result;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupStageTest extends RoundTest {
+
+    private GroupStage<TestEntrant> createGroupStage(List<TestEntrant> entrants, int groupCount,
+                                                     GroupStage.Seeding seeding) throws Exception {
+        return createGroupStage(entrants, groupCount, seeding, random.nextLong());
+    }
+
+    private GroupStage<TestEntrant> createGroupStage(List<TestEntrant> entrants, int groupCount,
+                                                     GroupStage.Seeding seeding, long drawSeed) throws Exception {
+        GroupStage<TestEntrant> round = new GroupStage<>(groupCount, 2, seeding, drawSeed);
+        for (TestEntrant entrant : entrants)
+            round.addEntrant(entrant);
+        return round;
+    }
+
+    private List<TestEntrant> createEntrants(int count) {
+        ArrayList<TestEntrant> entrants = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entrants.add(createEntrant());
+        return entrants;
+    }
+
+    /**
+     * Plays all pairings, the entrant that was added first always wins.
+     */
+    private void playAll(GroupStage<TestEntrant> round, List<TestEntrant> entrants) throws Exception {
+        while (!round.isFinished()) {
+            ArrayList<Result<TestEntrant>> results = new ArrayList<>();
+            for (Pairing<TestEntrant> pairing : round.pairAll())
+                results.add(Result.win(winnerOf(pairing, entrants), pairing));
+            round.declareResults(results);
+        }
+    }
+
+    private TestEntrant winnerOf(Pairing<TestEntrant> pairing, List<TestEntrant> entrants) {
+        TestEntrant first = pairing.getFirst();
+        TestEntrant second = pairing.getSecond();
+        return entrants.indexOf(first) < entrants.indexOf(second) ? first : second;
+    }
+
+    @Test
+    void emptyGroupStage_nextPairing_throwsNoEntrantsException() {
+        GroupStage<TestEntrant> round = new GroupStage<>(2, 1, GroupStage.Seeding.SNAKE);
+
+        assertThrows(NoEntrantsException.class, round::nextPairing);
+    }
+
+    @Test
+    void oneEntrant_nextPairing_throwsNoOpponentException() throws Exception {
+        GroupStage<TestEntrant> round = createGroupStage(List.of(first), 2, GroupStage.Seeding.SNAKE);
+
+        assertThrows(NoOpponentException.class, round::nextPairing);
+    }
+
+    @Test
+    void eightEntrants_snakeSeeding_groupsAlternate() throws Exception {
+        List<TestEntrant> entrants = createEntrants(8);
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 2, GroupStage.Seeding.SNAKE);
+
+        round.nextPairing();
+
+        int[] expectedGroups = { 0, 1, 1, 0, 0, 1, 1, 0 };
+        for (int seed = 0; seed < entrants.size(); ++seed)
+            assertEquals(expectedGroups[seed], round.getGroupIndex(entrants.get(seed)));
+    }
+
+    @Test
+    void threeEntrants_manyGroups_groupsHaveOpponents() throws Exception {
+        GroupStage<TestEntrant> round = createGroupStage(List.of(first, second, third), 4, GroupStage.Seeding.SNAKE);
+
+        round.nextPairing();
+
+        assertEquals(1, round.getGroups().size());
+        assertEquals(3, round.getGroups().get(0).getEntrants().size());
+    }
+
+    @Test
+    void sameDrawSeed_randomSeeding_sameGroups() throws Exception {
+        List<TestEntrant> entrants = createEntrants(9);
+        long drawSeed = random.nextLong();
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 3, GroupStage.Seeding.RANDOM, drawSeed);
+        GroupStage<TestEntrant> other = createGroupStage(entrants, 3, GroupStage.Seeding.RANDOM, drawSeed);
+
+        round.nextPairing();
+        other.nextPairing();
+
+        for (TestEntrant entrant : entrants)
+            assertEquals(round.getGroupIndex(entrant), other.getGroupIndex(entrant));
+        for (RoundRobin<TestEntrant> group : round.getGroups())
+            assertEquals(3, group.getEntrants().size());
+    }
+
+    @Test
+    void drawnGroups_pairAll_onlyPairsWithinGroups() throws Exception {
+        GroupStage<TestEntrant> round = createGroupStage(createEntrants(10), 3, GroupStage.Seeding.SNAKE);
+
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            assertEquals(round.getGroupIndex(pairing.getFirst()), round.getGroupIndex(pairing.getSecond()));
+    }
+
+    @Test
+    void entrantsOfDifferentGroups_startPairing_throwsNoSuchPairingException() throws Exception {
+        List<TestEntrant> entrants = createEntrants(4);
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 2, GroupStage.Seeding.SNAKE);
+
+        assertThrows(NoSuchPairingException.class,
+                () -> round.startPairing(new Pairing<>(entrants.get(0), entrants.get(1))));
+        assertEquals(new Pairing<>(entrants.get(0), entrants.get(3)),
+                round.startPairing(new Pairing<>(entrants.get(0), entrants.get(3))));
+    }
+
+    @Test
+    void drawnGroups_addEntrant_throwsNewEntrantsNotAllowedException() throws Exception {
+        GroupStage<TestEntrant> round = createGroupStage(List.of(first, second), 1, GroupStage.Seeding.SNAKE);
+        round.nextPairing();
+
+        assertThrows(NewEntrantsNotAllowedException.class, () -> round.addEntrant(third));
+    }
+
+    @Test
+    void tieResult_declareResults_noResultsDeclared() throws Exception {
+        GroupStage<TestEntrant> round = createGroupStage(List.of(first, second, third, fourth), 2,
+                GroupStage.Seeding.SNAKE);
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+
+        assertThrows(UnsupportedOperationException.class, () -> round.declareResults(List.of(
+                Result.win(pairings.get(0).getFirst(), pairings.get(0)), Result.tie(pairings.get(1)))));
+        assertTrue(round.getFinishedPairings().isEmpty());
+    }
+
+    @Test
+    void invalidResultInOneGroup_declareResults_noResultsDeclared() throws Exception {
+        List<TestEntrant> entrants = createEntrants(8);
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 2, GroupStage.Seeding.SNAKE);
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+        Pairing<TestEntrant> lastPairing = pairings.get(pairings.size() - 1);
+        round.declareWinner(lastPairing.getFirst(), lastPairing);
+
+        ArrayList<Result<TestEntrant>> results = new ArrayList<>();
+        for (Pairing<TestEntrant> pairing : pairings)
+            results.add(Result.win(pairing.getFirst(), pairing));
+
+        assertThrows(NoSuchPairingException.class, () -> round.declareResults(results));
+        assertEquals(1, round.getFinishedPairings().size());
+        assertEquals(pairings.size() - 1, round.getActivePairings().size());
+    }
+
+    @Test
+    void finishedGroupStage_getAdvancedEntrants_bestOfEveryGroup() throws Exception {
+        List<TestEntrant> entrants = createEntrants(8);
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 2, GroupStage.Seeding.SNAKE);
+
+        playAll(round, entrants);
+
+        assertEquals(entrants.subList(0, 4), round.getAdvancedEntrants());
+        for (int rank = 0; rank < entrants.size(); ++rank)
+            assertEquals(entrants.get(rank), round.getStandings().get(rank + 1));
+        assertTrue(round.hasWon(entrants.get(3)));
+        assertTrue(round.hasLost(entrants.get(4)));
+    }
+
+    @Test
+    void groupsInParallel_declareWinner_allResultsDeclared() throws Exception {
+        List<TestEntrant> entrants = createEntrants(24);
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 6, GroupStage.Seeding.RANDOM);
+
+        while (!round.isFinished()) {
+            round.pairAll();
+
+            ArrayList<Thread> threads = new ArrayList<>();
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            for (RoundRobin<TestEntrant> group : round.getGroups()) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (TestEntrant entrant : group.getEntrants()) {
+                            Pairing<TestEntrant> pairing = round.getPairings().findActiveByEntrant(entrant);
+                            if (pairing != null)
+                                round.declareWinner(winnerOf(pairing, entrants), pairing);
+                        }
+                    }
+                    catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads)
+                thread.join();
+            assertEquals(List.of(), failures);
+        }
+
+        // Every entrant beat the entrants of its group that were added after it.
+        for (RoundRobin<TestEntrant> group : round.getGroups())
+            for (TestEntrant entrant : group.getEntrants()) {
+                long weakerCount = group.getEntrants().stream()
+                        .filter(other -> entrants.indexOf(other) > entrants.indexOf(entrant)).count();
+                assertEquals(weakerCount, round.getScore(entrant));
+            }
+    }
+
+    @Test
+    void groupResults_declareResults_scoresOfAllGroups() throws Exception {
+        List<TestEntrant> entrants = createEntrants(12);
+        GroupStage<TestEntrant> round = createGroupStage(entrants, 3, GroupStage.Seeding.SNAKE);
+
+        playAll(round, entrants);
+
+        assertEquals(3, round.getGroupStandings().size());
+        for (List<TestEntrant> groupStanding : round.getGroupStandings())
+            for (int rank = 0; rank < groupStanding.size(); ++rank)
+                assertEquals(groupStanding.size() - 1 - rank, round.getScore(groupStanding.get(rank)));
+    }
+
+    @Test
+    void newGroupStage_hasEntrantResult_onlyAfterFirstResult() throws Exception {
+        GroupStage<TestEntrant> round = createGroupStage(createEntrants(8), 2, GroupStage.Seeding.SNAKE);
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        assertFalse(round.hasEntrantResult(pairing.getFirst()));
+        assertFalse(round.hasEntrantResult(pairing.getSecond()));
+
+        round.declareWinner(pairing.getFirst(), pairing);
+        assertTrue(round.hasEntrantResult(pairing.getFirst()));
+        assertTrue(round.hasEntrantResult(pairing.getSecond()));
+    }
+}
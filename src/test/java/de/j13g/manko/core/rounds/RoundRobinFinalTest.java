@@ -2,7 +2,10 @@ package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.RoundTest;
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Standings;
 import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.exceptions.OrphanedPairingException;
 import de.j13g.manko.core.exceptions.UnfinishedPairingsException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,4 +49,93 @@ class RoundRobinFinalTest extends RoundTest {
         assertEquals(0, round.getScore(loser));
         assertEquals(0, round.getScore(other));
     }
-}
\ No newline at end of file
+
+    private void play(TestEntrant winner, TestEntrant loser) throws UnfinishedPairingsException {
+        round.startPairing(new Pairing<>(winner, loser));
+        round.declareWinner(winner);
+    }
+
+    @Test
+    void distinctScores_getPlacement_rankedByScore() throws UnfinishedPairingsException {
+        play(first, second);
+        play(first, third);
+        assertEquals(Placement.FIRST, round.getPlacement(first));
+        assertEquals(Placement.TBD, round.getPlacement(second));
+
+        play(second, third);
+
+        assertEquals(Placement.SECOND, round.getPlacement(second));
+        assertEquals(Placement.THIRD, round.getPlacement(third));
+        assertEquals(second, round.getEntrantByPlacement(Placement.SECOND));
+        assertFalse(round.isTie());
+
+        Standings<TestEntrant> standings = round.getStandings();
+        assertEquals(first, standings.get(1));
+        assertEquals(second, standings.get(2));
+        assertEquals(third, standings.get(3));
+    }
+
+    @Test
+    void equalScores_getPlacement_none() throws UnfinishedPairingsException {
+        play(first, second);
+        play(third, first);
+        play(second, third);
+
+        assertTrue(round.isTie());
+        for (TestEntrant entrant : Arrays.asList(first, second, third))
+            assertEquals(Placement.NONE, round.getPlacement(entrant));
+        assertNull(round.getEntrantByPlacement(Placement.FIRST));
+        assertNull(round.getStandings().get(1));
+    }
+
+    @Test
+    void removedEntrant_getPlacement_placedByScore() throws UnfinishedPairingsException {
+        round.removeEntrant(first);
+        play(second, third);
+
+        assertEquals(Placement.FIRST, round.getPlacement(second));
+        assertEquals(Placement.SECOND, round.getPlacement(third));
+        assertEquals(third, round.getEntrantByPlacement(Placement.SECOND));
+        assertNull(round.getEntrantByPlacement(Placement.THIRD));
+    }
+
+    @Test
+    void finishedRound_removeWinner_placementsByScoreKept() throws UnfinishedPairingsException {
+        play(first, second);
+        play(first, third);
+        play(second, third);
+
+        round.removeEntrant(first);
+
+        assertEquals(Placement.SECOND, round.getPlacement(second));
+        assertEquals(Placement.THIRD, round.getPlacement(third));
+        assertEquals(third, round.getEntrantByPlacement(Placement.THIRD));
+        assertNull(round.getEntrantByPlacement(Placement.FIRST));
+    }
+
+    @Test
+    void replayedPairing_getPlacement_updated() throws UnfinishedPairingsException, OrphanedPairingException {
+        play(first, second);
+        play(first, third);
+        play(second, third);
+
+        round.replayPairing(new Pairing<>(second, third));
+        round.declareWinner(third);
+
+        assertEquals(Placement.SECOND, round.getPlacement(third));
+        assertEquals(Placement.THIRD, round.getPlacement(second));
+    }
+
+    @Test
+    void unfinishedRound_getEntrantByPlacement_onlyFirstKnown() throws UnfinishedPairingsException {
+        assertFalse(round.hasEntrantResult(first));
+
+        play(first, second);
+        play(first, third);
+
+        assertTrue(round.hasEntrantResult(third));
+        assertEquals(first, round.getEntrantByPlacement(Placement.FIRST));
+        assertNull(round.getEntrantByPlacement(Placement.SECOND));
+        assertNull(round.getEntrantByPlacement(Placement.THIRD));
+    }
+}
@@ -0,0 +1,222 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.exceptions.NewEntrantsNotAllowedException;
+import de.j13g.manko.core.exceptions.NoMorePairingsException;
+import de.j13g.manko.core.exceptions.UnfinishedPairingsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoundRobinTest extends RoundTest {
+
+    private List<TestEntrant> createEntrants(int count) {
+        ArrayList<TestEntrant> entrants = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entrants.add(createEntrant());
+        return entrants;
+    }
+
+    /**
+     * Plays all pairings, the entrant that comes first in the list always wins.
+     */
+    private void playAll(RoundRobin<TestEntrant> round, List<TestEntrant> entrants) throws UnfinishedPairingsException {
+        while (!round.isFinished())
+            for (Pairing<TestEntrant> pairing : round.pairAll()) {
+                int firstIndex = entrants.indexOf(pairing.getFirst());
+                int secondIndex = entrants.indexOf(pairing.getSecond());
+                round.declareWinner(firstIndex < secondIndex ? pairing.getFirst() : pairing.getSecond());
+            }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 3, 4, 5, 8, 11 })
+    void entrants_getScheduledPairings_everyPairingOnceAndEntrantsOncePerDay(int count) {
+        RoundRobin<TestEntrant> round = new RoundRobin<>(createEntrants(count));
+
+        HashSet<Pairing<TestEntrant>> pairings = new HashSet<>();
+        for (int day = 0; day < round.getDayCount(); ++day) {
+            HashSet<TestEntrant> dayEntrants = new HashSet<>();
+            for (Pairing<TestEntrant> pairing : round.getScheduledPairings(day)) {
+                assertNotEquals(pairing.getFirst(), pairing.getSecond());
+                assertTrue(dayEntrants.add(pairing.getFirst()));
+                assertTrue(dayEntrants.add(pairing.getSecond()));
+                assertTrue(pairings.add(pairing));
+            }
+        }
+
+        assertEquals(count * (count - 1) / 2, pairings.size());
+    }
+
+    @Test
+    void newRound_pairAll_pairsFirstDay() throws Exception {
+        List<TestEntrant> entrants = createEntrants(6);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+
+        assertEquals(new HashSet<>(round.getScheduledPairings(0)), new HashSet<>(pairings));
+        assertEquals(Set.copyOf(entrants), round.getPairedEntrants());
+        assertThrows(UnfinishedPairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void unfinishedDay_nextPairing_waitsForDay() throws Exception {
+        RoundRobin<TestEntrant> round = new RoundRobin<>(createEntrants(4));
+
+        Pairing<TestEntrant> firstPairing = round.nextPairing();
+        round.declareWinner(firstPairing.getFirst());
+        Pairing<TestEntrant> secondPairing = round.nextPairing();
+
+        assertEquals(Set.of(firstPairing, secondPairing), new HashSet<>(round.getScheduledPairings(0)));
+        assertThrows(UnfinishedPairingsException.class, round::nextPairing);
+
+        round.declareWinner(secondPairing.getFirst());
+        assertTrue(round.getScheduledPairings(1).contains(round.nextPairing()));
+    }
+
+    @Test
+    void allPairingsPlayed_getPlacement_rankedByWins() throws Exception {
+        List<TestEntrant> entrants = createEntrants(5);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+
+        playAll(round, entrants);
+
+        assertEquals(10, round.getFinishedPairings().size());
+        for (int i = 0; i < entrants.size(); ++i) {
+            assertEquals(entrants.size() - 1 - i, round.getScore(entrants.get(i)));
+            assertEquals(Placement.of(i + 1), round.getPlacement(entrants.get(i)));
+            assertEquals(entrants.get(i), round.getStandings().get(i + 1));
+        }
+
+        assertThrows(NoMorePairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void removedEntrant_finish_opponentsWinRemainingPairings() throws Exception {
+        List<TestEntrant> entrants = createEntrants(4);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+        TestEntrant removed = entrants.get(0);
+
+        round.removeEntrant(removed);
+        for (TestEntrant entrant : entrants.subList(1, 4))
+            assertEquals(1, round.getScore(entrant));
+
+        playAll(round, entrants);
+
+        assertEquals(3, round.getFinishedPairings().size());
+        assertEquals(Placement.FIRST, round.getPlacement(entrants.get(1)));
+        assertEquals(Placement.THIRD, round.getPlacement(entrants.get(3)));
+    }
+
+    @Test
+    void removedEntrant_addEntrant_pairingsPostponed() throws Exception {
+        List<TestEntrant> entrants = createEntrants(4);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+        TestEntrant removed = entrants.get(0);
+
+        round.removeEntrant(removed);
+        playAll(round, entrants);
+        round.addEntrant(removed);
+
+        assertFalse(round.isFinished());
+        for (TestEntrant entrant : entrants.subList(1, 4))
+            assertTrue(round.getScore(entrant) < 3);
+
+        playAll(round, entrants);
+
+        assertEquals(6, round.getFinishedPairings().size());
+        assertEquals(Placement.FIRST, round.getPlacement(removed));
+    }
+
+    @Test
+    void pairedEntrant_removeAndAddEntrant_pairingPostponed() throws Exception {
+        List<TestEntrant> entrants = createEntrants(4);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+        TestEntrant removed = entrants.get(0);
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        assertTrue(pairing.contains(removed));
+        round.removeEntrant(removed);
+        round.addEntrant(removed);
+
+        playAll(round, entrants);
+
+        assertEquals(6, round.getFinishedPairings().size());
+        assertTrue(round.getFinishedPairings().contains(pairing));
+        assertThrows(NoMorePairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void replayedJournal_nextPairing_sameAsRecorded() throws Exception {
+        List<TestEntrant> entrants = createEntrants(4);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+        RoundRobin<TestEntrant> replayed = new RoundRobin<>(entrants);
+        TestEntrant removed = entrants.get(1);
+
+        // A journal records started pairings, but not the attempts to pair that failed.
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        replayed.startPairing(pairing);
+        round.removeEntrant(removed);
+        replayed.removeEntrant(removed);
+        assertThrows(UnfinishedPairingsException.class, round::nextPairing);
+        round.addEntrant(removed);
+        replayed.addEntrant(removed);
+        round.declareWinner(pairing.getFirst(), pairing);
+        replayed.declareWinner(pairing.getFirst(), pairing);
+
+        while (!round.isFinished()) {
+            pairing = round.nextPairing();
+            assertEquals(pairing, replayed.nextPairing());
+            round.declareWinner(pairing.getFirst(), pairing);
+            replayed.declareWinner(pairing.getFirst(), pairing);
+        }
+
+        assertTrue(replayed.isFinished());
+    }
+
+    @Test
+    void replayedPairing_declareWinner_scoresUpdated() throws Exception {
+        List<TestEntrant> entrants = createEntrants(3);
+        RoundRobin<TestEntrant> round = new RoundRobin<>(entrants);
+        playAll(round, entrants);
+
+        Pairing<TestEntrant> pairing = new Pairing<>(entrants.get(0), entrants.get(1));
+        round.replayPairing(pairing);
+        round.declareWinner(entrants.get(1));
+
+        assertEquals(1, round.getScore(entrants.get(0)));
+        assertEquals(2, round.getScore(entrants.get(1)));
+        assertEquals(Placement.FIRST, round.getPlacement(entrants.get(1)));
+    }
+
+    @Test
+    void unknownEntrant_addEntrant_throws() {
+        RoundRobin<TestEntrant> round = new RoundRobin<>(List.of(first, second));
+        assertThrows(NewEntrantsNotAllowedException.class, () -> round.addEntrant(invalidEntrant));
+    }
+
+    @Test
+    void newRound_hasEntrantResult_onlyAfterFirstResult() throws Exception {
+        RoundRobin<TestEntrant> round = new RoundRobin<>(List.of(first, second, third));
+        assertFalse(round.hasEntrantResult(first));
+
+        Pairing<TestEntrant> pairing = round.startPairing(new Pairing<>(first, second));
+        assertFalse(round.hasEntrantResult(first));
+
+        round.declareWinner(first, pairing);
+        assertTrue(round.hasEntrantResult(first));
+        assertTrue(round.hasEntrantResult(second));
+        assertFalse(round.hasEntrantResult(third));
+    }
+}
@@ -0,0 +1,183 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeededBracketTest extends RoundTest {
+
+    private List<TestEntrant> createEntrants(int count) {
+        ArrayList<TestEntrant> entrants = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entrants.add(createEntrant());
+        return entrants;
+    }
+
+    private SeededBracket<TestEntrant> createBracket(List<TestEntrant> seeds) {
+        return new SeededBracket<>(new EntrantRegistry<>(), seeds);
+    }
+
+    /**
+     * Plays all pairings, the higher seed always wins.
+     */
+    private void playAll(SeededBracket<TestEntrant> round) throws Exception {
+        while (!round.isFinished())
+            for (Pairing<TestEntrant> pairing : round.pairAll()) {
+                TestEntrant first = pairing.getFirst();
+                TestEntrant second = pairing.getSecond();
+                round.declareWinner(round.getSeed(first) < round.getSeed(second) ? first : second);
+            }
+    }
+
+    @Test
+    void emptyBracket_nextPairing_throwsNoEntrantsException() {
+        SeededBracket<TestEntrant> round = new SeededBracket<>();
+
+        assertThrows(NoEntrantsException.class, round::nextPairing);
+    }
+
+    @Test
+    void eightSeeds_pairAll_seedsAddUpToNine() throws Exception {
+        List<TestEntrant> seeds = createEntrants(8);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+
+        assertEquals(4, pairings.size());
+        for (Pairing<TestEntrant> pairing : pairings)
+            assertEquals(9, round.getSeed(pairing.getFirst()) + round.getSeed(pairing.getSecond()));
+    }
+
+    @Test
+    void sixSeeds_pairAll_topSeedsHaveByes() throws Exception {
+        List<TestEntrant> seeds = createEntrants(6);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+
+        assertEquals(2, pairings.size());
+        assertFalse(round.isEntrantPaired(seeds.get(0)));
+        assertFalse(round.isEntrantPaired(seeds.get(1)));
+        assertNull(round.getNextOpponent(seeds.get(0)));
+        assertEquals(seeds.get(4), round.getNextOpponent(seeds.get(3)));
+    }
+
+    @Test
+    void decidedMatch_getNextOpponent_isWinnerOfSiblingMatch() throws Exception {
+        List<TestEntrant> seeds = createEntrants(4);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+        round.pairAll();
+
+        round.declareWinner(seeds.get(0));
+        assertNull(round.getNextOpponent(seeds.get(0)));
+
+        round.declareWinner(seeds.get(2));
+        assertEquals(seeds.get(2), round.getNextOpponent(seeds.get(0)));
+        assertEquals(new Pairing<>(seeds.get(0), seeds.get(2)), round.nextPairing());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 3, 5, 8, 13, 100 })
+    void seeds_playAll_topSeedsInFinal(int count) throws Exception {
+        List<TestEntrant> seeds = createEntrants(count);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+
+        playAll(round);
+
+        assertEquals(seeds.get(0), round.getStandings().getFirstPlace());
+        assertEquals(seeds.get(1), round.getStandings().getSecondPlace());
+        assertEquals(count - 1, round.getFinishedPairings().size());
+        for (TestEntrant entrant : seeds.subList(2, count)) {
+            assertTrue(round.hasLost(entrant));
+            assertEquals(Placement.NONE, round.getPlacement(entrant));
+        }
+    }
+
+    @Test
+    void decidedMatch_replayPairing_winnerMovesBack() throws Exception {
+        List<TestEntrant> seeds = createEntrants(4);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+        round.pairAll();
+        Pairing<TestEntrant> pairing = round.declareWinner(seeds.get(0));
+        round.declareWinner(seeds.get(2));
+
+        assertTrue(round.replayPairing(pairing));
+
+        assertTrue(round.isEntrantPaired(seeds.get(0)));
+        assertNull(round.getNextOpponent(seeds.get(2)));
+        assertEquals(Placement.TBD, round.getPlacement(seeds.get(3)));
+        assertThrows(UnfinishedPairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void nextMatchStarted_replayPairing_throwsOrphanedPairingException() throws Exception {
+        List<TestEntrant> seeds = createEntrants(4);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+        round.pairAll();
+        Pairing<TestEntrant> pairing = round.declareWinner(seeds.get(0));
+        round.declareWinner(seeds.get(1));
+        round.nextPairing();
+
+        assertThrows(OrphanedPairingException.class, () -> round.replayPairing(pairing));
+    }
+
+    @Test
+    void waitingEntrant_removeEntrant_opponentWinsByWalkover() throws Exception {
+        List<TestEntrant> seeds = createEntrants(4);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+        round.pairAll();
+        round.declareWinner(seeds.get(0));
+
+        round.removeEntrant(seeds.get(0));
+        round.declareWinner(seeds.get(1));
+
+        assertTrue(round.isFinished());
+        assertTrue(round.hasWon(seeds.get(1)));
+        assertEquals(Placement.NONE, round.getPlacement(seeds.get(0)));
+    }
+
+    @Test
+    void unstartedBracket_removeEntrant_lowerSeedsMoveUp() throws Exception {
+        List<TestEntrant> seeds = createEntrants(3);
+        SeededBracket<TestEntrant> round = createBracket(seeds);
+
+        round.removeEntrant(seeds.get(0));
+        round.addEntrant(first);
+
+        assertEquals(1, round.getSeed(seeds.get(1)));
+        assertEquals(3, round.getSeed(first));
+        assertEquals(new Pairing<>(seeds.get(2), first), round.nextPairing());
+    }
+
+    @Test
+    void startedBracket_addEntrant_throwsNewEntrantsNotAllowedException() throws Exception {
+        SeededBracket<TestEntrant> round = createBracket(List.of(first, second));
+        round.nextPairing();
+
+        assertThrows(NewEntrantsNotAllowedException.class, () -> round.addEntrant(third));
+    }
+
+    @Test
+    void newBracket_hasEntrantResult_onlyAfterFirstResult() throws Exception {
+        SeededBracket<TestEntrant> round = createBracket(List.of(first, second, third, fourth));
+        assertFalse(round.hasEntrantResult(first));
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        assertFalse(round.hasEntrantResult(pairing.getFirst()));
+
+        round.declareWinner(pairing.getFirst(), pairing);
+        assertTrue(round.hasEntrantResult(pairing.getFirst()));
+        assertTrue(round.hasEntrantResult(pairing.getSecond()));
+    }
+}
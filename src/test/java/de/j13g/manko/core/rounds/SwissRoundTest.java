@@ -0,0 +1,251 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.RoundManager;
+import de.j13g.manko.core.exceptions.NoMorePairingsException;
+import de.j13g.manko.core.exceptions.UnfinishedPairingsException;
+import de.j13g.manko.core.formats.SwissFormat;
+import de.j13g.manko.core.managers.EntrantRegistry;
+import de.j13g.manko.core.persistence.JournaledRoundManager;
+import de.j13g.manko.core.persistence.RoundOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwissRoundTest extends RoundTest {
+
+    private SwissRound<TestEntrant> createRound(int entrantCount, int roundCount) {
+        ArrayList<TestEntrant> entrants = new ArrayList<>(entrantCount);
+        for (int i = 0; i < entrantCount; ++i)
+            entrants.add(createEntrant());
+        return new SwissRound<>(new EntrantRegistry<>(), entrants, roundCount);
+    }
+
+    private void playRound(SwissRound<TestEntrant> round) throws UnfinishedPairingsException {
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            round.declareWinner(random.nextBoolean() ? pairing.getFirst() : pairing.getSecond(), pairing);
+    }
+
+    /**
+     * Starts the pairings one by one, until the next pairing has to wait for results.
+     */
+    private List<Pairing<TestEntrant>> pairOneByOne(RoundManager<TestEntrant> manager) throws Exception {
+        ArrayList<Pairing<TestEntrant>> pairings = new ArrayList<>();
+        try {
+            while (true)
+                pairings.add(manager.nextPairing());
+        }
+        catch (UnfinishedPairingsException e) {
+            return pairings;
+        }
+    }
+
+    @Test
+    void newRound_pairAll_everyEntrantPairedOnce() throws Exception {
+        SwissRound<TestEntrant> round = createRound(8, 3);
+
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+
+        assertEquals(4, pairings.size());
+        assertEquals(round.getEntrants(), round.getPairedEntrants());
+        assertThrows(UnfinishedPairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void playedRounds_pairAll_noRematches() throws Exception {
+        SwissRound<TestEntrant> round = createRound(16, 5);
+
+        for (int i = 0; i < 5; ++i)
+            playRound(round);
+
+        assertTrue(round.isFinished());
+        assertEquals(5 * 8, round.getFinishedPairings().size());
+        assertThrows(NoMorePairingsException.class, round::nextPairing);
+    }
+
+    @Test
+    void playedRound_pairAll_pairsWithinScoreGroups() throws Exception {
+        SwissRound<TestEntrant> round = createRound(16, 2);
+        playRound(round);
+
+        for (Pairing<TestEntrant> pairing : round.pairAll())
+            assertEquals(round.getScore(pairing.getFirst()), round.getScore(pairing.getSecond()));
+    }
+
+    @Test
+    void oddEntrants_pairAll_lowestScoreWithoutByeGetsBye() throws Exception {
+        SwissRound<TestEntrant> round = createRound(5, 4);
+
+        HashSet<TestEntrant> byeEntrants = new HashSet<>();
+        for (int i = 0; i < 4; ++i) {
+            HashSet<TestEntrant> unpaired = new HashSet<>(round.getEntrants());
+            int lowestScore = round.getEntrants().stream()
+                    .filter(entrant -> !byeEntrants.contains(entrant))
+                    .mapToInt(round::getScore).min().orElseThrow();
+
+            for (Pairing<TestEntrant> pairing : round.pairAll()) {
+                unpaired.remove(pairing.getFirst());
+                unpaired.remove(pairing.getSecond());
+                round.declareWinner(pairing.getFirst(), pairing);
+            }
+
+            assertEquals(1, unpaired.size());
+            TestEntrant byeEntrant = unpaired.iterator().next();
+            assertTrue(byeEntrants.add(byeEntrant));
+            assertTrue(round.hadBye(byeEntrant));
+            assertEquals(lowestScore, round.getScore(byeEntrant) - SwissRound.BYE_POINTS);
+        }
+    }
+
+    @Test
+    void allOpponentsPlayed_pairAll_entrantsSitOut() throws Exception {
+        SwissRound<TestEntrant> round = createRound(4, 4);
+        for (int i = 0; i < 3; ++i)
+            playRound(round);
+
+        assertThrows(NoMorePairingsException.class, round::pairAll);
+        assertTrue(round.isFinished());
+        assertEquals(3 * 2, round.getFinishedPairings().size());
+        assertEquals(3 * 2 * SwissRound.WIN_POINTS, round.getEntrants().stream().mapToInt(round::getScore).sum());
+    }
+
+    @Test
+    void tie_declareTie_bothScore() throws Exception {
+        SwissRound<TestEntrant> round = createRound(2, 1);
+        Pairing<TestEntrant> pairing = round.nextPairing();
+
+        round.declareTie(pairing);
+
+        assertEquals(SwissRound.TIE_POINTS, round.getScore(pairing.getFirst()));
+        assertEquals(SwissRound.TIE_POINTS, round.getScore(pairing.getSecond()));
+        assertTrue(round.isFinished());
+        assertEquals(Placement.NONE, round.getPlacement(pairing.getFirst()));
+    }
+
+    @Test
+    void activePairing_removeEntrant_opponentWins() throws Exception {
+        SwissRound<TestEntrant> round = createRound(4, 2);
+        Pairing<TestEntrant> pairing = round.nextPairing();
+
+        round.removeEntrant(pairing.getFirst());
+
+        assertEquals(SwissRound.WIN_POINTS, round.getScore(pairing.getSecond()));
+        assertFalse(round.isEntrantPaired(pairing.getSecond()));
+    }
+
+    @Test
+    void finishedPairing_replayPairing_resultTakenBack() throws Exception {
+        SwissRound<TestEntrant> round = createRound(2, 1);
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        round.declareWinner(pairing.getFirst());
+
+        assertTrue(round.replayPairing(pairing));
+
+        assertEquals(0, round.getScore(pairing.getFirst()));
+        assertTrue(round.isEntrantPaired(pairing.getFirst()));
+
+        round.declareWinner(pairing.getSecond());
+        assertEquals(Placement.FIRST, round.getPlacement(pairing.getSecond()));
+    }
+
+    @Test
+    void manyEntrants_pairAll_noRematches() throws Exception {
+        SwissRound<TestEntrant> round = createRound(1000, 9);
+
+        for (int i = 0; i < 9; ++i)
+            playRound(round);
+
+        assertTrue(round.isFinished());
+        assertEquals(9 * 500, round.getFinishedPairings().size());
+    }
+
+    @Test
+    void newRound_hasEntrantResult_onlyAfterFirstResult() throws Exception {
+        SwissRound<TestEntrant> round = createRound(4, 2);
+        TestEntrant entrant = round.getEntrants().iterator().next();
+        assertFalse(round.hasEntrantResult(entrant));
+
+        Pairing<TestEntrant> pairing = round.pairAll().get(0);
+        assertFalse(round.hasEntrantResult(pairing.getFirst()));
+
+        round.declareWinner(pairing.getFirst(), pairing);
+        assertTrue(round.hasEntrantResult(pairing.getFirst()));
+        assertTrue(round.hasEntrantResult(pairing.getSecond()));
+    }
+
+    @Test
+    void unknownEntrant_hasStateAbout_false() {
+        SwissRound<TestEntrant> round = createRound(4, 2);
+
+        assertFalse(round.hasStateAbout(invalidEntrant));
+        assertFalse(round.hasEntrantResult(invalidEntrant));
+    }
+
+    @Test
+    void removedEntrant_hasStateAbout_true() {
+        SwissRound<TestEntrant> round = createRound(4, 2);
+        TestEntrant entrant = round.getEntrants().iterator().next();
+
+        round.removeEntrant(entrant);
+
+        assertTrue(round.hasStateAbout(entrant));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 5, 6, 7 })
+    void recordedJournal_apply_sameScoresAndByes(int entrantCount) throws Exception {
+        SwissFormat<TestEntrant> format = new SwissFormat<>(3);
+        Tournament<TestEntrant> tournament = new Tournament<>(format);
+        ArrayList<RoundOperation<TestEntrant>> journal = new ArrayList<>();
+        JournaledRoundManager<TestEntrant> manager = new JournaledRoundManager<>(tournament, journal::add);
+
+        for (int i = 0; i < entrantCount; ++i)
+            manager.addEntrant(createEntrant());
+
+        SwissRound<TestEntrant> round = (SwissRound<TestEntrant>) tournament.getCurrentRound();
+        for (int i = 0; !round.isFinished(); ++i) {
+            List<Pairing<TestEntrant>> pairings = i % 2 == 0 ? manager.pairAll() : pairOneByOne(manager);
+            for (Pairing<TestEntrant> pairing : pairings) {
+                if (random.nextInt(4) == 0)
+                    manager.declareTie(pairing);
+                else
+                    manager.declareWinner(random.nextBoolean() ? pairing.getFirst() : pairing.getSecond(), pairing);
+            }
+        }
+
+        Tournament<TestEntrant> replayed = new Tournament<>(format);
+        journal.forEach(operation -> operation.apply(replayed));
+
+        SwissRound<TestEntrant> replayedRound = (SwissRound<TestEntrant>) replayed.getCurrentRound();
+        assertTrue(replayedRound.isFinished());
+        assertEquals(round.getFinishedPairings(), replayedRound.getFinishedPairings());
+        for (TestEntrant entrant : round.getEntrants()) {
+            assertEquals(round.getScore(entrant), replayedRound.getScore(entrant));
+            assertEquals(round.hadBye(entrant), replayedRound.hadBye(entrant));
+        }
+    }
+
+    @Test
+    void pendingEntrants_startPairing_othersPairedWithoutThem() throws Exception {
+        SwissRound<TestEntrant> round = createRound(5, 2);
+        List<TestEntrant> entrants = new ArrayList<>(round.getEntrants());
+
+        Pairing<TestEntrant> pairing = new Pairing<>(entrants.get(0), entrants.get(1));
+        round.startPairing(pairing);
+        List<Pairing<TestEntrant>> pairings = round.pairAll();
+
+        assertEquals(1, pairings.size());
+        assertFalse(pairings.get(0).contains(entrants.get(0)));
+        assertFalse(pairings.get(0).contains(entrants.get(1)));
+        assertEquals(1, entrants.stream().filter(round::hadBye).count());
+        assertFalse(round.hadBye(entrants.get(0)) || round.hadBye(entrants.get(1)));
+    }
+}
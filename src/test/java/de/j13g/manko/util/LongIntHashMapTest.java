@@ -0,0 +1,55 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    private LongIntHashMap map;
+
+    @BeforeEach
+    void init() {
+        map = new LongIntHashMap();
+    }
+
+    @Test
+    void emptyMap_putExistingKey_valueReplaced() {
+        assertTrue(map.put(7, 1));
+        assertFalse(map.put(7, 2));
+        assertEquals(2, map.get(7, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void emptyMap_get_defaultValue() {
+        assertEquals(-1, map.get(0, -1));
+        assertEquals(-1, map.get(7, -1));
+    }
+
+    @Test
+    void emptyMap_putAndRemoveKeys_sameAsHashMap() {
+        Random random = new Random(42);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; ++i) {
+            long key = (long) random.nextInt(64) << 32 | random.nextInt(64);
+            if (random.nextBoolean()) {
+                assertEquals(!expected.containsKey(key), map.put(key, i));
+                expected.put(key, i);
+            }
+            else {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet())
+            assertEquals(entry.getValue(), map.get(entry.getKey(), -1));
+    }
+}
@@ -0,0 +1,58 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void emptyBuffer_pop_throwsNoSuchElementException() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+
+        assertTrue(buffer.isEmpty());
+        assertThrows(NoSuchElementException.class, buffer::pop);
+    }
+
+    @Test
+    void pushedElements_pop_newestFirst() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        buffer.push(1);
+        buffer.push(2);
+
+        assertEquals(2, buffer.pop());
+        assertEquals(1, buffer.pop());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void fullBuffer_push_oldestDropped() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        for (int i = 1; i <= 3; ++i)
+            assertFalse(buffer.push(i));
+
+        assertTrue(buffer.push(4));
+        assertTrue(buffer.push(5));
+
+        assertEquals(3, buffer.size());
+        assertEquals(5, buffer.pop());
+        assertEquals(4, buffer.pop());
+        assertEquals(3, buffer.pop());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void wrappedBuffer_clear_empty() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        for (int i = 0; i < 5; ++i)
+            buffer.push(i);
+
+        buffer.clear();
+        buffer.push(7);
+
+        assertEquals(1, buffer.size());
+        assertEquals(7, buffer.peek());
+    }
+}
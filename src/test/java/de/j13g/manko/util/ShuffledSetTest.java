@@ -44,13 +44,13 @@ public class ShuffledSetTest {
     void removeThenAddElement_removeRandomElements_getSingleElement() {
         singleElementSet.remove(element);
         singleElementSet.add(element);
-        assertDoesNotThrow(singleElementSet::removeRandom);
+        assertDoesNotThrow(() -> singleElementSet.removeRandom());
         assertThrows(EmptySetException.class, singleElementSet::removeRandom);
     }
 
     @Test
     void singleElementSet_removeRandom_isEmpty() {
-        assertDoesNotThrow(singleElementSet::removeRandom);
+        assertDoesNotThrow(() -> singleElementSet.removeRandom());
         assertTrue(singleElementSet.isEmpty());
     }
 
@@ -83,7 +83,7 @@ public class ShuffledSetTest {
     void multipleElements_removeRandom_isRandom() {
         assertSuppliesAll(elements, () -> {
             ShuffledSet<Integer> set = new ShuffledSet<>(elements);
-            return assertDoesNotThrow(set::removeRandom);
+            return assertDoesNotThrow(() -> set.removeRandom());
         });
     }
 
@@ -92,4 +92,44 @@ public class ShuffledSetTest {
         multiElementSet.remove(element);
         assertSerializable(multiElementSet, ShuffledSet.class);
     }
+
+    @Test
+    void repeatedlyAddAndRemove_removeRandom_onlyLiveElements() {
+        for (int i = 0; i < 1000; ++i) {
+            singleElementSet.add(i + 100);
+            singleElementSet.remove(i + 100);
+        }
+
+        assertEquals(1, singleElementSet.size());
+        assertEquals(element, assertDoesNotThrow(() -> singleElementSet.removeRandom()));
+        assertThrows(EmptySetException.class, singleElementSet::removeRandom);
+    }
+
+    @Test
+    void removeRandomElements_remainingElements_consistent() {
+        Set<Integer> remaining = new HashSet<>(elements);
+        while (!multiElementSet.isEmpty()) {
+            Integer removed = assertDoesNotThrow(() -> multiElementSet.removeRandom());
+            assertTrue(remaining.remove(removed));
+            assertEquals(remaining, multiElementSet.elements());
+        }
+    }
+
+    @Test
+    void multipleElements_removeRandomCount_removesDistinctElements() {
+        List<Integer> removed = multiElementSet.removeRandom(elements.size() - 1);
+
+        Set<Integer> remaining = new HashSet<>(elements);
+        removed.forEach(remaining::remove);
+
+        assertEquals(elements.size() - 1, new HashSet<>(removed).size());
+        assertEquals(remaining, multiElementSet.elements());
+        assertTrue(multiElementSet.removeRandom(0).isEmpty());
+    }
+
+    @Test
+    void multipleElements_removeRandomMoreThanSize_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> multiElementSet.removeRandom(elements.size() + 1));
+        assertEquals(elements.size(), multiElementSet.size());
+    }
 }
@@ -0,0 +1,72 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static de.j13g.manko.Helper.serializeDeserialize;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniformPairBiSetTest {
+
+    private final Integer first = 1;
+    private final Integer second = 2;
+    private final Integer third = 3;
+
+    private final UniformPair<Integer> firstPair = new UniformPair<>(first, second);
+    private final UniformPair<Integer> secondPair = new UniformPair<>(first, third);
+    private final UniformPair<Integer> thirdPair = new UniformPair<>(second, third);
+
+    private UniformPairBiSet<Integer, UniformPair<Integer>> set;
+
+    @BeforeEach
+    void init() {
+        set = new UniformPairBiSet<>();
+        set.add(firstPair);
+        set.add(secondPair);
+        set.add(thirdPair);
+    }
+
+    @Test
+    void multiplePairs_findLastByElement_returnsLastAddedPair() {
+        assertEquals(secondPair, set.findLastByElement(first));
+        assertEquals(thirdPair, set.findLastByElement(second));
+        assertNull(set.findLastByElement(4));
+    }
+
+    @Test
+    void multiplePairs_removeLastPair_previousPairIsLast() {
+        set.remove(secondPair);
+        assertEquals(firstPair, set.findLastByElement(first));
+        assertEquals(thirdPair, set.findLastByElement(third));
+    }
+
+    @Test
+    void multiplePairs_removeAndAddFirstPair_firstPairIsLast() {
+        set.remove(firstPair);
+        set.add(firstPair);
+        assertEquals(firstPair, set.findLastByElement(first));
+        assertEquals(firstPair, set.findLastByElement(second));
+        assertEquals(List.of(secondPair, firstPair), List.copyOf(set.findByElement(first)));
+    }
+
+    @Test
+    void multiplePairs_removeByElement_noPairsLeft() {
+        set.removeByElement(first);
+        assertNull(set.findLastByElement(first));
+        assertEquals(thirdPair, set.findLastByElement(second));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void manyPairs_serializeDeserialize_sameLastPair() throws Exception {
+        for (int i = 4; i < 10000; ++i)
+            set.add(new UniformPair<>(first, i));
+
+        var copy = serializeDeserialize(set, UniformPairBiSet.class);
+
+        assertEquals(set.elements(), copy.elements());
+        assertEquals(new UniformPair<>(first, 9999), copy.findLastByElement(first));
+    }
+}